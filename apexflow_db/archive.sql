@@ -0,0 +1,21 @@
+-- 冷数据归档表：与热表同结构（CREATE TABLE ... LIKE 复制列定义和索引，不复制外键），
+-- 行按原主键从热表搬迁，由ArchiveService分批写入
+
+CREATE TABLE apexflow_order_archive LIKE apexflow_order;
+CREATE TABLE apexflow_order_item_archive LIKE apexflow_order_item;
+CREATE TABLE apexflow_logistics_archive LIKE apexflow_logistics;
+CREATE TABLE apexflow_income_archive LIKE apexflow_income;
+CREATE TABLE apexflow_after_sales_archive LIKE apexflow_after_sales;
+CREATE TABLE apexflow_review_archive LIKE apexflow_review;
+CREATE TABLE apexflow_inventory_log_archive LIKE apexflow_inventory_log;
+
+-- 归档表只按订单号/商品ID回读
+ALTER TABLE apexflow_order_item_archive ADD INDEX idx_order_item_archive_order (order_id);
+ALTER TABLE apexflow_income_archive ADD INDEX idx_income_archive_order (order_id);
+ALTER TABLE apexflow_after_sales_archive ADD INDEX idx_after_sales_archive_order (order_id);
+ALTER TABLE apexflow_review_archive ADD INDEX idx_review_archive_order (order_id);
+ALTER TABLE apexflow_inventory_log_archive ADD INDEX idx_inventory_log_archive_product (product_id, created_at);
+
+-- 热表归档查询使用的索引
+ALTER TABLE apexflow_order ADD INDEX idx_order_status_created (status, created_at);
+ALTER TABLE apexflow_inventory_log ADD INDEX idx_inventory_log_created (created_at);
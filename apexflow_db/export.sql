@@ -0,0 +1,5 @@
+-- 数据导出按时间范围流式读取，按 (时间, id) 顺序输出；
+-- 库存日志的 idx_inventory_log_created 已在 archive.sql 中创建
+
+ALTER TABLE apexflow_order ADD INDEX idx_order_created (created_at);
+ALTER TABLE apexflow_income ADD INDEX idx_income_transaction_time (transaction_time);
@@ -6,7 +6,8 @@ CREATE TABLE apexflow_product (
     stock INT DEFAULT 0 COMMENT '库存数量',
     status TINYINT DEFAULT 1 COMMENT '状态：1-上架，0-下架',
     image VARCHAR(200) COMMENT '主图URL',
-    created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间'
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    version INT NOT NULL DEFAULT 0 COMMENT '行版本，每次更新自增，用于条件请求的ETag'
 ) COMMENT='商品信息表';
 
 CREATE TABLE apexflow_inventory_log (
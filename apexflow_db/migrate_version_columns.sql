@@ -0,0 +1,27 @@
+-- 升级已有数据库：为订单表、商品表补充行版本列 version（新建库的 orders.sql / inventory.sql 已包含该列）
+-- 归档表按 CREATE TABLE ... LIKE 复制热表结构，一并补齐，保持与新建库一致
+-- 可重复执行：列已存在时跳过（MySQL不支持 ADD COLUMN IF NOT EXISTS，按 information_schema 判断）
+
+DROP PROCEDURE IF EXISTS apexflow_add_version_column;
+
+DELIMITER //
+CREATE PROCEDURE apexflow_add_version_column(IN target_table VARCHAR(64))
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.TABLES
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = target_table)
+       AND NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS
+                       WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = target_table AND COLUMN_NAME = 'version') THEN
+        SET @ddl = CONCAT('ALTER TABLE `', target_table, '` ADD COLUMN version INT NOT NULL DEFAULT 0 ',
+                          'COMMENT ''行版本，每次更新自增，用于条件请求的ETag''');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+DELIMITER ;
+
+CALL apexflow_add_version_column('apexflow_order');
+CALL apexflow_add_version_column('apexflow_product');
+CALL apexflow_add_version_column('apexflow_order_archive');
+
+DROP PROCEDURE apexflow_add_version_column;
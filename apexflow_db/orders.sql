@@ -8,7 +8,8 @@ CREATE TABLE apexflow_order (
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '下单时间',
     paid_at DATETIME COMMENT '支付时间',
     shipped_at DATETIME COMMENT '发货时间',
-    completed_at DATETIME COMMENT '完成时间'
+    completed_at DATETIME COMMENT '完成时间',
+    version INT NOT NULL DEFAULT 0 COMMENT '行版本，每次更新自增，用于条件请求的ETag'
 ) COMMENT='订单主表';
 
 CREATE TABLE apexflow_order_item (
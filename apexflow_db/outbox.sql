@@ -0,0 +1,21 @@
+CREATE TABLE apexflow_outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '发件箱记录ID',
+    event_type VARCHAR(50) NOT NULL COMMENT '事件类型：OrderCreated、OrderPaid、OrderShipped、OrderCancelled',
+    aggregate_id VARCHAR(50) NOT NULL COMMENT '业务对象ID（订单号）',
+    idempotency_key VARCHAR(64) NOT NULL UNIQUE COMMENT '幂等键',
+    payload TEXT NOT NULL COMMENT '事件内容（JSON）',
+    status TINYINT DEFAULT 0 COMMENT '状态：0-待投递，1-已投递，2-失败',
+    attempts INT DEFAULT 0 COMMENT '已尝试投递次数',
+    next_attempt_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '下次投递时间',
+    last_error VARCHAR(500) COMMENT '最近一次失败原因',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '事件产生时间',
+    delivered_at DATETIME COMMENT '投递完成时间',
+    INDEX idx_outbox_due (status, next_attempt_at)
+) COMMENT='事务发件箱表';
+
+CREATE TABLE apexflow_event_receipt (
+    idempotency_key VARCHAR(64) NOT NULL COMMENT '事件幂等键',
+    handler VARCHAR(50) NOT NULL COMMENT '处理器名称',
+    processed_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '处理时间',
+    PRIMARY KEY (idempotency_key, handler)
+) COMMENT='事件处理回执表';
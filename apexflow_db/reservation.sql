@@ -0,0 +1,11 @@
+CREATE TABLE apexflow_stock_reservation (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '预留记录ID',
+    order_id VARCHAR(50) NOT NULL COMMENT '订单号',
+    product_id INT NOT NULL COMMENT '商品ID',
+    quantity INT NOT NULL COMMENT '预留数量',
+    status TINYINT DEFAULT 0 COMMENT '状态：0-预留中，1-已过期释放',
+    expires_at DATETIME NOT NULL COMMENT '预留到期时间',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    INDEX idx_reservation_order (order_id),
+    INDEX idx_reservation_status (status, expires_at)
+) COMMENT='待支付订单库存预留表';
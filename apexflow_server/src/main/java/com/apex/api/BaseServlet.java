@@ -1,15 +1,29 @@
 package com.apex.api;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 import com.apex.core.dto.ErrorResponse;
+import com.apex.util.ETags;
+import com.apex.util.RequestSummary;
+import com.apex.util.TableVersions;
+import com.apex.util.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,6 +34,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public abstract class BaseServlet extends HttpServlet {
 
     protected static final Logger logger = LoggerFactory.getLogger(BaseServlet.class);
+
+    /**
+     * 统计类ETag的有效时间窗口（毫秒）；表版本只覆盖本节点的写入，其他节点的写入最迟在窗口结束后可见
+     */
+    private static final long STATS_WINDOW_MILLIS =
+            Math.max(1000L, Long.getLong("apexflow.conditional.statsWindowMs", 30_000L));
+    /**
+     * 请求追踪中Servlet层片段的名称（匿名子类没有简单类名时使用全名）
+     */
+    private final String traceName = getClass().getSimpleName().isEmpty()
+            ? getClass().getName() : getClass().getSimpleName();
     // 修改这里：使用方法初始化，或者在构造函数中初始化
     protected final ObjectMapper objectMapper = createObjectMapper();
 
@@ -38,6 +63,200 @@ public abstract class BaseServlet extends HttpServlet {
         return mapper;
     }
 
+    /**
+     * 初始化时按web.xml上下文参数 apexflow.async.threadMode 配置业务线程模式，
+     * 未配置时使用同名系统属性；只有第一个初始化的Servlet的配置生效
+     */
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        String mode = config != null && config.getServletContext() != null
+                ? config.getServletContext().getInitParameter(WorkloadExecutors.THREAD_MODE_PROPERTY)
+                : null;
+        if (mode == null) {
+            mode = System.getProperty(WorkloadExecutors.THREAD_MODE_PROPERTY);
+        }
+        WorkloadExecutors.configure(WorkloadExecutors.ThreadMode.fromValue(mode));
+    }
+
+    /**
+     * 请求分发入口
+     * 异步模式开启且容器支持时，将请求交给对应负载分类的业务线程池处理，
+     * 容器线程立即释放；否则按原方式在容器线程上同步处理。
+     * 两种方式都在处理线程上记录一条请求汇总日志（RequestSummary），代替逐步的INFO日志，
+     * 并打开请求追踪（Tracer）：请求ID写入MDC和X-Request-Id响应头，采样到的请求记录各层耗时片段。
+     */
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+        WorkloadClass workload = null;
+        if (WorkloadExecutors.isEnabled() && req.isAsyncSupported()
+                && req.getDispatcherType() == DispatcherType.REQUEST) {
+            workload = classifyWorkload(req);
+        }
+
+        String requestId = Tracer.resolveRequestId(req.getHeader(Tracer.REQUEST_ID_HEADER));
+        resp.setHeader(Tracer.REQUEST_ID_HEADER, requestId);
+
+        if (workload == null) {
+            RequestSummary.begin(req.getMethod(), req.getRequestURI(), null, 0);
+            Tracer.begin(requestId, req.getMethod(), req.getRequestURI());
+            try (Tracer.Span ignored = Tracer.span(traceName)) {
+                super.service(req, resp);
+            } finally {
+                RequestSummary.end(resp.getStatus());
+                Tracer.end(resp.getStatus());
+            }
+            return;
+        }
+        dispatchAsync(req, resp, workload, requestId);
+    }
+
+    /**
+     * 判断请求所属的负载分类，子类按路径覆盖（如统计接口归入REPORT）
+     * @return 负载分类；返回null表示在容器线程上同步处理
+     */
+    protected WorkloadClass classifyWorkload(HttpServletRequest request) {
+        return WorkloadClass.FAST;
+    }
+
+    /**
+     * 异步执行请求
+     * 业务线程写入缓冲响应，完成后写回；超时或队列已满时直接返回503。
+     * 完成、超时、拒绝三者通过finished标记互斥，真实响应只会被写入一次。
+     */
+    private void dispatchAsync(HttpServletRequest req, HttpServletResponse resp, WorkloadClass workload,
+                               String requestId) throws IOException {
+        AsyncContext asyncContext = req.startAsync(req, resp);
+        asyncContext.setTimeout(workload.getTimeoutMillis());
+
+        AtomicBoolean finished = new AtomicBoolean(false);
+        AtomicReference<Future<?>> task = new AtomicReference<>();
+        BufferedResponse buffered = new BufferedResponse(resp);
+        long submittedAt = System.nanoTime();
+
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (!finished.compareAndSet(false, true)) {
+                    return;
+                }
+                WorkloadExecutors.recordTimeout(workload);
+                Future<?> running = task.get();
+                if (running != null) {
+                    running.cancel(true);
+                }
+                logger.warn("[API_ASYNC] Request timed out. Workload: {}, Method: {}, URI: {}, Timeout: {}ms",
+                        workload.getKey(), req.getMethod(), req.getRequestURI(), workload.getTimeoutMillis());
+                sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        "请求处理超时，请稍后重试", "REQUEST_TIMEOUT");
+                event.getAsyncContext().complete();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (finished.compareAndSet(false, true)) {
+                    logger.error("[API_ASYNC] Async request error. URI: {}", req.getRequestURI(), event.getThrowable());
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        Runnable handler = () -> {
+            if (finished.get()) {
+                // 排队期间已超时
+                return;
+            }
+            long startedAt = System.nanoTime();
+            RequestSummary.begin(req.getMethod(), req.getRequestURI(), workload.getKey(),
+                    startedAt - submittedAt);
+            // 追踪从提交时开始，排队等待作为第一个片段
+            Tracer.begin(requestId, req.getMethod(), req.getRequestURI(), submittedAt);
+            Tracer.record("queue.wait", workload.getKey(), submittedAt, startedAt);
+            try (Tracer.Span ignored = Tracer.span(traceName)) {
+                super.service(req, buffered);
+            } catch (Exception e) {
+                logger.error("[API_ASYNC] Handler failed. Workload: {}, URI: {}, Error: {}",
+                        workload.getKey(), req.getRequestURI(), e.getMessage(), e);
+                buffered.reset();
+                try {
+                    sendErrorResponse(buffered, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                            "服务器内部错误", "INTERNAL_SERVER_ERROR");
+                } catch (IOException ignored) {
+                    // 写入内存缓冲不会失败
+                }
+            }
+
+            RequestSummary.end(buffered.getStatus());
+            Tracer.end(buffered.getStatus());
+
+            if (finished.compareAndSet(false, true)) {
+                try {
+                    buffered.replayTo(resp);
+                } catch (IOException e) {
+                    logger.warn("[API_ASYNC] Failed to write response. URI: {}, Error: {}",
+                            req.getRequestURI(), e.getMessage());
+                } finally {
+                    asyncContext.complete();
+                }
+            }
+        };
+
+        try {
+            task.set(WorkloadExecutors.submit(workload, handler));
+        } catch (RejectedExecutionException e) {
+            if (finished.compareAndSet(false, true)) {
+                resp.setHeader("Retry-After", "1");
+                sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        "服务繁忙，请稍后重试", "SERVICE_OVERLOADED");
+                asyncContext.complete();
+            }
+        }
+    }
+
+    /**
+     * 条件请求：写入ETag，If-None-Match命中时返回304
+     * 调用方先用行版本等轻量信息拼出ETag，命中时直接返回，不再加载完整数据
+     *
+     * @param etag 版本标识，如 W/"order-ORD001-v3"
+     * @return true表示已返回304，调用方应直接结束处理
+     */
+    protected boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader("ETag", etag);
+        // 允许客户端缓存，但每次使用前都要带ETag回源校验
+        response.setHeader("Cache-Control", "private, no-cache");
+
+        if (ETags.matchesIfNoneMatch(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            logger.debug("[API_CONDITIONAL] Not modified. URI: {}, ETag: {}", request.getRequestURI(), etag);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 单行资源的ETag，基于行版本列
+     */
+    protected String rowVersionTag(String resource, Object id, long version) {
+        return "W/\"" + resource + "-" + id + "-v" + version + "\"";
+    }
+
+    /**
+     * 统计类资源的ETag，基于所读各表在本进程内的写入版本，加上启动标识和时间窗口
+     */
+    protected String tableVersionTag(String resource, String... tables) {
+        return "W/\"" + resource + "-" + TableVersions.bootId() + "-" + TableVersions.combined(tables)
+                + "-" + System.currentTimeMillis() / STATS_WINDOW_MILLIS + "\"";
+    }
+
     /**
      * Get request client IP address
      */
@@ -64,15 +283,19 @@ public abstract class BaseServlet extends HttpServlet {
 
     /**
      * Log incoming request details
+     * DEBUG only: the per-request summary event already records method, URI and timings
      */
     protected void logRequest(HttpServletRequest request) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
         String clientIp = getClientIp(request);
         String method = request.getMethod();
         String uri = request.getRequestURI();
         String queryString = request.getQueryString();
         String fullUrl = queryString != null ? uri + "?" + queryString : uri;
 
-        logger.info("[API_REQUEST] Incoming request. Method: {}, URL: {}, Client IP: {}, User-Agent: {}",
+        logger.debug("[API_REQUEST] Incoming request. Method: {}, URL: {}, Client IP: {}, User-Agent: {}",
                 method, fullUrl, clientIp, request.getHeader("User-Agent"));
 
         logger.debug("[API_REQUEST] Request headers - Content-Type: {}, Accept: {}, Content-Length: {}",
@@ -83,6 +306,7 @@ public abstract class BaseServlet extends HttpServlet {
 
     /**
      * Log response details
+     * Successful responses are logged at DEBUG; the summary event carries their status and duration
      */
     protected void logResponse(HttpServletRequest request, HttpServletResponse response,
                                long startTime, int statusCode) {
@@ -95,7 +319,7 @@ public abstract class BaseServlet extends HttpServlet {
 
         switch (logLevel) {
             case "INFO":
-                logger.info("[API_RESPONSE] Request completed. Method: {}, URI: {}, Status: {}, Duration: {}ms",
+                logger.debug("[API_RESPONSE] Request completed. Method: {}, URI: {}, Status: {}, Duration: {}ms",
                         method, uri, statusCode, duration);
                 break;
             case "WARN":
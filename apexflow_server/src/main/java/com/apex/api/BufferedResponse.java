@@ -0,0 +1,329 @@
+package com.apex.api;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 缓冲响应包装器
+ * 业务线程只写入本对象的内存缓冲区，不直接接触容器的响应对象；
+ * 处理完成后由BaseServlet在确认请求未超时的前提下调用replayTo()一次性写回。
+ * 这样超时后容器回收的响应对象不会被业务线程继续写入。
+ */
+class BufferedResponse extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final List<Cookie> cookies = new ArrayList<>();
+
+    private int status = SC_OK;
+    private Integer errorStatus;
+    private String errorMessage;
+    private String redirectLocation;
+    private String contentType;
+    private String characterEncoding;
+    private final String defaultCharacterEncoding;
+
+    private PrintWriter writer;
+    private ServletOutputStream outputStream;
+
+    BufferedResponse(HttpServletResponse response) {
+        super(response);
+        // 在容器线程上取容器的默认编码，业务线程之后不再读取真实响应
+        String containerEncoding = response.getCharacterEncoding();
+        this.defaultCharacterEncoding = containerEncoding != null
+                ? containerEncoding : StandardCharsets.ISO_8859_1.name();
+    }
+
+    /**
+     * 将缓冲的状态码、响应头和响应体写入真实响应
+     */
+    void replayTo(HttpServletResponse target) throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        for (Cookie cookie : cookies) {
+            target.addCookie(cookie);
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                target.addHeader(header.getKey(), value);
+            }
+        }
+        if (characterEncoding != null) {
+            target.setCharacterEncoding(characterEncoding);
+        }
+        if (contentType != null) {
+            target.setContentType(contentType);
+        }
+
+        if (redirectLocation != null) {
+            target.sendRedirect(redirectLocation);
+            return;
+        }
+        if (errorStatus != null && body.size() == 0) {
+            if (errorMessage != null) {
+                target.sendError(errorStatus, errorMessage);
+            } else {
+                target.sendError(errorStatus);
+            }
+            return;
+        }
+
+        target.setStatus(errorStatus != null ? errorStatus : status);
+        target.setContentLength(body.size());
+        body.writeTo(target.getOutputStream());
+    }
+
+    // ========== 状态码 ==========
+
+    @Override
+    public void setStatus(int sc) {
+        this.status = sc;
+    }
+
+    @Override
+    public int getStatus() {
+        return errorStatus != null ? errorStatus : status;
+    }
+
+    @Override
+    public void sendError(int sc) {
+        this.errorStatus = sc;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) {
+        this.errorStatus = sc;
+        this.errorMessage = msg;
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        this.redirectLocation = location;
+    }
+
+    // ========== 响应头 ==========
+
+    @Override
+    public void setHeader(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatDate(date));
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return values == null ? new ArrayList<>() : new ArrayList<>(values);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return new ArrayList<>(headers.keySet());
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        cookies.add(cookie);
+    }
+
+    /**
+     * 与容器行为一致：Content-Type中的charset参数同时设置字符编码（getWriter()之后不再改变编码）
+     */
+    @Override
+    public void setContentType(String type) {
+        this.contentType = type;
+        String charset = charsetOf(type);
+        if (charset != null && writer == null) {
+            this.characterEncoding = charset;
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        if (writer == null) {
+            this.characterEncoding = charset;
+        }
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding != null ? characterEncoding : defaultCharacterEncoding;
+    }
+
+    private static String charsetOf(String type) {
+        if (type == null) {
+            return null;
+        }
+        for (String param : type.split(";")) {
+            String p = param.trim();
+            if (p.regionMatches(true, 0, "charset=", 0, 8)) {
+                String charset = p.substring(8).trim();
+                if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\"")) {
+                    charset = charset.substring(1, charset.length() - 1);
+                }
+                return charset.isEmpty() ? null : charset;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        // 长度在replayTo时按实际缓冲大小设置
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // 长度在replayTo时按实际缓冲大小设置
+    }
+
+    // ========== 响应体 ==========
+
+    @Override
+    public PrintWriter getWriter() {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(body, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException("Non-blocking write is not supported");
+                }
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+        body.reset();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        headers.clear();
+        cookies.clear();
+        status = SC_OK;
+        errorStatus = null;
+        errorMessage = null;
+        redirectLocation = null;
+        contentType = null;
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        // 整个响应体均在内存中缓冲
+    }
+
+    @Override
+    public int getBufferSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atOffset(ZoneOffset.UTC));
+    }
+}
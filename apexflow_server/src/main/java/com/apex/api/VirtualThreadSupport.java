@@ -0,0 +1,55 @@
+package com.apex.api;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程运行时探测
+ * 项目仍以Java 17编译，虚拟线程相关API（JDK 21+）只能通过反射调用；
+ * 运行在JDK 17上时isAvailable()返回false，调用方回退到平台线程池。
+ */
+final class VirtualThreadSupport {
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+
+    private VirtualThreadSupport() {
+    }
+
+    /**
+     * @return 当前JVM是否支持虚拟线程
+     */
+    static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建每任务一个虚拟线程的执行器，线程名为 prefix + 序号
+     * @throws IllegalStateException 当前JVM不支持虚拟线程
+     */
+    static ExecutorService newExecutor(String prefix) {
+        if (OF_VIRTUAL == null) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or later. Running: "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = lookup(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
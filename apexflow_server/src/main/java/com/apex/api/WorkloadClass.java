@@ -0,0 +1,71 @@
+package com.apex.api;
+
+/**
+ * 请求负载分类
+ * 每类负载拥有独立的有界线程池、队列上限和超时时间，
+ * 慢报表查询和批量操作不会占满普通增删改查所用的线程。
+ *
+ * 默认值可通过系统属性覆盖，例如：
+ * -Dapexflow.async.report.threads=4
+ * -Dapexflow.async.report.queue=20
+ * -Dapexflow.async.report.timeoutMs=60000
+ */
+public enum WorkloadClass {
+
+    /**
+     * 普通增删改查：下单、详情、列表等
+     */
+    FAST("fast", 32, 200, 10_000L),
+
+    /**
+     * 统计报表类查询
+     */
+    REPORT("report", 4, 20, 60_000L),
+
+    /**
+     * 批量导入导出等长时间操作
+     */
+    BULK("bulk", 2, 4, 300_000L);
+
+    private static final String PROPERTY_PREFIX = "apexflow.async.";
+
+    private final String key;
+    private final int threads;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    WorkloadClass(String key, int defaultThreads, int defaultQueueCapacity, long defaultTimeoutMillis) {
+        this.key = key;
+        this.threads = Integer.getInteger(PROPERTY_PREFIX + key + ".threads", defaultThreads);
+        this.queueCapacity = Integer.getInteger(PROPERTY_PREFIX + key + ".queue", defaultQueueCapacity);
+        this.timeoutMillis = Long.getLong(PROPERTY_PREFIX + key + ".timeoutMs", defaultTimeoutMillis);
+    }
+
+    /**
+     * @return 用于线程命名和指标输出的简称
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return 线程池固定线程数
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return 等待队列容量，超出后请求被拒绝（503）
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return 从进入队列到响应完成的最长时间（毫秒）
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,386 @@
+package com.apex.api;
+
+import com.apex.util.ConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按负载分类隔离的业务线程池
+ * 每个WorkloadClass对应一个固定大小、有界队列的命名线程池，
+ * 队列满时直接拒绝（由BaseServlet返回503），并记录队列深度、拒绝数和超时数。
+ *
+ * 可通过 -Dapexflow.async.enabled=false 关闭异步模式，所有请求回到容器线程同步处理。
+ *
+ * 线程模式（web.xml上下文参数或 -Dapexflow.async.threadMode）：
+ * platform - 默认，固定大小的平台线程池
+ * virtual  - 每个请求一个虚拟线程（需JDK 21+），并发上限仍为 threads + queue，
+ *            数据库访问由ConnectionPool的连接许可信号量限流
+ * auto     - 运行时支持虚拟线程则使用virtual，否则回退platform
+ */
+public final class WorkloadExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadExecutors.class);
+
+    public static final String THREAD_MODE_PROPERTY = "apexflow.async.threadMode";
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("apexflow.async.enabled", "true"));
+
+    /**
+     * 业务线程模式
+     */
+    public enum ThreadMode {
+        PLATFORM, VIRTUAL, AUTO;
+
+        /**
+         * 解析配置值，空值或无法识别时返回PLATFORM
+         */
+        public static ThreadMode fromValue(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return PLATFORM;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                logger.warn("[WORKLOAD_EXECUTOR] Unknown thread mode '{}', using platform", value);
+                return PLATFORM;
+            }
+        }
+    }
+
+    private static volatile Map<WorkloadClass, Pool> pools;
+    private static volatile ThreadMode activeMode;
+
+    private WorkloadExecutors() {
+    }
+
+    /**
+     * @return 是否启用异步执行模式
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 按指定模式创建线程池；线程池已创建时忽略（首次配置生效）
+     * 由BaseServlet.init()根据web.xml上下文参数调用。
+     */
+    public static synchronized void configure(ThreadMode mode) {
+        if (pools != null) {
+            if (resolve(mode) != activeMode) {
+                logger.warn("[WORKLOAD_EXECUTOR] Executors already running in {} mode, ignoring requested mode {}",
+                        activeMode, mode);
+            }
+            return;
+        }
+        createPools(mode);
+    }
+
+    /**
+     * 关闭现有线程池并按新模式重建，用于基准测试对比不同线程模式
+     */
+    public static synchronized void reconfigure(ThreadMode mode) {
+        if (pools != null) {
+            shutdown();
+        }
+        createPools(mode);
+    }
+
+    /**
+     * @return 当前生效的线程模式（PLATFORM或VIRTUAL）
+     */
+    public static ThreadMode getActiveMode() {
+        pools();
+        return activeMode;
+    }
+
+    /**
+     * 提交任务到指定负载分类的线程池
+     * @throws RejectedExecutionException 队列已满或线程池已关闭
+     */
+    public static Future<?> submit(WorkloadClass workload, Runnable task) {
+        Pool pool = pools().get(workload);
+        try {
+            return pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            pool.rejected.increment();
+            logger.warn("[WORKLOAD_EXECUTOR] Task rejected. Workload: {}, Mode: {}, Active: {}, Queue: {}/{}",
+                    workload.getKey(), pool.mode(), pool.activeThreads(),
+                    pool.queueDepth(), workload.getQueueCapacity());
+            throw e;
+        }
+    }
+
+    /**
+     * 记录一次请求超时
+     */
+    public static void recordTimeout(WorkloadClass workload) {
+        pools().get(workload).timedOut.increment();
+    }
+
+    /**
+     * 获取指定负载分类当前的队列深度
+     */
+    public static int queueDepth(WorkloadClass workload) {
+        return pools().get(workload).queueDepth();
+    }
+
+    /**
+     * 获取所有线程池的运行指标
+     * @return 以负载分类简称为键的指标表
+     */
+    public static Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Map.Entry<WorkloadClass, Pool> entry : pools().entrySet()) {
+            WorkloadClass workload = entry.getKey();
+            Pool pool = entry.getValue();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("mode", pool.mode().name().toLowerCase(Locale.ROOT));
+            stats.put("threads", workload.getThreads());
+            stats.put("activeThreads", pool.activeThreads());
+            stats.put("queueDepth", pool.queueDepth());
+            stats.put("queueCapacity", workload.getQueueCapacity());
+            stats.put("completedTasks", pool.completedTasks());
+            stats.put("rejectedTasks", pool.rejected.sum());
+            stats.put("timedOutTasks", pool.timedOut.sum());
+            stats.put("timeoutMs", workload.getTimeoutMillis());
+            if (pool.mode() == ThreadMode.VIRTUAL) {
+                stats.put("connectionPermitWaiters", ConnectionPool.getPermitWaiters());
+            }
+            result.put(workload.getKey(), stats);
+        }
+        return result;
+    }
+
+    /**
+     * 关闭所有线程池，等待正在执行的任务结束
+     */
+    public static synchronized void shutdown() {
+        Map<WorkloadClass, Pool> current = pools;
+        if (current == null) {
+            return;
+        }
+        pools = null;
+        for (Map.Entry<WorkloadClass, Pool> entry : current.entrySet()) {
+            ExecutorService executor = entry.getValue().executor();
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            logger.info("[WORKLOAD_EXECUTOR] Executor shut down. Workload: {}", entry.getKey().getKey());
+        }
+    }
+
+    private static Map<WorkloadClass, Pool> pools() {
+        Map<WorkloadClass, Pool> current = pools;
+        if (current == null) {
+            synchronized (WorkloadExecutors.class) {
+                if (pools == null) {
+                    createPools(ThreadMode.fromValue(System.getProperty(THREAD_MODE_PROPERTY)));
+                }
+                current = pools;
+            }
+        }
+        return current;
+    }
+
+    private static ThreadMode resolve(ThreadMode mode) {
+        if (mode == ThreadMode.AUTO) {
+            return VirtualThreadSupport.isAvailable() ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM;
+        }
+        return mode;
+    }
+
+    private static void createPools(ThreadMode requested) {
+        ThreadMode mode = resolve(requested);
+        if (mode == ThreadMode.VIRTUAL && !VirtualThreadSupport.isAvailable()) {
+            logger.warn("[WORKLOAD_EXECUTOR] Virtual threads unavailable on Java {}, falling back to platform threads",
+                    System.getProperty("java.version"));
+            mode = ThreadMode.PLATFORM;
+        }
+        if (mode == ThreadMode.VIRTUAL) {
+            ConnectionPool.enableConnectionPermits();
+        }
+
+        Map<WorkloadClass, Pool> created = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            created.put(workload, mode == ThreadMode.VIRTUAL ? new VirtualPool(workload) : new PlatformPool(workload));
+        }
+        activeMode = mode;
+        pools = created;
+        logger.info("[WORKLOAD_EXECUTOR] Thread mode: {} (requested: {})", mode, requested);
+    }
+
+    /**
+     * 单个负载分类的执行器及计数器
+     */
+    private abstract static class Pool {
+        final LongAdder rejected = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+
+        abstract ThreadMode mode();
+
+        abstract ExecutorService executor();
+
+        abstract Future<?> submit(Runnable task);
+
+        abstract int activeThreads();
+
+        abstract int queueDepth();
+
+        abstract long completedTasks();
+    }
+
+    /**
+     * 固定大小平台线程池 + 有界队列
+     */
+    private static final class PlatformPool extends Pool {
+        private final ThreadPoolExecutor executor;
+
+        PlatformPool(WorkloadClass workload) {
+            AtomicInteger sequence = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(
+                    workload.getThreads(), workload.getThreads(),
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(workload.getQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "apexflow-" + workload.getKey() + "-" + sequence.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+
+            logger.info("[WORKLOAD_EXECUTOR] Executor created. Workload: {}, Threads: {}, Queue: {}, Timeout: {}ms",
+                    workload.getKey(), workload.getThreads(), workload.getQueueCapacity(),
+                    workload.getTimeoutMillis());
+        }
+
+        @Override
+        ThreadMode mode() {
+            return ThreadMode.PLATFORM;
+        }
+
+        @Override
+        ExecutorService executor() {
+            return executor;
+        }
+
+        @Override
+        Future<?> submit(Runnable task) {
+            return executor.submit(task);
+        }
+
+        @Override
+        int activeThreads() {
+            return executor.getActiveCount();
+        }
+
+        @Override
+        int queueDepth() {
+            return executor.getQueue().size();
+        }
+
+        @Override
+        long completedTasks() {
+            return executor.getCompletedTaskCount();
+        }
+    }
+
+    /**
+     * 每任务一个虚拟线程，准入信号量限制同时在途的请求数（threads + queue），
+     * 超出即拒绝，与平台线程池的503降级行为一致
+     */
+    private static final class VirtualPool extends Pool {
+        private final ExecutorService executor;
+        private final Semaphore admission;
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+
+        VirtualPool(WorkloadClass workload) {
+            this.executor = VirtualThreadSupport.newExecutor("apexflow-" + workload.getKey() + "-");
+            this.admission = new Semaphore(workload.getThreads() + workload.getQueueCapacity());
+
+            logger.info("[WORKLOAD_EXECUTOR] Virtual executor created. Workload: {}, Max in-flight: {}, Timeout: {}ms",
+                    workload.getKey(), workload.getThreads() + workload.getQueueCapacity(),
+                    workload.getTimeoutMillis());
+        }
+
+        @Override
+        ThreadMode mode() {
+            return ThreadMode.VIRTUAL;
+        }
+
+        @Override
+        ExecutorService executor() {
+            return executor;
+        }
+
+        @Override
+        Future<?> submit(Runnable task) {
+            if (!admission.tryAcquire()) {
+                throw new RejectedExecutionException("Too many in-flight tasks");
+            }
+            // done()在正常结束和排队期间被取消时都会回调，保证许可只归还一次
+            FutureTask<Void> future = new FutureTask<Void>(() -> {
+                running.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, null) {
+                @Override
+                protected void done() {
+                    completed.increment();
+                    admission.release();
+                }
+            };
+            try {
+                executor.execute(future);
+            } catch (RejectedExecutionException e) {
+                admission.release();
+                throw e;
+            }
+            return future;
+        }
+
+        @Override
+        int activeThreads() {
+            return running.get();
+        }
+
+        @Override
+        int queueDepth() {
+            // 虚拟线程没有等待队列，等待数据库连接的请求体现在connectionPermitWaiters中
+            return 0;
+        }
+
+        @Override
+        long completedTasks() {
+            return completed.sum();
+        }
+    }
+}
@@ -8,8 +8,9 @@ public class ApexFlowDBInfo {
     // 默认使用H2内存数据库进行测试
     private static final boolean USE_H2 = Boolean.parseBoolean(System.getProperty("apexflow.test.h2", "false"));
 
-    // H2内存数据库配置
-    private static final String H2_URL = "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=MySQL";
+    // H2内存数据库配置（可用 -Dapexflow.test.h2.url 改为文件库，供大数据量测试在小堆内存下运行）
+    private static final String H2_URL = System.getProperty("apexflow.test.h2.url",
+            "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=MySQL");
     private static final String H2_NAME = "sa";
     private static final String H2_PASSWORD = "";
 
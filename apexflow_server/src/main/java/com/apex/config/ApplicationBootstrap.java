@@ -0,0 +1,321 @@
+package com.apex.config;
+
+import com.apex.api.WorkloadExecutors;
+import com.apex.core.dao.IncomeDAO;
+import com.apex.core.dao.OrderInfoDAO;
+import com.apex.core.dao.ProductDAO;
+import com.apex.core.dao.ProductSearchIndex;
+import com.apex.core.dao.RowMappers;
+import com.apex.core.dao.TableMapping;
+import com.apex.core.dao.UserDAO;
+import com.apex.core.dto.AdminUserDTO;
+import com.apex.core.event.OutboxDispatcher;
+import com.apex.core.reservation.StockReservations;
+import com.apex.core.service.LoginActivityRecorder;
+import com.apex.core.service.UserSearchIndex;
+import com.apex.util.ConnectionPool;
+import com.apex.util.PasswordHashExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 应用启动与停机阶段
+ *
+ * 启动时由后台线程依次执行以下阶段，全部完成前/api/health/ready返回503，负载均衡只把流量转发到已预热的实例：
+ * 1. pool    - 创建连接池并等待建立minimumIdle个连接
+ * 2. schema  - 校验所有映射的表和字段都存在
+ * 3. caches  - 加载商品和用户搜索索引
+ * 4. warmup  - 把主要的读取路径执行若干轮（JIT编译、预编译语句、数据库缓冲）
+ *
+ * pool或schema阶段失败时实例保持未就绪；缓存和预热阶段的问题只记录日志，因为这些路径会回退到数据库查询。
+ * 停机时先停止后台任务，最后关闭连接池。
+ *
+ * 上下文参数（web.xml），未配置时读取同名系统属性：
+ * apexflow.warmup.iterations           - 读取路径的预热轮数，默认20（0表示不预热）
+ * apexflow.bootstrap.poolFillTimeoutMs - 等待连接池填充的最长时间，默认10000
+ */
+@WebListener
+public class ApplicationBootstrap implements ServletContextListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationBootstrap.class);
+
+    public static final String WARMUP_ITERATIONS_PARAM = "apexflow.warmup.iterations";
+    public static final String POOL_FILL_TIMEOUT_PARAM = "apexflow.bootstrap.poolFillTimeoutMs";
+
+    private static final int DEFAULT_WARMUP_ITERATIONS = 20;
+    private static final long DEFAULT_POOL_FILL_TIMEOUT_MS = 10_000L;
+    private static final int WARMUP_PAGE_SIZE = 20;
+
+    /**
+     * 没有实体映射但运行时需要的表
+     */
+    private static final String[] UNMAPPED_TABLES = {"apexflow_event_receipt"};
+
+    /**
+     * 就绪检查接口返回的生命周期状态
+     */
+    public enum State {
+        STARTING, READY, FAILED, STOPPING
+    }
+
+    private static final AtomicReference<State> state = new AtomicReference<>(State.STARTING);
+    private static final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+    private static volatile String failure;
+    private static volatile long readyAt;
+    private static volatile int warmUpIterations;
+
+    private Thread bootstrapThread;
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        int iterations = (int) longParam(context, WARMUP_ITERATIONS_PARAM, DEFAULT_WARMUP_ITERATIONS);
+        long poolFillTimeout = longParam(context, POOL_FILL_TIMEOUT_PARAM, DEFAULT_POOL_FILL_TIMEOUT_MS);
+
+        // 不占用容器的启动线程，启动期间就绪检查接口仍可响应
+        Thread thread = new Thread(() -> startup(iterations, poolFillTimeout), "apexflow-bootstrap");
+        thread.setDaemon(true);
+        bootstrapThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        state.set(State.STOPPING);
+        logger.info("[BOOTSTRAP] Shutting down");
+
+        Thread thread = bootstrapThread;
+        if (thread != null && thread.isAlive()) {
+            thread.interrupt();
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 先停止会写数据库的后台任务（stop()均可重复调用），最后关闭连接池
+        StockReservations.shared().stop();
+        OutboxDispatcher.shared().stop();
+        LoginActivityRecorder.shared().stop();
+        ProductSearchIndex.shared().close();
+        WorkloadExecutors.shutdown();
+        PasswordHashExecutor.shutdown();
+        ConnectionPool.shutdown();
+        logger.info("[BOOTSTRAP] Shutdown completed");
+    }
+
+    /**
+     * 在调用线程上执行所有启动阶段
+     *
+     * @param iterations            读取路径的预热轮数
+     * @param poolFillTimeoutMillis 等待连接池达到minimumIdle的最长时间
+     * @return 应用已就绪返回true
+     */
+    public static boolean startup(int iterations, long poolFillTimeoutMillis) {
+        state.set(State.STARTING);
+        synchronized (phaseMillis) {
+            phaseMillis.clear();
+        }
+        failure = null;
+        readyAt = 0;
+        warmUpIterations = iterations;
+
+        long startTime = System.currentTimeMillis();
+        logger.info("[BOOTSTRAP] Starting. Warm-up iterations: {}, Pool fill timeout: {} ms",
+                iterations, poolFillTimeoutMillis);
+        try {
+            runPhase("pool", () -> ConnectionPool.warmUp(poolFillTimeoutMillis));
+            runPhase("schema", ApplicationBootstrap::validateSchema);
+            runPhase("caches", ApplicationBootstrap::preloadCaches);
+            runPhase("warmup", () -> warmUp(iterations));
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failure = e.getMessage();
+            if (state.compareAndSet(State.STARTING, State.FAILED)) {
+                logger.error("[BOOTSTRAP] Startup failed, instance will not report ready: {}", e.getMessage(), e);
+            }
+            return false;
+        }
+
+        if (!state.compareAndSet(State.STARTING, State.READY)) {
+            return false;
+        }
+        readyAt = System.currentTimeMillis();
+        logger.info("[BOOTSTRAP] Ready in {} ms. Phases: {}", readyAt - startTime, phaseTimings());
+        return true;
+    }
+
+    /**
+     * @return 所有启动阶段已完成且未在停机时返回true
+     */
+    public static boolean isReady() {
+        return state.get() == State.READY;
+    }
+
+    /**
+     * 就绪检查接口返回的详细信息
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        State current = state.get();
+        stats.put("status", current.name());
+        stats.put("ready", current == State.READY);
+        if (failure != null) {
+            stats.put("failure", failure);
+        }
+        if (readyAt > 0) {
+            stats.put("readyAt", readyAt);
+        }
+        stats.put("phasesMs", phaseTimings());
+        stats.put("warmUpIterations", warmUpIterations);
+
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("active", ConnectionPool.getActiveConnections());
+        pool.put("idle", ConnectionPool.getIdleConnections());
+        pool.put("total", ConnectionPool.getTotalConnections());
+        pool.put("minimumIdle", ConnectionPool.getMinimumIdle());
+        stats.put("pool", pool);
+        return stats;
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        void run() throws Exception;
+    }
+
+    private static void runPhase(String name, Phase phase) throws Exception {
+        if (Thread.currentThread().isInterrupted() || state.get() != State.STARTING) {
+            throw new InterruptedException("Startup interrupted before phase " + name);
+        }
+        long startTime = System.currentTimeMillis();
+        phase.run();
+        long duration = System.currentTimeMillis() - startTime;
+        synchronized (phaseMillis) {
+            phaseMillis.put(name, duration);
+        }
+        logger.info("[BOOTSTRAP] Phase {} completed in {} ms", name, duration);
+    }
+
+    private static Map<String, Long> phaseTimings() {
+        synchronized (phaseMillis) {
+            return new LinkedHashMap<>(phaseMillis);
+        }
+    }
+
+    /**
+     * 用每张映射表的完整字段列表查询0行，缺少表或字段时在这里失败，而不是在第一个请求时
+     */
+    static void validateSchema() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Connection conn = ConnectionPool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (TableMapping<?> mapping : RowMappers.all()) {
+                checkQuery(stmt, mapping.getTableName(), mapping.select("WHERE 1 = 0"), problems);
+            }
+            for (String table : UNMAPPED_TABLES) {
+                checkQuery(stmt, table, "SELECT 1 FROM " + table + " WHERE 1 = 0", problems);
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Schema validation failed: " + String.join("; ", problems));
+        }
+        logger.info("[BOOTSTRAP] Schema validated. Tables: {}", RowMappers.all().size() + UNMAPPED_TABLES.length);
+    }
+
+    private static void checkQuery(Statement stmt, String table, String sql, List<String> problems) {
+        try (ResultSet ignored = stmt.executeQuery(sql)) {
+            // 只需要元数据
+        } catch (SQLException e) {
+            problems.add(table + ": " + e.getMessage());
+            logger.error("[BOOTSTRAP] Schema check failed. Table: {}, Error: {}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * 加载内存搜索索引，索引可用之前搜索回退到数据库查询
+     */
+    private static void preloadCaches() {
+        ProductSearchIndex.shared().open();
+        if (!ProductSearchIndex.shared().isReady()) {
+            logger.warn("[BOOTSTRAP] Product search index not loaded, searches will use the database");
+        }
+        try {
+            UserSearchIndex.shared().build(new UserDAO());
+        } catch (RuntimeException e) {
+            logger.warn("[BOOTSTRAP] User search index not built: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 执行主要的列表、搜索、统计和权限查询，使这些代码路径在真实流量到来前完成编译、语句完成预编译，结果丢弃
+     */
+    private static void warmUp(int iterations) throws InterruptedException {
+        if (iterations <= 0) {
+            return;
+        }
+        ProductDAO productDAO = new ProductDAO();
+        OrderInfoDAO orderInfoDAO = new OrderInfoDAO();
+        IncomeDAO incomeDAO = new IncomeDAO();
+        UserDAO userDAO = new UserDAO();
+        List<AdminUserDTO> users = userDAO.findAdminUsersAfter(0, 1);
+        Integer userId = users.isEmpty() ? null : users.get(0).getId();
+
+        int failures = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Warm-up interrupted after " + i + " iterations");
+            }
+            try {
+                productDAO.findListItems(null, null, null, 1, WARMUP_PAGE_SIZE);
+                productDAO.count();
+                if (ProductSearchIndex.shared().isReady()) {
+                    ProductSearchIndex.shared().search("a", null, null, 1, WARMUP_PAGE_SIZE);
+                }
+                orderInfoDAO.findListItems(1, WARMUP_PAGE_SIZE);
+                orderInfoDAO.count();
+                incomeDAO.calculateTotalIncome();
+                incomeDAO.calculateTotalRefund();
+                if (userId != null) {
+                    userDAO.getPermissions(userId);
+                }
+            } catch (RuntimeException e) {
+                failures++;
+                logger.warn("[BOOTSTRAP] Warm-up iteration {} failed: {}", i, e.getMessage());
+            }
+        }
+        logger.info("[BOOTSTRAP] Warm-up finished. Iterations: {}, Failed: {}", iterations, failures);
+    }
+
+    private static long longParam(ServletContext context, String name, long defaultValue) {
+        String value = context != null ? context.getInitParameter(name) : null;
+        if (value == null) {
+            value = System.getProperty(name);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("[BOOTSTRAP] Invalid value '{}' for {}, using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+}
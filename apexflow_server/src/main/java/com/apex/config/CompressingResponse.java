@@ -0,0 +1,403 @@
+package com.apex.config;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.zip.Deflater;
+
+/**
+ * 按需gzip压缩响应体的包装器
+ *
+ * 在第一次写响应体时决定是否压缩：
+ * - 不可压缩（已编码、二进制类型、204/304）：原样写出
+ * - 事先声明了Content-Length（BaseServlet异步回放总会声明）：达到阈值则压缩，写满声明的字节数后立即写gzip尾部
+ * - 异步请求且长度未知：原样写出，否则没有人结束压缩流
+ * - 同步请求且长度未知：先缓冲到阈值；过滤器在调用链返回后调用finish()，小响应体不压缩并带上准确的Content-Length
+ * - 注册了WriteListener（非阻塞写出）：原样写出，isReady和监听器交给底层输出流
+ */
+class CompressingResponse extends HttpServletResponseWrapper {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private enum State { UNDECIDED, PASSTHROUGH, COMPRESSING, FINISHED }
+
+    private final HttpServletRequest request;
+    private final int minBytes;
+    private final DeflaterPool pool;
+
+    private State state = State.UNDECIDED;
+    private long declaredLength = -1;
+    private byte[] pending;
+    private int pendingCount;
+
+    private DeflaterPool.Slot slot;
+    private long rawBytes;
+
+    private boolean finishing;
+
+    private ServletOutputStream servletOutput;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CompressingResponse(HttpServletRequest request, HttpServletResponse response, int minBytes, DeflaterPool pool) {
+        super(response);
+        this.request = request;
+        this.minBytes = minBytes;
+        this.pool = pool;
+    }
+
+    // ========== 决定编码方式之前暂不写出Content-Length ==========
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (state == State.PASSTHROUGH) {
+            super.setContentLengthLong(len);
+        } else if (state == State.UNDECIDED) {
+            declaredLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name) && state != State.PASSTHROUGH) {
+            setContentLengthLong(Long.parseLong(value.trim()));
+            return;
+        }
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name) && state != State.PASSTHROUGH) {
+            setContentLengthLong(Long.parseLong(value.trim()));
+            return;
+        }
+        super.addHeader(name, value);
+    }
+
+    // ========== 响应体 ==========
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null && writer == null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            outputStream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+        if (state != State.UNDECIDED) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        discard();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        discard();
+        declaredLength = -1;
+    }
+
+    /**
+     * 结束响应体：缓冲中的小响应体原样写出，已压缩的写入gzip尾部
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            // 只把编码器中的字符写入压缩流，不在尾部之前写入sync-flush标记
+            finishing = true;
+            writer.flush();
+            finishing = false;
+        }
+        switch (state) {
+            case UNDECIDED:
+                state = State.PASSTHROUGH;
+                if (pendingCount > 0) {
+                    super.setContentLength(pendingCount);
+                    servletOutput().write(pending, 0, pendingCount);
+                }
+                break;
+            case COMPRESSING:
+                finishCompression();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 响应体未正常结束（请求中断）时归还Deflater
+     */
+    void releaseQuietly() {
+        if (slot != null) {
+            pool.release(slot);
+            slot = null;
+        }
+    }
+
+    private void discard() {
+        pendingCount = 0;
+        if (state == State.COMPRESSING) {
+            releaseQuietly();
+            rawBytes = 0;
+            state = State.UNDECIDED;
+        }
+    }
+
+    private ServletOutputStream servletOutput() throws IOException {
+        if (servletOutput == null) {
+            servletOutput = super.getOutputStream();
+        }
+        return servletOutput;
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        if (len <= 0) {
+            return;
+        }
+        switch (state) {
+            case UNDECIDED:
+                decide(b, off, len);
+                break;
+            case PASSTHROUGH:
+                servletOutput().write(b, off, len);
+                break;
+            case COMPRESSING:
+                deflate(b, off, len);
+                break;
+            default:
+                throw new IOException("Response body already completed");
+        }
+    }
+
+    private void decide(byte[] b, int off, int len) throws IOException {
+        if (!isCompressible()) {
+            startPassthrough();
+            servletOutput().write(b, off, len);
+            return;
+        }
+        if (declaredLength >= 0) {
+            if (declaredLength < minBytes) {
+                startPassthrough();
+                servletOutput().write(b, off, len);
+            } else {
+                startCompression();
+                deflate(b, off, len);
+            }
+            return;
+        }
+        if (request.isAsyncStarted()) {
+            startPassthrough();
+            servletOutput().write(b, off, len);
+            return;
+        }
+
+        if (pendingCount + len < minBytes) {
+            if (pending == null) {
+                pending = new byte[minBytes];
+            }
+            System.arraycopy(b, off, pending, pendingCount, len);
+            pendingCount += len;
+            return;
+        }
+        startCompression();
+        if (pendingCount > 0) {
+            int buffered = pendingCount;
+            pendingCount = 0;
+            deflate(pending, 0, buffered);
+        }
+        deflate(b, off, len);
+    }
+
+    private boolean isCompressible() {
+        int status = getStatus();
+        if (status == SC_NO_CONTENT || status == SC_NOT_MODIFIED || status < SC_OK) {
+            return false;
+        }
+        if (getHeader("Content-Encoding") != null) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                || type.contains("javascript") || type.contains("csv");
+    }
+
+    private void startPassthrough() {
+        state = State.PASSTHROUGH;
+        if (declaredLength >= 0) {
+            super.setContentLengthLong(declaredLength);
+        }
+    }
+
+    private void startCompression() throws IOException {
+        state = State.COMPRESSING;
+        super.setHeader("Content-Encoding", "gzip");
+        slot = pool.acquire();
+        servletOutput().write(GZIP_HEADER);
+    }
+
+    private void deflate(byte[] b, int off, int len) throws IOException {
+        Deflater deflater = slot.deflater;
+        slot.crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            drain(Deflater.NO_FLUSH);
+        }
+        rawBytes += len;
+        if (declaredLength >= 0 && rawBytes >= declaredLength) {
+            finishCompression();
+        }
+    }
+
+    private void syncFlush() throws IOException {
+        int written;
+        do {
+            written = drain(Deflater.SYNC_FLUSH);
+        } while (written == slot.buffer.length);
+    }
+
+    private int drain(int flush) throws IOException {
+        int written = slot.deflater.deflate(slot.buffer, 0, slot.buffer.length, flush);
+        if (written > 0) {
+            servletOutput().write(slot.buffer, 0, written);
+        }
+        return written;
+    }
+
+    private void finishCompression() throws IOException {
+        state = State.FINISHED;
+        try {
+            Deflater deflater = slot.deflater;
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain(Deflater.NO_FLUSH);
+            }
+            byte[] trailer = new byte[8];
+            writeIntLE(trailer, 0, (int) slot.crc.getValue());
+            writeIntLE(trailer, 4, (int) rawBytes);
+            servletOutput().write(trailer);
+        } finally {
+            releaseQuietly();
+        }
+    }
+
+    private static void writeIntLE(byte[] target, int offset, int value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >>> 8);
+        target[offset + 2] = (byte) (value >>> 16);
+        target[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private final class CompressingOutputStream extends ServletOutputStream {
+        private final byte[] single = new byte[1];
+
+        /**
+         * 原样写出时由底层输出流判断；压缩和缓冲都是阻塞写出，始终可写
+         */
+        @Override
+        public boolean isReady() {
+            if (state != State.PASSTHROUGH) {
+                return true;
+            }
+            try {
+                return servletOutput().isReady();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 非阻塞写出要求每次write前isReady都为true，而压缩一次write可能向底层流写出多段，
+         * 因此注册监听器后不再压缩，原样写出并交给底层输出流回调
+         *
+         * @throws IllegalStateException 响应体已开始压缩或缓冲
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (state == State.UNDECIDED && pendingCount == 0) {
+                startPassthrough();
+            } else if (state != State.PASSTHROUGH) {
+                throw new IllegalStateException("WriteListener must be set before the response body is written");
+            }
+            try {
+                servletOutput().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            CompressingResponse.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponse.this.write(b, off, len);
+        }
+
+        /**
+         * 流式输出（导出）会定期flush，把已压缩的部分推送给客户端
+         */
+        @Override
+        public void flush() throws IOException {
+            if (finishing) {
+                return;
+            }
+            if (state == State.COMPRESSING) {
+                syncFlush();
+            }
+            if (state != State.UNDECIDED) {
+                servletOutput().flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.apex.config;
+
+import javax.servlet.*;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * /api/* 响应gzip压缩过滤器
+ * 列表接口（订单、库存日志、收入、评价）返回的JSON重复度很高，客户端支持gzip时，
+ * 达到阈值的响应体压缩后返回；较小、二进制或已编码的响应体原样通过。
+ * 压缩器取自共享的DeflaterPool，不再为每个响应新建GZIPOutputStream。
+ * 只协商gzip：JDK没有Brotli编码器，动态响应不为此引入原生依赖；静态资源的.br文件由前端构建预先生成。
+ *
+ * 配置（系统属性）：
+ * apexflow.compression.minBytes - 压缩的最小响应体字节数，默认1024
+ * apexflow.compression.level    - zlib压缩级别1-9，默认5（以远低于9级的CPU开销获得大部分压缩率）
+ */
+@WebFilter(value = "/api/*", asyncSupported = true)
+public class CompressionFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionFilter.class);
+
+    static final int MIN_BYTES = Math.max(1, Integer.getInteger("apexflow.compression.minBytes", 1024));
+    private static final int LEVEL = Math.min(9, Math.max(1, Integer.getInteger("apexflow.compression.level", 5)));
+
+    private static final DeflaterPool POOL = new DeflaterPool(LEVEL, Runtime.getRuntime().availableProcessors() * 2);
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        logger.info("[COMPRESSION_FILTER] Initialized. Threshold: {} bytes, Level: {}", MIN_BYTES, LEVEL);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+        if (!StaticAssetServlet.accepts(httpRequest.getHeader("Accept-Encoding"), "gzip")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse(httpRequest, httpResponse, MIN_BYTES, POOL);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, compressing);
+            completed = true;
+        } finally {
+            if (httpRequest.isAsyncStarted()) {
+                // 响应体稍后由异步处理写出，写满声明的长度后自行结束
+                httpRequest.getAsyncContext().addListener(new ReleaseListener(compressing));
+            } else if (completed) {
+                compressing.finish();
+            } else {
+                compressing.releaseQuietly();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        logger.info("[COMPRESSION_FILTER] Destroyed");
+    }
+
+    /**
+     * 异步响应在响应体写完之前结束时，归还Deflater
+     */
+    private static final class ReleaseListener implements AsyncListener {
+        private final CompressingResponse response;
+
+        ReleaseListener(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            response.releaseQuietly();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            response.releaseQuietly();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.apex.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * 队列将满时只丢弃DEBUG和TRACE日志的AsyncAppender
+ * 默认的AsyncAppender同时会丢弃INFO，恰好在服务高负载、最需要请求汇总日志时把它们丢掉。
+ *
+ * 由logback-production.xml配合有界的queueSize和discardingThreshold使用；
+ * 设置neverBlock=true后，队列完全满时的日志直接丢弃，不阻塞请求线程。
+ */
+public class DebugDiscardingAsyncAppender extends AsyncAppender {
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        return event.getLevel().toInt() <= Level.DEBUG_INT;
+    }
+}
@@ -0,0 +1,53 @@
+package com.apex.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Deflater池（连同输出缓冲区和CRC32），在gzip响应之间复用
+ * 每个Deflater持有本地zlib状态（默认设置下约256KB），每个响应新建一个既占用本地内存又要等待回收；
+ * 空闲实例最多保留capacity个。
+ */
+final class DeflaterPool {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * 一个压缩器：nowrap模式的Deflater（gzip头尾由调用方写入）、输出缓冲区和校验和
+     */
+    static final class Slot {
+        final Deflater deflater;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final CRC32 crc = new CRC32();
+
+        Slot(int level) {
+            this.deflater = new Deflater(level, true);
+        }
+    }
+
+    private final int level;
+    private final ArrayBlockingQueue<Slot> idle;
+
+    DeflaterPool(int level, int capacity) {
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    Slot acquire() {
+        Slot slot = idle.poll();
+        return slot != null ? slot : new Slot(level);
+    }
+
+    void release(Slot slot) {
+        slot.deflater.reset();
+        slot.crc.reset();
+        if (!idle.offer(slot)) {
+            slot.deflater.end();
+        }
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+}
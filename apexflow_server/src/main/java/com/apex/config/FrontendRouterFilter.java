@@ -6,52 +6,71 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Vue Router History Mode Filter
  * Forwards all frontend routing requests to index.html, allowing Vue Router to handle routing
+ *
+ * The filter runs on every request, so classification works on the raw request URI without
+ * substrings, regexes or lowercasing: a switch on the length of the first path segment followed by
+ * region comparisons, then a perfect-hash lookup of the file extension.
  */
-@WebFilter("/*")
+@WebFilter(value = "/*", asyncSupported = true)
 public class FrontendRouterFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(FrontendRouterFilter.class);
 
-    // Static resource extensions (not forwarded)
-    private static final Set<String> STATIC_EXTENSIONS = new HashSet<>(Arrays.asList(
-            ".js", ".css", ".html", ".htm", ".json", ".xml",
-            ".jpg", ".jpeg", ".png", ".gif", ".svg", ".ico",
-            ".woff", ".woff2", ".ttf", ".eot", ".otf",
-            ".mp4", ".webm", ".mp3", ".wav", ".ogg"
-    ));
-
-    // Path prefixes that don't need processing
-    private static final Set<String> EXCLUDED_PREFIXES = new HashSet<>(Arrays.asList(
-            "/api/",        // API endpoints
-            "/assets/",     // Static assets
-            "/static/",     // Static resources
-            "/css/",        // CSS files
-            "/js/",         // JavaScript files
-            "/img/",        // Image files
-            "/upload/",     // Uploaded files
-            "/error",       // Error pages
-            "/favicon.ico"  // Favicon
-    ));
-
-    // Static file path pattern
-    private static final Pattern STATIC_FILE_PATTERN =
-            Pattern.compile(".*\\.(js|css|html|htm|json|xml|jpg|jpeg|png|gif|svg|ico|woff|woff2|ttf|eot|otf|mp4|webm|mp3|wav|ogg)$",
-                    Pattern.CASE_INSENSITIVE);
+    /**
+     * Request classes, counted per class
+     */
+    public enum RouteClass {
+        /** /api/* endpoints */
+        API,
+        /** Static resource directories (/assets/, /static/, /css/, /js/, /img/, /upload/) and /favicon.ico */
+        STATIC_PREFIX,
+        /** Any other path ending in a static file extension */
+        STATIC_FILE,
+        /** Error pages */
+        ERROR,
+        /** WebSocket upgrade requests */
+        WEBSOCKET,
+        /** Frontend routes forwarded to index.html */
+        FRONTEND
+    }
+
+    private static final RouteClass[] ROUTE_CLASSES = RouteClass.values();
+
+    // Static resource extensions (not forwarded), without the leading dot
+    private static final String[] STATIC_EXTENSIONS = {
+            "js", "css", "html", "htm", "json", "xml",
+            "jpg", "jpeg", "png", "gif", "svg", "ico",
+            "woff", "woff2", "ttf", "eot", "otf",
+            "mp4", "webm", "mp3", "wav", "ogg"
+    };
+
+    private static final int EXTENSION_TABLE_SIZE = 64;
+    private static final int MAX_EXTENSION_LENGTH = 5;
+    private static final String[] EXTENSION_TABLE = new String[EXTENSION_TABLE_SIZE];
+    private static final int EXTENSION_MULTIPLIER = buildExtensionTable();
+
+    private static final LongAdder[] COUNTERS = new LongAdder[ROUTE_CLASSES.length];
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+    }
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         logger.info("[FRONTEND_FILTER] FrontendRouterFilter initialized successfully");
-        logger.debug("[FRONTEND_FILTER] Static extensions registered: {}", STATIC_EXTENSIONS.size());
-        logger.debug("[FRONTEND_FILTER] Excluded prefixes: {}", EXCLUDED_PREFIXES);
+        logger.debug("[FRONTEND_FILTER] Static extensions registered: {}, hash multiplier: {}",
+                STATIC_EXTENSIONS.length, EXTENSION_MULTIPLIER);
     }
 
     @Override
@@ -62,51 +81,28 @@ public class FrontendRouterFilter implements Filter {
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
         String requestURI = httpRequest.getRequestURI();
-        String contextPath = httpRequest.getContextPath();
-        String path = requestURI.substring(contextPath.length());
-
-        logger.debug("[FRONTEND_FILTER] Processing request. URI: {}, Context Path: {}, Path: {}",
-                requestURI, contextPath, path);
-
-        // Check if path should be excluded
-        if (shouldExclude(path)) {
-            logger.debug("[FRONTEND_FILTER] Path is excluded from filtering. Path: {}", path);
-            chain.doFilter(request, response);
-            return;
-        }
-
-        // Check if it's a static resource
-        if (isStaticResource(path)) {
-            logger.debug("[FRONTEND_FILTER] Static resource detected. Path: {}", path);
-            chain.doFilter(request, response);
-            return;
-        }
-
-        // Check if it's an API request
-        if (path.startsWith("/api/")) {
-            logger.debug("[FRONTEND_FILTER] API request detected. Path: {}", path);
-            chain.doFilter(request, response);
-            return;
-        }
+        int offset = httpRequest.getContextPath().length();
 
-        // Check if it's an error page
-        if (path.startsWith("/error")) {
-            logger.debug("[FRONTEND_FILTER] Error page request. Path: {}", path);
-            chain.doFilter(request, response);
-            return;
+        RouteClass routeClass = classify(requestURI, offset);
+        if (routeClass == RouteClass.FRONTEND && isWebSocketRequest(httpRequest)) {
+            routeClass = RouteClass.WEBSOCKET;
         }
+        COUNTERS[routeClass.ordinal()].increment();
 
-        // Check if it's a WebSocket request
-        if (isWebSocketRequest(httpRequest)) {
-            logger.debug("[FRONTEND_FILTER] WebSocket request detected. Path: {}", path);
+        if (routeClass != RouteClass.FRONTEND) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("[FRONTEND_FILTER] Passing through. URI: {}, Class: {}", requestURI, routeClass);
+            }
             chain.doFilter(request, response);
             return;
         }
 
         // All other requests are forwarded to index.html
         String forwardPath = "/index.html";
-        logger.info("[FRONTEND_FILTER] Forwarding frontend route to index.html. Original path: {}, Forward path: {}",
-                path, forwardPath);
+        if (logger.isDebugEnabled()) {
+            logger.debug("[FRONTEND_FILTER] Forwarding frontend route to index.html. Original path: {}",
+                    requestURI.substring(offset));
+        }
 
         RequestDispatcher dispatcher = httpRequest.getRequestDispatcher(forwardPath);
 
@@ -124,48 +120,112 @@ public class FrontendRouterFilter implements Filter {
     }
 
     /**
-     * Check if the path should be excluded from filtering
+     * Classify the path that starts at offset in the request URI (i.e. after the context path).
+     * WebSocket detection needs the headers and is done by the caller for FRONTEND results.
      */
-    private boolean shouldExclude(String path) {
-        if (path == null || path.isEmpty() || "/".equals(path)) {
-            return false;
+    public static RouteClass classify(String uri, int offset) {
+        int length = uri.length();
+        if (length - offset <= 1) {
+            return RouteClass.FRONTEND;
         }
 
-        for (String prefix : EXCLUDED_PREFIXES) {
-            if (path.startsWith(prefix)) {
-                logger.trace("[FRONTEND_FILTER] Path matches excluded prefix. Path: {}, Prefix: {}", path, prefix);
-                return true;
-            }
+        // First path segment: uri[offset + 1, segmentEnd)
+        int segmentStart = offset + 1;
+        int slash = uri.indexOf('/', segmentStart);
+        int segmentEnd = slash < 0 ? length : slash;
+        boolean directory = slash >= 0;
+
+        switch (segmentEnd - segmentStart) {
+            case 2:
+                if (directory && uri.startsWith("js", segmentStart)) {
+                    return RouteClass.STATIC_PREFIX;
+                }
+                break;
+            case 3:
+                if (directory && uri.startsWith("api", segmentStart)) {
+                    return RouteClass.API;
+                }
+                if (directory && (uri.startsWith("css", segmentStart) || uri.startsWith("img", segmentStart))) {
+                    return RouteClass.STATIC_PREFIX;
+                }
+                break;
+            case 6:
+                if (directory && (uri.startsWith("assets", segmentStart) || uri.startsWith("static", segmentStart)
+                        || uri.startsWith("upload", segmentStart))) {
+                    return RouteClass.STATIC_PREFIX;
+                }
+                break;
+            default:
+                break;
+        }
+        // "/error" and "/favicon.ico" are matched as plain prefixes, like "/error404" or "/error/500.html"
+        if (uri.startsWith("error", segmentStart)) {
+            return RouteClass.ERROR;
+        }
+        if (uri.startsWith("favicon.ico", segmentStart)) {
+            return RouteClass.STATIC_PREFIX;
         }
 
-        return false;
+        return hasStaticExtension(uri, offset) ? RouteClass.STATIC_FILE : RouteClass.FRONTEND;
     }
 
     /**
-     * Check if the path is a static resource
+     * Check whether the last path segment ends with a known static extension (case-insensitive)
      */
-    private boolean isStaticResource(String path) {
-        if (path == null || path.isEmpty()) {
+    static boolean hasStaticExtension(String uri, int offset) {
+        int dot = uri.lastIndexOf('.');
+        int extensionLength = uri.length() - dot - 1;
+        if (dot <= offset || extensionLength < 2 || extensionLength > MAX_EXTENSION_LENGTH
+                || uri.indexOf('/', dot) >= 0) {
             return false;
         }
+        String candidate = EXTENSION_TABLE[slot(uri, dot + 1, uri.length(), EXTENSION_MULTIPLIER)];
+        return candidate != null && candidate.length() == extensionLength
+                && uri.regionMatches(true, dot + 1, candidate, 0, extensionLength);
+    }
 
-        // Method 1: Check by extension
-        int dotIndex = path.lastIndexOf('.');
-        if (dotIndex > 0) {
-            String extension = path.substring(dotIndex).toLowerCase();
-            if (STATIC_EXTENSIONS.contains(extension)) {
-                logger.trace("[FRONTEND_FILTER] Static resource by extension. Path: {}, Extension: {}", path, extension);
-                return true;
-            }
+    /**
+     * Request counts per class since startup, in declaration order
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (RouteClass routeClass : ROUTE_CLASSES) {
+            counts.put(routeClass.name().toLowerCase(), COUNTERS[routeClass.ordinal()].sum());
         }
+        return counts;
+    }
 
-        // Method 2: Check by regex pattern
-        if (STATIC_FILE_PATTERN.matcher(path).matches()) {
-            logger.trace("[FRONTEND_FILTER] Static resource by pattern. Path: {}", path);
-            return true;
+    /**
+     * Hash of the ASCII-lowercased characters in [start, end), reduced to a table slot
+     */
+    private static int slot(String s, int start, int end, int multiplier) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = hash * multiplier + (s.charAt(i) | 0x20);
         }
+        return (hash ^ (hash >>> 7)) & (EXTENSION_TABLE_SIZE - 1);
+    }
 
-        return false;
+    /**
+     * Find a multiplier that places every extension in its own slot, so lookups need one probe
+     */
+    private static int buildExtensionTable() {
+        for (int multiplier = 31; multiplier < 100_000; multiplier += 2) {
+            boolean perfect = true;
+            Arrays.fill(EXTENSION_TABLE, null);
+            for (String extension : STATIC_EXTENSIONS) {
+                int slot = slot(extension, 0, extension.length(), multiplier);
+                if (EXTENSION_TABLE[slot] != null) {
+                    perfect = false;
+                    break;
+                }
+                EXTENSION_TABLE[slot] = extension;
+            }
+            if (perfect) {
+                return multiplier;
+            }
+        }
+        throw new IllegalStateException("No collision-free hash for static extensions");
     }
 
     /**
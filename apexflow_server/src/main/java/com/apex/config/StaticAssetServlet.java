@@ -0,0 +1,302 @@
+package com.apex.config;
+
+import com.apex.util.ETags;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * /assets 下Vite构建产物的静态资源Servlet
+ *
+ * - 文件名带内容哈希（如index-C-PAn4RE.js）的文件内容永不改变，
+ *   返回"Cache-Control: public, max-age=31536000, immutable"；其他文件每次都需重新验证。
+ * - 每个版本的文件都带强ETag（文件内容的SHA-256，每个文件版本只计算一次），If-None-Match匹配时返回304。
+ * - 按Accept-Encoding选择前端构建生成的预压缩文件（x.js.br、x.js.gz）。
+ * - 连接器支持时通过Tomcat sendfile发送文件，否则使用FileChannel.transferTo。
+ */
+@WebServlet(value = "/assets/*", asyncSupported = true)
+public class StaticAssetServlet extends HttpServlet {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticAssetServlet.class);
+
+    static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String CACHE_REVALIDATE = "no-cache";
+
+    // Tomcat sendfile请求属性
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Vite追加在文件名中的内容哈希长度：name-XXXXXXXX.ext
+    private static final int VITE_HASH_LENGTH = 8;
+
+    /**
+     * 资源的一个可发送版本（原文件或预压缩文件）
+     */
+    private static final class Variant {
+        final Path file;
+        final long length;
+        final long lastModified;
+        final String etag;
+
+        Variant(Path file, long length, long lastModified, String etag) {
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+    }
+
+    // 按文件路径缓存的版本信息，文件大小和修改时间不变时复用
+    private final ConcurrentMap<Path, Variant> variants = new ConcurrentHashMap<>();
+
+    private Path assetRoot;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        String realPath = config.getServletContext().getRealPath("/assets");
+        if (realPath != null) {
+            assetRoot = Paths.get(realPath).toAbsolutePath().normalize();
+            logger.info("[STATIC_ASSET] Serving assets from {}", assetRoot);
+        } else {
+            logger.warn("[STATIC_ASSET] Web application is not unpacked, assets are streamed from the archive");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, false);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean withBody)
+            throws IOException {
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null || pathInfo.length() < 2 || pathInfo.endsWith("/")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String name = pathInfo.substring(pathInfo.lastIndexOf('/') + 1);
+
+        if (assetRoot == null) {
+            serveFromArchive(pathInfo, name, response, withBody);
+            return;
+        }
+
+        Path file = assetRoot.resolve(pathInfo.substring(1)).normalize();
+        if (!file.startsWith(assetRoot) || !Files.isRegularFile(file)) {
+            logger.debug("[STATIC_ASSET] Asset not found. Path: {}", pathInfo);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String encoding = null;
+        Variant variant = null;
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (accepts(acceptEncoding, "br")) {
+            variant = variant(file.resolveSibling(name + ".br"));
+            encoding = "br";
+        }
+        if (variant == null && accepts(acceptEncoding, "gzip")) {
+            variant = variant(file.resolveSibling(name + ".gz"));
+            encoding = "gzip";
+        }
+        if (variant == null) {
+            variant = variant(file);
+            encoding = null;
+        }
+        if (variant == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader("Cache-Control", isContentHashed(name) ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        response.setHeader("ETag", variant.etag);
+        response.setHeader("Vary", "Accept-Encoding");
+        response.setDateHeader("Last-Modified", variant.lastModified);
+
+        if (ETags.matchesIfNoneMatch(request.getHeader("If-None-Match"), variant.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String contentType = getServletContext().getMimeType(name);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        if (encoding != null) {
+            response.setHeader("Content-Encoding", encoding);
+        }
+        response.setContentLengthLong(variant.length);
+        if (!withBody) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Servlet返回后由Tomcat自行把文件写入socket
+            request.setAttribute(SENDFILE_FILENAME, variant.file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, variant.length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(variant.file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < variant.length) {
+                long sent = channel.transferTo(position, variant.length - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * 以未解压的WAR部署时的回退处理：不使用预压缩文件和ETag，直接流式输出
+     */
+    private void serveFromArchive(String pathInfo, String name, HttpServletResponse response, boolean withBody)
+            throws IOException {
+        if (pathInfo.contains("..")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        try (InputStream in = getServletContext().getResourceAsStream("/assets" + pathInfo)) {
+            if (in == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            String contentType = getServletContext().getMimeType(name);
+            response.setContentType(contentType != null ? contentType : "application/octet-stream");
+            response.setHeader("Cache-Control", isContentHashed(name) ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+            if (withBody) {
+                OutputStream out = response.getOutputStream();
+                in.transferTo(out);
+            }
+        }
+    }
+
+    /**
+     * 查找（或生成）文件的缓存版本信息，文件不存在时返回null
+     */
+    private Variant variant(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        Variant cached = variants.get(file);
+        if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+            return cached;
+        }
+
+        Variant fresh = new Variant(file, length, lastModified, computeETag(file));
+        variants.put(file, fresh);
+        logger.debug("[STATIC_ASSET] Cached asset variant. File: {}, Size: {}, ETag: {}", file, length, fresh.etag);
+        return fresh;
+    }
+
+    private static String computeETag(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        // 区分同一文件的不同版本，128位足够
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    /**
+     * Vite为带哈希的文件命名为name-XXXXXXXX.ext，哈希本身也可能包含'-'或'_'
+     */
+    static boolean isContentHashed(String name) {
+        int dot = name.indexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        int hashStart = dot - VITE_HASH_LENGTH;
+        if (hashStart < 2 || name.charAt(hashStart - 1) != '-') {
+            return false;
+        }
+        for (int i = hashStart; i < dot; i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断Accept-Encoding是否接受指定编码（显式列出或通过"*"），q=0视为拒绝
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            int semicolon = part.indexOf(';');
+            String token = (semicolon >= 0 ? part.substring(0, semicolon) : part).trim();
+            boolean refused = semicolon >= 0 && isZeroQuality(part.substring(semicolon + 1));
+            if (token.equalsIgnoreCase(coding)) {
+                return !refused;
+            }
+            if ("*".equals(token)) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String params) {
+        for (String param : params.split(";")) {
+            String p = param.trim();
+            if (p.startsWith("q=") || p.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(p.substring(2).trim()) == 0.0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,18 +1,31 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
+import com.apex.api.WorkloadExecutors;
+import com.apex.config.FrontendRouterFilter;
 import com.apex.core.dto.*;
 import com.apex.core.service.AdminService;
+import com.apex.core.service.ArchiveService;
+import com.apex.core.service.LoginActivityRecorder;
+import com.apex.util.PasswordHashExecutor;
 import com.apex.util.Permission;
 import com.apex.util.RequirePermission;
+import com.apex.util.TraceRecord;
+import com.apex.util.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 管理员API接口
@@ -21,11 +34,49 @@ import java.util.Map;
  * PUT /api/admin/users/{id}/permissions - 更新用户权限
  * PUT /api/admin/users/{id}/password - 重置用户密码
  * GET /api/admin/users/search - 搜索用户
+ * POST /api/admin/archive - 归档旧订单和库存日志
  */
-@WebServlet("/api/admin/*")
+@WebServlet(value = "/api/admin/*", asyncSupported = true)
 public class AdminServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(AdminServlet.class);
     private final AdminService adminService = new AdminService();
+    private final ArchiveService archiveService = new ArchiveService();
+
+    /**
+     * 启动时在BULK线程池中后台构建用户搜索索引，构建完成前搜索接口回退到数据库查询
+     */
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        try {
+            WorkloadExecutors.submit(WorkloadClass.BULK, () -> {
+                try {
+                    adminService.buildSearchIndex();
+                } catch (Exception e) {
+                    logger.error("[ADMIN_API] Failed to build user search index: {}", e.getMessage(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("[ADMIN_API] User search index build rejected, searches will use the database");
+        }
+    }
+
+    /**
+     * 线程池指标、请求分类计数和请求追踪接口在容器线程上同步处理，业务线程池饱和时仍可访问；
+     * 归档会搬迁大量数据，交给BULK线程池
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        if ("GET".equals(req.getMethod())
+                && ("/executors".equals(req.getPathInfo()) || "/routes".equals(req.getPathInfo())
+                        || "/traces".equals(req.getPathInfo()))) {
+            return null;
+        }
+        if ("POST".equals(req.getMethod()) && "/archive".equals(req.getPathInfo())) {
+            return WorkloadClass.BULK;
+        }
+        return WorkloadClass.FAST;
+    }
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
@@ -49,6 +100,15 @@ public class AdminServlet extends BaseServlet {
                 case "/users/search":
                     handleSearchUsers(req, resp);
                     break;
+                case "/executors":
+                    handleGetExecutorStats(req, resp);
+                    break;
+                case "/routes":
+                    handleGetRouteStats(req, resp);
+                    break;
+                case "/traces":
+                    handleGetTraces(req, resp);
+                    break;
                 default:
                     sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
                             "API不存在", "API_NOT_FOUND");
@@ -134,6 +194,8 @@ public class AdminServlet extends BaseServlet {
                 CreateUserRequest request = parseJsonBody(req, CreateUserRequest.class);
                 adminService.createUser(request);
                 sendJsonResponse(resp, HttpServletResponse.SC_CREATED, ApiResponse.success("用户创建成功"));
+            } else if ("/archive".equals(pathInfo)) {
+                handleArchive(req, resp);
             } else {
                 sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "接口不存在", "API_PATH_INVALID");
             }
@@ -206,6 +268,47 @@ public class AdminServlet extends BaseServlet {
         }
     }
 
+    /**
+     * 处理获取业务线程池及密码哈希线程池指标请求（队列深度、活跃线程、拒绝数、超时数），
+     * 以及最后登录时间待写回的用户数
+     */
+    @RequirePermission(value = Permission.ADMIN, message = "需要管理员权限")
+    private void handleGetExecutorStats(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        logger.debug("[ADMIN_API] Getting executor stats. Client IP: {}", getClientIp(req));
+
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>(WorkloadExecutors.snapshot());
+        stats.put("kdf", PasswordHashExecutor.snapshot());
+        stats.put("loginActivity", LoginActivityRecorder.shared().snapshot());
+        ApiResponse<Map<String, Map<String, Object>>> apiResponse =
+                ApiResponse.success(stats, "获取线程池指标成功");
+        sendJsonResponse(resp, HttpServletResponse.SC_OK, apiResponse);
+    }
+
+    /**
+     * 处理获取前端路由过滤器分类计数请求
+     */
+    @RequirePermission(value = Permission.ADMIN, message = "需要管理员权限")
+    private void handleGetRouteStats(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        logger.debug("[ADMIN_API] Getting route stats. Client IP: {}", getClientIp(req));
+
+        ApiResponse<Map<String, Long>> apiResponse =
+                ApiResponse.success(FrontendRouterFilter.snapshot(), "获取请求分类计数成功");
+        sendJsonResponse(resp, HttpServletResponse.SC_OK, apiResponse);
+    }
+
+    /**
+     * 处理获取最近采样的请求追踪请求（最新的在前，limit默认50）
+     */
+    @RequirePermission(value = Permission.ADMIN, message = "需要管理员权限")
+    private void handleGetTraces(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        int limit = parseIntParameter(req, "limit", 50);
+        logger.debug("[ADMIN_API] Getting recent traces. Limit: {}, Client IP: {}", limit, getClientIp(req));
+
+        ApiResponse<List<TraceRecord>> apiResponse =
+                ApiResponse.success(Tracer.recent(limit), "获取请求追踪成功");
+        sendJsonResponse(resp, HttpServletResponse.SC_OK, apiResponse);
+    }
+
     /**
      * 处理搜索用户请求
      */
@@ -371,6 +474,28 @@ public class AdminServlet extends BaseServlet {
     /**
      * 解析整数参数
      */
+    /**
+     * 处理冷数据归档请求
+     * 可选参数：orderDays、inventoryLogDays、batchSize，缺省时使用系统属性配置
+     */
+    @RequirePermission(value = Permission.ADMIN, message = "需要管理员权限")
+    private void handleArchive(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        int orderDays = parseIntParameter(req, "orderDays", ArchiveService.DEFAULT_ORDER_DAYS);
+        int inventoryLogDays = parseIntParameter(req, "inventoryLogDays", ArchiveService.DEFAULT_INVENTORY_LOG_DAYS);
+        int batchSize = parseIntParameter(req, "batchSize", ArchiveService.DEFAULT_BATCH_SIZE);
+        logger.info("[ADMIN_API] Archiving cold data. Order days: {}, Inventory log days: {}, Batch size: {}",
+                orderDays, inventoryLogDays, batchSize);
+
+        if (orderDays < 1 || inventoryLogDays < 1 || batchSize < 1 || batchSize > 5000) {
+            sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "参数不合法：保留天数至少为1，batchSize取值1-5000", "INVALID_PARAMETER");
+            return;
+        }
+
+        Map<String, Integer> archived = archiveService.archiveColdData(orderDays, inventoryLogDays, batchSize);
+        sendJsonResponse(resp, HttpServletResponse.SC_OK, ApiResponse.success(archived, "冷数据归档完成"));
+    }
+
     private int parseIntParameter(HttpServletRequest req, String paramName, int defaultValue) {
         String paramValue = req.getParameter(paramName);
         if (paramValue != null && !paramValue.trim().isEmpty()) {
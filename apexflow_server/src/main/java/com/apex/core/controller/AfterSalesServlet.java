@@ -1,6 +1,7 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
 import com.apex.core.dto.*;
 import com.apex.core.service.AfterSalesService;
 import com.apex.util.Permission;
@@ -25,11 +26,23 @@ import java.io.IOException;
  * DELETE /api/after-sales/{id}     删除售后记录
  * GET    /api/after-sales/stats    获取售后统计
  */
-@WebServlet("/api/after-sales/*")
+@WebServlet(value = "/api/after-sales/*", asyncSupported = true)
 public class AfterSalesServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(AfterSalesServlet.class);
     private final AfterSalesService afterSalesService = new AfterSalesService();
 
+    /**
+     * 统计接口（GET /api/after-sales/stats）归入报表线程池，避免慢查询占用普通请求的线程
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        String pathInfo = req.getPathInfo();
+        if ("GET".equals(req.getMethod()) && pathInfo != null && pathInfo.startsWith("/stats")) {
+            return WorkloadClass.REPORT;
+        }
+        return WorkloadClass.FAST;
+    }
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         long startTime = System.currentTimeMillis();
@@ -523,6 +536,10 @@ public class AfterSalesServlet extends BaseServlet {
         logger.info("[AFTER_SALES_API] Getting after sales statistics. Client IP: {}", getClientIp(req));
 
         try {
+            if (checkNotModified(req, resp, tableVersionTag("after-sales-stats", "apexflow_after_sales"))) {
+                return;
+            }
+
             // 调用服务层
             AfterSalesStatsDTO stats = afterSalesService.getAfterSalesStats();
 
@@ -4,6 +4,7 @@ import com.apex.api.BaseServlet;
 import com.apex.core.dto.LoginRequest;
 import com.apex.core.dto.ApiResponse;
 import com.apex.core.service.AuthService;
+import com.apex.core.service.LoginActivityRecorder;
 import com.apex.util.RequirePermission;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,11 +20,24 @@ import java.util.Map;
  * POST /api/auth/login - 用户登录
  * POST /api/auth/logout - 用户登出
  */
-@WebServlet("/api/auth/*")
+@WebServlet(value = "/api/auth/*", asyncSupported = true)
 public class AuthServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(AuthServlet.class);
+    private static final int SC_TOO_MANY_REQUESTS = 429;
     private final AuthService authService = new AuthService();
 
+    @Override
+    public void init() {
+        // 最后登录时间由后台线程批量写回
+        LoginActivityRecorder.shared().start();
+    }
+
+    @Override
+    public void destroy() {
+        LoginActivityRecorder.shared().stop();
+        super.destroy();
+    }
+
     @Override
     public void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         long startTime = System.currentTimeMillis();
@@ -81,11 +95,19 @@ public class AuthServlet extends BaseServlet {
             LoginRequest loginRequest = parseJsonBody(req, LoginRequest.class);
             logger.debug("[AUTH_LOGIN] Login request data: {}", loginRequest);
 
-            // 调用服务层
-            Map<String, Object> result = authService.login(loginRequest);
+            // 调用服务层；限流按连接的对端地址计，X-Forwarded-For可由客户端任意伪造，不能作为限流键
+            Map<String, Object> result = authService.login(loginRequest, req.getRemoteAddr());
 
             // 发送响应
-            if (Boolean.TRUE.equals(result.get("success"))) {
+            Object errorCode = result.get("errorCode");
+            if (errorCode != null) {
+                // 限流或密码哈希线程池繁忙
+                resp.setHeader("Retry-After", String.valueOf(result.get("retryAfter")));
+                int status = AuthService.ERROR_TOO_MANY_ATTEMPTS.equals(errorCode)
+                        ? SC_TOO_MANY_REQUESTS : HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+                sendErrorResponse(resp, status, (String) result.get("message"), (String) errorCode);
+                logger.warn("[AUTH_LOGIN] Login rejected for user: {} - {}", loginRequest.getUsername(), errorCode);
+            } else if (Boolean.TRUE.equals(result.get("success"))) {
                 ApiResponse<Map<String, Object>> response = ApiResponse.success(
                         (Map<String, Object>) result.get("data"), "登录成功"
                 );
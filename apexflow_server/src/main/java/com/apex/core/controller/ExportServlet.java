@@ -0,0 +1,168 @@
+package com.apex.core.controller;
+
+import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
+import com.apex.core.export.ExportFormat;
+import com.apex.core.service.ExportService;
+import com.apex.util.JwtUtil;
+import com.apex.util.Permission;
+import com.apex.util.RequirePermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 数据导出API接口
+ * GET /api/export/orders         - 导出订单（按下单时间）
+ * GET /api/export/incomes        - 导出财务记录（按交易时间）
+ * GET /api/export/inventory-logs - 导出库存变更日志（按变更时间）
+ *
+ * 参数：
+ * format - csv（默认）或 ndjson
+ * from   - 起始时间（含），yyyy-MM-dd 或 yyyy-MM-ddTHH:mm:ss，缺省不限
+ * to     - 截止时间（不含），格式同上，缺省不限
+ * gzip   - true时输出gzip压缩文件
+ *
+ * 结果逐行写到响应流，不经过异步线程池的内存缓冲；同时进行的导出数受
+ * -Dapexflow.export.maxConcurrent（默认2）限制，超出时返回503。
+ */
+@WebServlet(value = "/api/export/*", asyncSupported = true)
+public class ExportServlet extends BaseServlet {
+    private static final Logger logger = LoggerFactory.getLogger(ExportServlet.class);
+
+    private static final int MAX_CONCURRENT_EXPORTS = Integer.getInteger("apexflow.export.maxConcurrent", 2);
+    private static final Semaphore EXPORT_PERMITS = new Semaphore(MAX_CONCURRENT_EXPORTS);
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final ExportService exportService = new ExportService();
+
+    /**
+     * 导出结果直接流式写入响应，异步模式会把整个响应缓冲在内存中，因此在容器线程上同步处理
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        return null;
+    }
+
+    @Override
+    @RequirePermission(value = Permission.ADMIN, message = "需要管理员权限")
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        long startTime = System.currentTimeMillis();
+        String pathInfo = req.getPathInfo();
+        logRequest(req);
+
+        String dataset = pathInfo == null ? "" : pathInfo;
+        if (!"/orders".equals(dataset) && !"/incomes".equals(dataset) && !"/inventory-logs".equals(dataset)) {
+            sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "API不存在", "API_NOT_FOUND");
+            logResponse(req, resp, startTime, HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String token = extractToken(req);
+        if (token == null || !JwtUtil.validateToken(token)) {
+            sendErrorResponse(resp, HttpServletResponse.SC_UNAUTHORIZED,
+                    "缺少或无效的认证Token", "MISSING_AUTHORIZATION");
+            logResponse(req, resp, startTime, HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        ExportFormat format = ExportFormat.fromValue(req.getParameter("format"));
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        boolean valid = format != null;
+        try {
+            from = parseTime(req.getParameter("from"));
+            to = parseTime(req.getParameter("to"));
+        } catch (DateTimeParseException e) {
+            valid = false;
+        }
+        if (!valid || (from != null && to != null && !from.isBefore(to))) {
+            sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "参数不合法：format取值csv/ndjson，from/to格式为yyyy-MM-dd或yyyy-MM-ddTHH:mm:ss且from早于to",
+                    "INVALID_PARAMETER");
+            logResponse(req, resp, startTime, HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        if (!EXPORT_PERMITS.tryAcquire()) {
+            resp.setHeader("Retry-After", "30");
+            sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "导出任务过多，请稍后重试", "EXPORT_BUSY");
+            logResponse(req, resp, startTime, HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        try {
+            long rows = export(dataset, format, from, to, "true".equalsIgnoreCase(req.getParameter("gzip")), resp);
+            logger.info("[EXPORT_API] Export {} finished. Rows: {}, Duration: {}ms",
+                    dataset, rows, System.currentTimeMillis() - startTime);
+        } catch (IOException e) {
+            // 响应已开始写出，无法再返回错误信息
+            logger.warn("[EXPORT_API] Export {} aborted: {}", dataset, e.getMessage());
+        } finally {
+            EXPORT_PERMITS.release();
+        }
+    }
+
+    private long export(String dataset, ExportFormat format, LocalDateTime from, LocalDateTime to,
+                        boolean gzip, HttpServletResponse resp) throws IOException {
+        String fileName = dataset.substring(1) + "-" + LocalDate.now().format(FILE_DATE_FORMAT)
+                + "." + format.getExtension() + (gzip ? ".gz" : "");
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(gzip ? "application/gzip" : format.getContentType() + ";charset=UTF-8");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        OutputStream out = resp.getOutputStream();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+        OutputStream target = gzipOut != null ? gzipOut : out;
+
+        long rows = switch (dataset) {
+            case "/orders" -> exportService.exportOrders(from, to, format, target);
+            case "/incomes" -> exportService.exportIncomes(from, to, format, target);
+            default -> exportService.exportInventoryLogs(from, to, format, target);
+        };
+
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * 解析时间参数：日期按当天零点，或完整的ISO日期时间
+     */
+    private LocalDateTime parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        if (text.length() == 10) {
+            return LocalDate.parse(text).atStartOfDay();
+        }
+        return LocalDateTime.parse(text);
+    }
+
+    /**
+     * 从请求中提取Token
+     */
+    private String extractToken(HttpServletRequest req) {
+        String authHeader = req.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return null;
+    }
+}
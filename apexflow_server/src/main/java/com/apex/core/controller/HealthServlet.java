@@ -0,0 +1,49 @@
+package com.apex.core.controller;
+
+import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
+import com.apex.config.ApplicationBootstrap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 健康检查API接口（无需登录，供负载均衡探测）
+ * GET /api/health/ready - 启动阶段（连接池、表结构校验、缓存加载、预热）全部完成后返回200，否则返回503
+ */
+@WebServlet(value = "/api/health/*", asyncSupported = true)
+public class HealthServlet extends BaseServlet {
+    private static final Logger logger = LoggerFactory.getLogger(HealthServlet.class);
+
+    /**
+     * 探测请求在容器线程上同步处理，业务线程池饱和时仍能如实返回
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        return null;
+    }
+
+    @Override
+    public void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String pathInfo = req.getPathInfo();
+
+        if (!"/ready".equals(pathInfo)) {
+            sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "API不存在", "API_NOT_FOUND");
+            return;
+        }
+
+        // 探测结果不允许被缓存
+        resp.setHeader("Cache-Control", "no-store");
+        if (ApplicationBootstrap.isReady()) {
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, ApplicationBootstrap.snapshot());
+        } else {
+            logger.debug("[HEALTH_API] Not ready yet. Client IP: {}", getClientIp(req));
+            resp.setHeader("Retry-After", "5");
+            sendJsonResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, ApplicationBootstrap.snapshot());
+        }
+    }
+}
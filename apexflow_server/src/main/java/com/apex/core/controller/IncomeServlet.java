@@ -1,6 +1,7 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
 import com.apex.core.dto.CreateIncomeRequest;
 import com.apex.core.dto.UpdateIncomeRequest;
 import com.apex.core.dto.ApiResponse;
@@ -29,11 +30,23 @@ import java.util.Map;
  * GET    /api/income/statistics - 获取财务统计
  * GET    /api/income/order/{orderId} - 根据订单号查询财务记录
  */
-@WebServlet("/api/income/*")
+@WebServlet(value = "/api/income/*", asyncSupported = true)
 public class IncomeServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(IncomeServlet.class);
     private final IncomeService incomeService = new IncomeService();
 
+    /**
+     * 统计接口（GET /api/income/statistics）归入报表线程池，避免慢查询占用普通请求的线程
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        String pathInfo = req.getPathInfo();
+        if ("GET".equals(req.getMethod()) && "/statistics".equals(pathInfo)) {
+            return WorkloadClass.REPORT;
+        }
+        return WorkloadClass.FAST;
+    }
+
     @Override
     public void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         long startTime = System.currentTimeMillis();
@@ -491,6 +504,10 @@ public class IncomeServlet extends BaseServlet {
         logger.info("[INCOME_STATISTICS] Processing get income statistics request");
 
         try {
+            if (checkNotModified(req, resp, tableVersionTag("income-stats", "apexflow_income"))) {
+                return;
+            }
+
             // 调用服务层
             Map<String, Object> result = incomeService.getStatistics();
 
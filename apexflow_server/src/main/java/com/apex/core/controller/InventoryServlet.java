@@ -1,11 +1,15 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
+import com.apex.api.WorkloadExecutors;
 import com.apex.core.dao.*;
 import com.apex.core.dto.*;
+import com.apex.core.importer.ImportFormat;
 import com.apex.core.model.Product;
 import com.apex.core.model.InventoryLog;
 import com.apex.core.service.InventoryService;
+import com.apex.core.service.ProductImportService;
 import com.apex.util.RequirePermission;
 import com.apex.util.Permission;
 import org.slf4j.Logger;
@@ -21,11 +25,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 库存管理API接口
  * API列表:
  * POST   /api/inventory/products           - 创建商品
+ * POST   /api/inventory/products/import    - 批量导入商品及库存（CSV/JSON文件）
  * GET    /api/inventory/products/{id}      - 获取商品详情
  * GET    /api/inventory/products/list      - 获取商品列表（支持分页、分类、搜索）
  * PUT    /api/inventory/products/{id}      - 更新商品信息
@@ -36,11 +42,14 @@ import java.util.Map;
  * GET    /api/inventory/logs              - 获取库存变更日志
  * GET    /api/inventory/low-stock         - 获取低库存预警
  */
-@WebServlet("/api/inventory/*")
+@WebServlet(value = "/api/inventory/*", asyncSupported = true)
 public class InventoryServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(InventoryServlet.class);
 
+    private static final String IMPORT_PATH = "/products/import";
+
     private InventoryService inventoryService;
+    private ProductImportService productImportService;
 
     @Override
     public void init() {
@@ -48,7 +57,26 @@ public class InventoryServlet extends BaseServlet {
                 new ProductDAO(),
                 new InventoryLogDAO()
         );
+        productImportService = new ProductImportService();
         logger.info("[INVENTORY_SERVLET] Initializing InventoryServlet");
+
+        // 商品搜索索引在BULK线程池中后台加载，加载完成前搜索回退到数据库查询
+        try {
+            WorkloadExecutors.submit(WorkloadClass.BULK, () -> ProductSearchIndex.shared().open());
+        } catch (RejectedExecutionException e) {
+            logger.warn("[INVENTORY_SERVLET] Product search index load rejected, searches will use the database");
+        }
+    }
+
+    /**
+     * 批量导入在BULK线程池中执行，其余请求为普通增删改查
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        if ("POST".equals(req.getMethod()) && IMPORT_PATH.equals(req.getPathInfo())) {
+            return WorkloadClass.BULK;
+        }
+        return WorkloadClass.FAST;
     }
 
     @Override
@@ -120,6 +148,7 @@ public class InventoryServlet extends BaseServlet {
             // 路由处理
             switch (pathInfo) {
                 case "/products" -> handleCreateProduct(req, resp);
+                case IMPORT_PATH -> handleImportProducts(req, resp);
                 case "/stock/increase" -> handleIncreaseStock(req, resp);
                 case "/stock/decrease" -> handleDecreaseStock(req, resp);
                 default -> sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
@@ -295,6 +324,35 @@ public class InventoryServlet extends BaseServlet {
         }
     }
 
+    /**
+     * 处理批量导入商品及库存
+     * 请求体为CSV或JSON文件，格式由format参数（csv/json）或Content-Type决定；
+     * 单行错误不影响其余行，结果中列出失败行号及原因
+     * 需要管理员或库存管理权限
+     */
+    @RequirePermission(value = {Permission.ADMIN, Permission.INVENTORY_MANAGE},
+            logic = RequirePermission.LogicType.OR,
+            message = "需要管理员或库存管理权限")
+    private void handleImportProducts(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        logger.info("[INVENTORY_IMPORT] Processing product import request from IP: {}", getClientIp(req));
+
+        ImportFormat format = ImportFormat.fromRequest(req.getParameter("format"), req.getContentType());
+        if (format == null) {
+            sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "format参数只能为csv或json", "INVALID_PARAMETER");
+            return;
+        }
+
+        ProductImportResult result = productImportService.importProducts(req.getInputStream(), format);
+        String message = result.isCompleted()
+                ? "导入完成，成功" + (result.getCreated() + result.getUpdated()) + "行，失败" + result.getFailed() + "行"
+                : "文件解析中止：" + result.getAbortReason();
+        sendJsonResponse(resp, HttpServletResponse.SC_OK, ApiResponse.success(result, message));
+        logger.info("[INVENTORY_IMPORT] Import finished. Rows: {}, Created: {}, Updated: {}, Failed: {}, Completed: {}",
+                result.getTotalRows(), result.getCreated(), result.getUpdated(), result.getFailed(),
+                result.isCompleted());
+    }
+
     /**
      * 处理获取商品详情
      * 需要管理员或库存管理权限
@@ -308,6 +366,12 @@ public class InventoryServlet extends BaseServlet {
         try {
             Integer productId = Integer.parseInt(productIdStr);
 
+            // 行版本未变时直接返回304
+            Long version = inventoryService.getProductVersion(productId);
+            if (version != null && checkNotModified(req, resp, rowVersionTag("product", productId, version))) {
+                return;
+            }
+
             // 调用服务层获取商品详情
             Product product = inventoryService.getProductById(productId);
 
@@ -390,36 +454,12 @@ public class InventoryServlet extends BaseServlet {
             if (pageSize == null || pageSize < 1) pageSize = 20;
             if (pageSize > 100) pageSize = 100; // 限制每页最大记录数
 
-            List<Product> products;
-
-            // 根据查询条件调用不同的方法
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                products = inventoryService.searchProducts(keyword, page, pageSize);
-            } else if (category != null && !category.trim().isEmpty()) {
-                products = inventoryService.getProductsByCategory(category, page, pageSize);
-            } else if (status != null) {
-                products = inventoryService.getProductsByStatus(status, page, pageSize);
-            } else {
-                products = inventoryService.getProducts(page, pageSize);
-            }
-
-            if (products == null) {
-                products = new ArrayList<>();
-            }
+            // 列表投影查询，直接映射为ProductListItem
+            List<ProductListItem> productList = inventoryService.getProductListItems(
+                    keyword, category, status, page, pageSize);
 
-            // 构建响应数据
-            List<ProductListItem> productList = new ArrayList<>();
-            for (Product product : products) {
-                ProductListItem item = new ProductListItem();
-                item.setId(product.getId());
-                item.setName(product.getName());
-                item.setCategory(product.getCategory());
-                item.setPrice(product.getPrice());
-                item.setStock(product.getStock());
-                item.setStatus(product.getStatus());
-                item.setImage(product.getImage());
-                item.setCreatedAt(product.getCreatedAt());
-                productList.add(item);
+            if (productList == null) {
+                productList = new ArrayList<>();
             }
 
             // 获取总商品数（分页信息）
@@ -792,13 +832,15 @@ public class InventoryServlet extends BaseServlet {
                 logResponses.add(logResponse);
             }
 
-            long totalCount = inventoryService.countLogs();
+            TotalCount total = inventoryService.countLogs(productId, changeType);
+            long totalCount = total.getCount();
 
             Map<String, Object> data = new HashMap<>();
             data.put("logs", logResponses);
             data.put("currentPage", page);
             data.put("pageSize", pageSize);
-            data.put("totalCount", totalCount); // 注意：这里应该查询总数，简化处理
+            data.put("totalCount", totalCount);
+            data.put("totalExact", total.isExact());
 
             ApiResponse<Map<String, Object>> response = ApiResponse.success(
                     data, "库存变更日志获取成功"
@@ -1,6 +1,7 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
 import com.apex.core.dto.*;
 import com.apex.core.service.LogisticsService;
 import com.apex.util.Permission;
@@ -28,11 +29,23 @@ import java.io.IOException;
  * DELETE /api/logistics/{id}         删除物流记录
  * GET    /api/logistics/stats        获取物流统计
  */
-@WebServlet("/api/logistics/*")
+@WebServlet(value = "/api/logistics/*", asyncSupported = true)
 public class LogisticsServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(LogisticsServlet.class);
     private final LogisticsService logisticsService = new LogisticsService();
 
+    /**
+     * 统计接口（GET /api/logistics/stats）归入报表线程池，避免慢查询占用普通请求的线程
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        String pathInfo = req.getPathInfo();
+        if ("GET".equals(req.getMethod()) && pathInfo != null && pathInfo.startsWith("/stats")) {
+            return WorkloadClass.REPORT;
+        }
+        return WorkloadClass.FAST;
+    }
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         long startTime = System.currentTimeMillis();
@@ -661,6 +674,10 @@ public class LogisticsServlet extends BaseServlet {
         logger.info("[LOGISTICS_API] Getting logistics statistics. Client IP: {}", getClientIp(req));
 
         try {
+            if (checkNotModified(req, resp, tableVersionTag("logistics-stats", "apexflow_logistics"))) {
+                return;
+            }
+
             // 调用服务层
             LogisticsStats stats = logisticsService.getLogisticsStats();
 
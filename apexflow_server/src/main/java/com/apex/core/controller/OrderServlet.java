@@ -2,10 +2,13 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
 import com.apex.core.dao.*;
 import com.apex.core.dto.*;
+import com.apex.core.event.OutboxDispatcher;
 import com.apex.core.model.OrderInfo;
 import com.apex.core.model.OrderItem;
+import com.apex.core.reservation.StockReservations;
 import com.apex.core.service.OrderService;
 import com.apex.util.RequirePermission;
 import com.apex.util.Permission;
@@ -32,14 +35,17 @@ import java.util.Map;
  * PUT    /api/orders/{id}      - 更新订单信息
  * DELETE /api/orders/{id}      - 删除订单
  * PUT    /api/orders/{id}/status - 更新订单状态
+ * POST   /api/orders/purge-cancelled - 批量清理已取消订单（夜间清理任务）
  */
-@WebServlet("/api/orders/*")
+@WebServlet(value = "/api/orders/*", asyncSupported = true)
 public class OrderServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(OrderServlet.class);
 
     // 注意：在实际项目中，应该使用依赖注入，这里简化直接创建
     private OrderService orderService;
 
+    private static final String PURGE_CANCELLED_PATH = "/purge-cancelled";
+
     @Override
     public void init() {
         orderService = new OrderService(
@@ -52,9 +58,31 @@ public class OrderServlet extends BaseServlet {
                 new AfterSalesDAO(),
                 new ReviewDAO()
         );
+        // 订单处理器已在OrderService构造时注册，此后再启动投递线程，补投上次停机前未投递的事件
+        OutboxDispatcher.shared().start();
+        // 从预留表重建待支付订单的库存预留，并启动到期清扫线程
+        StockReservations.shared().start();
         logger.info("[ORDER_SERVLET] Initializing OrderServlet");
     }
 
+    @Override
+    public void destroy() {
+        StockReservations.shared().stop();
+        OutboxDispatcher.shared().stop();
+        super.destroy();
+    }
+
+    /**
+     * 批量清理已取消订单归入批处理线程池，避免长事务占用普通请求的线程
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        if ("POST".equals(req.getMethod()) && PURGE_CANCELLED_PATH.equals(req.getPathInfo())) {
+            return WorkloadClass.BULK;
+        }
+        return WorkloadClass.FAST;
+    }
+
     @Override
     public void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         long startTime = System.currentTimeMillis();
@@ -100,6 +128,12 @@ public class OrderServlet extends BaseServlet {
         try {
             logRequest(req);
 
+            if (PURGE_CANCELLED_PATH.equals(pathInfo)) {
+                handlePurgeCancelledOrders(req, resp);
+                logResponse(req, resp, startTime, resp.getStatus());
+                return;
+            }
+
             // 修复后的逻辑：
             // 只有当 pathInfo 存在，且不为空，且不仅仅是一个斜杠时，才视为路径错误
             if (pathInfo != null && !pathInfo.isEmpty() && !pathInfo.equals("/")) {
@@ -298,6 +332,12 @@ public class OrderServlet extends BaseServlet {
         logger.info("[ORDER_DETAIL] Processing get order detail request. Order ID: {}", orderId);
 
         try {
+            // 行版本未变时直接返回304，不加载订单和订单项
+            Long version = orderService.getOrderVersion(orderId);
+            if (version != null && checkNotModified(req, resp, rowVersionTag("order", orderId, version))) {
+                return;
+            }
+
             // 调用服务层获取订单详情 - 只调用一次
             OrderDetail orderDetail = orderService.getOrderDetail(orderId);
 
@@ -400,30 +440,12 @@ public class OrderServlet extends BaseServlet {
             if (pageSize == null || pageSize < 1) pageSize = 20;
             if (pageSize > 100) pageSize = 100; // 限制每页最大记录数
 
-            // 调用服务层获取订单列表
-            // 注意：这里需要实际的OrderService实例，此处为示例代码
-            List<OrderWithItemsResponse> ordersWithItems = orderService.getAllOrdersWithItems(page, pageSize);
-            List<OrderInfo> orders = new ArrayList<>();
-
-            for (OrderWithItemsResponse os : ordersWithItems) {
-                orders.add(os.getOrder());
-            }
-
-            // 构建响应数据
-            List<OrderListItem> orderList = new ArrayList<>();
-            for (OrderInfo order : orders) {
-                OrderListItem item = new OrderListItem();
-                item.setOrderId(order.getId());
-                item.setUserId(order.getUserId());
-                item.setTotalAmount(order.getTotalAmount());
-                item.setStatus(order.getStatus());
-                item.setPaymentMethod(order.getPaymentMethod());
-                item.setCreatedAt(order.getCreatedAt());
-                orderList.add(item);
-            }
+            // 调用服务层获取订单列表（列表投影，只查询展示列，不加载订单项）
+            List<OrderListItem> orderList = orderService.getOrderListItems(page, pageSize);
 
             // 获取总订单数（分页信息）
-            long totalCount = orderService.getCount();
+            TotalCount total = orderService.getOrderTotal(page, pageSize, orderList.size());
+            long totalCount = total.getCount();
 
             Map<String, Object> data = new HashMap<>();
             data.put("orders", orderList);
@@ -431,6 +453,7 @@ public class OrderServlet extends BaseServlet {
             data.put("pageSize", pageSize);
             data.put("totalCount", totalCount);
             data.put("totalPages", (int) Math.ceil((double) totalCount / pageSize));
+            data.put("totalExact", total.isExact());
 
             ApiResponse<Map<String, Object>> response = ApiResponse.success(
                     data, "订单列表获取成功"
@@ -560,6 +583,51 @@ public class OrderServlet extends BaseServlet {
         }
     }
 
+    /**
+     * 处理批量清理已取消订单
+     * 参数：olderThanDays - 只清理下单超过该天数的订单（默认90），batchSize - 每批订单数（默认500）
+     * 需要管理员权限
+     */
+    @RequirePermission(value = Permission.ADMIN, message = "需要管理员权限")
+    private void handlePurgeCancelledOrders(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String token = extractToken(req);
+        if (token == null) {
+            sendErrorResponse(resp, HttpServletResponse.SC_UNAUTHORIZED,
+                    "缺少认证Token", "MISSING_AUTHORIZATION");
+            return;
+        }
+
+        int olderThanDays = parseIntParameter(req, "olderThanDays", 90);
+        int batchSize = parseIntParameter(req, "batchSize", 500);
+        logger.info("[ORDER_PURGE] Processing purge request. Older than {} days, Batch size: {}",
+                olderThanDays, batchSize);
+
+        if (olderThanDays < 0 || batchSize < 1 || batchSize > 5000) {
+            sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "参数不合法：olderThanDays不能为负数，batchSize取值1-5000", "INVALID_PARAMETER");
+            return;
+        }
+
+        int purged = orderService.purgeCancelledOrders(LocalDateTime.now().minusDays(olderThanDays), batchSize);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("purged", purged);
+        sendJsonResponse(resp, HttpServletResponse.SC_OK, ApiResponse.success(data, "已取消订单清理完成"));
+        logger.info("[ORDER_PURGE] Purged {} cancelled orders", purged);
+    }
+
+    private int parseIntParameter(HttpServletRequest req, String paramName, int defaultValue) {
+        String paramValue = req.getParameter(paramName);
+        if (paramValue != null && !paramValue.trim().isEmpty()) {
+            try {
+                return Integer.parseInt(paramValue.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("[ORDER_PURGE] Invalid {} parameter: {}", paramName, paramValue);
+            }
+        }
+        return defaultValue;
+    }
+
     /**
      * 处理更新订单状态
      * 需要管理员或订单管理权限
@@ -2,6 +2,7 @@
 package com.apex.core.controller;
 
 import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
 import com.apex.core.dto.*;
 import com.apex.core.model.Review;
 import com.apex.core.service.ReviewService;
@@ -20,11 +21,23 @@ import java.io.IOException;
  * 评价管理API接口
  * 简洁实现，仅核心功能
  */
-@WebServlet("/api/review/*")
+@WebServlet(value = "/api/review/*", asyncSupported = true)
 public class ReviewServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(ReviewServlet.class);
     private final ReviewService reviewService = new ReviewService();
 
+    /**
+     * 统计接口（GET /api/review/stats/{productId}）归入报表线程池，避免慢查询占用普通请求的线程
+     */
+    @Override
+    protected WorkloadClass classifyWorkload(HttpServletRequest req) {
+        String pathInfo = req.getPathInfo();
+        if ("GET".equals(req.getMethod()) && pathInfo != null && pathInfo.startsWith("/stats/")) {
+            return WorkloadClass.REPORT;
+        }
+        return WorkloadClass.FAST;
+    }
+
     @Override
     @RequirePermission(value = {Permission.ADMIN, Permission.ORDER_MANAGE},
             logic = RequirePermission.LogicType.OR)
@@ -129,7 +142,7 @@ public class ReviewServlet extends BaseServlet {
     }
 
     /**
-     * 获取评价列表
+     * 获取评价列表（view=summary时返回评价摘要）
      */
     private void handleList(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         logger.debug("[REVIEW] Querying review list");
@@ -156,6 +169,14 @@ public class ReviewServlet extends BaseServlet {
                 query.setPageSize(Integer.parseInt(pageSize));
             }
 
+            // view=summary时返回评价摘要，不传输完整的content/images文本
+            if ("summary".equals(req.getParameter("view"))) {
+                ApiResponse<PagedResult<ReviewSummary>> summaries = reviewService.listSummaries(query);
+                int status = summaries.isSuccess() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_BAD_REQUEST;
+                sendJsonResponse(resp, status, summaries);
+                return;
+            }
+
             // 调用服务层
             ApiResponse<ReviewListResponse> result = reviewService.list(query);
 
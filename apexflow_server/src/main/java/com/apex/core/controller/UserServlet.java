@@ -20,7 +20,7 @@ import java.util.Map;
  * GET /api/user/permissions - 获取用户权限
  * PUT /api/user/profile - 修改个人信息
  */
-@WebServlet("/api/user/*")
+@WebServlet(value = "/api/user/*", asyncSupported = true)
 public class UserServlet extends BaseServlet {
     private static final Logger logger = LoggerFactory.getLogger(UserServlet.class);
     private final UserService userService = new UserService();
@@ -16,6 +16,23 @@ import java.util.List;
 public class AfterSalesDAO implements IAfterSalesDAO {
     private static final Logger logger = LoggerFactory.getLogger(AfterSalesDAO.class);
 
+    private static final TableMapping<AfterSales> MAPPING = RowMappers.AFTER_SALES;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ? ORDER BY apply_time DESC");
+    private static final String SQL_FIND_ALL = MAPPING.select("ORDER BY apply_time DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_STATUS = MAPPING.select("WHERE status = ? ORDER BY apply_time DESC LIMIT ? OFFSET ?");
+
+    /**
+     * 部分列更新语句生成器，列顺序与AfterSales.FIELD_*一致
+     */
+    private static final PartialUpdate<AfterSales> PARTIAL_UPDATE = new PartialUpdate<>(
+            "apexflow_after_sales", "id",
+            new String[]{"order_id", "type", "reason", "status", "refund_amount",
+                    "apply_time", "process_time", "process_remark"},
+            AfterSalesDAO::bindField);
+
     /**
      * 创建售后服务记录
      */
@@ -28,7 +45,8 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
         logger.info("Creating after sales record for order: {}", afterSales.getOrderId());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, afterSales.getOrderId());
@@ -59,11 +77,13 @@ public class AfterSalesDAO implements IAfterSalesDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                counts.inserted("status", afterSales.getStatus() != null ? afterSales.getStatus() : 1);
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         afterSales.setId(generatedKeys.getInt(1));
                     }
                 }
+                afterSales.markClean();
                 logger.info("After sales record created successfully. ID: {}", afterSales.getId());
                 return true;
             }
@@ -80,7 +100,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
      * 根据ID查询售后服务记录
      */
     public AfterSales findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_after_sales WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding after sales record by ID: {}", id);
 
@@ -91,7 +111,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToAfterSales(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -106,7 +126,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
      * 根据订单号查询售后服务记录
      */
     public List<AfterSales> findByOrderId(String orderId) {
-        String sql = "SELECT * FROM apexflow_after_sales WHERE order_id = ? ORDER BY apply_time DESC";
+        String sql = SQL_FIND_BY_ORDER_ID;
         List<AfterSales> list = new ArrayList<>();
 
         logger.debug("Finding after sales records by order ID: {}", orderId);
@@ -118,7 +138,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToAfterSales(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -131,8 +151,13 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
     /**
      * 更新售后服务记录
+     * 从数据库加载的记录只更新加载后修改过的列，新建对象整行更新
      */
     public boolean update(AfterSales afterSales) {
+        if (afterSales.tracksChanges()) {
+            return updateChangedColumns(afterSales);
+        }
+
         String sql = """
             UPDATE apexflow_after_sales
             SET order_id = ?, type = ?, reason = ?, status = ?,
@@ -142,7 +167,8 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
         logger.info("Updating after sales record ID: {}", afterSales.getId());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, afterSales.getOrderId());
@@ -173,6 +199,10 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
             int rowsAffected = pstmt.executeUpdate();
             logger.info("After sales record updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                counts.updated("status");
+                afterSales.markClean();
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -181,6 +211,58 @@ public class AfterSalesDAO implements IAfterSalesDAO {
         }
     }
 
+    /**
+     * 只更新加载后修改过的列
+     */
+    private boolean updateChangedColumns(AfterSales afterSales) {
+        long changed = afterSales.changedFields();
+        if (changed == 0) {
+            logger.debug("No changed columns for after sales record ID: {}, skipping update", afterSales.getId());
+            return true;
+        }
+
+        logger.info("Updating after sales record ID: {}, Columns: [{}]",
+                afterSales.getId(), PARTIAL_UPDATE.describe(changed));
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PARTIAL_UPDATE.sqlFor(changed))) {
+
+            int keyIndex = PARTIAL_UPDATE.bindChanged(pstmt, afterSales, changed);
+            pstmt.setInt(keyIndex, afterSales.getId());
+
+            int rowsAffected = pstmt.executeUpdate();
+            logger.info("After sales record updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                counts.updated("status");
+                afterSales.markClean();
+            }
+            return rowsAffected > 0;
+
+        } catch (SQLException e) {
+            logger.error("Failed to update after sales record ID: {}", afterSales.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 绑定单个可更新字段
+     */
+    private static void bindField(PreparedStatement pstmt, int index, AfterSales afterSales, int field)
+            throws SQLException {
+        switch (field) {
+            case AfterSales.FIELD_ORDER_ID -> PartialUpdate.setString(pstmt, index, afterSales.getOrderId());
+            case AfterSales.FIELD_TYPE -> PartialUpdate.setInt(pstmt, index, afterSales.getType());
+            case AfterSales.FIELD_REASON -> PartialUpdate.setString(pstmt, index, afterSales.getReason());
+            case AfterSales.FIELD_STATUS -> PartialUpdate.setInt(pstmt, index, afterSales.getStatus());
+            case AfterSales.FIELD_REFUND_AMOUNT -> PartialUpdate.setDecimal(pstmt, index, afterSales.getRefundAmount());
+            case AfterSales.FIELD_APPLY_TIME -> PartialUpdate.setTimestamp(pstmt, index, afterSales.getApplyTime());
+            case AfterSales.FIELD_PROCESS_TIME -> PartialUpdate.setTimestamp(pstmt, index, afterSales.getProcessTime());
+            case AfterSales.FIELD_PROCESS_REMARK -> PartialUpdate.setString(pstmt, index, afterSales.getProcessRemark());
+            default -> throw new IllegalArgumentException("Unknown after sales field: " + field);
+        }
+    }
+
     /**
      * 删除售后服务记录
      */
@@ -189,11 +271,15 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
         logger.warn("Deleting after sales record ID: {}", id);
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                counts.deleted();
+            }
             logger.warn("After sales record deleted. Rows affected: {}", rowsAffected);
             return rowsAffected > 0;
 
@@ -203,11 +289,30 @@ public class AfterSalesDAO implements IAfterSalesDAO {
         }
     }
 
+    /**
+     * 按订单号批量删除售后服务记录
+     */
+    public int deleteByOrderIds(List<String> orderIds) {
+        logger.warn("[DELETE_AFTER_SALES_BY_ORDER_IDS] Deleting after sales records of {} orders", orderIds.size());
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName())) {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "order_id", orderIds);
+            counts.deletedRows(rowsAffected);
+            logger.warn("[DELETE_AFTER_SALES_BY_ORDER_IDS] Rows affected: {}", rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RowCounts.invalidate(MAPPING.getTableName());
+            logger.error("[DELETE_AFTER_SALES_BY_ORDER_IDS] Failed to delete after sales records of {} orders", orderIds.size(), e);
+            return -1;
+        }
+    }
+
     /**
      * 查询所有售后服务记录（分页）
      */
     public List<AfterSales> findAll(int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_after_sales ORDER BY apply_time DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_ALL;
         List<AfterSales> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -222,7 +327,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToAfterSales(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -237,7 +342,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
      * 根据状态查询售后服务记录
      */
     public List<AfterSales> findByStatus(Integer status, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_after_sales WHERE status = ? ORDER BY apply_time DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_STATUS;
         List<AfterSales> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -253,7 +358,7 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToAfterSales(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -293,7 +398,8 @@ public class AfterSalesDAO implements IAfterSalesDAO {
 
         logger.info("Updating after sales status. ID: {}, New Status: {}", id, status);
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, status);
@@ -301,6 +407,9 @@ public class AfterSalesDAO implements IAfterSalesDAO {
             pstmt.setInt(3, id);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                counts.updated("status");
+            }
             logger.info("After sales status updated. Rows affected: {}", rowsAffected);
             return rowsAffected > 0;
 
@@ -310,30 +419,4 @@ public class AfterSalesDAO implements IAfterSalesDAO {
         }
     }
 
-    /**
-     * 映射ResultSet到AfterSales对象
-     */
-    private AfterSales mapToAfterSales(ResultSet rs) throws SQLException {
-        AfterSales afterSales = new AfterSales();
-        afterSales.setId(rs.getInt("id"));
-        afterSales.setOrderId(rs.getString("order_id"));
-        afterSales.setType(rs.getInt("type"));
-        afterSales.setReason(rs.getString("reason"));
-        afterSales.setStatus(rs.getInt("status"));
-        afterSales.setRefundAmount(rs.getBigDecimal("refund_amount"));
-
-        Timestamp applyTime = rs.getTimestamp("apply_time");
-        if (applyTime != null) {
-            afterSales.setApplyTime(applyTime.toLocalDateTime());
-        }
-
-        Timestamp processTime = rs.getTimestamp("process_time");
-        if (processTime != null) {
-            afterSales.setProcessTime(processTime.toLocalDateTime());
-        }
-
-        afterSales.setProcessRemark(rs.getString("process_remark"));
-
-        return afterSales;
-    }
 }
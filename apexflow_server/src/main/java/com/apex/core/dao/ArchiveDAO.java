@@ -0,0 +1,233 @@
+package com.apex.core.dao;
+
+import com.apex.core.dto.OrderDetail;
+import com.apex.core.model.OrderInfo;
+import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 冷数据归档数据访问对象
+ * 归档表与热表同结构（表名加_archive后缀、无外键），行按原主键复制，
+ * 因此读取归档数据时直接复用RowMappers中的行映射器。
+ * 每批搬迁（INSERT ... SELECT 后 DELETE）在同一事务中执行，复制与删除的行数不一致时整批回滚。
+ */
+public class ArchiveDAO implements IArchiveDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveDAO.class);
+
+    private static final TableMapping<OrderInfo> ORDER = RowMappers.ORDER_INFO;
+    private static final TableMapping<?> INVENTORY_LOG = RowMappers.INVENTORY_LOG;
+
+    /**
+     * 随订单归档的子表，按外键依赖顺序排列（先于订单主表删除）
+     */
+    private static final List<TableMapping<?>> ORDER_CHILD_TABLES = List.of(
+            RowMappers.ORDER_ITEM, RowMappers.LOGISTICS, RowMappers.INCOME,
+            RowMappers.AFTER_SALES, RowMappers.REVIEW);
+
+    private static final String SQL_FIND_ARCHIVABLE_ORDER_IDS =
+            "SELECT id FROM " + ORDER.getTableName() + " WHERE status IN (4, 5) AND created_at < ? ORDER BY created_at LIMIT ?";
+
+    private static final String SQL_FIND_INVENTORY_LOG_BOUNDARY =
+            "SELECT id FROM " + INVENTORY_LOG.getTableName() + " WHERE created_at < ? ORDER BY id LIMIT 1 OFFSET ?";
+    private static final String SQL_FIND_INVENTORY_LOG_MAX_ID =
+            "SELECT MAX(id) FROM " + INVENTORY_LOG.getTableName() + " WHERE created_at < ?";
+    private static final String SQL_COPY_INVENTORY_LOGS =
+            "INSERT INTO " + INVENTORY_LOG.archive().getTableName() + " (" + INVENTORY_LOG.getColumns() + ") "
+                    + INVENTORY_LOG.select("WHERE created_at < ? AND id <= ?");
+    private static final String SQL_DELETE_INVENTORY_LOGS =
+            "DELETE FROM " + INVENTORY_LOG.getTableName() + " WHERE created_at < ? AND id <= ?";
+
+    private static final String SQL_FIND_ARCHIVED_ORDER = ORDER.archive().select("WHERE id = ?");
+    private static final String SQL_FIND_ARCHIVED_ITEMS = RowMappers.ORDER_ITEM.archive().select("WHERE order_id = ?");
+    private static final String SQL_FIND_ARCHIVED_LOGISTICS = RowMappers.LOGISTICS.archive().select("WHERE order_id = ?");
+    private static final String SQL_FIND_ARCHIVED_INCOMES =
+            RowMappers.INCOME.archive().select("WHERE order_id = ? ORDER BY transaction_time DESC");
+    private static final String SQL_FIND_ARCHIVED_AFTER_SALES =
+            RowMappers.AFTER_SALES.archive().select("WHERE order_id = ? ORDER BY apply_time DESC");
+    private static final String SQL_FIND_ARCHIVED_REVIEW = RowMappers.REVIEW.archive().select("WHERE order_id = ?");
+
+    /**
+     * 查询可归档的订单号
+     */
+    @Override
+    public List<String> findArchivableOrderIds(LocalDateTime createdBefore, int limit) {
+        List<String> ids = new ArrayList<>();
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_ARCHIVABLE_ORDER_IDS)) {
+
+            pstmt.setTimestamp(1, Timestamp.valueOf(createdBefore));
+            pstmt.setInt(2, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+
+        } catch (SQLException e) {
+            logger.error("[FIND_ARCHIVABLE_ORDERS] Failed to find orders created before {}", createdBefore, e);
+        }
+
+        return ids;
+    }
+
+    /**
+     * 归档一批订单及其关联记录
+     */
+    @Override
+    public int archiveOrders(List<String> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        logger.info("[ARCHIVE_ORDERS] Archiving {} orders", orderIds.size());
+
+        try {
+            return Transactions.execute(() -> {
+                for (TableMapping<?> child : ORDER_CHILD_TABLES) {
+                    move(child, "order_id", orderIds);
+                }
+                return move(ORDER, "id", orderIds);
+            });
+        } catch (SQLException e) {
+            logger.error("[ARCHIVE_ORDERS] Failed to archive {} orders: {}", orderIds.size(), e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * 按ID顺序搬迁一批过期的库存日志。
+     * 先定位本批最后一条的ID，再按 (created_at, id) 范围复制和删除，两条语句覆盖同一批行。
+     */
+    @Override
+    public int archiveInventoryLogs(LocalDateTime createdBefore, int limit) {
+        logger.info("[ARCHIVE_INVENTORY_LOGS] Archiving up to {} inventory logs created before {}", limit, createdBefore);
+        Timestamp before = Timestamp.valueOf(createdBefore);
+
+        try {
+            return Transactions.execute(() -> {
+                Integer boundaryId = findInventoryLogBoundary(before, limit);
+                if (boundaryId == null) {
+                    return 0;
+                }
+
+                try (RowCounts.Write counts = RowCounts.beginWrite(INVENTORY_LOG.getTableName());
+                     Connection conn = ConnectionPool.getConnection();
+                     PreparedStatement copy = conn.prepareStatement(SQL_COPY_INVENTORY_LOGS);
+                     PreparedStatement delete = conn.prepareStatement(SQL_DELETE_INVENTORY_LOGS)) {
+
+                    copy.setTimestamp(1, before);
+                    copy.setInt(2, boundaryId);
+                    int copied = copy.executeUpdate();
+
+                    delete.setTimestamp(1, before);
+                    delete.setInt(2, boundaryId);
+                    int deleted = delete.executeUpdate();
+
+                    requireSameRows(INVENTORY_LOG.getTableName(), copied, deleted);
+                    counts.deletedRows(deleted);
+                    logger.info("[ARCHIVE_INVENTORY_LOGS] Archived {} inventory logs up to ID {}", deleted, boundaryId);
+                    return deleted;
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("[ARCHIVE_INVENTORY_LOGS] Failed to archive inventory logs: {}", e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * 从归档表读取订单详情
+     */
+    @Override
+    public OrderDetail findArchivedOrderDetail(String orderId) {
+        logger.debug("[FIND_ARCHIVED_ORDER] Looking up archived order: {}", orderId);
+
+        try (Connection conn = ConnectionPool.getConnection()) {
+            List<OrderInfo> orders = query(conn, ORDER, SQL_FIND_ARCHIVED_ORDER, orderId);
+            if (orders.isEmpty()) {
+                return null;
+            }
+
+            OrderDetail detail = new OrderDetail();
+            detail.setArchived(true);
+            detail.setOrderInfo(orders.get(0));
+            detail.setOrderItems(query(conn, RowMappers.ORDER_ITEM, SQL_FIND_ARCHIVED_ITEMS, orderId));
+            detail.setLogistics(first(query(conn, RowMappers.LOGISTICS, SQL_FIND_ARCHIVED_LOGISTICS, orderId)));
+            detail.setIncomes(query(conn, RowMappers.INCOME, SQL_FIND_ARCHIVED_INCOMES, orderId));
+            detail.setAfterSalesList(query(conn, RowMappers.AFTER_SALES, SQL_FIND_ARCHIVED_AFTER_SALES, orderId));
+            detail.setReview(first(query(conn, RowMappers.REVIEW, SQL_FIND_ARCHIVED_REVIEW, orderId)));
+            return detail;
+
+        } catch (SQLException e) {
+            logger.error("[FIND_ARCHIVED_ORDER] Failed to read archived order: {}", orderId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 把一张表中属于这些订单的行复制到归档表后删除，返回搬迁行数
+     */
+    private static int move(TableMapping<?> mapping, String column, List<String> orderIds) throws SQLException {
+        try (RowCounts.Write counts = RowCounts.beginWrite(mapping.getTableName())) {
+            int copied = OrderScopedStatements.copyIn(mapping, column, orderIds);
+            int deleted = OrderScopedStatements.deleteIn(mapping.getTableName(), column, orderIds);
+            requireSameRows(mapping.getTableName(), copied, deleted);
+            counts.deletedRows(deleted);
+            return deleted;
+        }
+    }
+
+    private static Integer findInventoryLogBoundary(Timestamp before, int limit) throws SQLException {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_INVENTORY_LOG_BOUNDARY)) {
+            pstmt.setTimestamp(1, before);
+            pstmt.setInt(2, limit - 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        // 不足一批时取剩余部分的最大ID
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_INVENTORY_LOG_MAX_ID)) {
+            pstmt.setTimestamp(1, before);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    int maxId = rs.getInt(1);
+                    return rs.wasNull() ? null : maxId;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void requireSameRows(String table, int copied, int deleted) throws SQLException {
+        if (copied != deleted) {
+            throw new SQLException("Archive of " + table + " copied " + copied + " rows but deleted " + deleted);
+        }
+    }
+
+    private static <T> List<T> query(Connection conn, TableMapping<T> mapping, String sql, String orderId)
+            throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return mapping.mapRows(rs);
+            }
+        }
+    }
+
+    private static <T> T first(List<T> rows) {
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
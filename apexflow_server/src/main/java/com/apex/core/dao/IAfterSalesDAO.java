@@ -45,6 +45,13 @@ public interface IAfterSalesDAO {
      */
     boolean delete(Integer id);
 
+    /**
+     * 删除一批订单的全部售后服务记录（单条或分段的 DELETE ... WHERE order_id IN 语句）
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByOrderIds(List<String> orderIds);
+
     /**
      * 查询所有售后服务记录（分页）
      * @param page 页码（从1开始）
@@ -0,0 +1,44 @@
+package com.apex.core.dao;
+
+import com.apex.core.dto.OrderDetail;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 冷数据归档数据访问对象接口
+ * 定义把已结束订单（含订单项、物流、财务、售后、评价）和过期库存日志
+ * 从热表搬迁到同结构的 *_archive 归档表，以及从归档表回读订单详情的操作
+ */
+public interface IArchiveDAO {
+
+    /**
+     * 查询可归档的订单号：已完成或已取消、且下单时间早于指定时间（按下单时间升序）
+     * @param createdBefore 下单时间上限（不含）
+     * @param limit 最多返回条数
+     * @return 订单号列表
+     */
+    List<String> findArchivableOrderIds(LocalDateTime createdBefore, int limit);
+
+    /**
+     * 把一批订单及其全部关联记录复制到归档表并从热表删除，所有表在同一事务中完成
+     * @param orderIds 订单号列表
+     * @return 归档的订单数，失败返回-1
+     */
+    int archiveOrders(List<String> orderIds);
+
+    /**
+     * 把早于指定时间的库存变更日志按ID顺序搬迁到归档表
+     * @param createdBefore 变更时间上限（不含）
+     * @param limit 本批最多搬迁条数
+     * @return 搬迁的日志条数，失败返回-1
+     */
+    int archiveInventoryLogs(LocalDateTime createdBefore, int limit);
+
+    /**
+     * 从归档表读取订单详情
+     * @param orderId 订单号
+     * @return 订单详情（archived为true），订单未归档返回null
+     */
+    OrderDetail findArchivedOrderDetail(String orderId);
+}
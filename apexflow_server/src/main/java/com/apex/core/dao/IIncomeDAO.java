@@ -3,6 +3,7 @@ package com.apex.core.dao;
 import com.apex.core.model.Income;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -46,6 +47,13 @@ public interface IIncomeDAO {
      */
     boolean delete(Integer id);
 
+    /**
+     * 删除一批订单的全部财务记录（单条或分段的 DELETE ... WHERE order_id IN 语句）
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByOrderIds(List<String> orderIds);
+
     /**
      * 查询所有财务记录（分页）
      * @param page 页码（从1开始）
@@ -97,4 +105,13 @@ public interface IIncomeDAO {
      * @return 日志总数
      */
     long count();
+
+    /**
+     * 按交易时间范围流式读取财务记录（按交易时间升序），逐行交给handler，不在内存中累积结果
+     * @param from 起始时间（含），为null时不限
+     * @param to 截止时间（不含），为null时不限
+     * @param handler 逐行回调
+     * @return 读取的行数，失败返回-1
+     */
+    long streamByTransactionTime(LocalDateTime from, LocalDateTime to, RowHandler<Income> handler);
 }
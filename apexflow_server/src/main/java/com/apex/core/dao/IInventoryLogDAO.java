@@ -3,6 +3,7 @@ package com.apex.core.dao;
 import com.apex.core.model.InventoryLog;
 import com.apex.core.model.Logistics;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,7 +27,7 @@ public interface IInventoryLogDAO {
     InventoryLog findById(Integer id);
 
     /**
-     * 根据商品ID查询库存变更日志（分页）
+     * 根据商品ID查询库存变更日志（分页，热表之后接续归档表中的日志）
      * @param productId 商品ID
      * @param page 页码（从1开始）
      * @param pageSize 每页记录数
@@ -34,6 +35,13 @@ public interface IInventoryLogDAO {
      */
     List<InventoryLog> findByProductId(Integer productId, int page, int pageSize);
 
+    /**
+     * 统计指定商品在归档表中的库存变更日志数（与findByProductId接续的归档部分对应）
+     * @param productId 商品ID
+     * @return 归档日志数，查询失败返回-1
+     */
+    long countArchivedByProductId(Integer productId);
+
     /**
      * 根据订单号查询库存变更日志
      * @param orderId 订单ID
@@ -97,4 +105,13 @@ public interface IInventoryLogDAO {
      * @return 日志总数
      */
     long count();
+
+    /**
+     * 按变更时间范围流式读取库存变更日志（按变更时间升序），逐行交给handler，不在内存中累积结果
+     * @param from 起始时间（含），为null时不限
+     * @param to 截止时间（不含），为null时不限
+     * @param handler 逐行回调
+     * @return 读取的行数，失败返回-1
+     */
+    long streamByCreatedAt(LocalDateTime from, LocalDateTime to, RowHandler<InventoryLog> handler);
 }
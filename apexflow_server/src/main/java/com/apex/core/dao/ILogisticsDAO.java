@@ -47,6 +47,13 @@ public interface ILogisticsDAO {
      */
     boolean delete(Integer id);
 
+    /**
+     * 删除一批订单的全部物流信息（单条或分段的 DELETE ... WHERE order_id IN 语句）
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByOrderIds(List<String> orderIds);
+
     /**
      * 更新物流状态
      * @param orderId 订单ID
@@ -1,7 +1,9 @@
 package com.apex.core.dao;
 
+import com.apex.core.dto.OrderListItem;
 import com.apex.core.model.OrderInfo;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -24,6 +26,13 @@ public interface IOrderInfoDAO {
      */
     OrderInfo findById(String orderId);
 
+    /**
+     * 查询订单行版本，用于条件请求的ETag，不加载整行
+     * @param orderId 订单ID
+     * @return 行版本，订单不存在（含已归档）或查询失败时返回null
+     */
+    Long findVersion(String orderId);
+
     /**
      * 更新订单信息
      * @param order 包含更新信息的订单对象
@@ -46,6 +55,22 @@ public interface IOrderInfoDAO {
      */
     boolean delete(String orderId);
 
+    /**
+     * 批量删除订单主记录，调用方需在同一事务中先删除订单项、物流、财务、售后和评价等子表记录
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByIds(List<String> orderIds);
+
+    /**
+     * 按状态查询下单时间早于指定时间的订单号（按下单时间升序），用于批量清理
+     * @param status 订单状态
+     * @param createdBefore 下单时间上限（不含）
+     * @param limit 最多返回条数
+     * @return 订单号列表
+     */
+    List<String> findIdsByStatus(int status, LocalDateTime createdBefore, int limit);
+
     /**
      * 统计订单总数
      * @return 订单总数
@@ -68,4 +93,21 @@ public interface IOrderInfoDAO {
      * @return 用户的所有订单列表
      */
     List<OrderInfo> findByUserId(int userId, int page, int pageSize);
+
+    /**
+     * 查询订单列表项（分页），只选取列表展示列，不加载订单项
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 分页后的订单列表项
+     */
+    List<OrderListItem> findListItems(int page, int pageSize);
+
+    /**
+     * 按下单时间范围流式读取订单（按下单时间升序），逐行交给handler，不在内存中累积结果
+     * @param from 起始时间（含），为null时不限
+     * @param to 截止时间（不含），为null时不限
+     * @param handler 逐行回调
+     * @return 读取的行数，失败返回-1
+     */
+    long streamByCreatedAt(LocalDateTime from, LocalDateTime to, RowHandler<OrderInfo> handler);
 }
@@ -46,6 +46,13 @@ public interface IOrderItemDAO {
      */
     boolean delete(Integer id);
 
+    /**
+     * 删除一批订单的全部订单项（单条或分段的 DELETE ... WHERE order_id IN 语句）
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByOrderIds(List<String> orderIds);
+
     /**
      * 批量创建订单项
      * @param orderItems 订单项对象列表
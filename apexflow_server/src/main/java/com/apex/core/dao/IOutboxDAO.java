@@ -0,0 +1,78 @@
+package com.apex.core.dao;
+
+import com.apex.core.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 事务发件箱数据访问对象接口
+ * 定义领域事件的写入、待投递查询、投递状态更新及处理回执操作
+ */
+public interface IOutboxDAO {
+
+    /**
+     * 写入一条待投递事件，应与产生事件的业务数据处于同一事务
+     * @param event 发件箱记录
+     * @return 写入成功返回true，失败返回false
+     */
+    boolean append(OutboxEvent event);
+
+    /**
+     * 按写入顺序查询已到投递时间的待投递事件
+     * @param limit 最多返回条数
+     * @return 待投递事件列表
+     */
+    List<OutboxEvent> findDue(int limit);
+
+    /**
+     * 标记事件已投递给所有处理器
+     * @param id 发件箱记录ID
+     * @return 更新成功返回true，失败返回false
+     */
+    boolean markDelivered(Long id);
+
+    /**
+     * 记录一次投递失败并安排重试
+     * @param id 发件箱记录ID
+     * @param attempts 累计尝试次数
+     * @param nextAttemptAt 下次投递时间
+     * @param error 失败原因
+     * @return 更新成功返回true，失败返回false
+     */
+    boolean markRetry(Long id, int attempts, LocalDateTime nextAttemptAt, String error);
+
+    /**
+     * 标记事件投递失败（重试次数耗尽），不再自动投递
+     * @param id 发件箱记录ID
+     * @param attempts 累计尝试次数
+     * @param error 失败原因
+     * @return 更新成功返回true，失败返回false
+     */
+    boolean markDead(Long id, int attempts, String error);
+
+    /**
+     * 根据状态查询事件（按ID倒序，分页）
+     * @param status 投递状态
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 事件列表
+     */
+    List<OutboxEvent> findByStatus(int status, int page, int pageSize);
+
+    /**
+     * 查询处理器是否已处理过该事件
+     * @param idempotencyKey 事件幂等键
+     * @param handler 处理器名称
+     * @return 已处理返回true
+     */
+    boolean hasReceipt(String idempotencyKey, String handler);
+
+    /**
+     * 记录处理器已处理该事件，应与处理器的业务写入处于同一事务
+     * @param idempotencyKey 事件幂等键
+     * @param handler 处理器名称
+     * @return 记录成功返回true；重复记录或失败返回false
+     */
+    boolean recordReceipt(String idempotencyKey, String handler);
+}
@@ -1,8 +1,11 @@
 package com.apex.core.dao;
 
+import com.apex.core.dto.ProductListItem;
 import com.apex.core.model.Product;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 商品数据访问对象接口
@@ -24,6 +27,13 @@ public interface IProductDAO {
      */
     Product findById(Integer id);
 
+    /**
+     * 查询商品行版本，用于条件请求的ETag，不加载整行
+     * @param id 商品ID
+     * @return 行版本，商品不存在或查询失败时返回null
+     */
+    Long findVersion(Integer id);
+
     /**
      * 更新商品信息
      * @param product 包含更新信息的商品对象
@@ -73,6 +83,29 @@ public interface IProductDAO {
      */
     List<Product> searchByName(String keyword, int page, int pageSize);
 
+    /**
+     * 查询商品列表项（分页），直接映射为列表DTO
+     * 过滤条件优先级：关键词 > 分类 > 状态，均为空时查询全部
+     * @param keyword 名称关键词（可选）
+     * @param category 商品分类（可选）
+     * @param status 商品状态（可选）
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 商品列表项
+     */
+    List<ProductListItem> findListItems(String keyword, String category, Integer status, int page, int pageSize);
+
+    /**
+     * 搜索商品，关键词匹配名称或分类，可同时按分类、状态过滤
+     * @param keyword 搜索关键词（可选）
+     * @param category 商品分类（可选）
+     * @param status 商品状态（可选）
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 按创建时间倒序的商品列表
+     */
+    List<Product> search(String keyword, String category, Integer status, int page, int pageSize);
+
     /**
      * 更新商品库存
      * @param id 商品ID
@@ -89,6 +122,35 @@ public interface IProductDAO {
      */
     boolean increaseStock(Integer id, Integer quantity);
 
+    /**
+     * 批量增加商品库存（一次批量UPDATE，再一次查询回读库存）
+     * @param quantities 商品ID到增加数量的映射
+     * @return 商品ID到增加后库存的映射（已不存在的商品不在其中），失败返回null
+     */
+    Map<Integer, Integer> increaseStockBatch(Map<Integer, Integer> quantities);
+
+    /**
+     * 查询并锁定（SELECT ... FOR UPDATE）ID或名称匹配的商品，须在事务中调用
+     * @param ids 商品ID
+     * @param names 商品名称（精确匹配）
+     * @return 匹配的商品，失败返回null
+     */
+    List<Product> lockByIdsOrNames(Collection<Integer> ids, Collection<String> names);
+
+    /**
+     * 批量创建商品（一次批量INSERT），成功后回填各商品ID
+     * @param products 商品列表
+     * @return 创建成功返回true，失败返回false
+     */
+    boolean createBatch(List<Product> products);
+
+    /**
+     * 批量更新商品的名称、分类、价格、状态和图片（一次批量UPDATE，不修改库存）
+     * @param products 商品列表
+     * @return 更新成功返回true，失败返回false
+     */
+    boolean updateBatch(List<Product> products);
+
     /**
      * 减少商品库存
      * @param id 商品ID
@@ -2,6 +2,7 @@ package com.apex.core.dao;
 
 import com.apex.core.model.Review;
 import com.apex.core.dto.RatingDistribution;
+import com.apex.core.dto.ReviewSummary;
 
 import java.util.List;
 
@@ -50,6 +51,17 @@ public interface IReviewDAO {
      */
     List<Review> findByUserId(Integer userId, int page, int pageSize);
 
+    /**
+     * 查询评价摘要（分页），只返回内容摘要和是否有图标记
+     * 商品ID优先于用户ID，均为空时按时间倒序查询全部
+     * @param productId 商品ID（可选）
+     * @param userId 用户ID（可选）
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 评价摘要列表
+     */
+    List<ReviewSummary> findSummaries(Integer productId, Integer userId, int page, int pageSize);
+
     /**
      * 更新评价
      * @param review 包含更新信息的评价对象
@@ -64,6 +76,13 @@ public interface IReviewDAO {
      */
     boolean delete(Integer id);
 
+    /**
+     * 删除一批订单的全部评价（单条或分段的 DELETE ... WHERE order_id IN 语句）
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByOrderIds(List<String> orderIds);
+
     /**
      * 获取商品平均评分
      * @param productId 商品ID
@@ -0,0 +1,46 @@
+package com.apex.core.dao;
+
+import com.apex.core.model.StockReservation;
+
+import java.util.List;
+
+/**
+ * 库存预留数据访问对象接口
+ * 定义待支付订单库存预留记录的写入、查询、过期标记及删除操作
+ */
+public interface IStockReservationDAO {
+
+    /**
+     * 批量写入预留记录，应与创建订单处于同一事务
+     * @param reservations 预留记录列表
+     * @return 写入成功返回true，失败返回false
+     */
+    boolean createBatch(List<StockReservation> reservations);
+
+    /**
+     * 查询订单的全部预留记录（含已过期释放的记录）
+     * @param orderId 订单号
+     * @return 预留记录列表
+     */
+    List<StockReservation> findByOrderId(String orderId);
+
+    /**
+     * 查询所有预留中的记录，用于启动时重建内存中的预留
+     * @return 预留记录列表，查询失败返回null
+     */
+    List<StockReservation> findHeld();
+
+    /**
+     * 把订单的预留记录标记为已过期释放
+     * @param orderIds 订单号列表
+     * @return 更新的行数，失败返回-1
+     */
+    int markReleased(List<String> orderIds);
+
+    /**
+     * 按订单号批量删除预留记录
+     * @param orderIds 订单号列表
+     * @return 删除的行数，失败返回-1
+     */
+    int deleteByOrderIds(List<String> orderIds);
+}
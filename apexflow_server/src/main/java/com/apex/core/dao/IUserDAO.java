@@ -1,8 +1,11 @@
 package com.apex.core.dao;
 
+import com.apex.core.dto.AdminUserDTO;
 import com.apex.core.model.SystemUser;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用户数据访问对象接口
@@ -52,6 +55,22 @@ public interface IUserDAO {
      */
     boolean updateLastLoginTime(Integer userId);
 
+    /**
+     * 批量更新多个用户的最后登录时间（每批一条UPDATE语句）
+     * @param lastLoginTimes 用户ID -> 最后登录时间
+     * @return 更新的行数，失败返回-1
+     */
+    int updateLastLoginTimes(Map<Integer, LocalDateTime> lastLoginTimes);
+
+    /**
+     * 更新用户密码哈希和盐（登录时升级旧格式哈希）
+     * @param userId 用户ID
+     * @param passwordHash 新的密码哈希
+     * @param salt 新的盐值
+     * @return 更新成功返回true，失败返回false
+     */
+    boolean updatePassword(Integer userId, String passwordHash, String salt);
+
     /**
      * 更新用户状态
      * @param userId 用户ID
@@ -93,12 +112,51 @@ public interface IUserDAO {
      */
     List<SystemUser> search(String keyword, int page, int pageSize);
 
+    /**
+     * 获取管理端用户列表项（分页），不读取密码哈希和盐值
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 分页后的用户列表项
+     */
+    List<AdminUserDTO> findAdminUsers(int page, int pageSize);
+
+    /**
+     * 按ID升序分批读取管理端用户列表项，用于顺序遍历整张用户表
+     * @param afterId 上一批最后一个用户ID，首批传0
+     * @param limit 每批记录数
+     * @return ID大于afterId的用户列表项
+     */
+    List<AdminUserDTO> findAdminUsersAfter(int afterId, int limit);
+
+    /**
+     * 按ID批量读取管理端用户列表项，返回顺序与ids一致，不存在的ID被跳过
+     * @param ids 用户ID列表
+     * @return 用户列表项
+     */
+    List<AdminUserDTO> findAdminUsersByIds(List<Integer> ids);
+
+    /**
+     * 搜索管理端用户列表项（按用户名、姓名、邮箱、电话），不读取密码哈希和盐值
+     * @param keyword 搜索关键词
+     * @param page 页码（从1开始）
+     * @param pageSize 每页记录数
+     * @return 包含关键词的用户列表项
+     */
+    List<AdminUserDTO> searchAdminUsers(String keyword, int page, int pageSize);
+
     /**
      * 统计用户总数
      * @return 用户总数
      */
     long count();
 
+    /**
+     * 统计关键词搜索（用户名、姓名、邮箱、电话）命中的用户数
+     * @param keyword 搜索关键词
+     * @return 命中用户数
+     */
+    long countSearch(String keyword);
+
     /**
      * 统计活跃用户数
      * @return 活跃用户数（状态为1的用户）
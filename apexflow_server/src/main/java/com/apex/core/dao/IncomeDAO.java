@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -17,6 +18,16 @@ import java.util.List;
 public class IncomeDAO implements IIncomeDAO{
     private static final Logger logger = LoggerFactory.getLogger(IncomeDAO.class);
 
+    private static final TableMapping<Income> MAPPING = RowMappers.INCOME;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_STREAM_BY_TIME = StreamingQueries.rangeSql(MAPPING, "transaction_time");
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ? ORDER BY transaction_time DESC");
+    private static final String SQL_FIND_ALL = MAPPING.select("ORDER BY transaction_time DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_TYPE = MAPPING.select("WHERE type = ? ORDER BY transaction_time DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_STATUS = MAPPING.select("WHERE status = ? ORDER BY transaction_time DESC LIMIT ? OFFSET ?");
+
     /**
      * 创建财务记录
      */
@@ -76,7 +87,7 @@ public class IncomeDAO implements IIncomeDAO{
      * 根据ID查询财务记录
      */
     public Income findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_income WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding income record by ID: {}", id);
 
@@ -87,7 +98,7 @@ public class IncomeDAO implements IIncomeDAO{
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToIncome(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -102,7 +113,7 @@ public class IncomeDAO implements IIncomeDAO{
      * 根据订单号查询财务记录
      */
     public List<Income> findByOrderId(String orderId) {
-        String sql = "SELECT * FROM apexflow_income WHERE order_id = ? ORDER BY transaction_time DESC";
+        String sql = SQL_FIND_BY_ORDER_ID;
         List<Income> list = new ArrayList<>();
 
         logger.debug("Finding income records by order ID: {}", orderId);
@@ -114,7 +125,7 @@ public class IncomeDAO implements IIncomeDAO{
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToIncome(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -194,11 +205,30 @@ public class IncomeDAO implements IIncomeDAO{
         }
     }
 
+    /**
+     * 按订单号批量删除财务记录
+     */
+    public int deleteByOrderIds(List<String> orderIds) {
+        logger.warn("[DELETE_INCOME_BY_ORDER_IDS] Deleting income records of {} orders", orderIds.size());
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName())) {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "order_id", orderIds);
+            counts.deletedRows(rowsAffected);
+            logger.warn("[DELETE_INCOME_BY_ORDER_IDS] Rows affected: {}", rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RowCounts.invalidate(MAPPING.getTableName());
+            logger.error("[DELETE_INCOME_BY_ORDER_IDS] Failed to delete income records of {} orders", orderIds.size(), e);
+            return -1;
+        }
+    }
+
     /**
      * 查询所有财务记录（分页）
      */
     public List<Income> findAll(int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_income ORDER BY transaction_time DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_ALL;
         List<Income> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -213,7 +243,7 @@ public class IncomeDAO implements IIncomeDAO{
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToIncome(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -228,7 +258,7 @@ public class IncomeDAO implements IIncomeDAO{
      * 根据类型查询财务记录
      */
     public List<Income> findByType(String type, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_income WHERE type = ? ORDER BY transaction_time DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_TYPE;
         List<Income> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -244,7 +274,7 @@ public class IncomeDAO implements IIncomeDAO{
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToIncome(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -259,7 +289,7 @@ public class IncomeDAO implements IIncomeDAO{
      * 根据状态查询财务记录
      */
     public List<Income> findByStatus(Integer status, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_income WHERE status = ? ORDER BY transaction_time DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_STATUS;
         List<Income> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -275,7 +305,7 @@ public class IncomeDAO implements IIncomeDAO{
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToIncome(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -353,27 +383,6 @@ public class IncomeDAO implements IIncomeDAO{
         }
     }
 
-    /**
-     * 映射ResultSet到Income对象
-     */
-    private Income mapToIncome(ResultSet rs) throws SQLException {
-        Income income = new Income();
-        income.setId(rs.getInt("id"));
-        income.setOrderId(rs.getString("order_id"));
-        income.setType(rs.getString("type"));
-        income.setAmount(rs.getBigDecimal("amount"));
-        income.setPaymentMethod(rs.getString("payment_method"));
-        income.setStatus(rs.getInt("status"));
-
-        Timestamp transactionTime = rs.getTimestamp("transaction_time");
-        if (transactionTime != null) {
-            income.setTransactionTime(transactionTime.toLocalDateTime());
-        }
-
-        income.setRemark(rs.getString("remark"));
-
-        return income;
-    }
 
     /**
      * 统计总数
@@ -403,4 +412,26 @@ public class IncomeDAO implements IIncomeDAO{
             return 0;
         }
     }
+
+    /**
+     * 按交易时间范围流式读取财务记录
+     */
+    public long streamByTransactionTime(LocalDateTime from, LocalDateTime to, RowHandler<Income> handler) {
+        logger.info("[STREAM_INCOMES] Streaming income records. From: {}, To: {}", from, to);
+        long startTime = System.currentTimeMillis();
+
+        try {
+            long rows = StreamingQueries.stream(MAPPING, SQL_STREAM_BY_TIME, from, to, handler);
+            logger.info("[STREAM_INCOMES] Streamed {} income records in {} ms", rows, System.currentTimeMillis() - startTime);
+            return rows;
+
+        } catch (SQLException e) {
+            logger.error("[STREAM_INCOMES] Failed to stream income records. From: {}, To: {}", from, to, e);
+            return -1;
+        } catch (IOException e) {
+            // 通常是客户端中途断开
+            logger.warn("[STREAM_INCOMES] Streaming income records aborted by handler: {}", e.getMessage());
+            return -1;
+        }
+    }
 }
@@ -5,7 +5,9 @@ import com.apex.util.ConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +17,23 @@ import java.util.List;
 public class InventoryLogDAO implements IInventoryLogDAO {
     private static final Logger logger = LoggerFactory.getLogger(InventoryLogDAO.class);
 
+    private static final TableMapping<InventoryLog> MAPPING = RowMappers.INVENTORY_LOG;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_STREAM_BY_TIME = StreamingQueries.rangeSql(MAPPING, "created_at");
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_PRODUCT_ID = MAPPING.select("WHERE product_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ? ORDER BY created_at DESC");
+    private static final String SQL_FIND_BY_CHANGE_TYPE = MAPPING.select("WHERE change_type = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_LATEST_BY_PRODUCT_ID = MAPPING.select("WHERE product_id = ? ORDER BY created_at DESC LIMIT 1");
+    private static final String SQL_FIND_RECENT_CHANGES = MAPPING.select("ORDER BY created_at DESC LIMIT ?");
+    private static final String SQL_COUNT_BY_PRODUCT_ID =
+            "SELECT COUNT(*) FROM " + MAPPING.getTableName() + " WHERE product_id = ?";
+    private static final String SQL_FIND_ARCHIVED_BY_PRODUCT_ID =
+            MAPPING.archive().select("WHERE product_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_COUNT_ARCHIVED_BY_PRODUCT_ID =
+            "SELECT COUNT(*) FROM " + MAPPING.archive().getTableName() + " WHERE product_id = ?";
+
     /**
      * 创建库存变更日志
      */
@@ -28,7 +47,8 @@ public class InventoryLogDAO implements IInventoryLogDAO {
         logger.info("Creating inventory log for product: {}, type: {}, quantity: {}",
                 inventoryLog.getProductId(), inventoryLog.getChangeType(), inventoryLog.getQuantity());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setInt(1, inventoryLog.getProductId());
@@ -46,6 +66,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                counts.inserted("product_id", inventoryLog.getProductId(), "change_type", inventoryLog.getChangeType());
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         inventoryLog.setId(generatedKeys.getInt(1));
@@ -67,7 +88,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
      * 根据ID查询库存变更日志
      */
     public InventoryLog findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_inventory_log WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding inventory log by ID: {}", id);
 
@@ -78,7 +99,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToInventoryLog(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -93,7 +114,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
      * 根据商品ID查询库存变更日志（分页）
      */
     public List<InventoryLog> findByProductId(Integer productId, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_inventory_log WHERE product_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_PRODUCT_ID;
         List<InventoryLog> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -109,10 +130,17 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToInventoryLog(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
+            // 归档的日志都早于热表中的日志，热表不足一页时接着从归档表取
+            if (list.size() < pageSize) {
+                int hotRows = list.isEmpty() ? countByProductId(conn, productId) : offset + list.size();
+                list.addAll(findArchivedByProductId(conn, productId,
+                        pageSize - list.size(), Math.max(0, offset - hotRows)));
+            }
+
         } catch (SQLException e) {
             logger.error("Failed to find inventory logs for product: {}", productId, e);
         }
@@ -120,11 +148,53 @@ public class InventoryLogDAO implements IInventoryLogDAO {
         return list;
     }
 
+    private int countByProductId(Connection conn, Integer productId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_COUNT_BY_PRODUCT_ID)) {
+            pstmt.setInt(1, productId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * 统计指定商品的归档日志数
+     */
+    public long countArchivedByProductId(Integer productId) {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_COUNT_ARCHIVED_BY_PRODUCT_ID)) {
+            pstmt.setInt(1, productId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to count archived inventory logs for product: {}. Error: {}", productId, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 从归档表分页读取；归档表不存在或查询失败时只返回热表数据
+     */
+    private List<InventoryLog> findArchivedByProductId(Connection conn, Integer productId, int limit, int offset) {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_ARCHIVED_BY_PRODUCT_ID)) {
+            pstmt.setInt(1, productId);
+            pstmt.setInt(2, limit);
+            pstmt.setInt(3, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return MAPPING.mapRows(rs);
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to read archived inventory logs for product: {}. Error: {}", productId, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * 根据订单号查询库存变更日志
      */
     public List<InventoryLog> findByOrderId(String orderId) {
-        String sql = "SELECT * FROM apexflow_inventory_log WHERE order_id = ? ORDER BY created_at DESC";
+        String sql = SQL_FIND_BY_ORDER_ID;
         List<InventoryLog> list = new ArrayList<>();
 
         logger.debug("Finding inventory logs for order: {}", orderId);
@@ -136,7 +206,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToInventoryLog(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -151,7 +221,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
      * 根据变更类型查询库存变更日志（分页）
      */
     public List<InventoryLog> findByChangeType(String changeType, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_inventory_log WHERE change_type = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_CHANGE_TYPE;
         List<InventoryLog> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -167,7 +237,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToInventoryLog(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -182,7 +252,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
      * 获取商品最近一次库存变更
      */
     public InventoryLog findLatestByProductId(Integer productId) {
-        String sql = "SELECT * FROM apexflow_inventory_log WHERE product_id = ? ORDER BY created_at DESC LIMIT 1";
+        String sql = SQL_FIND_LATEST_BY_PRODUCT_ID;
 
         logger.debug("Finding latest inventory log for product: {}", productId);
 
@@ -193,7 +263,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToInventoryLog(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -298,7 +368,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
      * 获取最近库存变更
      */
     public List<InventoryLog> findRecentChanges(int limit) {
-        String sql = "SELECT * FROM apexflow_inventory_log ORDER BY created_at DESC LIMIT ?";
+        String sql = SQL_FIND_RECENT_CHANGES;
         List<InventoryLog> list = new ArrayList<>();
 
         logger.debug("Finding recent inventory changes. Limit: {}", limit);
@@ -310,7 +380,7 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToInventoryLog(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -333,7 +403,8 @@ public class InventoryLogDAO implements IInventoryLogDAO {
 
         logger.info("Creating batch inventory logs. Count: {}", inventoryLogs.size());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             for (InventoryLog log : inventoryLogs) {
@@ -353,6 +424,9 @@ public class InventoryLogDAO implements IInventoryLogDAO {
             }
 
             int[] rowsAffected = pstmt.executeBatch();
+            for (InventoryLog log : inventoryLogs) {
+                counts.inserted("product_id", log.getProductId(), "change_type", log.getChangeType());
+            }
 
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 int index = 0;
@@ -366,31 +440,13 @@ public class InventoryLogDAO implements IInventoryLogDAO {
             return true;
 
         } catch (SQLException e) {
+            // 批量写入可能已部分提交，影响行数未知
+            RowCounts.invalidate(MAPPING.getTableName());
             logger.error("Failed to create batch inventory logs", e);
             return false;
         }
     }
 
-    /**
-     * 映射ResultSet到InventoryLog对象
-     */
-    private InventoryLog mapToInventoryLog(ResultSet rs) throws SQLException {
-        InventoryLog inventoryLog = new InventoryLog();
-        inventoryLog.setId(rs.getInt("id"));
-        inventoryLog.setProductId(rs.getInt("product_id"));
-        inventoryLog.setChangeType(rs.getString("change_type"));
-        inventoryLog.setQuantity(rs.getInt("quantity"));
-        inventoryLog.setBeforeStock(rs.getInt("before_stock"));
-        inventoryLog.setAfterStock(rs.getInt("after_stock"));
-        inventoryLog.setOrderId(rs.getString("order_id"));
-
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            inventoryLog.setCreatedAt(createdAt.toLocalDateTime());
-        }
-
-        return inventoryLog;
-    }
 
     /**
      * 统计日志总数
@@ -420,4 +476,26 @@ public class InventoryLogDAO implements IInventoryLogDAO {
             return 0;
         }
     }
+
+    /**
+     * 按变更时间范围流式读取库存变更日志
+     */
+    public long streamByCreatedAt(LocalDateTime from, LocalDateTime to, RowHandler<InventoryLog> handler) {
+        logger.info("[STREAM_INVENTORY_LOGS] Streaming inventory logs. From: {}, To: {}", from, to);
+        long startTime = System.currentTimeMillis();
+
+        try {
+            long rows = StreamingQueries.stream(MAPPING, SQL_STREAM_BY_TIME, from, to, handler);
+            logger.info("[STREAM_INVENTORY_LOGS] Streamed {} inventory logs in {} ms", rows, System.currentTimeMillis() - startTime);
+            return rows;
+
+        } catch (SQLException e) {
+            logger.error("[STREAM_INVENTORY_LOGS] Failed to stream inventory logs. From: {}, To: {}", from, to, e);
+            return -1;
+        } catch (IOException e) {
+            // 通常是客户端中途断开
+            logger.warn("[STREAM_INVENTORY_LOGS] Streaming inventory logs aborted by handler: {}", e.getMessage());
+            return -1;
+        }
+    }
 }
@@ -18,6 +18,24 @@ import java.util.List;
 public class LogisticsDAO implements ILogisticsDAO {
     private static final Logger logger = LoggerFactory.getLogger(LogisticsDAO.class);
 
+    private static final TableMapping<Logistics> MAPPING = RowMappers.LOGISTICS;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ?");
+    private static final String SQL_FIND_PENDING_SHIPPING = MAPPING.select("WHERE status = 'pending' ORDER BY created_at LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_IN_TRANSIT = MAPPING.select("WHERE status = 'shipped' ORDER BY shipped_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_ALL = MAPPING.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
+    /**
+     * 部分列更新语句生成器，列顺序与Logistics.FIELD_*一致
+     */
+    private static final PartialUpdate<Logistics> PARTIAL_UPDATE = new PartialUpdate<>(
+            "apexflow_logistics", "order_id",
+            new String[]{"express_company", "tracking_number", "status", "sender_address",
+                    "receiver_address", "shipped_at", "delivered_at"},
+            LogisticsDAO::bindField);
+
     /**
      * 创建物流信息
      */
@@ -82,6 +100,7 @@ public class LogisticsDAO implements ILogisticsDAO {
                         logistics.setId(generatedKeys.getInt(1));
                     }
                 }
+                logistics.markClean();
                 logger.info("Logistics record created successfully. ID: {}", logistics.getId());
                 return true;
             }
@@ -98,7 +117,7 @@ public class LogisticsDAO implements ILogisticsDAO {
      * 根据ID查询物流信息
      */
     public Logistics findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_logistics WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding logistics record by ID: {}", id);
 
@@ -109,7 +128,7 @@ public class LogisticsDAO implements ILogisticsDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToLogistics(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -124,7 +143,7 @@ public class LogisticsDAO implements ILogisticsDAO {
      * 根据订单号查询物流信息
      */
     public Logistics findByOrderId(String orderId) {
-        String sql = "SELECT * FROM apexflow_logistics WHERE order_id = ?";
+        String sql = SQL_FIND_BY_ORDER_ID;
 
         logger.debug("Finding logistics record by order ID: {}", orderId);
 
@@ -135,7 +154,7 @@ public class LogisticsDAO implements ILogisticsDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToLogistics(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -148,8 +167,13 @@ public class LogisticsDAO implements ILogisticsDAO {
 
     /**
      * 更新物流信息
+     * 从数据库加载的记录只更新加载后修改过的列，新建对象整行更新
      */
     public boolean update(Logistics logistics) {
+        if (logistics.tracksChanges()) {
+            return updateChangedColumns(logistics);
+        }
+
         String sql = """
             UPDATE apexflow_logistics
             SET express_company = ?, tracking_number = ?, status = ?,
@@ -205,6 +229,9 @@ public class LogisticsDAO implements ILogisticsDAO {
 
             int rowsAffected = pstmt.executeUpdate();
             logger.info("Logistics record updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                logistics.markClean();
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -213,6 +240,55 @@ public class LogisticsDAO implements ILogisticsDAO {
         }
     }
 
+    /**
+     * 只更新加载后修改过的列
+     */
+    private boolean updateChangedColumns(Logistics logistics) {
+        long changed = logistics.changedFields();
+        if (changed == 0) {
+            logger.debug("No changed columns for logistics of order: {}, skipping update", logistics.getOrderId());
+            return true;
+        }
+
+        logger.info("Updating logistics record for order: {}, Columns: [{}]",
+                logistics.getOrderId(), PARTIAL_UPDATE.describe(changed));
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PARTIAL_UPDATE.sqlFor(changed))) {
+
+            int keyIndex = PARTIAL_UPDATE.bindChanged(pstmt, logistics, changed);
+            pstmt.setString(keyIndex, logistics.getOrderId());
+
+            int rowsAffected = pstmt.executeUpdate();
+            logger.info("Logistics record updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                logistics.markClean();
+            }
+            return rowsAffected > 0;
+
+        } catch (SQLException e) {
+            logger.error("Failed to update logistics record for order: {}", logistics.getOrderId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 绑定单个可更新字段
+     */
+    private static void bindField(PreparedStatement pstmt, int index, Logistics logistics, int field)
+            throws SQLException {
+        switch (field) {
+            case Logistics.FIELD_EXPRESS_COMPANY -> PartialUpdate.setString(pstmt, index, logistics.getExpressCompany());
+            case Logistics.FIELD_TRACKING_NUMBER -> PartialUpdate.setString(pstmt, index, logistics.getTrackingNumber());
+            case Logistics.FIELD_STATUS -> PartialUpdate.setString(pstmt, index, logistics.getStatus());
+            case Logistics.FIELD_SENDER_ADDRESS -> PartialUpdate.setString(pstmt, index, logistics.getSenderAddress());
+            case Logistics.FIELD_RECEIVER_ADDRESS -> PartialUpdate.setString(pstmt, index, logistics.getReceiverAddress());
+            case Logistics.FIELD_SHIPPED_AT -> PartialUpdate.setTimestamp(pstmt, index, logistics.getShippedAt());
+            case Logistics.FIELD_DELIVERED_AT -> PartialUpdate.setTimestamp(pstmt, index, logistics.getDeliveredAt());
+            default -> throw new IllegalArgumentException("Unknown logistics field: " + field);
+        }
+    }
+
     /**
      * 删除物流信息
      */
@@ -235,6 +311,25 @@ public class LogisticsDAO implements ILogisticsDAO {
         }
     }
 
+    /**
+     * 按订单号批量删除物流信息
+     */
+    public int deleteByOrderIds(List<String> orderIds) {
+        logger.warn("[DELETE_LOGISTICS_BY_ORDER_IDS] Deleting logistics records of {} orders", orderIds.size());
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName())) {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "order_id", orderIds);
+            counts.deletedRows(rowsAffected);
+            logger.warn("[DELETE_LOGISTICS_BY_ORDER_IDS] Rows affected: {}", rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RowCounts.invalidate(MAPPING.getTableName());
+            logger.error("[DELETE_LOGISTICS_BY_ORDER_IDS] Failed to delete logistics records of {} orders", orderIds.size(), e);
+            return -1;
+        }
+    }
+
     /**
      * 更新物流状态
      */
@@ -319,7 +414,7 @@ public class LogisticsDAO implements ILogisticsDAO {
      * 查询待发货的订单
      */
     public List<Logistics> findPendingShipping(int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_logistics WHERE status = 'pending' ORDER BY created_at LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_PENDING_SHIPPING;
         List<Logistics> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -334,7 +429,7 @@ public class LogisticsDAO implements ILogisticsDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToLogistics(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -349,7 +444,7 @@ public class LogisticsDAO implements ILogisticsDAO {
      * 查询运输中的订单
      */
     public List<Logistics> findInTransit(int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_logistics WHERE status = 'shipped' ORDER BY shipped_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_IN_TRANSIT;
         List<Logistics> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -364,7 +459,7 @@ public class LogisticsDAO implements ILogisticsDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToLogistics(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -412,36 +507,6 @@ public class LogisticsDAO implements ILogisticsDAO {
         return new LogisticsStats();
     }
 
-    /**
-     * 映射ResultSet到Logistics对象
-     */
-    private Logistics mapToLogistics(ResultSet rs) throws SQLException {
-        Logistics logistics = new Logistics();
-        logistics.setId(rs.getInt("id"));
-        logistics.setOrderId(rs.getString("order_id"));
-        logistics.setExpressCompany(rs.getString("express_company"));
-        logistics.setTrackingNumber(rs.getString("tracking_number"));
-        logistics.setStatus(rs.getString("status"));
-        logistics.setSenderAddress(rs.getString("sender_address"));
-        logistics.setReceiverAddress(rs.getString("receiver_address"));
-
-        Timestamp shippedAt = rs.getTimestamp("shipped_at");
-        if (shippedAt != null) {
-            logistics.setShippedAt(shippedAt.toLocalDateTime());
-        }
-
-        Timestamp deliveredAt = rs.getTimestamp("delivered_at");
-        if (deliveredAt != null) {
-            logistics.setDeliveredAt(deliveredAt.toLocalDateTime());
-        }
-
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            logistics.setCreatedAt(createdAt.toLocalDateTime());
-        }
-
-        return logistics;
-    }
 
     /**
      * Count total number of orders
@@ -479,11 +544,7 @@ public class LogisticsDAO implements ILogisticsDAO {
         long startTime = System.currentTimeMillis();
 
         List<Logistics> logistics = new ArrayList<>();
-        String sql = """
-            SELECT * FROM apexflow_logistics
-            ORDER BY created_at DESC
-            LIMIT ? OFFSET ?
-            """;
+        String sql = SQL_FIND_ALL;
 
         if (page < 1) page = 1;
         int offset = (page - 1) * pageSize;
@@ -500,7 +561,7 @@ public class LogisticsDAO implements ILogisticsDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 int count = 0;
                 while (rs.next()) {
-                    logistics.add(mapToLogistics(rs));
+                    logistics.add(MAPPING.mapRow(rs));
                     count++;
                 }
 
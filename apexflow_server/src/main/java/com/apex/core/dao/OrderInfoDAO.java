@@ -1,12 +1,15 @@
 // [file name]: OrderInfoDAO.java (修复版本)
 package com.apex.core.dao;
 
+import com.apex.core.dto.OrderListItem;
 import com.apex.core.model.OrderInfo;
 import com.apex.util.ConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +19,25 @@ import java.util.List;
 public class OrderInfoDAO implements IOrderInfoDAO {
     private static final Logger logger = LoggerFactory.getLogger(OrderInfoDAO.class);
 
+    private static final TableMapping<OrderInfo> MAPPING = RowMappers.ORDER_INFO;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_STREAM_BY_TIME = StreamingQueries.rangeSql(MAPPING, "created_at");
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_VERSION = "SELECT version FROM apexflow_order WHERE id = ?";
+    private static final String SQL_FIND_ALL = MAPPING.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_USER_ID = MAPPING.select("WHERE user_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_LIST_ITEMS = RowMappers.ORDER_LIST_ITEM.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
+    /**
+     * 部分列更新语句生成器，列顺序与OrderInfo.FIELD_*一致
+     */
+    private static final PartialUpdate<OrderInfo> PARTIAL_UPDATE = new PartialUpdate<>(
+            "apexflow_order", "id",
+            new String[]{"user_id", "total_amount", "status", "payment_method", "address_id",
+                    "created_at", "paid_at", "shipped_at", "completed_at"},
+            OrderInfoDAO::bindField, "version");
+
     /**
      * Create a new order
      */
@@ -30,10 +52,11 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             """;
 
-        logger.info("[{}] Starting order creation. Order ID: {}, User ID: {}",
+        logger.debug("[{}] Starting order creation. Order ID: {}, User ID: {}",
                 operation, order.getId(), order.getUserId());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             // 正确设置10个参数
@@ -80,7 +103,9 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             long duration = System.currentTimeMillis() - startTime;
 
             if (success) {
-                logger.info("[{}] Order created successfully in {} ms. Order ID: {}, Rows affected: {}",
+                counts.inserted("status", order.getStatus(), "user_id", order.getUserId());
+                order.markClean();
+                logger.debug("[{}] Order created successfully in {} ms. Order ID: {}, Rows affected: {}",
                         operation, duration, order.getId(), rowsAffected);
             } else {
                 logger.warn("[{}] Order creation failed. No rows affected. Order ID: {}",
@@ -104,7 +129,7 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         String operation = "SELECT_ORDER_BY_ID";
         long startTime = System.currentTimeMillis();
 
-        String sql = "SELECT * FROM apexflow_order WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("[{}] Searching for order by ID: {}", operation, orderId);
 
@@ -114,7 +139,7 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             pstmt.setString(1, orderId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                OrderInfo result = rs.next() ? mapToOrderInfo(rs) : null;
+                OrderInfo result = rs.next() ? MAPPING.mapRow(rs) : null;
                 long duration = System.currentTimeMillis() - startTime;
 
                 if (result != null) {
@@ -135,10 +160,38 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         }
     }
 
+    /**
+     * Find the row version of an order
+     * Every UPDATE bumps the version, so conditional GETs can validate a cached copy without loading the row.
+     */
+    public Long findVersion(String orderId) {
+        String operation = "SELECT_ORDER_VERSION";
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_VERSION)) {
+
+            pstmt.setString(1, orderId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        } catch (SQLException e) {
+            logger.error("[{}] Error reading version of order ID: {}. Error: {}",
+                    operation, orderId, e.getMessage(), e);
+            return null;
+        }
+    }
+
     /**
      * Update order information
+     * Orders loaded through this DAO only write the columns changed since loading;
+     * detached orders rewrite the full row.
      */
     public boolean update(OrderInfo order) {
+        if (order.tracksChanges()) {
+            return updateChangedColumns(order);
+        }
+
         String operation = "UPDATE_ORDER";
         long startTime = System.currentTimeMillis();
 
@@ -146,14 +199,15 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             UPDATE apexflow_order
             SET user_id = ?, total_amount = ?, status = ?,
                 payment_method = ?, address_id = ?, created_at = ?,
-                paid_at = ?, shipped_at = ?, completed_at = ?
+                paid_at = ?, shipped_at = ?, completed_at = ?, version = version + 1
             WHERE id = ?
             """;
 
-        logger.info("[{}] Starting order update. Order ID: {}, New Status: {}",
+        logger.debug("[{}] Starting order update. Order ID: {}, New Status: {}",
                 operation, order.getId(), order.getStatus());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             // 正确设置10个参数，id在第10个位置
@@ -201,7 +255,9 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             long duration = System.currentTimeMillis() - startTime;
 
             if (success) {
-                logger.info("[{}] Order updated successfully in {} ms. Order ID: {}, Rows affected: {}",
+                counts.updated("status", "user_id");
+                order.markClean();
+                logger.debug("[{}] Order updated successfully in {} ms. Order ID: {}, Rows affected: {}",
                         operation, duration, order.getId(), rowsAffected);
             } else {
                 logger.warn("[{}] Order update did not affect any rows. Order ID: {} (took {} ms)",
@@ -217,6 +273,74 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         }
     }
 
+    /**
+     * Update only the columns changed since the order was loaded
+     */
+    private boolean updateChangedColumns(OrderInfo order) {
+        String operation = "UPDATE_ORDER_PARTIAL";
+        long startTime = System.currentTimeMillis();
+
+        long changed = order.changedFields();
+        if (changed == 0) {
+            logger.debug("[{}] No changed columns, skipping update. Order ID: {}", operation, order.getId());
+            return true;
+        }
+
+        String sql = PARTIAL_UPDATE.sqlFor(changed);
+
+        logger.debug("[{}] Starting partial order update. Order ID: {}, Columns: [{}]",
+                operation, order.getId(), PARTIAL_UPDATE.describe(changed));
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int keyIndex = PARTIAL_UPDATE.bindChanged(pstmt, order, changed);
+            pstmt.setString(keyIndex, order.getId());
+
+            int rowsAffected = pstmt.executeUpdate();
+            boolean success = rowsAffected == 1;
+
+            long duration = System.currentTimeMillis() - startTime;
+
+            if (success) {
+                counts.updated("status", "user_id");
+                order.markClean();
+                logger.debug("[{}] Order updated successfully in {} ms. Order ID: {}, Rows affected: {}",
+                        operation, duration, order.getId(), rowsAffected);
+            } else {
+                logger.warn("[{}] Order update did not affect any rows. Order ID: {} (took {} ms)",
+                        operation, order.getId(), duration);
+            }
+
+            return success;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to update order after {} ms. Order ID: {}, Error: {}",
+                    operation, duration, order.getId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Bind a single updatable field of an order
+     */
+    private static void bindField(PreparedStatement pstmt, int index, OrderInfo order, int field)
+            throws SQLException {
+        switch (field) {
+            case OrderInfo.FIELD_USER_ID -> PartialUpdate.setInt(pstmt, index, order.getUserId());
+            case OrderInfo.FIELD_TOTAL_AMOUNT -> PartialUpdate.setDecimal(pstmt, index, order.getTotalAmount());
+            case OrderInfo.FIELD_STATUS -> PartialUpdate.setInt(pstmt, index, order.getStatus());
+            case OrderInfo.FIELD_PAYMENT_METHOD -> PartialUpdate.setString(pstmt, index, order.getPaymentMethod());
+            case OrderInfo.FIELD_ADDRESS_ID -> PartialUpdate.setInt(pstmt, index, order.getAddressId());
+            case OrderInfo.FIELD_CREATED_AT -> PartialUpdate.setTimestamp(pstmt, index, order.getCreatedAt());
+            case OrderInfo.FIELD_PAID_AT -> PartialUpdate.setTimestamp(pstmt, index, order.getPaidAt());
+            case OrderInfo.FIELD_SHIPPED_AT -> PartialUpdate.setTimestamp(pstmt, index, order.getShippedAt());
+            case OrderInfo.FIELD_COMPLETED_AT -> PartialUpdate.setTimestamp(pstmt, index, order.getCompletedAt());
+            default -> throw new IllegalArgumentException("Unknown order field: " + field);
+        }
+    }
+
     /**
      * Update order status only
      *
@@ -228,13 +352,14 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         String operation = "UPDATE_ORDER_STATUS";
         long startTime = System.currentTimeMillis();
 
-        logger.info("[{}] Updating order status. Order ID: {}, New Status: {}",
+        logger.debug("[{}] Updating order status. Order ID: {}, New Status: {}",
                 operation, orderId, status);
 
-        try (Connection conn = ConnectionPool.getConnection()) {
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection()) {
             // 先查询当前状态
             String selectSql = "SELECT status FROM apexflow_order WHERE id = ?";
-            String updateSql = "UPDATE apexflow_order SET status = ? WHERE id = ?";
+            String updateSql = "UPDATE apexflow_order SET status = ?, version = version + 1 WHERE id = ?";
 
             int currentStatus;
 
@@ -257,7 +382,7 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             // 2. 检查状态是否相同
             if (currentStatus == status) {
                 long duration = System.currentTimeMillis() - startTime;
-                logger.info("[{}] Order status unchanged. Order ID: {}, Current Status: {} (took {} ms)",
+                logger.debug("[{}] Order status unchanged. Order ID: {}, Current Status: {} (took {} ms)",
                         operation, orderId, status, duration);
                 return true; // 状态相同，直接返回成功（幂等操作）
             }
@@ -273,7 +398,8 @@ public class OrderInfoDAO implements IOrderInfoDAO {
                 long duration = System.currentTimeMillis() - startTime;
 
                 if (success) {
-                    logger.info("[{}] Order status updated successfully in {} ms. Order ID: {}, " +
+                    counts.updated("status");
+                    logger.debug("[{}] Order status updated successfully in {} ms. Order ID: {}, " +
                                     "Old Status: {}, New Status: {}",
                             operation, duration, orderId, currentStatus, status);
                 } else {
@@ -309,6 +435,63 @@ public class OrderInfoDAO implements IOrderInfoDAO {
                         "which handles cascade deletion properly.");
     }
 
+    /**
+     * Delete order rows by id; child rows must already be gone (see OrderService.deleteOrder)
+     */
+    public int deleteByIds(List<String> orderIds) {
+        String operation = "DELETE_ORDERS";
+        long startTime = System.currentTimeMillis();
+
+        logger.warn("[{}] Deleting {} orders", operation, orderIds.size());
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName())) {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "id", orderIds);
+            counts.deletedRows(rowsAffected);
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.warn("[{}] Orders deleted. Rows affected: {} (took {} ms)", operation, rowsAffected, duration);
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RowCounts.invalidate(MAPPING.getTableName());
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to delete {} orders after {} ms. Error: {}",
+                    operation, orderIds.size(), duration, e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * Find ids of orders in the given status created before the given time, oldest first
+     */
+    public List<String> findIdsByStatus(int status, LocalDateTime createdBefore, int limit) {
+        String operation = "FIND_ORDER_IDS_BY_STATUS";
+        String sql = "SELECT id FROM apexflow_order WHERE status = ? AND created_at < ? ORDER BY created_at LIMIT ?";
+
+        List<String> ids = new ArrayList<>();
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, status);
+            pstmt.setTimestamp(2, Timestamp.valueOf(createdBefore));
+            pstmt.setInt(3, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+            logger.debug("[{}] Found {} orders with status {} created before {}",
+                    operation, ids.size(), status, createdBefore);
+            return ids;
+
+        } catch (SQLException e) {
+            logger.error("[{}] Failed to find orders with status {}. Error: {}",
+                    operation, status, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * Count total number of orders
      */
@@ -327,7 +510,7 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             long count = rs.next() ? rs.getLong(1) : 0;
             long duration = System.currentTimeMillis() - startTime;
 
-            logger.info("[{}] Total orders: {} (counted in {} ms)", operation, count, duration);
+            logger.debug("[{}] Total orders: {} (counted in {} ms)", operation, count, duration);
             return count;
         } catch (SQLException e) {
             long duration = System.currentTimeMillis() - startTime;
@@ -345,16 +528,12 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         long startTime = System.currentTimeMillis();
 
         List<OrderInfo> orders = new ArrayList<>();
-        String sql = """
-            SELECT * FROM apexflow_order
-            ORDER BY created_at DESC
-            LIMIT ? OFFSET ?
-            """;
+        String sql = SQL_FIND_ALL;
 
         if (page < 1) page = 1;
         int offset = (page - 1) * pageSize;
 
-        logger.info("[{}] Retrieving orders. Page: {}, PageSize: {}, Offset: {}",
+        logger.debug("[{}] Retrieving orders. Page: {}, PageSize: {}, Offset: {}",
                 operation, page, pageSize, offset);
 
         try (Connection conn = ConnectionPool.getConnection();
@@ -366,12 +545,12 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 int count = 0;
                 while (rs.next()) {
-                    orders.add(mapToOrderInfo(rs));
+                    orders.add(MAPPING.mapRow(rs));
                     count++;
                 }
 
                 long duration = System.currentTimeMillis() - startTime;
-                logger.info("[{}] Retrieved {} orders in {} ms. Page: {}, PageSize: {}",
+                logger.debug("[{}] Retrieved {} orders in {} ms. Page: {}, PageSize: {}",
                         operation, count, duration, page, pageSize);
 
                 return orders;
@@ -384,6 +563,44 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         }
     }
 
+    /**
+     * Find order list items with pagination (list columns only, no order items)
+     */
+    public List<OrderListItem> findListItems(int page, int pageSize) {
+        String operation = "SELECT_ORDER_LIST_ITEMS";
+        long startTime = System.currentTimeMillis();
+
+        List<OrderListItem> items = new ArrayList<>();
+        String sql = SQL_FIND_LIST_ITEMS;
+
+        if (page < 1) page = 1;
+        int offset = (page - 1) * pageSize;
+
+        logger.debug("[{}] Retrieving order list items. Page: {}, PageSize: {}, Offset: {}",
+                operation, page, pageSize, offset);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, pageSize);
+            pstmt.setInt(2, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                items = RowMappers.ORDER_LIST_ITEM.mapRows(rs);
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.debug("[{}] Retrieved {} order list items in {} ms. Page: {}, PageSize: {}",
+                    operation, items.size(), duration, page, pageSize);
+            return items;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to retrieve order list items after {} ms. Page: {}, Error: {}",
+                    operation, duration, page, e.getMessage(), e);
+            return items;
+        }
+    }
+
     /**
      * Find orders by user ID with pagination
      */
@@ -392,17 +609,12 @@ public class OrderInfoDAO implements IOrderInfoDAO {
         long startTime = System.currentTimeMillis();
 
         List<OrderInfo> orders = new ArrayList<>();
-        String sql = """
-            SELECT * FROM apexflow_order
-            WHERE user_id = ?
-            ORDER BY created_at DESC
-            LIMIT ? OFFSET ?
-            """;
+        String sql = SQL_FIND_BY_USER_ID;
 
         if (page < 1) page = 1;
         int offset = (page - 1) * pageSize;
 
-        logger.info("[{}] Retrieving orders for user. User ID: {}, Page: {}, PageSize: {}",
+        logger.debug("[{}] Retrieving orders for user. User ID: {}, Page: {}, PageSize: {}",
                 operation, userId, page, pageSize);
 
         try (Connection conn = ConnectionPool.getConnection();
@@ -415,12 +627,12 @@ public class OrderInfoDAO implements IOrderInfoDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 int count = 0;
                 while (rs.next()) {
-                    orders.add(mapToOrderInfo(rs));
+                    orders.add(MAPPING.mapRow(rs));
                     count++;
                 }
 
                 long duration = System.currentTimeMillis() - startTime;
-                logger.info("[{}] Retrieved {} orders for user {} in {} ms",
+                logger.debug("[{}] Retrieved {} orders for user {} in {} ms",
                         operation, count, userId, duration);
 
                 return orders;
@@ -434,30 +646,24 @@ public class OrderInfoDAO implements IOrderInfoDAO {
     }
 
     /**
-     * Map ResultSet to OrderInfo object
+     * 按下单时间范围流式读取订单
      */
-    private OrderInfo mapToOrderInfo(ResultSet rs) throws SQLException {
-        OrderInfo order = new OrderInfo();
-        order.setId(rs.getString("id"));
-        order.setUserId(rs.getInt("user_id"));
-        order.setTotalAmount(rs.getBigDecimal("total_amount"));
-        order.setStatus(rs.getInt("status"));
-        order.setPaymentMethod(rs.getString("payment_method"));
-
-        int addressId = rs.getInt("address_id");
-        order.setAddressId(rs.wasNull() ? null : addressId);
-
-        order.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-
-        Timestamp paidAt = rs.getTimestamp("paid_at");
-        order.setPaidAt(paidAt != null ? paidAt.toLocalDateTime() : null);
-
-        Timestamp shippedAt = rs.getTimestamp("shipped_at");
-        order.setShippedAt(shippedAt != null ? shippedAt.toLocalDateTime() : null);
+    public long streamByCreatedAt(LocalDateTime from, LocalDateTime to, RowHandler<OrderInfo> handler) {
+        logger.debug("[STREAM_ORDERS] Streaming orders. From: {}, To: {}", from, to);
+        long startTime = System.currentTimeMillis();
 
-        Timestamp completedAt = rs.getTimestamp("completed_at");
-        order.setCompletedAt(completedAt != null ? completedAt.toLocalDateTime() : null);
+        try {
+            long rows = StreamingQueries.stream(MAPPING, SQL_STREAM_BY_TIME, from, to, handler);
+            logger.debug("[STREAM_ORDERS] Streamed {} orders in {} ms", rows, System.currentTimeMillis() - startTime);
+            return rows;
 
-        return order;
+        } catch (SQLException e) {
+            logger.error("[STREAM_ORDERS] Failed to stream orders. From: {}, To: {}", from, to, e);
+            return -1;
+        } catch (IOException e) {
+            // 通常是客户端中途断开
+            logger.warn("[STREAM_ORDERS] Streaming orders aborted by handler: {}", e.getMessage());
+            return -1;
+        }
     }
 }
@@ -16,6 +16,12 @@ import java.util.List;
 public class OrderItemDAO implements IOrderItemDAO {
     private static final Logger logger = LoggerFactory.getLogger(OrderItemDAO.class);
 
+    private static final TableMapping<OrderItem> MAPPING = RowMappers.ORDER_ITEM;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ?");
+
     /**
      * 创建订单项
      */
@@ -62,7 +68,7 @@ public class OrderItemDAO implements IOrderItemDAO {
      * 根据ID查询订单项
      */
     public OrderItem findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_order_item WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding order item by ID: {}", id);
 
@@ -73,7 +79,7 @@ public class OrderItemDAO implements IOrderItemDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToOrderItem(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -88,7 +94,7 @@ public class OrderItemDAO implements IOrderItemDAO {
      * 根据订单号查询订单项
      */
     public List<OrderItem> findByOrderId(String orderId) {
-        String sql = "SELECT * FROM apexflow_order_item WHERE order_id = ?";
+        String sql = SQL_FIND_BY_ORDER_ID;
         List<OrderItem> list = new ArrayList<>();
 
         logger.debug("Finding order items by order ID: {}", orderId);
@@ -100,7 +106,7 @@ public class OrderItemDAO implements IOrderItemDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToOrderItem(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -167,6 +173,25 @@ public class OrderItemDAO implements IOrderItemDAO {
         }
     }
 
+    /**
+     * 按订单号批量删除订单项
+     */
+    public int deleteByOrderIds(List<String> orderIds) {
+        logger.warn("[DELETE_ORDER_ITEM_BY_ORDER_IDS] Deleting order items of {} orders", orderIds.size());
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName())) {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "order_id", orderIds);
+            counts.deletedRows(rowsAffected);
+            logger.warn("[DELETE_ORDER_ITEM_BY_ORDER_IDS] Rows affected: {}", rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RowCounts.invalidate(MAPPING.getTableName());
+            logger.error("[DELETE_ORDER_ITEM_BY_ORDER_IDS] Failed to delete order items of {} orders", orderIds.size(), e);
+            return -1;
+        }
+    }
+
     /**
      * 批量创建订单项
      */
@@ -308,19 +333,4 @@ public class OrderItemDAO implements IOrderItemDAO {
         return productIds;
     }
 
-    /**
-     * 映射ResultSet到OrderItem对象
-     */
-    private OrderItem mapToOrderItem(ResultSet rs) throws SQLException {
-        OrderItem orderItem = new OrderItem();
-        orderItem.setId(rs.getInt("id"));
-        orderItem.setOrderId(rs.getString("order_id"));
-        orderItem.setProductId(rs.getInt("product_id"));
-        orderItem.setProductName(rs.getString("product_name"));
-        orderItem.setQuantity(rs.getInt("quantity"));
-        orderItem.setPrice(rs.getBigDecimal("price"));
-        orderItem.setSubtotal(rs.getBigDecimal("subtotal"));
-
-        return orderItem;
-    }
 }
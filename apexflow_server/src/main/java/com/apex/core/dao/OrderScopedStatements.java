@@ -0,0 +1,83 @@
+package com.apex.core.dao;
+
+import com.apex.util.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按订单号集合的批量语句
+ * 生成 DELETE FROM 表 WHERE 列 IN (?, ...)、UPDATE 表 SET ... WHERE 列 IN (?, ...)
+ * 或 INSERT INTO 归档表 SELECT ... WHERE 列 IN (?, ...) 语句，
+ * 订单号按CHUNK_SIZE分段，每段一条语句，供订单级联删除、批量清理、归档和库存预留释放共用。
+ * 在Transactions.execute()中调用时所有分段同事务提交。
+ */
+final class OrderScopedStatements {
+
+    /**
+     * 单条语句最多绑定的订单号数
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private OrderScopedStatements() {
+    }
+
+    /**
+     * @param table 表名
+     * @param column 订单号列名
+     * @param orderIds 订单号列表
+     * @return 删除的总行数
+     */
+    static int deleteIn(String table, String column, List<String> orderIds) throws SQLException {
+        return executeIn("DELETE FROM " + table + " WHERE " + column, orderIds);
+    }
+
+    /**
+     * @param table 表名
+     * @param assignments SET子句，如 "status = 1"
+     * @param column 订单号列名
+     * @param orderIds 订单号列表
+     * @return 更新的总行数
+     */
+    static int updateIn(String table, String assignments, String column, List<String> orderIds) throws SQLException {
+        return executeIn("UPDATE " + table + " SET " + assignments + " WHERE " + column, orderIds);
+    }
+
+    /**
+     * 把热表中属于这些订单的行按原列值（含主键）复制到归档表
+     *
+     * @param mapping 热表映射，归档表为mapping.archive()
+     * @param column 订单号列名
+     * @param orderIds 订单号列表
+     * @return 复制的总行数
+     */
+    static int copyIn(TableMapping<?> mapping, String column, List<String> orderIds) throws SQLException {
+        return executeIn("INSERT INTO " + mapping.archive().getTableName() + " (" + mapping.getColumns() + ") "
+                + mapping.select("WHERE " + column), orderIds);
+    }
+
+    private static int executeIn(String statementPrefix, List<String> orderIds) throws SQLException {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return 0;
+        }
+
+        int affected = 0;
+        try (Connection conn = ConnectionPool.getConnection()) {
+            for (int from = 0; from < orderIds.size(); from += CHUNK_SIZE) {
+                List<String> chunk = orderIds.subList(from, Math.min(from + CHUNK_SIZE, orderIds.size()));
+                String sql = statementPrefix + " IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    affected += pstmt.executeUpdate();
+                }
+            }
+        }
+        return affected;
+    }
+}
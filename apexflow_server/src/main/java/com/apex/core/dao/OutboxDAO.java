@@ -0,0 +1,241 @@
+package com.apex.core.dao;
+
+import com.apex.core.model.OutboxEvent;
+import com.apex.util.ConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 事务发件箱数据访问对象
+ */
+public class OutboxDAO implements IOutboxDAO {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDAO.class);
+
+    private static final TableMapping<OutboxEvent> MAPPING = RowMappers.OUTBOX_EVENT;
+
+    /**
+     * last_error列长度
+     */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String SQL_FIND_DUE = MAPPING.select(
+            "WHERE status = " + OutboxEvent.STATUS_PENDING + " AND next_attempt_at <= ? ORDER BY id LIMIT ?");
+    private static final String SQL_FIND_BY_STATUS = MAPPING.select("WHERE status = ? ORDER BY id DESC LIMIT ? OFFSET ?");
+
+    /**
+     * 写入待投递事件
+     */
+    @Override
+    public boolean append(OutboxEvent event) {
+        String sql = """
+            INSERT INTO apexflow_outbox
+            (event_type, aggregate_id, idempotency_key, payload, status, attempts, next_attempt_at, created_at)
+            VALUES (?, ?, ?, ?, ?, 0, ?, ?)
+            """;
+
+        LocalDateTime now = LocalDateTime.now();
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(now);
+        }
+        if (event.getNextAttemptAt() == null) {
+            event.setNextAttemptAt(event.getCreatedAt());
+        }
+        event.setStatus(OutboxEvent.STATUS_PENDING);
+        event.setAttempts(0);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setString(1, event.getEventType());
+            pstmt.setString(2, event.getAggregateId());
+            pstmt.setString(3, event.getIdempotencyKey());
+            pstmt.setString(4, event.getPayload());
+            pstmt.setInt(5, OutboxEvent.STATUS_PENDING);
+            pstmt.setTimestamp(6, Timestamp.valueOf(event.getNextAttemptAt()));
+            pstmt.setTimestamp(7, Timestamp.valueOf(event.getCreatedAt()));
+
+            int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        event.setId(generatedKeys.getLong(1));
+                    }
+                }
+                logger.debug("[OUTBOX_APPEND] {} for {} appended. ID: {}",
+                        event.getEventType(), event.getAggregateId(), event.getId());
+                return true;
+            }
+            return false;
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_APPEND] Failed to append {} for {}: {}",
+                    event.getEventType(), event.getAggregateId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 查询已到投递时间的待投递事件
+     */
+    @Override
+    public List<OutboxEvent> findDue(int limit) {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_DUE)) {
+
+            pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            pstmt.setInt(2, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return MAPPING.mapRows(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_FIND_DUE] Failed to query due events: {}", e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 标记事件已投递
+     */
+    @Override
+    public boolean markDelivered(Long id) {
+        String sql = "UPDATE apexflow_outbox SET status = ?, attempts = attempts + 1, last_error = NULL, delivered_at = ? WHERE id = ?";
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, OutboxEvent.STATUS_DELIVERED);
+            pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            pstmt.setLong(3, id);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_MARK_DELIVERED] Failed to mark event {} delivered: {}", id, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 记录投递失败并安排重试
+     */
+    @Override
+    public boolean markRetry(Long id, int attempts, LocalDateTime nextAttemptAt, String error) {
+        String sql = "UPDATE apexflow_outbox SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, attempts);
+            pstmt.setTimestamp(2, Timestamp.valueOf(nextAttemptAt));
+            pstmt.setString(3, truncate(error));
+            pstmt.setLong(4, id);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_MARK_RETRY] Failed to schedule retry for event {}: {}", id, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 标记事件投递失败
+     */
+    @Override
+    public boolean markDead(Long id, int attempts, String error) {
+        String sql = "UPDATE apexflow_outbox SET status = ?, attempts = ?, last_error = ? WHERE id = ?";
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, OutboxEvent.STATUS_DEAD);
+            pstmt.setInt(2, attempts);
+            pstmt.setString(3, truncate(error));
+            pstmt.setLong(4, id);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_MARK_DEAD] Failed to mark event {} dead: {}", id, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 根据状态查询事件
+     */
+    @Override
+    public List<OutboxEvent> findByStatus(int status, int page, int pageSize) {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_BY_STATUS)) {
+
+            pstmt.setInt(1, status);
+            pstmt.setInt(2, pageSize);
+            pstmt.setInt(3, (page - 1) * pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return MAPPING.mapRows(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_FIND_BY_STATUS] Failed to query events with status {}: {}", status, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 查询处理回执
+     */
+    @Override
+    public boolean hasReceipt(String idempotencyKey, String handler) {
+        String sql = "SELECT 1 FROM apexflow_event_receipt WHERE idempotency_key = ? AND handler = ?";
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, idempotencyKey);
+            pstmt.setString(2, handler);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_HAS_RECEIPT] Failed to query receipt {}/{}: {}",
+                    idempotencyKey, handler, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 记录处理回执
+     */
+    @Override
+    public boolean recordReceipt(String idempotencyKey, String handler) {
+        String sql = "INSERT INTO apexflow_event_receipt (idempotency_key, handler, processed_at) VALUES (?, ?, ?)";
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, idempotencyKey);
+            pstmt.setString(2, handler);
+            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            logger.error("[OUTBOX_RECORD_RECEIPT] Failed to record receipt {}/{}: {}",
+                    idempotencyKey, handler, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,149 @@
+package com.apex.core.dao;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 部分列UPDATE语句生成器
+ * 按实体变更字段的位掩码生成只包含已修改列的UPDATE语句，并按列组合缓存SQL形状，
+ * 相同的列组合复用同一条SQL文本，便于驱动端预编译语句缓存命中。
+ *
+ * @param <T> 实体类型
+ */
+final class PartialUpdate<T> {
+
+    /**
+     * 单个字段的参数绑定器
+     */
+    @FunctionalInterface
+    interface FieldBinder<T> {
+        void bind(PreparedStatement pstmt, int index, T entity, int field) throws SQLException;
+    }
+
+    private final String tableName;
+    private final String keyColumn;
+    private final String[] columns;
+    private final FieldBinder<T> binder;
+    private final String versionColumn;
+    private final ConcurrentMap<Long, String> sqlCache = new ConcurrentHashMap<>();
+
+    /**
+     * @param tableName 表名
+     * @param keyColumn WHERE条件使用的键列
+     * @param columns   可更新列，下标与实体的字段序号一致
+     * @param binder    字段参数绑定器
+     */
+    PartialUpdate(String tableName, String keyColumn, String[] columns, FieldBinder<T> binder) {
+        this(tableName, keyColumn, columns, binder, null);
+    }
+
+    /**
+     * @param versionColumn 行版本列，每次更新自增1；为null时不维护
+     */
+    PartialUpdate(String tableName, String keyColumn, String[] columns, FieldBinder<T> binder,
+                  String versionColumn) {
+        this.tableName = tableName;
+        this.keyColumn = keyColumn;
+        this.columns = columns.clone();
+        this.binder = binder;
+        this.versionColumn = versionColumn;
+    }
+
+    /**
+     * 获取指定列组合的UPDATE语句，键参数位于最后一个占位符
+     */
+    String sqlFor(long mask) {
+        return sqlCache.computeIfAbsent(mask, this::buildSql);
+    }
+
+    /**
+     * 按位掩码顺序绑定已修改字段的参数
+     * @return 键参数应使用的下标
+     */
+    int bindChanged(PreparedStatement pstmt, T entity, long mask) throws SQLException {
+        int index = 1;
+        long remaining = mask;
+        while (remaining != 0) {
+            int field = Long.numberOfTrailingZeros(remaining);
+            binder.bind(pstmt, index++, entity, field);
+            remaining &= remaining - 1;
+        }
+        return index;
+    }
+
+    /**
+     * 将位掩码转换为列名列表，用于日志
+     */
+    String describe(long mask) {
+        StringBuilder sb = new StringBuilder();
+        long remaining = mask;
+        while (remaining != 0) {
+            int field = Long.numberOfTrailingZeros(remaining);
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(columns[field]);
+            remaining &= remaining - 1;
+        }
+        return sb.toString();
+    }
+
+    private String buildSql(long mask) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        long remaining = mask;
+        boolean first = true;
+        while (remaining != 0) {
+            int field = Long.numberOfTrailingZeros(remaining);
+            if (!first) {
+                sql.append(", ");
+            }
+            sql.append(columns[field]).append(" = ?");
+            first = false;
+            remaining &= remaining - 1;
+        }
+        if (versionColumn != null) {
+            sql.append(", ").append(versionColumn).append(" = ").append(versionColumn).append(" + 1");
+        }
+        return sql.append(" WHERE ").append(keyColumn).append(" = ?").toString();
+    }
+
+    // ========== 常用类型的空值安全绑定 ==========
+
+    static void setString(PreparedStatement pstmt, int index, String value) throws SQLException {
+        if (value != null) {
+            pstmt.setString(index, value);
+        } else {
+            pstmt.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    static void setInt(PreparedStatement pstmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            pstmt.setInt(index, value);
+        } else {
+            pstmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    static void setDecimal(PreparedStatement pstmt, int index, BigDecimal value) throws SQLException {
+        if (value != null) {
+            pstmt.setBigDecimal(index, value);
+        } else {
+            pstmt.setNull(index, Types.DECIMAL);
+        }
+    }
+
+    static void setTimestamp(PreparedStatement pstmt, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            pstmt.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            pstmt.setNull(index, Types.TIMESTAMP);
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.apex.core.dao;
 
+import com.apex.core.dto.ProductListItem;
 import com.apex.core.model.Product;
 import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 商品数据访问对象
@@ -16,6 +23,36 @@ import java.util.List;
 public class ProductDAO implements IProductDAO {
     private static final Logger logger = LoggerFactory.getLogger(ProductDAO.class);
 
+    private static final TableMapping<Product> MAPPING = RowMappers.PRODUCT;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_VERSION = "SELECT version FROM apexflow_product WHERE id = ?";
+    private static final String SQL_FIND_ALL = MAPPING.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_CATEGORY = MAPPING.select("WHERE category = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_STATUS = MAPPING.select("WHERE status = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_SEARCH_BY_NAME = MAPPING.select("WHERE name LIKE ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
+    // 列表投影语句常量，直接映射为ProductListItem
+    private static final TableMapping<ProductListItem> LIST_ITEM = RowMappers.PRODUCT_LIST_ITEM;
+    private static final String SQL_LIST_ALL = LIST_ITEM.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_LIST_BY_CATEGORY = LIST_ITEM.select("WHERE category = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_LIST_BY_STATUS = LIST_ITEM.select("WHERE status = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_LIST_BY_NAME = LIST_ITEM.select("WHERE name LIKE ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
+    /**
+     * 名称/分类倒排索引，写入成功后增量更新；可用时替代 name LIKE '%kw%' 查询
+     */
+    private static final ProductSearchIndex SEARCH_INDEX = ProductSearchIndex.shared();
+
+    /**
+     * 部分列更新语句生成器，列顺序与Product.FIELD_*一致
+     */
+    private static final PartialUpdate<Product> PARTIAL_UPDATE = new PartialUpdate<>(
+            "apexflow_product", "id",
+            new String[]{"name", "category", "price", "stock", "status", "image", "created_at"},
+            ProductDAO::bindField, "version");
+
     /**
      * 创建商品
      */
@@ -26,7 +63,7 @@ public class ProductDAO implements IProductDAO {
             VALUES (?, ?, ?, ?, ?, ?, ?)
             """;
 
-        logger.info("Creating product: {}", product.getName());
+        logger.debug("Creating product: {}", product.getName());
 
         try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -57,7 +94,9 @@ public class ProductDAO implements IProductDAO {
                         product.setId(generatedKeys.getInt(1));
                     }
                 }
-                logger.info("Product created successfully. ID: {}", product.getId());
+                product.markClean();
+                SEARCH_INDEX.index(product);
+                logger.debug("Product created successfully. ID: {}", product.getId());
                 return true;
             }
 
@@ -73,7 +112,7 @@ public class ProductDAO implements IProductDAO {
      * 根据ID查询商品
      */
     public Product findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_product WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding product by ID: {}", id);
 
@@ -84,7 +123,7 @@ public class ProductDAO implements IProductDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToProduct(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -95,18 +134,44 @@ public class ProductDAO implements IProductDAO {
         return null;
     }
 
+    /**
+     * 查询商品行版本
+     * 每次UPDATE都会自增version，条件GET据此判断客户端缓存是否仍然有效
+     */
+    public Long findVersion(Integer id) {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_VERSION)) {
+
+            pstmt.setInt(1, id);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+
+        } catch (SQLException e) {
+            logger.error("Failed to find version of product ID: {}", id, e);
+        }
+
+        return null;
+    }
+
     /**
      * 更新商品
+     * 从数据库加载的商品只更新加载后修改过的列，新建对象整行更新
      */
     public boolean update(Product product) {
+        if (product.tracksChanges()) {
+            return updateChangedColumns(product);
+        }
+
         String sql = """
             UPDATE apexflow_product
             SET name = ?, category = ?, price = ?, stock = ?,
-                status = ?, image = ?, created_at = ?
+                status = ?, image = ?, created_at = ?, version = version + 1
             WHERE id = ?
             """;
 
-        logger.info("Updating product ID: {}", product.getId());
+        logger.debug("Updating product ID: {}", product.getId());
 
         try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -132,7 +197,43 @@ public class ProductDAO implements IProductDAO {
             pstmt.setInt(8, product.getId());
 
             int rowsAffected = pstmt.executeUpdate();
-            logger.info("Product updated. Rows affected: {}", rowsAffected);
+            logger.debug("Product updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                product.markClean();
+                SEARCH_INDEX.index(product);
+            }
+            return rowsAffected > 0;
+
+        } catch (SQLException e) {
+            logger.error("Failed to update product ID: {}", product.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 只更新加载后修改过的列
+     */
+    private boolean updateChangedColumns(Product product) {
+        long changed = product.changedFields();
+        if (changed == 0) {
+            logger.debug("No changed columns for product ID: {}, skipping update", product.getId());
+            return true;
+        }
+
+        logger.debug("Updating product ID: {}, Columns: [{}]", product.getId(), PARTIAL_UPDATE.describe(changed));
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PARTIAL_UPDATE.sqlFor(changed))) {
+
+            int keyIndex = PARTIAL_UPDATE.bindChanged(pstmt, product, changed);
+            pstmt.setInt(keyIndex, product.getId());
+
+            int rowsAffected = pstmt.executeUpdate();
+            logger.debug("Product updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                product.markClean();
+                SEARCH_INDEX.index(product);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -141,6 +242,23 @@ public class ProductDAO implements IProductDAO {
         }
     }
 
+    /**
+     * 绑定单个可更新字段
+     */
+    private static void bindField(PreparedStatement pstmt, int index, Product product, int field)
+            throws SQLException {
+        switch (field) {
+            case Product.FIELD_NAME -> PartialUpdate.setString(pstmt, index, product.getName());
+            case Product.FIELD_CATEGORY -> PartialUpdate.setString(pstmt, index, product.getCategory());
+            case Product.FIELD_PRICE -> PartialUpdate.setDecimal(pstmt, index, product.getPrice());
+            case Product.FIELD_STOCK -> PartialUpdate.setInt(pstmt, index, product.getStock());
+            case Product.FIELD_STATUS -> PartialUpdate.setInt(pstmt, index, product.getStatus());
+            case Product.FIELD_IMAGE -> PartialUpdate.setString(pstmt, index, product.getImage());
+            case Product.FIELD_CREATED_AT -> PartialUpdate.setTimestamp(pstmt, index, product.getCreatedAt());
+            default -> throw new IllegalArgumentException("Unknown product field: " + field);
+        }
+    }
+
     /**
      * 删除商品
      */
@@ -163,7 +281,7 @@ public class ProductDAO implements IProductDAO {
      * 查询所有商品（分页）
      */
     public List<Product> findAll(int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_product ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_ALL;
         List<Product> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -178,7 +296,7 @@ public class ProductDAO implements IProductDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToProduct(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -193,7 +311,7 @@ public class ProductDAO implements IProductDAO {
      * 根据分类查询商品
      */
     public List<Product> findByCategory(String category, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_product WHERE category = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_CATEGORY;
         List<Product> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -209,7 +327,7 @@ public class ProductDAO implements IProductDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToProduct(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -224,7 +342,7 @@ public class ProductDAO implements IProductDAO {
      * 根据状态查询商品
      */
     public List<Product> findByStatus(Integer status, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_product WHERE status = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_STATUS;
         List<Product> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -240,7 +358,7 @@ public class ProductDAO implements IProductDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToProduct(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -255,7 +373,11 @@ public class ProductDAO implements IProductDAO {
      * 根据名称搜索商品
      */
     public List<Product> searchByName(String keyword, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_product WHERE name LIKE ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        if (SEARCH_INDEX.isReady()) {
+            return search(keyword, null, null, page, pageSize);
+        }
+
+        String sql = SQL_SEARCH_BY_NAME;
         List<Product> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -271,7 +393,7 @@ public class ProductDAO implements IProductDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToProduct(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -282,13 +404,160 @@ public class ProductDAO implements IProductDAO {
         return list;
     }
 
+    /**
+     * 查询商品列表项（分页）
+     * 过滤条件优先级：关键词 > 分类 > 状态，均为空时查询全部
+     */
+    public List<ProductListItem> findListItems(String keyword, String category, Integer status,
+                                               int page, int pageSize) {
+        List<ProductListItem> list = new ArrayList<>();
+
+        if (page < 1) page = 1;
+        int offset = (page - 1) * pageSize;
+
+        boolean byName = keyword != null && !keyword.trim().isEmpty();
+        boolean byCategory = !byName && category != null && !category.trim().isEmpty();
+        boolean byStatus = !byName && !byCategory && status != null;
+
+        if (byName && SEARCH_INDEX.isReady()) {
+            List<Integer> ids = SEARCH_INDEX.search(keyword, null, null, page, pageSize).getIds();
+            return findByIds(LIST_ITEM, ids, ProductListItem::getId);
+        }
+
+        String sql = byName ? SQL_LIST_BY_NAME
+                : byCategory ? SQL_LIST_BY_CATEGORY
+                : byStatus ? SQL_LIST_BY_STATUS
+                : SQL_LIST_ALL;
+        logger.debug("Finding product list items. Keyword: {}, Category: {}, Status: {}, Page: {}",
+                keyword, category, status, page);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (byName) {
+                pstmt.setString(index++, "%" + keyword + "%");
+            } else if (byCategory) {
+                pstmt.setString(index++, category);
+            } else if (byStatus) {
+                pstmt.setInt(index++, status);
+            }
+            pstmt.setInt(index++, pageSize);
+            pstmt.setInt(index, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                list = LIST_ITEM.mapRows(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("Failed to find product list items. Keyword: {}, Category: {}, Status: {}",
+                    keyword, category, status, e);
+        }
+
+        return list;
+    }
+
+    /**
+     * 按关键词搜索商品，可同时按分类、状态过滤
+     * 索引可用时由倒排索引给出当前页ID再按ID读取，否则回退到 name LIKE 查询
+     */
+    public List<Product> search(String keyword, String category, Integer status, int page, int pageSize) {
+        if (page < 1) page = 1;
+        boolean byCategory = category != null && !category.trim().isEmpty();
+
+        if (SEARCH_INDEX.isReady()) {
+            List<Integer> ids = SEARCH_INDEX.search(keyword, category, status, page, pageSize).getIds();
+            logger.debug("Searching products via index. Keyword: {}, Category: {}, Status: {}, Hits on page: {}",
+                    keyword, category, status, ids.size());
+            return findByIds(MAPPING, ids, Product::getId);
+        }
+
+        StringBuilder where = new StringBuilder("WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            where.append(" AND (name LIKE ? OR category LIKE ?)");
+            params.add("%" + keyword + "%");
+            params.add("%" + keyword + "%");
+        }
+        if (byCategory) {
+            where.append(" AND category = ?");
+            params.add(category);
+        }
+        if (status != null) {
+            where.append(" AND status = ?");
+            params.add(status);
+        }
+        String sql = MAPPING.select(where + " ORDER BY created_at DESC LIMIT ? OFFSET ?");
+        logger.debug("Searching products. Keyword: {}, Category: {}, Status: {}", keyword, category, status);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (Object param : params) {
+                pstmt.setObject(index++, param);
+            }
+            pstmt.setInt(index++, pageSize);
+            pstmt.setInt(index, (page - 1) * pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return MAPPING.mapRows(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("Failed to search products. Keyword: {}, Category: {}, Status: {}",
+                    keyword, category, status, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 按ID批量读取，结果保持ids的顺序
+     */
+    private <T> List<T> findByIds(TableMapping<T> mapping, List<Integer> ids, Function<T, Integer> idOf) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = mapping.select("WHERE id IN (" + placeholders + ")");
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+
+            Map<Integer, T> byId = new HashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (T row : mapping.mapRows(rs)) {
+                    byId.put(idOf.apply(row), row);
+                }
+            }
+
+            List<T> list = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                T row = byId.get(id);
+                if (row != null) {
+                    list.add(row);
+                }
+            }
+            return list;
+
+        } catch (SQLException e) {
+            logger.error("Failed to find products by IDs: {}", ids, e);
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * 更新商品库存
      */
     public boolean updateStock(Integer id, Integer newStock) {
-        String sql = "UPDATE apexflow_product SET stock = ? WHERE id = ?";
+        String sql = "UPDATE apexflow_product SET stock = ?, version = version + 1 WHERE id = ?";
 
-        logger.info("Updating product stock. ID: {}, New Stock: {}", id, newStock);
+        logger.debug("Updating product stock. ID: {}, New Stock: {}", id, newStock);
 
         try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -297,7 +566,7 @@ public class ProductDAO implements IProductDAO {
             pstmt.setInt(2, id);
 
             int rowsAffected = pstmt.executeUpdate();
-            logger.info("Product stock updated. Rows affected: {}", rowsAffected);
+            logger.debug("Product stock updated. Rows affected: {}", rowsAffected);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -310,9 +579,9 @@ public class ProductDAO implements IProductDAO {
      * 增加商品库存
      */
     public boolean increaseStock(Integer id, Integer quantity) {
-        String sql = "UPDATE apexflow_product SET stock = stock + ? WHERE id = ?";
+        String sql = "UPDATE apexflow_product SET stock = stock + ?, version = version + 1 WHERE id = ?";
 
-        logger.info("Increasing product stock. ID: {}, Quantity: {}", id, quantity);
+        logger.debug("Increasing product stock. ID: {}, Quantity: {}", id, quantity);
 
         try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -321,7 +590,7 @@ public class ProductDAO implements IProductDAO {
             pstmt.setInt(2, id);
 
             int rowsAffected = pstmt.executeUpdate();
-            logger.info("Product stock increased. Rows affected: {}", rowsAffected);
+            logger.debug("Product stock increased. Rows affected: {}", rowsAffected);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -330,13 +599,212 @@ public class ProductDAO implements IProductDAO {
         }
     }
 
+    /**
+     * 批量增加商品库存，返回增加后的库存
+     */
+    public Map<Integer, Integer> increaseStockBatch(Map<Integer, Integer> quantities) {
+        Map<Integer, Integer> stocks = new HashMap<>();
+        if (quantities.isEmpty()) {
+            return stocks;
+        }
+
+        String updateSql = "UPDATE apexflow_product SET stock = stock + ?, version = version + 1 WHERE id = ?";
+        String selectSql = "SELECT id, stock FROM apexflow_product WHERE id IN ("
+                + String.join(", ", Collections.nCopies(quantities.size(), "?")) + ")";
+
+        logger.debug("Increasing stock of {} products in batch", quantities.size());
+
+        try (Connection conn = ConnectionPool.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                    pstmt.setInt(1, entry.getValue());
+                    pstmt.setInt(2, entry.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                int index = 1;
+                for (Integer id : quantities.keySet()) {
+                    pstmt.setInt(index++, id);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        stocks.put(rs.getInt(1), rs.getInt(2));
+                    }
+                }
+            }
+
+            logger.debug("Product stock increased in batch. Products updated: {}", stocks.size());
+            return stocks;
+
+        } catch (SQLException e) {
+            logger.error("Failed to increase stock of {} products in batch", quantities.size(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 查询并锁定ID或名称匹配的商品
+     */
+    public List<Product> lockByIdsOrNames(Collection<Integer> ids, Collection<String> names) {
+        List<Product> products = new ArrayList<>();
+        if (ids.isEmpty() && names.isEmpty()) {
+            return products;
+        }
+
+        List<String> conditions = new ArrayList<>(2);
+        if (!ids.isEmpty()) {
+            conditions.add("id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")");
+        }
+        if (!names.isEmpty()) {
+            conditions.add("name IN (" + String.join(", ", Collections.nCopies(names.size(), "?")) + ")");
+        }
+        String sql = MAPPING.select("WHERE " + String.join(" OR ", conditions) + " FOR UPDATE");
+
+        logger.debug("Locking products. IDs: {}, Names: {}", ids.size(), names.size());
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            for (Integer id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            for (String name : names) {
+                pstmt.setString(index++, name);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(MAPPING.mapRow(rs));
+                }
+            }
+            return products;
+
+        } catch (SQLException e) {
+            logger.error("Failed to lock products. IDs: {}, Names: {}", ids.size(), names.size(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量创建商品
+     * 搜索索引在事务提交后更新，回滚的商品不会进入索引
+     */
+    public boolean createBatch(List<Product> products) {
+        if (products.isEmpty()) {
+            return true;
+        }
+
+        String sql = """
+            INSERT INTO apexflow_product
+            (name, category, price, stock, status, image, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        logger.debug("Creating batch products. Count: {}", products.size());
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Product product : products) {
+                pstmt.setString(1, product.getName());
+                pstmt.setString(2, product.getCategory());
+                pstmt.setBigDecimal(3, product.getPrice());
+                pstmt.setInt(4, product.getStock() != null ? product.getStock() : 0);
+                pstmt.setInt(5, product.getStatus() != null ? product.getStatus() : 1);
+                PartialUpdate.setString(pstmt, 6, product.getImage());
+                pstmt.setTimestamp(7, product.getCreatedAt() != null ? Timestamp.valueOf(product.getCreatedAt()) : now);
+                pstmt.addBatch();
+            }
+
+            pstmt.executeBatch();
+
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                int index = 0;
+                while (generatedKeys.next() && index < products.size()) {
+                    products.get(index++).setId(generatedKeys.getInt(1));
+                }
+                if (index < products.size()) {
+                    logger.error("Batch product insert returned {} keys for {} products", index, products.size());
+                    return false;
+                }
+            }
+
+            for (Product product : products) {
+                product.markClean();
+            }
+            Transactions.afterCommit(() -> products.forEach(SEARCH_INDEX::index));
+            logger.debug("Batch products created successfully. Count: {}", products.size());
+            return true;
+
+        } catch (SQLException e) {
+            logger.error("Failed to create batch products. Count: {}", products.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 批量更新商品信息（不含库存）
+     * 搜索索引在事务提交后更新
+     */
+    public boolean updateBatch(List<Product> products) {
+        if (products.isEmpty()) {
+            return true;
+        }
+
+        String sql = """
+            UPDATE apexflow_product
+            SET name = ?, category = ?, price = ?, status = ?, image = ?, version = version + 1
+            WHERE id = ?
+            """;
+
+        logger.debug("Updating batch products. Count: {}", products.size());
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (Product product : products) {
+                pstmt.setString(1, product.getName());
+                PartialUpdate.setString(pstmt, 2, product.getCategory());
+                pstmt.setBigDecimal(3, product.getPrice());
+                pstmt.setInt(4, product.getStatus() != null ? product.getStatus() : 1);
+                PartialUpdate.setString(pstmt, 5, product.getImage());
+                pstmt.setInt(6, product.getId());
+                pstmt.addBatch();
+            }
+
+            int[] rowsAffected = pstmt.executeBatch();
+            for (int i = 0; i < rowsAffected.length; i++) {
+                if (rowsAffected[i] == 0) {
+                    logger.error("Batch product update matched no row. ID: {}", products.get(i).getId());
+                    return false;
+                }
+            }
+
+            for (Product product : products) {
+                product.markClean();
+            }
+            Transactions.afterCommit(() -> products.forEach(SEARCH_INDEX::index));
+            logger.debug("Batch products updated successfully. Count: {}", products.size());
+            return true;
+
+        } catch (SQLException e) {
+            logger.error("Failed to update batch products. Count: {}", products.size(), e);
+            return false;
+        }
+    }
+
     /**
      * 减少商品库存
      */
     public boolean decreaseStock(Integer id, Integer quantity) {
-        String sql = "UPDATE apexflow_product SET stock = stock - ? WHERE id = ? AND stock >= ?";
+        String sql = "UPDATE apexflow_product SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
 
-        logger.info("Decreasing product stock. ID: {}, Quantity: {}", id, quantity);
+        logger.debug("Decreasing product stock. ID: {}, Quantity: {}", id, quantity);
 
         try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -346,7 +814,7 @@ public class ProductDAO implements IProductDAO {
             pstmt.setInt(3, quantity);
 
             int rowsAffected = pstmt.executeUpdate();
-            logger.info("Product stock decreased. Rows affected: {}", rowsAffected);
+            logger.debug("Product stock decreased. Rows affected: {}", rowsAffected);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -359,9 +827,9 @@ public class ProductDAO implements IProductDAO {
      * 更新商品状态
      */
     public boolean updateStatus(Integer id, Integer status) {
-        String sql = "UPDATE apexflow_product SET status = ? WHERE id = ?";
+        String sql = "UPDATE apexflow_product SET status = ?, version = version + 1 WHERE id = ?";
 
-        logger.info("Updating product status. ID: {}, New Status: {}", id, status);
+        logger.debug("Updating product status. ID: {}, New Status: {}", id, status);
 
         try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -370,7 +838,10 @@ public class ProductDAO implements IProductDAO {
             pstmt.setInt(2, id);
 
             int rowsAffected = pstmt.executeUpdate();
-            logger.info("Product status updated. Rows affected: {}", rowsAffected);
+            logger.debug("Product status updated. Rows affected: {}", rowsAffected);
+            if (rowsAffected > 0) {
+                SEARCH_INDEX.updateStatus(id, status);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -424,24 +895,4 @@ public class ProductDAO implements IProductDAO {
         return 0;
     }
 
-    /**
-     * 映射ResultSet到Product对象
-     */
-    private Product mapToProduct(ResultSet rs) throws SQLException {
-        Product product = new Product();
-        product.setId(rs.getInt("id"));
-        product.setName(rs.getString("name"));
-        product.setCategory(rs.getString("category"));
-        product.setPrice(rs.getBigDecimal("price"));
-        product.setStock(rs.getInt("stock"));
-        product.setStatus(rs.getInt("status"));
-        product.setImage(rs.getString("image"));
-
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            product.setCreatedAt(createdAt.toLocalDateTime());
-        }
-
-        return product;
-    }
 }
@@ -0,0 +1,625 @@
+package com.apex.core.dao;
+
+import com.apex.core.model.Product;
+import com.apex.util.ConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品搜索倒排索引
+ * 对商品名称和分类分词（见ProductTextAnalyzer）后建立词项到商品ID（BitSet）的倒排表，
+ * 查询时对所有词项的命中集合取交集，再按分类、状态过滤，按创建时间倒序分页。
+ *
+ * 索引快照持久化到本地文件（-Dapexflow.search.productIndexFile），通过内存映射读写：
+ * 快照中保存每个商品的行版本（version列，每次UPDATE自增）。启动时优先加载快照，
+ * 再从数据库只读取ID与行版本：新增或行版本变化的商品重新读取整行，已删除的商品移出索引，
+ * 因此停机期间其他节点的修改也能补齐；
+ * 快照缺失、损坏、过期（-Dapexflow.search.productIndexMaxAgeMs，默认24小时）
+ * 或补齐后行数与数据库不一致时，按ID分批全量重建。
+ * 运行期间由ProductDAO在写入成功后增量更新，后台线程定期
+ * （-Dapexflow.search.productIndexFlushMs，默认30秒）把有变更的索引写回快照。
+ *
+ * 索引只反映本JVM内经过ProductDAO的写入。open()完成前isReady()为false，调用方回退到LIKE查询。
+ */
+public final class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int FILE_MAGIC = 0x41505849; // "APXI"
+    private static final int FILE_VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final int REFRESH_BATCH_SIZE = 100;
+
+    /**
+     * 增量更新时不知道写入后的行版本，下次启动补齐时一律重新读取
+     */
+    private static final int UNKNOWN_VERSION = -1;
+
+    private static final String SQL_SCAN = """
+            SELECT id, name, category, status, created_at, version FROM apexflow_product
+            WHERE id > ? ORDER BY id LIMIT ?
+            """;
+    private static final String SQL_SELECT_BY_IDS =
+            "SELECT id, name, category, status, created_at, version FROM apexflow_product WHERE id IN (%s)";
+    private static final String SQL_VERSIONS = "SELECT id, version FROM apexflow_product";
+
+    private static final ProductSearchIndex SHARED = new ProductSearchIndex(Paths.get(System.getProperty(
+            "apexflow.search.productIndexFile",
+            Paths.get(System.getProperty("java.io.tmpdir"), "apexflow", "product-search.idx").toString())));
+
+    private final Path file;
+    private final long maxAgeMs = Long.getLong("apexflow.search.productIndexMaxAgeMs", 86_400_000L);
+    private final long flushIntervalMs = Long.getLong("apexflow.search.productIndexFlushMs", 30_000L);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Doc> documents = new HashMap<>();
+    private final NavigableMap<String, BitSet> postings = new TreeMap<>();
+
+    /**
+     * 加载/重建期间被增量更新过的商品ID，加载时读到的旧数据不得覆盖这些商品
+     */
+    private final Set<Integer> touchedDuringOpen = ConcurrentHashMap.newKeySet();
+    private volatile boolean opening;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private ScheduledExecutorService flusher;
+
+    /**
+     * 一次搜索的结果：当前页的商品ID（已排序）与命中总数
+     */
+    public static final class SearchResult {
+        private final List<Integer> ids;
+        private final int total;
+
+        SearchResult(List<Integer> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Integer> getIds() { return ids; }
+
+        public int getTotal() { return total; }
+    }
+
+    /**
+     * 索引中保存的商品字段
+     */
+    private record Doc(int id, String name, String category, int status, long createdAt, int version) {
+    }
+
+    ProductSearchIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return 进程内共享的索引实例
+     */
+    public static ProductSearchIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return 索引是否已可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 加载快照并补齐，或全量重建；已可用时直接返回
+     */
+    public synchronized void open() {
+        if (ready) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        opening = true;
+        touchedDuringOpen.clear();
+
+        try {
+            String source;
+            if (load()) {
+                source = "snapshot";
+                if (!catchUp()) {
+                    source = "rebuild";
+                    touchedDuringOpen.clear();
+                    clearIndex();
+                    scan(0);
+                }
+            } else {
+                source = "rebuild";
+                scan(0);
+            }
+            ready = true;
+            persist();
+            startFlusher();
+
+            logger.info("[PRODUCT_SEARCH_INDEX] Index ready from {}. Products: {}, Terms: {}, Took: {} ms",
+                    source, documents.size(), postings.size(), System.currentTimeMillis() - startTime);
+        } catch (SQLException e) {
+            clearIndex();
+            logger.error("[PRODUCT_SEARCH_INDEX] Failed to open index: {}", e.getMessage(), e);
+        } finally {
+            opening = false;
+            touchedDuringOpen.clear();
+        }
+    }
+
+    /**
+     * 写回快照并停止后台刷新
+     */
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        if (ready && dirty) {
+            persist();
+        }
+    }
+
+    /**
+     * 清空内存索引并标记为不可用（不删除快照文件）
+     */
+    public synchronized void reset() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        ready = false;
+        dirty = false;
+        clearIndex();
+    }
+
+    /**
+     * 新增或更新商品的索引（ProductDAO写入成功后调用）
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null || !accepting(product.getId())) {
+            return;
+        }
+        put(new Doc(product.getId(), product.getName(), product.getCategory(),
+                product.getStatus() != null ? product.getStatus() : 1,
+                product.getCreatedAt() != null
+                        ? product.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis(),
+                UNKNOWN_VERSION));
+    }
+
+    /**
+     * 更新商品状态
+     */
+    public void updateStatus(Integer id, Integer status) {
+        if (id == null || status == null || !accepting(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Doc doc = documents.get(id);
+            if (doc != null) {
+                documents.put(id, new Doc(id, doc.name(), doc.category(), status, doc.createdAt(), UNKNOWN_VERSION));
+                dirty = true;
+            } else {
+                // 加载期间尚未读到该商品，由加载过程读取最新的行
+                touchedDuringOpen.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除商品
+     */
+    public void remove(Integer id) {
+        if (id == null || !accepting(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索商品
+     * @param keyword 关键词，匹配名称或分类；为空时不按关键词过滤
+     * @param category 分类（可选，精确匹配）
+     * @param status 状态（可选）
+     * @param page 页码（从1开始）
+     * @return 按创建时间倒序的当前页商品ID与命中总数
+     */
+    public SearchResult search(String keyword, String category, Integer status, int page, int pageSize) {
+        List<Doc> matched = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet candidates = null;
+            for (ProductTextAnalyzer.QueryTerm term : ProductTextAnalyzer.queryTerms(keyword)) {
+                BitSet ids = term.prefix() ? prefixUnion(term.text()) : postings.get(term.text());
+                if (ids == null || ids.isEmpty()) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+                if (candidates == null) {
+                    candidates = (BitSet) ids.clone();
+                } else {
+                    candidates.and(ids);
+                }
+            }
+
+            if (candidates == null) {
+                matched.addAll(documents.values());
+            } else {
+                for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                    matched.add(documents.get(id));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean byCategory = category != null && !category.trim().isEmpty();
+        matched.removeIf(doc -> doc == null
+                || (byCategory && !category.equals(doc.category()))
+                || (status != null && status != doc.status()));
+        matched.sort(Comparator.comparingLong(Doc::createdAt).thenComparingInt(Doc::id).reversed());
+
+        int from = Math.min((Math.max(page, 1) - 1) * pageSize, matched.size());
+        int to = Math.min(from + pageSize, matched.size());
+        List<Integer> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(matched.get(i).id());
+        }
+        return new SearchResult(ids, matched.size());
+    }
+
+    /**
+     * 把当前索引写入快照文件：先写临时文件再原子替换，写入失败时保留旧快照
+     */
+    synchronized void persist() {
+        List<Doc> snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = new ArrayList<>(documents.values());
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<byte[]> names = new ArrayList<>(snapshot.size());
+        List<byte[]> categories = new ArrayList<>(snapshot.size());
+        long size = HEADER_BYTES;
+        int maxId = 0;
+        for (Doc doc : snapshot) {
+            byte[] name = bytes(doc.name());
+            byte[] category = bytes(doc.category());
+            names.add(name);
+            categories.add(category);
+            size += 4 + 4 + 8 + 4 + 4 + name.length + 4 + category.length;
+            maxId = Math.max(maxId, doc.id());
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putLong(System.currentTimeMillis())
+                        .putInt(snapshot.size()).putInt(maxId);
+                for (int i = 0; i < snapshot.size(); i++) {
+                    Doc doc = snapshot.get(i);
+                    buffer.putInt(doc.id()).putInt(doc.status()).putLong(doc.createdAt()).putInt(doc.version());
+                    buffer.putInt(names.get(i).length).put(names.get(i));
+                    buffer.putInt(categories.get(i).length).put(categories.get(i));
+                }
+                buffer.force();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("[PRODUCT_SEARCH_INDEX] Snapshot written. Products: {}, Bytes: {}", snapshot.size(), size);
+        } catch (IOException e) {
+            dirty = true;
+            logger.error("[PRODUCT_SEARCH_INDEX] Failed to write snapshot {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从快照文件加载索引
+     * @return 快照有效并已加载返回true
+     */
+    private boolean load() {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION) {
+                logger.warn("[PRODUCT_SEARCH_INDEX] Ignoring snapshot with unknown format: {}", file);
+                return false;
+            }
+            long writtenAt = buffer.getLong();
+            if (System.currentTimeMillis() - writtenAt > maxAgeMs) {
+                logger.info("[PRODUCT_SEARCH_INDEX] Snapshot is older than {} ms, rebuilding", maxAgeMs);
+                return false;
+            }
+            int count = buffer.getInt();
+            buffer.getInt(); // maxId，加载后由文档重新计算
+
+            for (int i = 0; i < count; i++) {
+                int id = buffer.getInt();
+                int status = buffer.getInt();
+                long createdAt = buffer.getLong();
+                int version = buffer.getInt();
+                String name = string(buffer);
+                String category = string(buffer);
+                if (!touchedDuringOpen.contains(id)) {
+                    put(new Doc(id, name, category, status, createdAt, version));
+                }
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            clearIndex();
+            logger.warn("[PRODUCT_SEARCH_INDEX] Failed to read snapshot {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按行版本补齐快照：重新读取新增或被修改的商品，移除已删除的商品
+     * @return 补齐后与数据库行数一致返回true，否则需要全量重建
+     */
+    private boolean catchUp() throws SQLException {
+        Map<Integer, Integer> indexedVersions = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Doc doc : documents.values()) {
+                indexedVersions.put(doc.id(), doc.version());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Integer> changed = new ArrayList<>();
+        BitSet existing = new BitSet();
+        long dbCount = 0;
+        try (Connection conn = ConnectionPool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SQL_VERSIONS)) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                existing.set(id);
+                dbCount++;
+                Integer version = indexedVersions.get(id);
+                if (version == null || version != rs.getInt(2)) {
+                    changed.add(id);
+                }
+            }
+        }
+
+        int removed = 0;
+        for (Integer id : indexedVersions.keySet()) {
+            if (!existing.get(id) && !touchedDuringOpen.contains(id)) {
+                lock.writeLock().lock();
+                try {
+                    unindex(id);
+                    dirty = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                removed++;
+            }
+        }
+        refresh(changed);
+
+        int indexed;
+        lock.readLock().lock();
+        try {
+            indexed = documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (indexed != dbCount) {
+            logger.info("[PRODUCT_SEARCH_INDEX] Snapshot out of sync (indexed: {}, database: {}), rebuilding",
+                    indexed, dbCount);
+            return false;
+        }
+        logger.debug("[PRODUCT_SEARCH_INDEX] Snapshot caught up. Refreshed: {}, Removed: {}", changed.size(), removed);
+        return true;
+    }
+
+    /**
+     * 按ID分批重新读取商品并写入索引
+     */
+    private void refresh(List<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (Connection conn = ConnectionPool.getConnection()) {
+            for (int from = 0; from < ids.size(); from += REFRESH_BATCH_SIZE) {
+                List<Integer> batch = ids.subList(from, Math.min(from + REFRESH_BATCH_SIZE, ids.size()));
+                String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+                try (PreparedStatement pstmt = conn.prepareStatement(String.format(SQL_SELECT_BY_IDS, placeholders))) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        pstmt.setInt(i + 1, batch.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            putRow(rs);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 按ID递增分批读取afterId之后的商品并写入索引
+     * @return 读取的商品数
+     */
+    private int scan(int afterId) throws SQLException {
+        int scanned = 0;
+        int lastId = afterId;
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_SCAN)) {
+            while (true) {
+                pstmt.setInt(1, lastId);
+                pstmt.setInt(2, BUILD_BATCH_SIZE);
+                int batch = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = putRow(rs);
+                        batch++;
+                    }
+                }
+                scanned += batch;
+                if (batch < BUILD_BATCH_SIZE) {
+                    return scanned;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把SQL_SCAN/SQL_SELECT_BY_IDS的当前行写入索引；加载期间已被增量更新的商品不覆盖
+     * @return 商品ID
+     */
+    private int putRow(ResultSet rs) throws SQLException {
+        int id = rs.getInt(1);
+        Timestamp createdAt = rs.getTimestamp(5);
+        if (!touchedDuringOpen.contains(id)) {
+            put(new Doc(id, rs.getString(2), rs.getString(3), rs.getInt(4),
+                    createdAt != null ? createdAt.getTime() : 0L, rs.getInt(6)));
+        }
+        return id;
+    }
+
+    private void startFlusher() {
+        if (flusher != null || flushIntervalMs <= 0) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "product-index-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            if (ready && dirty) {
+                persist();
+            }
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 索引可用或正在加载时才接受增量更新；加载期间记录被更新的ID
+     */
+    private boolean accepting(int id) {
+        if (opening) {
+            touchedDuringOpen.add(id);
+            return true;
+        }
+        return ready;
+    }
+
+    private void put(Doc doc) {
+        Set<String> terms = ProductTextAnalyzer.indexTerms(doc.name());
+        terms.addAll(ProductTextAnalyzer.indexTerms(doc.category()));
+
+        lock.writeLock().lock();
+        try {
+            unindex(doc.id());
+            documents.put(doc.id(), doc);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new BitSet()).set(doc.id());
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(int id) {
+        Doc previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Set<String> terms = ProductTextAnalyzer.indexTerms(previous.name());
+        terms.addAll(ProductTextAnalyzer.indexTerms(previous.category()));
+        for (String term : terms) {
+            BitSet ids = postings.get(term);
+            if (ids != null) {
+                ids.clear(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private void clearIndex() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 以prefix开头的所有词项的命中并集
+     */
+    private BitSet prefixUnion(String prefix) {
+        BitSet union = new BitSet();
+        for (BitSet ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            union.or(ids);
+        }
+        return union;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(MappedByteBuffer buffer) {
+        byte[] value = new byte[buffer.getInt()];
+        buffer.get(value);
+        return value.length == 0 ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
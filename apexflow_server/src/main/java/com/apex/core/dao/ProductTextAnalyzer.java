@@ -0,0 +1,109 @@
+package com.apex.core.dao;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 商品文本分词器
+ * 商品名称中中英文混排（如 "华为Mate 50"），按字符类别切分为连续片段：
+ * - 中日韩文字片段：索引单字和相邻二字（bigram），查询时单字片段查单字、多字片段查全部bigram
+ * - 字母数字片段：转小写后索引该词的所有后缀，查询时按前缀匹配，从而等价于词内子串匹配
+ * - 其他字符（空格、标点等）视为分隔符
+ */
+final class ProductTextAnalyzer {
+
+    private ProductTextAnalyzer() {
+    }
+
+    /**
+     * 查询词项：prefix为true时匹配以text开头的所有索引词
+     */
+    record QueryTerm(String text, boolean prefix) {
+    }
+
+    /**
+     * 生成索引词
+     */
+    static Set<String> indexTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String run : runs(text)) {
+            if (isCjk(run.codePointAt(0))) {
+                int[] chars = run.codePoints().toArray();
+                for (int i = 0; i < chars.length; i++) {
+                    terms.add(new String(chars, i, 1));
+                    if (i + 1 < chars.length) {
+                        terms.add(new String(chars, i, 2));
+                    }
+                }
+            } else {
+                for (int i = 0; i < run.length(); i++) {
+                    terms.add(run.substring(i));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 生成查询词项，所有词项都命中的商品才算匹配
+     */
+    static List<QueryTerm> queryTerms(String text) {
+        List<QueryTerm> terms = new ArrayList<>();
+        for (String run : runs(text)) {
+            if (isCjk(run.codePointAt(0))) {
+                int[] chars = run.codePoints().toArray();
+                if (chars.length == 1) {
+                    terms.add(new QueryTerm(run, false));
+                }
+                for (int i = 0; i + 1 < chars.length; i++) {
+                    terms.add(new QueryTerm(new String(chars, i, 2), false));
+                }
+            } else {
+                terms.add(new QueryTerm(run, true));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 按字符类别切分为中日韩片段和小写字母数字片段
+     */
+    private static List<String> runs(String text) {
+        List<String> runs = new ArrayList<>();
+        if (text == null) {
+            return runs;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        int currentType = 0; // 0: 分隔符, 1: 中日韩, 2: 字母数字
+
+        for (int i = 0; i < lower.length(); ) {
+            int cp = lower.codePointAt(i);
+            int type = isCjk(cp) ? 1 : Character.isLetterOrDigit(cp) ? 2 : 0;
+            if (type != currentType && current.length() > 0) {
+                runs.add(current.toString());
+                current.setLength(0);
+            }
+            if (type != 0) {
+                current.appendCodePoint(cp);
+            }
+            currentType = type;
+            i += Character.charCount(cp);
+        }
+        if (current.length() > 0) {
+            runs.add(current.toString());
+        }
+        return runs;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -1,6 +1,7 @@
 package com.apex.core.dao;
 
 import com.apex.core.dto.RatingDistribution;
+import com.apex.core.dto.ReviewSummary;
 import com.apex.core.model.Review;
 import com.apex.util.ConnectionPool;
 import org.slf4j.Logger;
@@ -16,6 +17,23 @@ import java.util.List;
 public class ReviewDAO implements IReviewDAO {
     private static final Logger logger = LoggerFactory.getLogger(ReviewDAO.class);
 
+    private static final TableMapping<Review> MAPPING = RowMappers.REVIEW;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ?");
+    private static final String SQL_FIND_BY_PRODUCT_ID = MAPPING.select("WHERE product_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_USER_ID = MAPPING.select("WHERE user_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_REVIEWS_WITH_IMAGES = MAPPING.select(
+            "WHERE product_id = ? AND images IS NOT NULL ORDER BY created_at DESC LIMIT ?");
+    private static final String SQL_FIND_LATEST_REVIEWS = MAPPING.select("ORDER BY created_at DESC LIMIT ?");
+
+    // 评价摘要投影语句常量（不读取完整的content和images）
+    private static final TableMapping<ReviewSummary> SUMMARY = RowMappers.REVIEW_SUMMARY;
+    private static final String SQL_SUMMARIES = SUMMARY.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_SUMMARIES_BY_PRODUCT_ID = SUMMARY.select("WHERE product_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_SUMMARIES_BY_USER_ID = SUMMARY.select("WHERE user_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
     /**
      * 创建评价
      */
@@ -28,7 +46,8 @@ public class ReviewDAO implements IReviewDAO {
 
         logger.info("Creating review for product: {} by user: {}", review.getProductId(), review.getUserId());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, review.getOrderId());
@@ -53,6 +72,7 @@ public class ReviewDAO implements IReviewDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                counts.inserted("product_id", review.getProductId(), "user_id", review.getUserId());
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         review.setId(generatedKeys.getInt(1));
@@ -74,7 +94,7 @@ public class ReviewDAO implements IReviewDAO {
      * 根据ID查询评价
      */
     public Review findById(Integer id) {
-        String sql = "SELECT * FROM apexflow_review WHERE id = ?";
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("Finding review by ID: {}", id);
 
@@ -85,7 +105,7 @@ public class ReviewDAO implements IReviewDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToReview(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -100,7 +120,7 @@ public class ReviewDAO implements IReviewDAO {
      * 根据订单号查询评价
      */
     public Review findByOrderId(String orderId) {
-        String sql = "SELECT * FROM apexflow_review WHERE order_id = ?";
+        String sql = SQL_FIND_BY_ORDER_ID;
 
         logger.debug("Finding review by order ID: {}", orderId);
 
@@ -111,7 +131,7 @@ public class ReviewDAO implements IReviewDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapToReview(rs);
+                    return MAPPING.mapRow(rs);
                 }
             }
 
@@ -126,7 +146,7 @@ public class ReviewDAO implements IReviewDAO {
      * 根据商品ID查询评价（分页）
      */
     public List<Review> findByProductId(Integer productId, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_review WHERE product_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_PRODUCT_ID;
         List<Review> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -142,7 +162,7 @@ public class ReviewDAO implements IReviewDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToReview(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -153,11 +173,50 @@ public class ReviewDAO implements IReviewDAO {
         return list;
     }
 
+    /**
+     * 查询评价摘要（分页）
+     * 商品ID优先于用户ID，均为空时按时间倒序查询全部
+     */
+    public List<ReviewSummary> findSummaries(Integer productId, Integer userId, int page, int pageSize) {
+        List<ReviewSummary> list = new ArrayList<>();
+
+        if (page < 1) page = 1;
+        int offset = (page - 1) * pageSize;
+        logger.debug("Finding review summaries. Product: {}, User: {}, Page: {}, PageSize: {}",
+                productId, userId, page, pageSize);
+
+        String sql = productId != null ? SQL_SUMMARIES_BY_PRODUCT_ID
+                : userId != null ? SQL_SUMMARIES_BY_USER_ID
+                : SQL_SUMMARIES;
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (productId != null) {
+                pstmt.setInt(index++, productId);
+            } else if (userId != null) {
+                pstmt.setInt(index++, userId);
+            }
+            pstmt.setInt(index++, pageSize);
+            pstmt.setInt(index, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                list = SUMMARY.mapRows(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("Failed to find review summaries. Product: {}, User: {}", productId, userId, e);
+        }
+
+        return list;
+    }
+
     /**
      * 根据用户ID查询评价（分页）
      */
     public List<Review> findByUserId(Integer userId, int page, int pageSize) {
-        String sql = "SELECT * FROM apexflow_review WHERE user_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = SQL_FIND_BY_USER_ID;
         List<Review> list = new ArrayList<>();
 
         if (page < 1) page = 1;
@@ -173,7 +232,7 @@ public class ReviewDAO implements IReviewDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToReview(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -234,11 +293,15 @@ public class ReviewDAO implements IReviewDAO {
 
         logger.warn("Deleting review ID: {}", id);
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName());
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                counts.deleted();
+            }
             logger.warn("Review deleted. Rows affected: {}", rowsAffected);
             return rowsAffected > 0;
 
@@ -248,6 +311,25 @@ public class ReviewDAO implements IReviewDAO {
         }
     }
 
+    /**
+     * 按订单号批量删除评价
+     */
+    public int deleteByOrderIds(List<String> orderIds) {
+        logger.warn("[DELETE_REVIEW_BY_ORDER_IDS] Deleting reviews of {} orders", orderIds.size());
+
+        try (RowCounts.Write counts = RowCounts.beginWrite(MAPPING.getTableName())) {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "order_id", orderIds);
+            counts.deletedRows(rowsAffected);
+            logger.warn("[DELETE_REVIEW_BY_ORDER_IDS] Rows affected: {}", rowsAffected);
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            RowCounts.invalidate(MAPPING.getTableName());
+            logger.error("[DELETE_REVIEW_BY_ORDER_IDS] Failed to delete reviews of {} orders", orderIds.size(), e);
+            return -1;
+        }
+    }
+
     /**
      * 获取商品平均评分
      */
@@ -322,7 +404,7 @@ public class ReviewDAO implements IReviewDAO {
      * 获取带图片的评价
      */
     public List<Review> findReviewsWithImages(Integer productId, int limit) {
-        String sql = "SELECT * FROM apexflow_review WHERE product_id = ? AND images IS NOT NULL ORDER BY created_at DESC LIMIT ?";
+        String sql = SQL_FIND_REVIEWS_WITH_IMAGES;
         List<Review> list = new ArrayList<>();
 
         logger.debug("Finding reviews with images for product: {}. Limit: {}", productId, limit);
@@ -335,7 +417,7 @@ public class ReviewDAO implements IReviewDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToReview(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -350,7 +432,7 @@ public class ReviewDAO implements IReviewDAO {
      * 获取最新评价
      */
     public List<Review> findLatestReviews(int limit) {
-        String sql = "SELECT * FROM apexflow_review ORDER BY created_at DESC LIMIT ?";
+        String sql = SQL_FIND_LATEST_REVIEWS;
         List<Review> list = new ArrayList<>();
 
         logger.debug("Finding latest reviews. Limit: {}", limit);
@@ -362,7 +444,7 @@ public class ReviewDAO implements IReviewDAO {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    list.add(mapToReview(rs));
+                    list.add(MAPPING.mapRow(rs));
                 }
             }
 
@@ -401,27 +483,6 @@ public class ReviewDAO implements IReviewDAO {
         return 0;
     }
 
-    /**
-     * 映射ResultSet到Review对象
-     */
-    private Review mapToReview(ResultSet rs) throws SQLException {
-        Review review = new Review();
-        review.setId(rs.getInt("id"));
-        review.setOrderId(rs.getString("order_id"));
-        review.setProductId(rs.getInt("product_id"));
-        review.setUserId(rs.getInt("user_id"));
-        review.setRating(rs.getInt("rating"));
-        review.setContent(rs.getString("content"));
-        review.setImages(rs.getString("images"));
-        review.setAnonymous(rs.getBoolean("is_anonymous"));
-
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            review.setCreatedAt(createdAt.toLocalDateTime());
-        }
-
-        return review;
-    }
 
     /**
      * Count total number of reviews
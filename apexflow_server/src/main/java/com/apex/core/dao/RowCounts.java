@@ -0,0 +1,350 @@
+package com.apex.core.dao;
+
+import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 行数计数器存储
+ * 按 (表, 单列等值过滤) 保存精确的COUNT(*)结果：首次读取时查询数据库得到初值，
+ * 之后由DAO在写入成功后增量维护（插入+1、删除-1、无法确定影响范围的更新使过滤计数失效）。
+ *
+ * 并发安全：DAO写入前调用beginWrite()，写入完成后关闭返回的Write。
+ * 计数查询期间若有写入正在进行或已完成，本次查询结果只返回给调用方、不写入存储，
+ * 避免查询结果与增量更新重复或遗漏同一行。
+ *
+ * 写入发生在Transactions事务中时，增量在事务提交后才应用，写入标记也在提交或回滚后才释放，
+ * 事务未结束期间并发的计数查询不会把未提交（或即将回滚）的结果当作精确值保存；回滚时增量直接丢弃。
+ *
+ * 计数只反映本JVM内经过DAO的写入，因此每个计数器在
+ * -Dapexflow.count.counterTtlMs（默认10分钟）后重新查询校准。
+ */
+public final class RowCounts {
+
+    private static final Logger logger = LoggerFactory.getLogger(RowCounts.class);
+
+    private static final long COUNTER_TTL_MS = Long.getLong("apexflow.count.counterTtlMs", 600_000L);
+
+    private static final Map<String, TableCounters> TABLES = new ConcurrentHashMap<>();
+
+    private RowCounts() {
+    }
+
+    /**
+     * 统计整表行数
+     */
+    public static long count(String table) throws SQLException {
+        return count(table, null, null);
+    }
+
+    /**
+     * 统计满足 column = value 的行数
+     * @param column 过滤列，为null时统计整表
+     */
+    public static long count(String table, String column, Object value) throws SQLException {
+        TableCounters counters = counters(table);
+        String key = key(column, value);
+
+        Long cached = counters.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation;
+        boolean quiet;
+        synchronized (counters) {
+            generation = counters.generation;
+            quiet = counters.writers == 0;
+        }
+
+        long counted = query(table, column, value);
+        if (quiet) {
+            counters.store(key, column, value, counted, generation);
+        }
+        return counted;
+    }
+
+    /**
+     * 标记对表的一次写入开始，写入结束后必须关闭返回的Write
+     */
+    public static Write beginWrite(String table) {
+        TableCounters counters = counters(table);
+        synchronized (counters) {
+            counters.writers++;
+            counters.generation++;
+        }
+        return new Write(counters, Transactions.isActive());
+    }
+
+    /**
+     * 丢弃指定表的全部计数器
+     */
+    public static void invalidate(String table) {
+        TableCounters counters = TABLES.get(table);
+        if (counters != null) {
+            synchronized (counters) {
+                counters.entries.clear();
+                counters.generation++;
+            }
+        }
+    }
+
+    /**
+     * 丢弃所有计数器（批量导入、测试清表等绕过DAO的写入之后调用）
+     */
+    public static void clear() {
+        for (String table : TABLES.keySet()) {
+            invalidate(table);
+        }
+    }
+
+    private static TableCounters counters(String table) {
+        return TABLES.computeIfAbsent(table, t -> new TableCounters());
+    }
+
+    private static String key(String column, Object value) {
+        return column == null ? "*" : column + "=" + value;
+    }
+
+    private static long query(String table, String column, Object value) throws SQLException {
+        String sql = column == null
+                ? "SELECT COUNT(*) FROM " + table
+                : "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?";
+        long startTime = System.currentTimeMillis();
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (column != null) {
+                pstmt.setObject(1, value);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                logger.debug("[ROW_COUNT] Seeded {} [{}] = {} in {} ms",
+                        table, key(column, value), count, System.currentTimeMillis() - startTime);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * 一次DAO写入的计数维护句柄
+     * 写入成功后按实际影响调用inserted/deleted/updated，失败时直接关闭即可
+     * 在事务中时各项调整先暂存，事务提交后才应用到计数
+     */
+    public static final class Write implements AutoCloseable {
+        private final TableCounters counters;
+        private final List<Runnable> pending;
+        private boolean closed;
+
+        private Write(TableCounters counters, boolean transactional) {
+            this.counters = counters;
+            this.pending = transactional ? new ArrayList<>() : null;
+        }
+
+        /**
+         * 插入了一行
+         * @param columnValues 列名、值交替排列，用于维护对应的过滤计数
+         */
+        public void inserted(Object... columnValues) {
+            adjust(1, columnValues);
+        }
+
+        /**
+         * 删除了一行
+         * @param columnValues 被删除行的列值（列名、值交替）；未知时省略，过滤计数将失效
+         */
+        public void deleted(Object... columnValues) {
+            adjust(-1, columnValues);
+        }
+
+        /**
+         * 插入了多行，各行的列值不逐一跟踪，过滤计数失效
+         */
+        public void insertedRows(int rows) {
+            apply(() -> {
+                synchronized (counters) {
+                    Iterator<Entry> it = counters.entries.values().iterator();
+                    while (it.hasNext()) {
+                        Entry entry = it.next();
+                        if (entry.column == null) {
+                            entry.count += rows;
+                        } else {
+                            it.remove();
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * 删除了多行，各行的列值不逐一跟踪，过滤计数失效
+         */
+        public void deletedRows(int rows) {
+            apply(() -> {
+                synchronized (counters) {
+                    Iterator<Entry> it = counters.entries.values().iterator();
+                    while (it.hasNext()) {
+                        Entry entry = it.next();
+                        if (entry.column == null && entry.count >= rows) {
+                            entry.count -= rows;
+                        } else {
+                            it.remove();
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * 更新了指定列，以这些列为过滤条件的计数失效；不指定列时所有过滤计数失效
+         */
+        public void updated(String... columns) {
+            apply(() -> {
+                synchronized (counters) {
+                    Iterator<Entry> it = counters.entries.values().iterator();
+                    while (it.hasNext()) {
+                        Entry entry = it.next();
+                        if (entry.column != null && columns.length == 0) {
+                            it.remove();
+                            continue;
+                        }
+                        for (String column : columns) {
+                            if (column.equals(entry.column)) {
+                                it.remove();
+                                break;
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * 影响范围未知，丢弃该表的全部计数
+         */
+        public void invalidate() {
+            apply(() -> {
+                synchronized (counters) {
+                    counters.entries.clear();
+                }
+            });
+        }
+
+        private void adjust(int delta, Object... columnValues) {
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i + 1 < columnValues.length; i += 2) {
+                values.put(String.valueOf(columnValues[i]), String.valueOf(columnValues[i + 1]));
+            }
+            apply(() -> applyDelta(delta, values));
+        }
+
+        private void applyDelta(int delta, Map<String, String> values) {
+            synchronized (counters) {
+                Iterator<Entry> it = counters.entries.values().iterator();
+                while (it.hasNext()) {
+                    Entry entry = it.next();
+                    if (entry.column != null && !values.containsKey(entry.column)) {
+                        it.remove();
+                        continue;
+                    }
+                    if (entry.column == null || values.get(entry.column).equals(entry.value)) {
+                        entry.count += delta;
+                        if (entry.count < 0) {
+                            it.remove();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void apply(Runnable change) {
+            if (pending != null) {
+                pending.add(change);
+            } else {
+                change.run();
+            }
+        }
+
+        /**
+         * 结束写入；在事务中时等事务提交后应用暂存的调整再释放，回滚时丢弃调整直接释放
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (pending == null) {
+                release();
+                return;
+            }
+            Transactions.afterCommit(() -> {
+                try {
+                    pending.forEach(Runnable::run);
+                } finally {
+                    release();
+                }
+            });
+            Transactions.onRollback(this::release);
+        }
+
+        private void release() {
+            synchronized (counters) {
+                counters.generation++;
+                counters.writers--;
+            }
+        }
+    }
+
+    /**
+     * 单表的计数器集合
+     */
+    private static final class TableCounters {
+        final Map<String, Entry> entries = new HashMap<>();
+        long generation;
+        int writers;
+
+        synchronized Long get(String key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - entry.seededAt > COUNTER_TTL_MS) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.count;
+        }
+
+        synchronized void store(String key, String column, Object value, long count, long seenGeneration) {
+            if (writers == 0 && generation == seenGeneration) {
+                entries.put(key, new Entry(column, column == null ? null : String.valueOf(value), count));
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String column;
+        final String value;
+        final long seededAt = System.currentTimeMillis();
+        long count;
+
+        Entry(String column, String value, long count) {
+            this.column = column;
+            this.value = value;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.apex.core.dao;
+
+import java.io.IOException;
+
+/**
+ * 流式查询的逐行回调
+ * DAO的stream*方法对结果集的每一行调用一次，行对象不会被DAO保留，
+ * 回调中直接写出即可，内存占用与结果行数无关。
+ *
+ * @param <T> 行实体类型
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    /**
+     * 处理一行；抛出异常时DAO停止读取并关闭结果集
+     */
+    void handle(T row) throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.apex.core.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 结果集行映射器
+ * 将ResultSet当前行转换为对象，实现按列序号读取，列顺序由对应的TableMapping列清单决定
+ *
+ * @param <T> 映射目标类型
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * 映射结果集的当前行
+     * @param rs 已定位到某一行的结果集
+     * @return 映射后的对象
+     * @throws SQLException 读取列值失败时抛出
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,427 @@
+package com.apex.core.dao;
+
+import com.apex.core.dto.AdminUserDTO;
+import com.apex.core.dto.OrderListItem;
+import com.apex.core.dto.ProductListItem;
+import com.apex.core.dto.ReviewSummary;
+import com.apex.core.model.*;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 实体行映射注册表
+ * 每个实体类在类加载时构建一次显式列清单和按列序号读取的行映射器，
+ * 替代各DAO中基于列名查找的SELECT *映射，供所有DAO共享。
+ */
+public final class RowMappers {
+
+    /**
+     * 订单主表映射
+     */
+    public static final TableMapping<OrderInfo> ORDER_INFO = new TableMapping<>(
+            OrderInfo.class, "apexflow_order",
+            "id, user_id, total_amount, status, payment_method, address_id, "
+                    + "created_at, paid_at, shipped_at, completed_at",
+            rs -> {
+                OrderInfo order = new OrderInfo();
+                order.setId(rs.getString(1));
+                order.setUserId(rs.getInt(2));
+                order.setTotalAmount(rs.getBigDecimal(3));
+                order.setStatus(rs.getInt(4));
+                order.setPaymentMethod(rs.getString(5));
+
+                int addressId = rs.getInt(6);
+                order.setAddressId(rs.wasNull() ? null : addressId);
+
+                order.setCreatedAt(rs.getTimestamp(7).toLocalDateTime());
+                order.setPaidAt(toLocalDateTime(rs.getTimestamp(8)));
+                order.setShippedAt(toLocalDateTime(rs.getTimestamp(9)));
+                order.setCompletedAt(toLocalDateTime(rs.getTimestamp(10)));
+
+                order.markClean();
+                return order;
+            });
+
+    /**
+     * 订单项映射
+     */
+    public static final TableMapping<OrderItem> ORDER_ITEM = new TableMapping<>(
+            OrderItem.class, "apexflow_order_item",
+            "id, order_id, product_id, product_name, quantity, price, subtotal",
+            rs -> {
+                OrderItem orderItem = new OrderItem();
+                orderItem.setId(rs.getInt(1));
+                orderItem.setOrderId(rs.getString(2));
+                orderItem.setProductId(rs.getInt(3));
+                orderItem.setProductName(rs.getString(4));
+                orderItem.setQuantity(rs.getInt(5));
+                orderItem.setPrice(rs.getBigDecimal(6));
+                orderItem.setSubtotal(rs.getBigDecimal(7));
+                return orderItem;
+            });
+
+    /**
+     * 商品映射
+     */
+    public static final TableMapping<Product> PRODUCT = new TableMapping<>(
+            Product.class, "apexflow_product",
+            "id, name, category, price, stock, status, image, created_at",
+            rs -> {
+                Product product = new Product();
+                product.setId(rs.getInt(1));
+                product.setName(rs.getString(2));
+                product.setCategory(rs.getString(3));
+                product.setPrice(rs.getBigDecimal(4));
+                product.setStock(rs.getInt(5));
+                product.setStatus(rs.getInt(6));
+                product.setImage(rs.getString(7));
+
+                Timestamp createdAt = rs.getTimestamp(8);
+                if (createdAt != null) {
+                    product.setCreatedAt(createdAt.toLocalDateTime());
+                }
+
+                product.markClean();
+                return product;
+            });
+
+    /**
+     * 库存日志映射
+     */
+    public static final TableMapping<InventoryLog> INVENTORY_LOG = new TableMapping<>(
+            InventoryLog.class, "apexflow_inventory_log",
+            "id, product_id, change_type, quantity, before_stock, after_stock, order_id, created_at",
+            rs -> {
+                InventoryLog inventoryLog = new InventoryLog();
+                inventoryLog.setId(rs.getInt(1));
+                inventoryLog.setProductId(rs.getInt(2));
+                inventoryLog.setChangeType(rs.getString(3));
+                inventoryLog.setQuantity(rs.getInt(4));
+                inventoryLog.setBeforeStock(rs.getInt(5));
+                inventoryLog.setAfterStock(rs.getInt(6));
+                inventoryLog.setOrderId(rs.getString(7));
+
+                Timestamp createdAt = rs.getTimestamp(8);
+                if (createdAt != null) {
+                    inventoryLog.setCreatedAt(createdAt.toLocalDateTime());
+                }
+
+                return inventoryLog;
+            });
+
+    /**
+     * 物流信息映射
+     */
+    public static final TableMapping<Logistics> LOGISTICS = new TableMapping<>(
+            Logistics.class, "apexflow_logistics",
+            "id, order_id, express_company, tracking_number, status, sender_address, "
+                    + "receiver_address, shipped_at, delivered_at, created_at",
+            rs -> {
+                Logistics logistics = new Logistics();
+                logistics.setId(rs.getInt(1));
+                logistics.setOrderId(rs.getString(2));
+                logistics.setExpressCompany(rs.getString(3));
+                logistics.setTrackingNumber(rs.getString(4));
+                logistics.setStatus(rs.getString(5));
+                logistics.setSenderAddress(rs.getString(6));
+                logistics.setReceiverAddress(rs.getString(7));
+
+                Timestamp shippedAt = rs.getTimestamp(8);
+                if (shippedAt != null) {
+                    logistics.setShippedAt(shippedAt.toLocalDateTime());
+                }
+
+                Timestamp deliveredAt = rs.getTimestamp(9);
+                if (deliveredAt != null) {
+                    logistics.setDeliveredAt(deliveredAt.toLocalDateTime());
+                }
+
+                Timestamp createdAt = rs.getTimestamp(10);
+                if (createdAt != null) {
+                    logistics.setCreatedAt(createdAt.toLocalDateTime());
+                }
+
+                logistics.markClean();
+                return logistics;
+            });
+
+    /**
+     * 财务记录映射
+     */
+    public static final TableMapping<Income> INCOME = new TableMapping<>(
+            Income.class, "apexflow_income",
+            "id, order_id, type, amount, payment_method, status, transaction_time, remark",
+            rs -> {
+                Income income = new Income();
+                income.setId(rs.getInt(1));
+                income.setOrderId(rs.getString(2));
+                income.setType(rs.getString(3));
+                income.setAmount(rs.getBigDecimal(4));
+                income.setPaymentMethod(rs.getString(5));
+                income.setStatus(rs.getInt(6));
+
+                Timestamp transactionTime = rs.getTimestamp(7);
+                if (transactionTime != null) {
+                    income.setTransactionTime(transactionTime.toLocalDateTime());
+                }
+
+                income.setRemark(rs.getString(8));
+                return income;
+            });
+
+    /**
+     * 售后服务映射
+     */
+    public static final TableMapping<AfterSales> AFTER_SALES = new TableMapping<>(
+            AfterSales.class, "apexflow_after_sales",
+            "id, order_id, type, reason, status, refund_amount, apply_time, process_time, process_remark",
+            rs -> {
+                AfterSales afterSales = new AfterSales();
+                afterSales.setId(rs.getInt(1));
+                afterSales.setOrderId(rs.getString(2));
+                afterSales.setType(rs.getInt(3));
+                afterSales.setReason(rs.getString(4));
+                afterSales.setStatus(rs.getInt(5));
+                afterSales.setRefundAmount(rs.getBigDecimal(6));
+
+                Timestamp applyTime = rs.getTimestamp(7);
+                if (applyTime != null) {
+                    afterSales.setApplyTime(applyTime.toLocalDateTime());
+                }
+
+                Timestamp processTime = rs.getTimestamp(8);
+                if (processTime != null) {
+                    afterSales.setProcessTime(processTime.toLocalDateTime());
+                }
+
+                afterSales.setProcessRemark(rs.getString(9));
+
+                afterSales.markClean();
+                return afterSales;
+            });
+
+    /**
+     * 评价映射
+     */
+    public static final TableMapping<Review> REVIEW = new TableMapping<>(
+            Review.class, "apexflow_review",
+            "id, order_id, product_id, user_id, rating, content, images, is_anonymous, created_at",
+            rs -> {
+                Review review = new Review();
+                review.setId(rs.getInt(1));
+                review.setOrderId(rs.getString(2));
+                review.setProductId(rs.getInt(3));
+                review.setUserId(rs.getInt(4));
+                review.setRating(rs.getInt(5));
+                review.setContent(rs.getString(6));
+                review.setImages(rs.getString(7));
+                review.setAnonymous(rs.getBoolean(8));
+
+                Timestamp createdAt = rs.getTimestamp(9);
+                if (createdAt != null) {
+                    review.setCreatedAt(createdAt.toLocalDateTime());
+                }
+
+                return review;
+            });
+
+    /**
+     * 系统用户映射
+     */
+    public static final TableMapping<SystemUser> SYSTEM_USER = new TableMapping<>(
+            SystemUser.class, "apexflow_system_user",
+            "id, username, password_hash, salt, real_name, email, phone, "
+                    + "is_admin, can_manage_order, can_manage_logistics, can_manage_after_sales, "
+                    + "can_manage_review, can_manage_inventory, can_manage_income, "
+                    + "status, created_at, updated_at, last_login_at",
+            rs -> {
+                SystemUser user = new SystemUser();
+
+                user.setId(rs.getInt(1));
+                user.setUsername(rs.getString(2));
+                user.setPasswordHash(rs.getString(3));
+                user.setSalt(rs.getString(4));
+                user.setRealName(rs.getString(5));
+                user.setEmail(rs.getString(6));
+                user.setPhone(rs.getString(7));
+
+                user.setAdmin(rs.getBoolean(8));
+                user.setCanManageOrder(rs.getBoolean(9));
+                user.setCanManageLogistics(rs.getBoolean(10));
+                user.setCanManageAfterSales(rs.getBoolean(11));
+                user.setCanManageReview(rs.getBoolean(12));
+                user.setCanManageInventory(rs.getBoolean(13));
+                user.setCanManageIncome(rs.getBoolean(14));
+
+                user.setStatus(rs.getInt(15));
+
+                user.setCreatedAt(toLocalDateTime(rs.getTimestamp(16)));
+                user.setUpdatedAt(toLocalDateTime(rs.getTimestamp(17)));
+                user.setLastLoginAt(toLocalDateTime(rs.getTimestamp(18)));
+
+                return user;
+            });
+
+    // ========== 列表投影：只选取列表页展示的列，直接映射为DTO ==========
+
+    /**
+     * 订单列表投影，不加载地址及各阶段时间，也不加载订单项
+     */
+    public static final TableMapping<OrderListItem> ORDER_LIST_ITEM = new TableMapping<>(
+            OrderListItem.class, "apexflow_order",
+            "id, user_id, total_amount, status, payment_method, created_at",
+            rs -> {
+                OrderListItem item = new OrderListItem();
+                item.setOrderId(rs.getString(1));
+                item.setUserId(rs.getInt(2));
+                item.setTotalAmount(rs.getBigDecimal(3));
+                item.setStatus(rs.getInt(4));
+                item.setPaymentMethod(rs.getString(5));
+                item.setCreatedAt(toLocalDateTime(rs.getTimestamp(6)));
+                return item;
+            });
+
+    /**
+     * 商品列表投影，跳过实体及其变更跟踪器的构建
+     */
+    public static final TableMapping<ProductListItem> PRODUCT_LIST_ITEM = new TableMapping<>(
+            ProductListItem.class, "apexflow_product",
+            "id, name, category, price, stock, status, image, created_at",
+            rs -> {
+                ProductListItem item = new ProductListItem();
+                item.setId(rs.getInt(1));
+                item.setName(rs.getString(2));
+                item.setCategory(rs.getString(3));
+                item.setPrice(rs.getBigDecimal(4));
+                item.setStock(rs.getInt(5));
+                item.setStatus(rs.getInt(6));
+                item.setImage(rs.getString(7));
+                item.setCreatedAt(toLocalDateTime(rs.getTimestamp(8)));
+                return item;
+            });
+
+    /**
+     * 管理端用户列表投影，不读取password_hash和salt
+     */
+    public static final TableMapping<AdminUserDTO> ADMIN_USER = new TableMapping<>(
+            AdminUserDTO.class, "apexflow_system_user",
+            "id, username, real_name, email, phone, "
+                    + "is_admin, can_manage_order, can_manage_logistics, can_manage_after_sales, "
+                    + "can_manage_review, can_manage_inventory, can_manage_income, "
+                    + "status, created_at, updated_at, last_login_at",
+            rs -> {
+                AdminUserDTO dto = new AdminUserDTO();
+                dto.setId(rs.getInt(1));
+                dto.setUsername(rs.getString(2));
+                dto.setRealName(rs.getString(3));
+                dto.setEmail(rs.getString(4));
+                dto.setPhone(rs.getString(5));
+                dto.setIsAdmin(rs.getBoolean(6));
+                dto.setCanManageOrder(rs.getBoolean(7));
+                dto.setCanManageLogistics(rs.getBoolean(8));
+                dto.setCanManageAfterSales(rs.getBoolean(9));
+                dto.setCanManageReview(rs.getBoolean(10));
+                dto.setCanManageInventory(rs.getBoolean(11));
+                dto.setCanManageIncome(rs.getBoolean(12));
+                dto.setStatus(rs.getInt(13));
+                dto.setCreatedAt(toLocalDateTime(rs.getTimestamp(14)));
+                dto.setUpdatedAt(toLocalDateTime(rs.getTimestamp(15)));
+                dto.setLastLoginAt(toLocalDateTime(rs.getTimestamp(16)));
+                return dto;
+            });
+
+    /**
+     * 评价摘要投影，content只截取前EXCERPT_LENGTH个字符，images只返回是否存在
+     */
+    public static final TableMapping<ReviewSummary> REVIEW_SUMMARY = new TableMapping<>(
+            ReviewSummary.class, "apexflow_review",
+            "id, order_id, product_id, user_id, rating, "
+                    + "SUBSTRING(content, 1, " + ReviewSummary.EXCERPT_LENGTH + "), "
+                    + "CASE WHEN images IS NULL OR images = '' THEN 0 ELSE 1 END, "
+                    + "is_anonymous, created_at",
+            rs -> {
+                ReviewSummary summary = new ReviewSummary();
+                summary.setId(rs.getInt(1));
+                summary.setOrderId(rs.getString(2));
+                summary.setProductId(rs.getInt(3));
+                summary.setUserId(rs.getInt(4));
+                summary.setRating(rs.getInt(5));
+                summary.setExcerpt(rs.getString(6));
+                summary.setHasImages(rs.getInt(7) == 1);
+                summary.setAnonymous(rs.getBoolean(8));
+                summary.setCreatedAt(toLocalDateTime(rs.getTimestamp(9)));
+                return summary;
+            });
+
+    /**
+     * 事务发件箱映射
+     */
+    public static final TableMapping<OutboxEvent> OUTBOX_EVENT = new TableMapping<>(
+            OutboxEvent.class, "apexflow_outbox",
+            "id, event_type, aggregate_id, idempotency_key, payload, status, attempts, "
+                    + "next_attempt_at, last_error, created_at, delivered_at",
+            rs -> {
+                OutboxEvent event = new OutboxEvent();
+                event.setId(rs.getLong(1));
+                event.setEventType(rs.getString(2));
+                event.setAggregateId(rs.getString(3));
+                event.setIdempotencyKey(rs.getString(4));
+                event.setPayload(rs.getString(5));
+                event.setStatus(rs.getInt(6));
+                event.setAttempts(rs.getInt(7));
+                event.setNextAttemptAt(toLocalDateTime(rs.getTimestamp(8)));
+                event.setLastError(rs.getString(9));
+                event.setCreatedAt(toLocalDateTime(rs.getTimestamp(10)));
+                event.setDeliveredAt(toLocalDateTime(rs.getTimestamp(11)));
+                return event;
+            });
+
+    /**
+     * 库存预留映射
+     */
+    public static final TableMapping<StockReservation> STOCK_RESERVATION = new TableMapping<>(
+            StockReservation.class, "apexflow_stock_reservation",
+            "id, order_id, product_id, quantity, status, expires_at, created_at",
+            rs -> {
+                StockReservation reservation = new StockReservation();
+                reservation.setId(rs.getLong(1));
+                reservation.setOrderId(rs.getString(2));
+                reservation.setProductId(rs.getInt(3));
+                reservation.setQuantity(rs.getInt(4));
+                reservation.setStatus(rs.getInt(5));
+                reservation.setExpiresAt(toLocalDateTime(rs.getTimestamp(6)));
+                reservation.setCreatedAt(toLocalDateTime(rs.getTimestamp(7)));
+                return reservation;
+            });
+
+    private static final List<TableMapping<?>> REGISTRY = List.of(
+            ORDER_INFO,
+            ORDER_ITEM,
+            PRODUCT,
+            INVENTORY_LOG,
+            LOGISTICS,
+            INCOME,
+            AFTER_SALES,
+            REVIEW,
+            SYSTEM_USER,
+            OUTBOX_EVENT,
+            STOCK_RESERVATION
+    );
+
+    private RowMappers() {
+    }
+
+    /**
+     * 所有已注册的实体表映射（启动时校验表结构用）
+     */
+    public static Collection<TableMapping<?>> all() {
+        return REGISTRY;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.apex.core.dao;
+
+import com.apex.core.model.StockReservation;
+import com.apex.util.ConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 库存预留数据访问对象
+ */
+public class StockReservationDAO implements IStockReservationDAO {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationDAO.class);
+
+    private static final TableMapping<StockReservation> MAPPING = RowMappers.STOCK_RESERVATION;
+
+    private static final String SQL_FIND_BY_ORDER_ID = MAPPING.select("WHERE order_id = ? ORDER BY id");
+    private static final String SQL_FIND_HELD = MAPPING.select(
+            "WHERE status = " + StockReservation.STATUS_HELD + " ORDER BY id");
+
+    /**
+     * 批量写入预留记录
+     */
+    public boolean createBatch(List<StockReservation> reservations) {
+        String sql = """
+            INSERT INTO apexflow_stock_reservation
+            (order_id, product_id, quantity, status, expires_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+        if (reservations.isEmpty()) {
+            return true;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (StockReservation reservation : reservations) {
+                if (reservation.getCreatedAt() == null) {
+                    reservation.setCreatedAt(now);
+                }
+                reservation.setStatus(StockReservation.STATUS_HELD);
+
+                pstmt.setString(1, reservation.getOrderId());
+                pstmt.setInt(2, reservation.getProductId());
+                pstmt.setInt(3, reservation.getQuantity());
+                pstmt.setInt(4, StockReservation.STATUS_HELD);
+                pstmt.setTimestamp(5, Timestamp.valueOf(reservation.getExpiresAt()));
+                pstmt.setTimestamp(6, Timestamp.valueOf(reservation.getCreatedAt()));
+                pstmt.addBatch();
+            }
+
+            pstmt.executeBatch();
+            logger.debug("[RESERVATION_CREATE] {} reservations created for order {}",
+                    reservations.size(), reservations.get(0).getOrderId());
+            return true;
+
+        } catch (SQLException e) {
+            logger.error("[RESERVATION_CREATE] Failed to create reservations for order {}: {}",
+                    reservations.get(0).getOrderId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 查询订单的预留记录
+     */
+    public List<StockReservation> findByOrderId(String orderId) {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_BY_ORDER_ID)) {
+
+            pstmt.setString(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return MAPPING.mapRows(rs);
+            }
+
+        } catch (SQLException e) {
+            logger.error("[RESERVATION_FIND_BY_ORDER] Failed to query reservations of order {}: {}",
+                    orderId, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 查询所有预留中的记录
+     */
+    public List<StockReservation> findHeld() {
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FIND_HELD);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            return MAPPING.mapRows(rs);
+
+        } catch (SQLException e) {
+            logger.error("[RESERVATION_FIND_HELD] Failed to query held reservations: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 标记订单的预留记录已过期释放
+     */
+    public int markReleased(List<String> orderIds) {
+        try {
+            int rowsAffected = OrderScopedStatements.updateIn(MAPPING.getTableName(),
+                    "status = " + StockReservation.STATUS_RELEASED, "order_id", orderIds);
+            logger.debug("[RESERVATION_MARK_RELEASED] {} reservations of {} orders released",
+                    rowsAffected, orderIds.size());
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            logger.error("[RESERVATION_MARK_RELEASED] Failed to release reservations of {} orders: {}",
+                    orderIds.size(), e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * 按订单号批量删除预留记录
+     */
+    public int deleteByOrderIds(List<String> orderIds) {
+        try {
+            int rowsAffected = OrderScopedStatements.deleteIn(MAPPING.getTableName(), "order_id", orderIds);
+            logger.debug("[RESERVATION_DELETE] {} reservations of {} orders deleted", rowsAffected, orderIds.size());
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            logger.error("[RESERVATION_DELETE] Failed to delete reservations of {} orders: {}",
+                    orderIds.size(), e.getMessage(), e);
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.apex.core.dao;
+
+import com.apex.util.ConnectionPool;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 按时间范围的流式查询
+ * MySQL驱动默认把整个结果集读入内存；语句设为只进、只读且fetchSize为Integer.MIN_VALUE时
+ * 改为逐行从服务端读取，导出千万行数据时内存占用保持不变。
+ * 其他数据库（测试用的H2）使用普通的fetchSize分批读取。
+ * 流式读取期间该连接不能执行其他语句，因此每次查询独占一个连接。
+ */
+final class StreamingQueries {
+
+    /**
+     * 非MySQL数据库每次从服务端读取的行数
+     */
+    static final int FETCH_SIZE = 1000;
+
+    /**
+     * 未指定时间范围时使用的边界
+     */
+    private static final Timestamp MIN_TIME = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+    private static final Timestamp MAX_TIME = Timestamp.valueOf(LocalDateTime.of(9999, 12, 31, 0, 0));
+
+    private StreamingQueries() {
+    }
+
+    /**
+     * 生成按时间列范围查询的语句，结果按时间列、主键升序
+     */
+    static String rangeSql(TableMapping<?> mapping, String timeColumn) {
+        return mapping.select("WHERE " + timeColumn + " >= ? AND " + timeColumn + " < ? ORDER BY " + timeColumn + ", id");
+    }
+
+    /**
+     * 执行rangeSql生成的语句，逐行映射后交给handler
+     *
+     * @param from 起始时间（含），为null时不限
+     * @param to 截止时间（不含），为null时不限
+     * @return 读取的行数
+     */
+    static <T> long stream(TableMapping<T> mapping, String sql, LocalDateTime from, LocalDateTime to,
+                           RowHandler<T> handler) throws SQLException, IOException {
+        long rows = 0;
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            boolean mysql = conn.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            pstmt.setFetchSize(mysql ? Integer.MIN_VALUE : FETCH_SIZE);
+            pstmt.setTimestamp(1, from != null ? Timestamp.valueOf(from) : MIN_TIME);
+            pstmt.setTimestamp(2, to != null ? Timestamp.valueOf(to) : MAX_TIME);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapping.mapRow(rs));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,86 @@
+package com.apex.core.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 表与实体的映射定义
+ * 包含表名、显式列清单以及按列序号读取的行映射器，
+ * DAO在类加载时通过select()生成SQL常量，运行期不再拼接或格式化SQL字符串。
+ *
+ * @param <T> 实体类型
+ */
+public final class TableMapping<T> {
+    /**
+     * 归档表名后缀
+     */
+    public static final String ARCHIVE_SUFFIX = "_archive";
+
+    private final Class<T> type;
+    private final String tableName;
+    private final String columns;
+    private final RowMapper<T> rowMapper;
+
+    /**
+     * @param type      实体类型
+     * @param tableName 表名
+     * @param columns   以逗号分隔的列清单，顺序与rowMapper读取的列序号一致
+     * @param rowMapper 按列序号读取的行映射器
+     */
+    TableMapping(Class<T> type, String tableName, String columns, RowMapper<T> rowMapper) {
+        this.type = type;
+        this.tableName = tableName;
+        this.columns = columns;
+        this.rowMapper = rowMapper;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    /**
+     * 生成查询语句：SELECT 列清单 FROM 表名 [子句]
+     * @param clause WHERE/ORDER BY/LIMIT等后续子句，可为空字符串
+     * @return 完整的SELECT语句
+     */
+    public String select(String clause) {
+        String sql = "SELECT " + columns + " FROM " + tableName;
+        return clause == null || clause.isEmpty() ? sql : sql + " " + clause;
+    }
+
+    /**
+     * 归档表映射：表名加"_archive"后缀，列清单与行映射器和热表相同。
+     * 仅适用于覆盖全部列的实体映射。
+     */
+    public TableMapping<T> archive() {
+        return new TableMapping<>(type, tableName + ARCHIVE_SUFFIX, columns, rowMapper);
+    }
+
+    /**
+     * 映射结果集当前行
+     */
+    public T mapRow(ResultSet rs) throws SQLException {
+        return rowMapper.mapRow(rs);
+    }
+
+    /**
+     * 映射结果集的剩余所有行
+     */
+    public List<T> mapRows(ResultSet rs) throws SQLException {
+        List<T> list = new ArrayList<>();
+        while (rs.next()) {
+            list.add(rowMapper.mapRow(rs));
+        }
+        return list;
+    }
+}
@@ -1,5 +1,6 @@
 package com.apex.core.dao;
 
+import com.apex.core.dto.AdminUserDTO;
 import com.apex.core.model.SystemUser;
 import com.apex.util.ConnectionPool;
 import org.slf4j.Logger;
@@ -8,7 +9,10 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User Data Access Object for managing SystemUser entities
@@ -19,6 +23,54 @@ public class UserDAO implements IUserDAO {
     // SQL 常量
     private static final String TABLE_NAME = "apexflow_system_user";
 
+    private static final TableMapping<SystemUser> MAPPING = RowMappers.SYSTEM_USER;
+
+    // 查询语句常量（显式列清单，类加载时生成一次）
+    private static final String SQL_FIND_BY_ID = MAPPING.select("WHERE id = ?");
+    private static final String SQL_FIND_BY_USERNAME = MAPPING.select("WHERE username = ?");
+    private static final String SQL_FIND_BY_EMAIL = MAPPING.select("WHERE email = ?");
+    private static final String SQL_FIND_ALL = MAPPING.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_BY_STATUS = MAPPING.select("WHERE status = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_SEARCH = MAPPING.select(
+            "WHERE username LIKE ? OR real_name LIKE ? OR email LIKE ? OR phone LIKE ? "
+                    + "ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
+    // 管理端列表投影语句常量（不读取password_hash和salt）
+    private static final TableMapping<AdminUserDTO> ADMIN_MAPPING = RowMappers.ADMIN_USER;
+    private static final String SQL_FIND_ADMIN_USERS = ADMIN_MAPPING.select("ORDER BY created_at DESC LIMIT ? OFFSET ?");
+    private static final String SQL_FIND_ADMIN_USERS_AFTER = ADMIN_MAPPING.select("WHERE id > ? ORDER BY id LIMIT ?");
+    private static final String SQL_SEARCH_ADMIN_USERS = ADMIN_MAPPING.select(
+            "WHERE username LIKE ? OR real_name LIKE ? OR email LIKE ? OR phone LIKE ? "
+                    + "ORDER BY created_at DESC LIMIT ? OFFSET ?");
+
+    // 写入及统计语句常量
+    private static final String SQL_CREATE = "INSERT INTO " + TABLE_NAME + " ("
+            + "username, password_hash, salt, real_name, email, phone, "
+            + "is_admin, can_manage_order, can_manage_logistics, "
+            + "can_manage_after_sales, can_manage_review, "
+            + "can_manage_inventory, can_manage_income, status"
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_UPDATE = "UPDATE " + TABLE_NAME
+            + " SET username = ?, password_hash = ?, salt = ?, real_name = ?,"
+            + " email = ?, phone = ?, is_admin = ?, can_manage_order = ?,"
+            + " can_manage_logistics = ?, can_manage_after_sales = ?,"
+            + " can_manage_review = ?, can_manage_inventory = ?,"
+            + " can_manage_income = ?, status = ?, updated_at = ?"
+            + " WHERE id = ?";
+    private static final String SQL_UPDATE_LAST_LOGIN_TIME = "UPDATE " + TABLE_NAME + " SET last_login_at = ? WHERE id = ?";
+    // 批量更新最后登录时间：每批一条 UPDATE ... SET last_login_at = CASE id WHEN ? THEN ? ... END WHERE id IN (...)
+    private static final int LAST_LOGIN_BATCH_SIZE = 500;
+    private static final String SQL_UPDATE_PASSWORD = "UPDATE " + TABLE_NAME
+            + " SET password_hash = ?, salt = ?, updated_at = ? WHERE id = ?";
+    private static final String SQL_UPDATE_STATUS = "UPDATE " + TABLE_NAME + " SET status = ?, updated_at = ? WHERE id = ?";
+    private static final String SQL_DELETE = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
+    private static final String SQL_COUNT = "SELECT COUNT(*) FROM " + TABLE_NAME;
+    private static final String SQL_COUNT_SEARCH = "SELECT COUNT(*) FROM " + TABLE_NAME
+            + " WHERE username LIKE ? OR real_name LIKE ? OR email LIKE ? OR phone LIKE ?";
+    private static final String SQL_COUNT_ACTIVE = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE status = 1";
+    private static final String SQL_EXISTS_BY_USERNAME = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE username = ?";
+    private static final String SQL_EXISTS_BY_EMAIL = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE email = ?";
+
     /**
      * 创建新用户
      */
@@ -26,18 +78,12 @@ public class UserDAO implements IUserDAO {
         String operation = "CREATE_USER";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("""
-        INSERT INTO %s (
-            username, password_hash, salt, real_name, email, phone,
-            is_admin, can_manage_order, can_manage_logistics,
-            can_manage_after_sales, can_manage_review,
-            can_manage_inventory, can_manage_income, status
-        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """, TABLE_NAME);
+        String sql = SQL_CREATE;
 
         logger.info("[{}] Creating new user. Username: {}", operation, user.getUsername());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(TABLE_NAME);
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             int paramIndex = 1;
@@ -67,6 +113,7 @@ public class UserDAO implements IUserDAO {
             boolean success = rowsAffected == 1;
 
             if (success) {
+                counts.inserted("status", user.getStatus() != null ? user.getStatus() : 1);
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         user.setId(generatedKeys.getInt(1));
@@ -101,7 +148,7 @@ public class UserDAO implements IUserDAO {
         String operation = "FIND_USER_BY_ID";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT * FROM %s WHERE id = ?", TABLE_NAME);
+        String sql = SQL_FIND_BY_ID;
 
         logger.debug("[{}] Searching for user by ID: {}", operation, id);
 
@@ -111,7 +158,7 @@ public class UserDAO implements IUserDAO {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                SystemUser result = rs.next() ? mapToSystemUser(rs) : null;
+                SystemUser result = rs.next() ? MAPPING.mapRow(rs) : null;
                 long duration = System.currentTimeMillis() - startTime;
 
                 if (result != null) {
@@ -139,7 +186,7 @@ public class UserDAO implements IUserDAO {
         String operation = "FIND_USER_BY_USERNAME";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT * FROM %s WHERE username = ?", TABLE_NAME);
+        String sql = SQL_FIND_BY_USERNAME;
 
         logger.debug("[{}] Searching for user by username: {}", operation, username);
 
@@ -149,7 +196,7 @@ public class UserDAO implements IUserDAO {
             pstmt.setString(1, username);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                SystemUser result = rs.next() ? mapToSystemUser(rs) : null;
+                SystemUser result = rs.next() ? MAPPING.mapRow(rs) : null;
                 long duration = System.currentTimeMillis() - startTime;
 
                 if (result != null) {
@@ -177,7 +224,7 @@ public class UserDAO implements IUserDAO {
         String operation = "FIND_USER_BY_EMAIL";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT * FROM %s WHERE email = ?", TABLE_NAME);
+        String sql = SQL_FIND_BY_EMAIL;
 
         logger.debug("[{}] Searching for user by email: {}", operation, email);
 
@@ -187,7 +234,7 @@ public class UserDAO implements IUserDAO {
             pstmt.setString(1, email);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                SystemUser result = rs.next() ? mapToSystemUser(rs) : null;
+                SystemUser result = rs.next() ? MAPPING.mapRow(rs) : null;
                 long duration = System.currentTimeMillis() - startTime;
 
                 if (result != null) {
@@ -215,20 +262,13 @@ public class UserDAO implements IUserDAO {
         String operation = "UPDATE_USER";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("""
-        UPDATE %s
-        SET username = ?, password_hash = ?, salt = ?, real_name = ?,
-            email = ?, phone = ?, is_admin = ?, can_manage_order = ?,
-            can_manage_logistics = ?, can_manage_after_sales = ?,
-            can_manage_review = ?, can_manage_inventory = ?,
-            can_manage_income = ?, status = ?, updated_at = ?
-        WHERE id = ?
-        """, TABLE_NAME);
+        String sql = SQL_UPDATE;
 
         logger.info("[{}] Updating user. ID: {}, Username: {}",
                 operation, user.getId(), user.getUsername());
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(TABLE_NAME);
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             int paramIndex = 1;
@@ -263,6 +303,7 @@ public class UserDAO implements IUserDAO {
             long duration = System.currentTimeMillis() - startTime;
 
             if (success) {
+                counts.updated("status");
                 logger.info("[{}] User updated successfully in {} ms. ID: {}, Username: {}",
                         operation, duration, user.getId(), user.getUsername());
             } else {
@@ -286,7 +327,7 @@ public class UserDAO implements IUserDAO {
         String operation = "UPDATE_LAST_LOGIN_TIME";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("UPDATE %s SET last_login_at = ? WHERE id = ?", TABLE_NAME);
+        String sql = SQL_UPDATE_LAST_LOGIN_TIME;
 
         logger.debug("[{}] Updating last login time for user ID: {}", operation, userId);
 
@@ -318,6 +359,104 @@ public class UserDAO implements IUserDAO {
         }
     }
 
+    /**
+     * 批量更新最后登录时间，按LAST_LOGIN_BATCH_SIZE分批，每批一条UPDATE语句
+     */
+    public int updateLastLoginTimes(Map<Integer, LocalDateTime> lastLoginTimes) {
+        String operation = "UPDATE_LAST_LOGIN_TIMES";
+        long startTime = System.currentTimeMillis();
+
+        if (lastLoginTimes == null || lastLoginTimes.isEmpty()) {
+            return 0;
+        }
+
+        logger.debug("[{}] Updating last login time for {} users", operation, lastLoginTimes.size());
+
+        List<Map.Entry<Integer, LocalDateTime>> entries = new ArrayList<>(lastLoginTimes.entrySet());
+        int updated = 0;
+        try (Connection conn = ConnectionPool.getConnection()) {
+            for (int from = 0; from < entries.size(); from += LAST_LOGIN_BATCH_SIZE) {
+                List<Map.Entry<Integer, LocalDateTime>> batch =
+                        entries.subList(from, Math.min(entries.size(), from + LAST_LOGIN_BATCH_SIZE));
+                try (PreparedStatement pstmt = conn.prepareStatement(buildLastLoginBatchSql(batch.size()))) {
+                    int paramIndex = 1;
+                    for (Map.Entry<Integer, LocalDateTime> entry : batch) {
+                        pstmt.setInt(paramIndex++, entry.getKey());
+                        pstmt.setTimestamp(paramIndex++, Timestamp.valueOf(entry.getValue()));
+                    }
+                    for (Map.Entry<Integer, LocalDateTime> entry : batch) {
+                        pstmt.setInt(paramIndex++, entry.getKey());
+                    }
+                    updated += pstmt.executeUpdate();
+                }
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.debug("[{}] Last login time updated for {} of {} users in {} ms",
+                    operation, updated, entries.size(), duration);
+            return updated;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to update last login times after {} ms. Users: {}, Error: {}",
+                    operation, duration, entries.size(), e.getMessage(), e);
+            return -1;
+        }
+    }
+
+    private static String buildLastLoginBatchSql(int size) {
+        StringBuilder sql = new StringBuilder(64 + size * 20)
+                .append("UPDATE ").append(TABLE_NAME).append(" SET last_login_at = CASE id");
+        for (int i = 0; i < size; i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE id IN (");
+        for (int i = 0; i < size; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    /**
+     * 更新用户密码哈希和盐
+     */
+    public boolean updatePassword(Integer userId, String passwordHash, String salt) {
+        String operation = "UPDATE_USER_PASSWORD";
+        long startTime = System.currentTimeMillis();
+
+        String sql = SQL_UPDATE_PASSWORD;
+
+        logger.debug("[{}] Updating password hash for user ID: {}", operation, userId);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, passwordHash);
+            pstmt.setString(2, salt);
+            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            pstmt.setInt(4, userId);
+
+            int rowsAffected = pstmt.executeUpdate();
+            boolean success = rowsAffected == 1;
+
+            long duration = System.currentTimeMillis() - startTime;
+
+            if (success) {
+                logger.info("[{}] Password hash updated successfully in {} ms. User ID: {}",
+                        operation, duration, userId);
+            } else {
+                logger.warn("[{}] No user found to update password hash. User ID: {} (took {} ms)",
+                        operation, userId, duration);
+            }
+
+            return success;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to update password hash after {} ms. User ID: {}, Error: {}",
+                    operation, duration, userId, e.getMessage(), e);
+            return false;
+        }
+    }
+
     /**
      * 更新用户状态
      */
@@ -325,12 +464,13 @@ public class UserDAO implements IUserDAO {
         String operation = "UPDATE_USER_STATUS";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("UPDATE %s SET status = ?, updated_at = ? WHERE id = ?", TABLE_NAME);
+        String sql = SQL_UPDATE_STATUS;
 
         logger.info("[{}] Updating user status. User ID: {}, New Status: {}",
                 operation, userId, status);
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(TABLE_NAME);
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, status);
@@ -343,6 +483,7 @@ public class UserDAO implements IUserDAO {
             long duration = System.currentTimeMillis() - startTime;
 
             if (success) {
+                counts.updated("status");
                 logger.info("[{}] User status updated successfully in {} ms. User ID: {}, New Status: {}",
                         operation, duration, userId, status);
             } else {
@@ -366,11 +507,12 @@ public class UserDAO implements IUserDAO {
         String operation = "DELETE_USER";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("DELETE FROM %s WHERE id = ?", TABLE_NAME);
+        String sql = SQL_DELETE;
 
         logger.warn("[{}] Attempting to delete user. User ID: {}", operation, userId);
 
-        try (Connection conn = ConnectionPool.getConnection();
+        try (RowCounts.Write counts = RowCounts.beginWrite(TABLE_NAME);
+             Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
@@ -381,6 +523,7 @@ public class UserDAO implements IUserDAO {
             long duration = System.currentTimeMillis() - startTime;
 
             if (success) {
+                counts.deleted();
                 logger.warn("[{}] User deleted successfully in {} ms. User ID: {}",
                         operation, duration, userId);
             } else {
@@ -405,11 +548,7 @@ public class UserDAO implements IUserDAO {
         long startTime = System.currentTimeMillis();
 
         List<SystemUser> users = new ArrayList<>();
-        String sql = String.format("""
-            SELECT * FROM %s
-            ORDER BY created_at DESC
-            LIMIT ? OFFSET ?
-            """, TABLE_NAME);
+        String sql = SQL_FIND_ALL;
 
         if (page < 1) page = 1;
         int offset = (page - 1) * pageSize;
@@ -426,7 +565,7 @@ public class UserDAO implements IUserDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 int count = 0;
                 while (rs.next()) {
-                    users.add(mapToSystemUser(rs));
+                    users.add(MAPPING.mapRow(rs));
                     count++;
                 }
 
@@ -452,12 +591,7 @@ public class UserDAO implements IUserDAO {
         long startTime = System.currentTimeMillis();
 
         List<SystemUser> users = new ArrayList<>();
-        String sql = String.format("""
-            SELECT * FROM %s
-            WHERE status = ?
-            ORDER BY created_at DESC
-            LIMIT ? OFFSET ?
-            """, TABLE_NAME);
+        String sql = SQL_FIND_BY_STATUS;
 
         if (page < 1) page = 1;
         int offset = (page - 1) * pageSize;
@@ -475,7 +609,7 @@ public class UserDAO implements IUserDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 int count = 0;
                 while (rs.next()) {
-                    users.add(mapToSystemUser(rs));
+                    users.add(MAPPING.mapRow(rs));
                     count++;
                 }
 
@@ -501,12 +635,7 @@ public class UserDAO implements IUserDAO {
         long startTime = System.currentTimeMillis();
 
         List<SystemUser> users = new ArrayList<>();
-        String sql = String.format("""
-            SELECT * FROM %s
-            WHERE username LIKE ? OR real_name LIKE ? OR email LIKE ? OR phone LIKE ?
-            ORDER BY created_at DESC
-            LIMIT ? OFFSET ?
-            """, TABLE_NAME);
+        String sql = SQL_SEARCH;
 
         if (page < 1) page = 1;
         int offset = (page - 1) * pageSize;
@@ -528,7 +657,7 @@ public class UserDAO implements IUserDAO {
             try (ResultSet rs = pstmt.executeQuery()) {
                 int count = 0;
                 while (rs.next()) {
-                    users.add(mapToSystemUser(rs));
+                    users.add(MAPPING.mapRow(rs));
                     count++;
                 }
 
@@ -546,6 +675,170 @@ public class UserDAO implements IUserDAO {
         }
     }
 
+    /**
+     * 获取管理端用户列表项（分页），不读取密码哈希和盐值
+     */
+    public List<AdminUserDTO> findAdminUsers(int page, int pageSize) {
+        String operation = "FIND_ADMIN_USERS";
+        long startTime = System.currentTimeMillis();
+
+        List<AdminUserDTO> users = new ArrayList<>();
+        String sql = SQL_FIND_ADMIN_USERS;
+
+        if (page < 1) page = 1;
+        int offset = (page - 1) * pageSize;
+
+        logger.debug("[{}] Retrieving admin user list. Page: {}, PageSize: {}, Offset: {}",
+                operation, page, pageSize, offset);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, pageSize);
+            pstmt.setInt(2, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                users = ADMIN_MAPPING.mapRows(rs);
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.info("[{}] Retrieved {} users in {} ms. Page: {}, PageSize: {}",
+                    operation, users.size(), duration, page, pageSize);
+            return users;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to retrieve admin user list after {} ms. Page: {}, Error: {}",
+                    operation, duration, page, e.getMessage(), e);
+            return users;
+        }
+    }
+
+    /**
+     * 按ID升序分批读取管理端用户列表项
+     */
+    public List<AdminUserDTO> findAdminUsersAfter(int afterId, int limit) {
+        String operation = "FIND_ADMIN_USERS_AFTER";
+        long startTime = System.currentTimeMillis();
+
+        List<AdminUserDTO> users = new ArrayList<>();
+        String sql = SQL_FIND_ADMIN_USERS_AFTER;
+
+        logger.debug("[{}] Retrieving admin users after ID: {}, Limit: {}", operation, afterId, limit);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                users = ADMIN_MAPPING.mapRows(rs);
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.debug("[{}] Retrieved {} users after ID {} in {} ms",
+                    operation, users.size(), afterId, duration);
+            return users;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to retrieve admin users after ID {} after {} ms. Error: {}",
+                    operation, afterId, duration, e.getMessage(), e);
+            return users;
+        }
+    }
+
+    /**
+     * 按ID批量读取管理端用户列表项，保持传入ID的顺序
+     */
+    public List<AdminUserDTO> findAdminUsersByIds(List<Integer> ids) {
+        String operation = "FIND_ADMIN_USERS_BY_IDS";
+        long startTime = System.currentTimeMillis();
+
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = ADMIN_MAPPING.select("WHERE id IN (" + placeholders + ")");
+
+        logger.debug("[{}] Retrieving {} admin users by ID", operation, ids.size());
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+
+            Map<Integer, AdminUserDTO> byId = new HashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (AdminUserDTO user : ADMIN_MAPPING.mapRows(rs)) {
+                    byId.put(user.getId(), user);
+                }
+            }
+
+            List<AdminUserDTO> users = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                AdminUserDTO user = byId.get(id);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.debug("[{}] Retrieved {} of {} users in {} ms", operation, users.size(), ids.size(), duration);
+            return users;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to retrieve admin users by ID after {} ms. Error: {}",
+                    operation, duration, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 搜索管理端用户列表项（按用户名、姓名、邮箱、电话），不读取密码哈希和盐值
+     */
+    public List<AdminUserDTO> searchAdminUsers(String keyword, int page, int pageSize) {
+        String operation = "SEARCH_ADMIN_USERS";
+        long startTime = System.currentTimeMillis();
+
+        List<AdminUserDTO> users = new ArrayList<>();
+        String sql = SQL_SEARCH_ADMIN_USERS;
+
+        if (page < 1) page = 1;
+        int offset = (page - 1) * pageSize;
+        String searchPattern = "%" + keyword + "%";
+
+        logger.debug("[{}] Searching admin user list with keyword: '{}', Page: {}, PageSize: {}",
+                operation, keyword, page, pageSize);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, searchPattern);
+            pstmt.setString(2, searchPattern);
+            pstmt.setString(3, searchPattern);
+            pstmt.setString(4, searchPattern);
+            pstmt.setInt(5, pageSize);
+            pstmt.setInt(6, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                users = ADMIN_MAPPING.mapRows(rs);
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            logger.info("[{}] Found {} users with keyword '{}' in {} ms",
+                    operation, users.size(), keyword, duration);
+            return users;
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to search admin user list after {} ms. Keyword: '{}', Error: {}",
+                    operation, duration, keyword, e.getMessage(), e);
+            return users;
+        }
+    }
+
     /**
      * 统计用户总数
      */
@@ -553,7 +846,7 @@ public class UserDAO implements IUserDAO {
         String operation = "COUNT_USERS";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT COUNT(*) FROM %s", TABLE_NAME);
+        String sql = SQL_COUNT;
 
         logger.debug("[{}] Counting total users", operation);
 
@@ -574,6 +867,41 @@ public class UserDAO implements IUserDAO {
         }
     }
 
+    /**
+     * 统计关键词搜索命中的用户数
+     */
+    public long countSearch(String keyword) {
+        String operation = "COUNT_SEARCH_USERS";
+        long startTime = System.currentTimeMillis();
+
+        String sql = SQL_COUNT_SEARCH;
+        String searchPattern = "%" + keyword + "%";
+
+        logger.debug("[{}] Counting users with keyword: '{}'", operation, keyword);
+
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, searchPattern);
+            pstmt.setString(2, searchPattern);
+            pstmt.setString(3, searchPattern);
+            pstmt.setString(4, searchPattern);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                long duration = System.currentTimeMillis() - startTime;
+
+                logger.info("[{}] Users matching '{}': {} (counted in {} ms)", operation, keyword, count, duration);
+                return count;
+            }
+        } catch (SQLException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("[{}] Failed to count users after {} ms. Keyword: '{}', Error: {}",
+                    operation, duration, keyword, e.getMessage(), e);
+            return 0;
+        }
+    }
+
     /**
      * 统计活跃用户数
      */
@@ -581,7 +909,7 @@ public class UserDAO implements IUserDAO {
         String operation = "COUNT_ACTIVE_USERS";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT COUNT(*) FROM %s WHERE status = 1", TABLE_NAME);
+        String sql = SQL_COUNT_ACTIVE;
 
         logger.debug("[{}] Counting active users", operation);
 
@@ -609,7 +937,7 @@ public class UserDAO implements IUserDAO {
         String operation = "CHECK_USERNAME_EXISTS";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT COUNT(*) FROM %s WHERE username = ?", TABLE_NAME);
+        String sql = SQL_EXISTS_BY_USERNAME;
 
         logger.debug("[{}] Checking if username exists: {}", operation, username);
 
@@ -642,7 +970,7 @@ public class UserDAO implements IUserDAO {
         String operation = "CHECK_EMAIL_EXISTS";
         long startTime = System.currentTimeMillis();
 
-        String sql = String.format("SELECT COUNT(*) FROM %s WHERE email = ?", TABLE_NAME);
+        String sql = SQL_EXISTS_BY_EMAIL;
 
         logger.debug("[{}] Checking if email exists: {}", operation, email);
 
@@ -709,39 +1037,4 @@ public class UserDAO implements IUserDAO {
         return null;
     }
 
-    /**
-     * 将ResultSet映射到SystemUser对象
-     */
-    private SystemUser mapToSystemUser(ResultSet rs) throws SQLException {
-        SystemUser user = new SystemUser();
-
-        user.setId(rs.getInt("id"));
-        user.setUsername(rs.getString("username"));
-        user.setPasswordHash(rs.getString("password_hash"));
-        user.setSalt(rs.getString("salt"));
-        user.setRealName(rs.getString("real_name"));
-        user.setEmail(rs.getString("email"));
-        user.setPhone(rs.getString("phone"));
-
-        user.setAdmin(rs.getBoolean("is_admin"));
-        user.setCanManageOrder(rs.getBoolean("can_manage_order"));
-        user.setCanManageLogistics(rs.getBoolean("can_manage_logistics"));
-        user.setCanManageAfterSales(rs.getBoolean("can_manage_after_sales"));
-        user.setCanManageReview(rs.getBoolean("can_manage_review"));
-        user.setCanManageInventory(rs.getBoolean("can_manage_inventory"));
-        user.setCanManageIncome(rs.getBoolean("can_manage_income"));
-
-        user.setStatus(rs.getInt("status"));
-
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
-
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        user.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
-
-        Timestamp lastLoginAt = rs.getTimestamp("last_login_at");
-        user.setLastLoginAt(lastLoginAt != null ? lastLoginAt.toLocalDateTime() : null);
-
-        return user;
-    }
 }
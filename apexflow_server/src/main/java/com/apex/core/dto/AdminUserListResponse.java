@@ -9,6 +9,7 @@ public class AdminUserListResponse {
     private Integer pageSize;
     private Long totalCount;
     private Integer totalPages;
+    private Boolean totalExact;
 
     // Getters and Setters
     public java.util.List<AdminUserDTO> getUsers() { return users; }
@@ -25,4 +26,7 @@ public class AdminUserListResponse {
 
     public Integer getTotalPages() { return totalPages; }
     public void setTotalPages(Integer totalPages) { this.totalPages = totalPages; }
+
+    public Boolean getTotalExact() { return totalExact; }
+    public void setTotalExact(Boolean totalExact) { this.totalExact = totalExact; }
 }
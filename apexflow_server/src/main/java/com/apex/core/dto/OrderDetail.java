@@ -14,6 +14,10 @@ public class OrderDetail {
     private List<Income> incomes;
     private List<AfterSales> afterSalesList;
     private Review review;
+    /**
+     * 是否从归档表读取（已归档订单只读）
+     */
+    private boolean archived;
 
     // getters and setters
     public OrderInfo getOrderInfo() { return orderInfo; }
@@ -33,4 +37,7 @@ public class OrderDetail {
 
     public Review getReview() { return review; }
     public void setReview(Review review) { this.review = review; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
 }
\ No newline at end of file
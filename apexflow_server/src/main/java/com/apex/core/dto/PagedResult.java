@@ -12,6 +12,7 @@ public class PagedResult<T> {
     private int pageSize;
     private int totalCount;
     private int totalPages;
+    private boolean totalExact = true;
 
     // Getters and Setters
     public List<T> getData() { return data; }
@@ -31,4 +32,18 @@ public class PagedResult<T> {
 
     public int getTotalPages() { return totalPages; }
     public void setTotalPages(int totalPages) { this.totalPages = totalPages; }
+
+    /**
+     * 总记录数是否精确；为false时totalCount来自短时缓存，可能与实际略有出入
+     */
+    public boolean isTotalExact() { return totalExact; }
+    public void setTotalExact(boolean totalExact) { this.totalExact = totalExact; }
+
+    /**
+     * 设置总记录数及其是否精确
+     */
+    public void applyTotal(TotalCount total) {
+        setTotalCount(Math.toIntExact(total.getCount()));
+        setTotalExact(total.isExact());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.apex.core.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 商品批量导入结果
+ * 失败的行不影响其余行；errors最多保留MAX_ERRORS条，超出部分只计入failed。
+ * completed为false表示文件在中途无法继续解析，abortReason说明原因，此前的批次已经提交。
+ */
+public class ProductImportResult {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    private boolean completed = true;
+    private String abortReason;
+    private final List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    /**
+     * 单行错误
+     */
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+
+        public String getMessage() { return message; }
+    }
+
+    public void addRows(long rows) {
+        totalRows += rows;
+    }
+
+    public void addCreated(long count) {
+        created += count;
+    }
+
+    public void addUpdated(long count) {
+        updated += count;
+    }
+
+    /**
+     * 记录一行失败
+     * @param row 数据行号（从1开始，不含CSV表头）
+     */
+    public void fail(long row, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void abort(String reason) {
+        completed = false;
+        abortReason = reason;
+    }
+
+    public long getTotalRows() { return totalRows; }
+
+    public long getCreated() { return created; }
+
+    public long getUpdated() { return updated; }
+
+    public long getFailed() { return failed; }
+
+    public boolean isCompleted() { return completed; }
+
+    public String getAbortReason() { return abortReason; }
+
+    public List<RowError> getErrors() { return errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+}
@@ -12,6 +12,7 @@ public class ReviewListResponse {
     private Integer total;        // 总记录数
     private Integer page;         // 当前页码
     private Integer pageSize;     // 每页数量
+    private Boolean totalExact;   // 总记录数是否精确
 
     // Getters and Setters
     public List<Review> getReviews() { return reviews; }
@@ -25,4 +26,7 @@ public class ReviewListResponse {
 
     public Integer getPageSize() { return pageSize; }
     public void setPageSize(Integer pageSize) { this.pageSize = pageSize; }
+
+    public Boolean getTotalExact() { return totalExact; }
+    public void setTotalExact(Boolean totalExact) { this.totalExact = totalExact; }
 }
\ No newline at end of file
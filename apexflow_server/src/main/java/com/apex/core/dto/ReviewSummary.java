@@ -0,0 +1,52 @@
+package com.apex.core.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 评价摘要DTO - 用于评价列表展示
+ * 只携带内容摘要和是否有图标记，不包含完整的content/images文本
+ */
+public class ReviewSummary {
+    /**
+     * 摘要中保留的评价内容最大字符数
+     */
+    public static final int EXCERPT_LENGTH = 100;
+
+    private Integer id;
+    private String orderId;
+    private Integer productId;
+    private Integer userId;
+    private Integer rating;
+    private String excerpt;
+    private Boolean hasImages;
+    private Boolean anonymous;
+    private LocalDateTime createdAt;
+
+    // Getters and Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+
+    public Integer getProductId() { return productId; }
+    public void setProductId(Integer productId) { this.productId = productId; }
+
+    public Integer getUserId() { return userId; }
+    public void setUserId(Integer userId) { this.userId = userId; }
+
+    public Integer getRating() { return rating; }
+    public void setRating(Integer rating) { this.rating = rating; }
+
+    public String getExcerpt() { return excerpt; }
+    public void setExcerpt(String excerpt) { this.excerpt = excerpt; }
+
+    public Boolean getHasImages() { return hasImages; }
+    public void setHasImages(Boolean hasImages) { this.hasImages = hasImages; }
+
+    public Boolean getAnonymous() { return anonymous; }
+    public void setAnonymous(Boolean anonymous) { this.anonymous = anonymous; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,27 @@
+package com.apex.core.dto;
+
+/**
+ * 分页总记录数
+ * exact为false表示数值来自短时缓存，可能与当前实际行数略有出入
+ */
+public class TotalCount {
+    private final long count;
+    private final boolean exact;
+
+    private TotalCount(long count, boolean exact) {
+        this.count = count;
+        this.exact = exact;
+    }
+
+    public static TotalCount exact(long count) {
+        return new TotalCount(count, true);
+    }
+
+    public static TotalCount estimated(long count) {
+        return new TotalCount(count, false);
+    }
+
+    public long getCount() { return count; }
+
+    public boolean isExact() { return exact; }
+}
@@ -0,0 +1,75 @@
+package com.apex.core.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 领域事件基类
+ * 事件以JSON形式写入事务发件箱，eventId同时作为幂等键：
+ * 同一事件无论被投递多少次，每个处理器只会成功处理一次。
+ */
+public abstract class DomainEvent {
+
+    /**
+     * 事件ID（幂等键）
+     */
+    private String eventId;
+
+    /**
+     * 事件所属订单号
+     */
+    private String orderId;
+
+    /**
+     * 事件发生时间
+     */
+    private LocalDateTime occurredAt;
+
+    /**
+     * 供JSON反序列化使用
+     */
+    protected DomainEvent() {
+    }
+
+    protected DomainEvent(String orderId) {
+        this.eventId = UUID.randomUUID().toString();
+        this.orderId = orderId;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    /**
+     * 事件类型名称，写入发件箱的event_type列
+     */
+    public String eventType() {
+        return getClass().getSimpleName();
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return eventType() + "{eventId='" + eventId + "', orderId='" + orderId + "'}";
+    }
+}
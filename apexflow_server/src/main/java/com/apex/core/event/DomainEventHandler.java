@@ -0,0 +1,12 @@
+package com.apex.core.event;
+
+/**
+ * 领域事件处理器
+ * handle()在独立事务中执行，与处理回执一起提交；抛出异常时事务回滚，事件按退避策略重试。
+ * 由于DAO方法失败时返回false而不抛异常，处理器需要检查返回值并自行抛出。
+ */
+@FunctionalInterface
+public interface DomainEventHandler<E extends DomainEvent> {
+
+    void handle(E event) throws Exception;
+}
@@ -0,0 +1,64 @@
+package com.apex.core.event;
+
+import java.util.Map;
+
+/**
+ * 订单已取消事件
+ */
+public class OrderCancelled extends DomainEvent {
+
+    /**
+     * 取消前的订单状态
+     */
+    private Integer previousStatus;
+
+    /**
+     * 是否需要恢复库存；使用库存预留的待支付订单下单时未扣减库存，取消时只释放预留
+     */
+    private boolean restoreStock = true;
+
+    /**
+     * 需要恢复的库存（商品ID -> 数量），取消时从订单项汇总；
+     * 订单项在事件投递前可能已被删除、清理或归档，处理器只按这里的数量恢复
+     */
+    private Map<Integer, Integer> quantities;
+
+    public OrderCancelled() {
+    }
+
+    public OrderCancelled(String orderId, Integer previousStatus) {
+        this(orderId, previousStatus, true, null);
+    }
+
+    public OrderCancelled(String orderId, Integer previousStatus, boolean restoreStock,
+                          Map<Integer, Integer> quantities) {
+        super(orderId);
+        this.previousStatus = previousStatus;
+        this.restoreStock = restoreStock;
+        this.quantities = quantities;
+    }
+
+    public Integer getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(Integer previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public boolean isRestoreStock() {
+        return restoreStock;
+    }
+
+    public void setRestoreStock(boolean restoreStock) {
+        this.restoreStock = restoreStock;
+    }
+
+    public Map<Integer, Integer> getQuantities() {
+        return quantities;
+    }
+
+    public void setQuantities(Map<Integer, Integer> quantities) {
+        this.quantities = quantities;
+    }
+}
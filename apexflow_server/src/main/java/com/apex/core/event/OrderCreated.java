@@ -0,0 +1,47 @@
+package com.apex.core.event;
+
+import java.math.BigDecimal;
+
+/**
+ * 订单已创建事件（订单主记录、订单项和库存扣减已提交）
+ */
+public class OrderCreated extends DomainEvent {
+
+    private Integer userId;
+    private BigDecimal totalAmount;
+    private Integer status;
+
+    public OrderCreated() {
+    }
+
+    public OrderCreated(String orderId, Integer userId, BigDecimal totalAmount, Integer status) {
+        super(orderId);
+        this.userId = userId;
+        this.totalAmount = totalAmount;
+        this.status = status;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,48 @@
+package com.apex.core.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 订单已支付事件（创建即已支付，或状态由待支付变为已支付）
+ */
+public class OrderPaid extends DomainEvent {
+
+    private BigDecimal amount;
+    private String paymentMethod;
+    private LocalDateTime paidAt;
+
+    public OrderPaid() {
+    }
+
+    public OrderPaid(String orderId, BigDecimal amount, String paymentMethod, LocalDateTime paidAt) {
+        super(orderId);
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+        this.paidAt = paidAt;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public LocalDateTime getPaidAt() {
+        return paidAt;
+    }
+
+    public void setPaidAt(LocalDateTime paidAt) {
+        this.paidAt = paidAt;
+    }
+}
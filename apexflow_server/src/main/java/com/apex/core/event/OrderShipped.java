@@ -0,0 +1,27 @@
+package com.apex.core.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 订单已发货事件
+ */
+public class OrderShipped extends DomainEvent {
+
+    private LocalDateTime shippedAt;
+
+    public OrderShipped() {
+    }
+
+    public OrderShipped(String orderId, LocalDateTime shippedAt) {
+        super(orderId);
+        this.shippedAt = shippedAt;
+    }
+
+    public LocalDateTime getShippedAt() {
+        return shippedAt;
+    }
+
+    public void setShippedAt(LocalDateTime shippedAt) {
+        this.shippedAt = shippedAt;
+    }
+}
@@ -0,0 +1,300 @@
+package com.apex.core.event;
+
+import com.apex.core.dao.IOutboxDAO;
+import com.apex.core.dao.OutboxDAO;
+import com.apex.core.model.OutboxEvent;
+import com.apex.util.Transactions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 事务发件箱投递器
+ *
+ * publish()把领域事件写入发件箱表；在Transactions.execute()中调用时与业务数据同一事务提交，
+ * 业务回滚则事件一并丢弃。投递线程按写入顺序读取到期事件，逐个交给已注册的处理器：
+ * 每个处理器在独立事务中执行，并以 (事件ID, 处理器名) 写入处理回执，
+ * 因此重复投递（重试、多实例并发）时已成功的处理器会被跳过。
+ * 处理失败的事件按指数退避重试，超过最大次数后标记为失败，等待人工处理。
+ *
+ * 配置（系统属性）：
+ * apexflow.outbox.pollMs       - 轮询间隔，默认1000
+ * apexflow.outbox.maxAttempts  - 最大投递次数，默认8
+ * apexflow.outbox.retryBaseMs  - 首次重试延迟，之后每次翻倍，默认1000
+ */
+public final class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final long POLL_INTERVAL_MS = Long.getLong("apexflow.outbox.pollMs", 1000L);
+    private static final int BATCH_SIZE = 100;
+    private static final long MAX_RETRY_DELAY_MS = 300_000L;
+
+    private static final OutboxDispatcher SHARED = new OutboxDispatcher(new OutboxDAO(),
+            Integer.getInteger("apexflow.outbox.maxAttempts", 8),
+            Long.getLong("apexflow.outbox.retryBaseMs", 1000L));
+
+    private final IOutboxDAO outboxDAO;
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 事件类型名 -> 事件类
+     */
+    private final ConcurrentMap<String, Class<? extends DomainEvent>> eventTypes = new ConcurrentHashMap<>();
+
+    /**
+     * 事件类型名 -> (处理器名 -> 处理器)，处理器按名称排序执行
+     */
+    private final ConcurrentMap<String, Map<String, DomainEventHandler<? extends DomainEvent>>> handlers =
+            new ConcurrentHashMap<>();
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+    /**
+     * start/stop使用单独的锁，避免stop()等待投递线程结束时与dispatchPending()争用同一监视器
+     */
+    private final Object lifecycleLock = new Object();
+    private volatile ScheduledExecutorService poller;
+
+    public OutboxDispatcher(IOutboxDAO outboxDAO, int maxAttempts, long retryBaseMs) {
+        this.outboxDAO = outboxDAO;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMs = Math.max(0, retryBaseMs);
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * 应用内共享的投递器
+     */
+    public static OutboxDispatcher shared() {
+        return SHARED;
+    }
+
+    /**
+     * 注册事件处理器；同一事件类型下同名处理器会被替换
+     *
+     * @param type 事件类
+     * @param name 处理器名称，写入处理回执，上线后不应修改
+     * @param handler 处理器
+     */
+    public <E extends DomainEvent> void register(Class<E> type, String name, DomainEventHandler<E> handler) {
+        String typeName = type.getSimpleName();
+        eventTypes.put(typeName, type);
+        handlers.computeIfAbsent(typeName, key -> new ConcurrentSkipListMap<>()).put(name, handler);
+        logger.info("[OUTBOX_REGISTER] Handler '{}' registered for {}", name, typeName);
+    }
+
+    /**
+     * 写入发件箱。在事务中调用时随事务提交，提交后唤醒投递线程。
+     *
+     * @throws SQLException 写入失败，调用方事务应回滚
+     */
+    public void publish(DomainEvent event) throws SQLException {
+        OutboxEvent record = new OutboxEvent();
+        record.setEventType(event.eventType());
+        record.setAggregateId(event.getOrderId());
+        record.setIdempotencyKey(event.getEventId());
+        record.setCreatedAt(event.getOccurredAt());
+        try {
+            record.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to serialize " + event, e);
+        }
+
+        if (!outboxDAO.append(record)) {
+            throw new SQLException("Failed to append " + event + " to outbox");
+        }
+        Transactions.afterCommit(this::wakeUp);
+    }
+
+    /**
+     * 投递当前所有到期事件，返回本次处理的事件数（含失败）。
+     * 投递线程定时调用；测试和运维场景也可直接同步调用。
+     */
+    public synchronized int dispatchPending() {
+        int processed = 0;
+        long lastId = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxDAO.findDue(BATCH_SIZE);
+            // 状态更新失败时同一批事件会被再次读到，此时停止本轮，等待下次轮询
+            if (batch.isEmpty() || batch.get(0).getId() <= lastId) {
+                break;
+            }
+            for (OutboxEvent record : batch) {
+                deliver(record);
+                lastId = record.getId();
+                processed++;
+            }
+            if (batch.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * 启动后台投递线程；重复调用无副作用
+     */
+    public void start() {
+        synchronized (lifecycleLock) {
+            if (poller != null) {
+                return;
+            }
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "outbox-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::dispatchQuietly, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            poller = executor;
+        }
+        logger.info("[OUTBOX_DISPATCHER] Started. Poll interval: {} ms, Max attempts: {}",
+                POLL_INTERVAL_MS, maxAttempts);
+    }
+
+    /**
+     * 停止后台投递线程，未投递的事件保留在发件箱中，下次启动后继续投递
+     */
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (lifecycleLock) {
+            current = poller;
+            if (current == null) {
+                return;
+            }
+            poller = null;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("[OUTBOX_DISPATCHER] Stopped");
+    }
+
+    /**
+     * 有新事件提交时立即触发一轮投递，不必等待下次轮询；多次唤醒合并为一次
+     */
+    public void wakeUp() {
+        ScheduledExecutorService current = poller;
+        if (current == null || !wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            current.execute(() -> {
+                wakeUpPending.set(false);
+                dispatchQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            wakeUpPending.set(false);
+        }
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatchPending();
+        } catch (RuntimeException e) {
+            logger.error("[OUTBOX_DISPATCHER] Dispatch round failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void deliver(OutboxEvent record) {
+        Class<? extends DomainEvent> type = eventTypes.get(record.getEventType());
+        Map<String, DomainEventHandler<? extends DomainEvent>> eventHandlers = handlers.get(record.getEventType());
+        if (type == null || eventHandlers == null || eventHandlers.isEmpty()) {
+            logger.debug("[OUTBOX_DELIVER] No handlers for {} (ID: {})", record.getEventType(), record.getId());
+            outboxDAO.markDelivered(record.getId());
+            return;
+        }
+
+        DomainEvent event;
+        try {
+            event = objectMapper.readValue(record.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            // 内容无法解析，重试也不会成功
+            logger.error("[OUTBOX_DELIVER] Unreadable payload for event {}: {}", record.getId(), e.getMessage());
+            outboxDAO.markDead(record.getId(), attemptsOf(record) + 1, "Unreadable payload: " + e.getMessage());
+            return;
+        }
+
+        String failure = null;
+        for (Map.Entry<String, DomainEventHandler<? extends DomainEvent>> entry : eventHandlers.entrySet()) {
+            try {
+                invoke(record.getIdempotencyKey(), entry.getKey(), entry.getValue(), event);
+            } catch (Exception e) {
+                // 继续执行其余处理器，已成功的处理器在重试时会按回执跳过
+                failure = entry.getKey() + ": " + e.getMessage();
+                logger.warn("[OUTBOX_DELIVER] Handler '{}' failed for {} (ID: {}): {}",
+                        entry.getKey(), record.getEventType(), record.getId(), e.getMessage());
+            }
+        }
+
+        if (failure == null) {
+            outboxDAO.markDelivered(record.getId());
+            logger.debug("[OUTBOX_DELIVER] {} delivered. ID: {}, Order: {}",
+                    record.getEventType(), record.getId(), record.getAggregateId());
+            return;
+        }
+
+        int attempts = attemptsOf(record) + 1;
+        if (attempts >= maxAttempts) {
+            outboxDAO.markDead(record.getId(), attempts, failure);
+            logger.error("[OUTBOX_DELIVER] {} (ID: {}) failed after {} attempts, giving up. Last error: {}",
+                    record.getEventType(), record.getId(), attempts, failure);
+        } else {
+            long delay = retryDelayMs(attempts);
+            outboxDAO.markRetry(record.getId(), attempts, LocalDateTime.now().plusNanos(delay * 1_000_000L), failure);
+            logger.info("[OUTBOX_DELIVER] {} (ID: {}) will be retried in {} ms (attempt {}/{})",
+                    record.getEventType(), record.getId(), delay, attempts, maxAttempts);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends DomainEvent> void invoke(String idempotencyKey, String handlerName,
+                                                DomainEventHandler<E> handler, DomainEvent event) throws SQLException {
+        Transactions.execute(() -> {
+            if (outboxDAO.hasReceipt(idempotencyKey, handlerName)) {
+                return null;
+            }
+            handler.handle((E) event);
+            // 回执与处理器的写入同一事务提交；并发投递时主键冲突使后到者回滚
+            if (!outboxDAO.recordReceipt(idempotencyKey, handlerName)) {
+                throw new SQLException("Failed to record receipt for handler " + handlerName);
+            }
+            return null;
+        });
+    }
+
+    private long retryDelayMs(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        return Math.min(retryBaseMs << shift, MAX_RETRY_DELAY_MS);
+    }
+
+    private static int attemptsOf(OutboxEvent record) {
+        return record.getAttempts() != null ? record.getAttempts() : 0;
+    }
+}
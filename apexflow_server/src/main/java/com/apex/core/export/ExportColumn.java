@@ -0,0 +1,30 @@
+package com.apex.core.export;
+
+import java.util.function.Function;
+
+/**
+ * 导出列定义：列名（CSV表头 / NDJSON字段名）及取值函数
+ *
+ * @param <T> 行实体类型
+ */
+public final class ExportColumn<T> {
+    private final String name;
+    private final Function<T, Object> getter;
+
+    private ExportColumn(String name, Function<T, Object> getter) {
+        this.name = name;
+        this.getter = getter;
+    }
+
+    public static <T> ExportColumn<T> of(String name, Function<T, Object> getter) {
+        return new ExportColumn<>(name, getter);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object valueOf(T row) {
+        return getter.apply(row);
+    }
+}
@@ -0,0 +1,48 @@
+package com.apex.core.export;
+
+import com.apex.core.model.Income;
+import com.apex.core.model.InventoryLog;
+import com.apex.core.model.OrderInfo;
+
+import java.util.List;
+
+/**
+ * 各导出数据集的列清单，列顺序即CSV列顺序
+ */
+public final class ExportColumns {
+
+    public static final List<ExportColumn<OrderInfo>> ORDERS = List.of(
+            ExportColumn.of("id", OrderInfo::getId),
+            ExportColumn.of("userId", OrderInfo::getUserId),
+            ExportColumn.of("totalAmount", OrderInfo::getTotalAmount),
+            ExportColumn.of("status", OrderInfo::getStatus),
+            ExportColumn.of("paymentMethod", OrderInfo::getPaymentMethod),
+            ExportColumn.of("addressId", OrderInfo::getAddressId),
+            ExportColumn.of("createdAt", OrderInfo::getCreatedAt),
+            ExportColumn.of("paidAt", OrderInfo::getPaidAt),
+            ExportColumn.of("shippedAt", OrderInfo::getShippedAt),
+            ExportColumn.of("completedAt", OrderInfo::getCompletedAt));
+
+    public static final List<ExportColumn<Income>> INCOMES = List.of(
+            ExportColumn.of("id", Income::getId),
+            ExportColumn.of("orderId", Income::getOrderId),
+            ExportColumn.of("type", Income::getType),
+            ExportColumn.of("amount", Income::getAmount),
+            ExportColumn.of("paymentMethod", Income::getPaymentMethod),
+            ExportColumn.of("status", Income::getStatus),
+            ExportColumn.of("transactionTime", Income::getTransactionTime),
+            ExportColumn.of("remark", Income::getRemark));
+
+    public static final List<ExportColumn<InventoryLog>> INVENTORY_LOGS = List.of(
+            ExportColumn.of("id", InventoryLog::getId),
+            ExportColumn.of("productId", InventoryLog::getProductId),
+            ExportColumn.of("changeType", InventoryLog::getChangeType),
+            ExportColumn.of("quantity", InventoryLog::getQuantity),
+            ExportColumn.of("beforeStock", InventoryLog::getBeforeStock),
+            ExportColumn.of("afterStock", InventoryLog::getAfterStock),
+            ExportColumn.of("orderId", InventoryLog::getOrderId),
+            ExportColumn.of("createdAt", InventoryLog::getCreatedAt));
+
+    private ExportColumns() {
+    }
+}
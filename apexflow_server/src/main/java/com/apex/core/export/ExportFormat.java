@@ -0,0 +1,48 @@
+package com.apex.core.export;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+    /**
+     * 逗号分隔，首行为列名，带UTF-8 BOM以便Excel正确识别中文
+     */
+    CSV("csv", "text/csv"),
+
+    /**
+     * 每行一个JSON对象（换行分隔的JSON）
+     */
+    NDJSON("ndjson", "application/x-ndjson");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * 按请求参数解析格式，未指定时为CSV
+     * @return 对应的格式；无法识别时返回null
+     */
+    public static ExportFormat fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
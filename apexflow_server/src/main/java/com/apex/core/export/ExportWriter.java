@@ -0,0 +1,142 @@
+package com.apex.core.export;
+
+import com.apex.core.dao.RowHandler;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 逐行写出导出数据
+ * 作为DAO流式查询的RowHandler使用：每行格式化后写入缓冲区，缓冲区满时写到底层输出流，
+ * 不保留任何已写出的行。调用finish()刷新缓冲区，不关闭底层输出流。
+ *
+ * @param <T> 行实体类型
+ */
+public final class ExportWriter<T> implements RowHandler<T> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter CSV_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ExportFormat format;
+    private final List<ExportColumn<T>> columns;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long rows;
+
+    public ExportWriter(ExportFormat format, List<ExportColumn<T>> columns, OutputStream out) throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.NDJSON) {
+            this.json = JSON.getFactory().createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 行分隔由writeJsonLine写入换行，不使用默认的空格分隔
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+        }
+    }
+
+    /**
+     * 写出文件头：CSV写BOM和列名行，NDJSON无文件头
+     */
+    public void writeHeader() throws IOException {
+        if (format != ExportFormat.CSV) {
+            return;
+        }
+        writer.write('\uFEFF');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).getName());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void handle(T row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writeJsonLine(row);
+        } else {
+            writeCsvLine(row);
+        }
+        rows++;
+    }
+
+    /**
+     * 刷新缓冲区
+     */
+    public void finish() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    /**
+     * @return 已写出的数据行数
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    private void writeCsvLine(T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = columns.get(i).valueOf(row);
+            if (value != null) {
+                writer.write(csvField(value));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeJsonLine(T row) throws IOException {
+        json.writeStartObject();
+        for (ExportColumn<T> column : columns) {
+            json.writeFieldName(column.getName());
+            json.writeObject(column.valueOf(row));
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * 格式化CSV字段：时间按yyyy-MM-dd HH:mm:ss，金额不使用科学计数法，
+     * 含逗号、引号或换行的文本加引号并转义内部引号
+     */
+    static String csvField(Object value) {
+        if (value instanceof LocalDateTime time) {
+            return CSV_TIME_FORMAT.format(time);
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+}
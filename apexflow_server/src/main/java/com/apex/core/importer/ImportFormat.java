@@ -0,0 +1,46 @@
+package com.apex.core.importer;
+
+/**
+ * 导入文件格式
+ */
+public enum ImportFormat {
+    /**
+     * 逗号分隔，首行为列名，列顺序不限，可带UTF-8 BOM
+     */
+    CSV("csv"),
+
+    /**
+     * JSON对象数组，或每行一个JSON对象（换行分隔的JSON）
+     */
+    JSON("json");
+
+    private final String value;
+
+    ImportFormat(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 按请求参数解析格式，未指定时按Content-Type判断（JSON类型为JSON，其余为CSV）
+     * @return 对应的格式；参数无法识别时返回null
+     */
+    public static ImportFormat fromRequest(String value, String contentType) {
+        if (value == null || value.isBlank()) {
+            return contentType != null && contentType.toLowerCase().contains("json") ? JSON : CSV;
+        }
+        String text = value.trim();
+        if ("ndjson".equalsIgnoreCase(text)) {
+            return JSON;
+        }
+        for (ImportFormat format : values()) {
+            if (format.value.equalsIgnoreCase(text)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
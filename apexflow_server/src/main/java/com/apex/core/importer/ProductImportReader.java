@@ -0,0 +1,214 @@
+package com.apex.core.importer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 流式读取商品导入文件
+ * 每次next()只解析下一批行，整个文件不会载入内存。
+ * 单行的格式问题（如CSV列数不符）记录在行上继续读取；
+ * 无法继续定位后续行的语法错误（引号未闭合、JSON结构错误）抛出IOException。
+ */
+public abstract class ProductImportReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    protected long rowCount;
+
+    /**
+     * 按格式打开输入流，输入流随reader一起关闭
+     */
+    public static ProductImportReader open(InputStream in, ImportFormat format) throws IOException {
+        return format == ImportFormat.JSON ? new JsonReader(in) : new CsvReader(in);
+    }
+
+    /**
+     * 读取下一批行
+     * @param maxRows 最多读取的行数
+     * @return 读到的行，文件结束时返回空列表
+     */
+    public abstract List<ProductImportRow> next(int maxRows) throws IOException;
+
+    /**
+     * @return 已读取的数据行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * CSV：首行为列名（不区分大小写，顺序不限，未知列忽略），空行跳过
+     */
+    private static final class CsvReader extends ProductImportReader {
+        private final BufferedReader reader;
+        private int[] columns;
+
+        CsvReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public List<ProductImportRow> next(int maxRows) throws IOException {
+            if (columns == null && !readHeader()) {
+                return List.of();
+            }
+            List<ProductImportRow> rows = new ArrayList<>(maxRows);
+            List<String> fields;
+            while (rows.size() < maxRows && (fields = readRecord()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                ProductImportRow row = new ProductImportRow(++rowCount);
+                if (fields.size() != columns.length) {
+                    row.reject("列数与表头不符：期望" + columns.length + "列，实际" + fields.size() + "列");
+                } else {
+                    for (int i = 0; i < columns.length; i++) {
+                        if (columns[i] >= 0) {
+                            row.set(columns[i], fields.get(i));
+                        }
+                    }
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        private boolean readHeader() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                return false;
+            }
+            String first = header.get(0);
+            if (!first.isEmpty() && first.charAt(0) == '\uFEFF') {
+                header.set(0, first.substring(1));
+            }
+            columns = new int[header.size()];
+            boolean keyed = false;
+            for (int i = 0; i < header.size(); i++) {
+                columns[i] = ProductImportRow.columnIndex(header.get(i));
+                keyed |= columns[i] == ProductImportRow.COL_ID || columns[i] == ProductImportRow.COL_NAME;
+            }
+            if (!keyed) {
+                throw new IOException("CSV表头缺少id或name列，可用列: " + Arrays.toString(ProductImportRow.COLUMNS));
+            }
+            return true;
+        }
+
+        /**
+         * 读取一条记录，支持引号包围的字段（内部双引号转义、可含逗号和换行）
+         * @return 字段列表，文件结束时返回null
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("CSV第" + (rowCount + 1) + "行引号未闭合");
+                    }
+                    if (c == '"') {
+                        c = reader.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == -1 || c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * JSON：对象数组，或根级依次排列的对象（NDJSON）
+     */
+    private static final class JsonReader extends ProductImportReader {
+        private final JsonParser parser;
+        private boolean started;
+        private boolean inArray;
+        private boolean finished;
+
+        JsonReader(InputStream in) throws IOException {
+            this.parser = JSON_FACTORY.createParser(in);
+        }
+
+        @Override
+        public List<ProductImportRow> next(int maxRows) throws IOException {
+            List<ProductImportRow> rows = new ArrayList<>(maxRows);
+            while (!finished && rows.size() < maxRows) {
+                JsonToken token = parser.nextToken();
+                if (!started) {
+                    started = true;
+                    if (token == JsonToken.START_ARRAY) {
+                        inArray = true;
+                        token = parser.nextToken();
+                    }
+                }
+                if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+                    finished = true;
+                } else if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("JSON第" + (rowCount + 1) + "条记录不是对象");
+                } else {
+                    rows.add(readObject());
+                }
+            }
+            return rows;
+        }
+
+        private ProductImportRow readObject() throws IOException {
+            ProductImportRow row = new ProductImportRow(++rowCount);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                int column = ProductImportRow.columnIndex(field);
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    if (column >= 0) {
+                        row.reject("字段" + field + "必须为标量值");
+                    }
+                } else if (column >= 0 && value != JsonToken.VALUE_NULL) {
+                    row.set(column, parser.getText());
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.apex.core.importer;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品导入文件中的一行
+ * 读取时只保存原始文本，validate()解析并校验各字段，不访问数据库，可并行执行。
+ *
+ * 列（CSV列名 / JSON字段名）：
+ * id       - 商品ID，指定时更新该商品，否则按名称匹配已有商品，匹配不到时新建
+ * name     - 商品名称，未指定id时必填
+ * category - 商品分类
+ * price    - 单价，新建商品时必填
+ * status   - 状态：1-上架，0-下架
+ * image    - 主图URL
+ * quantity - 库存变化量，正数入库，负数扣减；新建商品时为初始库存
+ */
+public final class ProductImportRow {
+
+    public static final String[] COLUMNS = {"id", "name", "category", "price", "status", "image", "quantity"};
+
+    static final int COL_ID = 0;
+    static final int COL_NAME = 1;
+    static final int COL_CATEGORY = 2;
+    static final int COL_PRICE = 3;
+    static final int COL_STATUS = 4;
+    static final int COL_IMAGE = 5;
+    static final int COL_QUANTITY = 6;
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_CATEGORY_LENGTH = 50;
+    private static final int MAX_IMAGE_LENGTH = 200;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final long rowNumber;
+    private final String[] values = new String[COLUMNS.length];
+
+    private Integer id;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer status;
+    private String image;
+    private int quantity;
+    private String error;
+
+    ProductImportRow(long rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    /**
+     * @return 列名对应的列序号，未知列返回-1
+     */
+    static int columnIndex(String name) {
+        String key = name.trim();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (COLUMNS[i].equalsIgnoreCase(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    void set(int column, String value) {
+        values[column] = value;
+    }
+
+    /**
+     * 读取阶段发现的格式错误（如列数不符），validate()不会覆盖
+     */
+    void reject(String message) {
+        error = message;
+    }
+
+    /**
+     * 解析并校验各字段，失败时记录错误信息
+     * @return 校验通过返回true
+     */
+    public boolean validate() {
+        if (error != null) {
+            return false;
+        }
+        try {
+            id = parseInt(COL_ID, "id");
+            name = text(COL_NAME, "name", MAX_NAME_LENGTH);
+            category = text(COL_CATEGORY, "category", MAX_CATEGORY_LENGTH);
+            image = text(COL_IMAGE, "image", MAX_IMAGE_LENGTH);
+            status = parseInt(COL_STATUS, "status");
+            Integer delta = parseInt(COL_QUANTITY, "quantity");
+            quantity = delta != null ? delta : 0;
+            price = parseDecimal(COL_PRICE, "price");
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+            return false;
+        }
+
+        if (id == null && name == null) {
+            error = "必须提供id或name";
+        } else if (id != null && id <= 0) {
+            error = "id必须为正整数";
+        } else if (status != null && status != 0 && status != 1) {
+            error = "status只能为0或1";
+        } else if (price != null && (price.signum() < 0 || price.scale() > 2 || price.compareTo(MAX_PRICE) > 0)) {
+            error = "price必须为不超过两位小数的非负数";
+        }
+        return error == null;
+    }
+
+    private Integer parseInt(int column, String label) {
+        String text = blankToNull(values[column]);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + "必须为整数: " + text);
+        }
+    }
+
+    private BigDecimal parseDecimal(int column, String label) {
+        String text = blankToNull(values[column]);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + "必须为数字: " + text);
+        }
+    }
+
+    private String text(int column, String label, int maxLength) {
+        String text = blankToNull(values[column]);
+        if (text != null && text.length() > maxLength) {
+            throw new IllegalArgumentException(label + "长度不能超过" + maxLength);
+        }
+        return text;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    public long getRowNumber() { return rowNumber; }
+
+    public Integer getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getCategory() { return category; }
+
+    public BigDecimal getPrice() { return price; }
+
+    public Integer getStatus() { return status; }
+
+    public String getImage() { return image; }
+
+    public int getQuantity() { return quantity; }
+
+    public String getError() { return error; }
+}
@@ -8,6 +8,16 @@ import java.time.LocalDateTime;
  * 包含售后单的基本信息、状态、处理进度以及关联的订单信息。
  */
 public class AfterSales {
+    // 可更新字段序号，用于变更跟踪（DAO按此序号映射到数据库列）
+    public static final int FIELD_ORDER_ID = 0;
+    public static final int FIELD_TYPE = 1;
+    public static final int FIELD_REASON = 2;
+    public static final int FIELD_STATUS = 3;
+    public static final int FIELD_REFUND_AMOUNT = 4;
+    public static final int FIELD_APPLY_TIME = 5;
+    public static final int FIELD_PROCESS_TIME = 6;
+    public static final int FIELD_PROCESS_REMARK = 7;
+
     /**
      * 售后单的唯一标识符
      */
@@ -53,6 +63,11 @@ public class AfterSales {
      */
     private String processRemark;
 
+    /**
+     * 字段变更跟踪器，不参与序列化
+     */
+    private final transient DirtyFields dirtyFields = new DirtyFields();
+
     public AfterSales() {}
 
     // Getter和Setter方法
@@ -70,6 +85,7 @@ public class AfterSales {
 
     public void setOrderId(String orderId) {
         this.orderId = orderId;
+        dirtyFields.mark(FIELD_ORDER_ID);
     }
 
     public Integer getType() {
@@ -78,6 +94,7 @@ public class AfterSales {
 
     public void setType(Integer type) {
         this.type = type;
+        dirtyFields.mark(FIELD_TYPE);
     }
 
     public String getReason() {
@@ -86,6 +103,7 @@ public class AfterSales {
 
     public void setReason(String reason) {
         this.reason = reason;
+        dirtyFields.mark(FIELD_REASON);
     }
 
     public Integer getStatus() {
@@ -94,6 +112,7 @@ public class AfterSales {
 
     public void setStatus(Integer status) {
         this.status = status;
+        dirtyFields.mark(FIELD_STATUS);
     }
 
     public BigDecimal getRefundAmount() {
@@ -102,6 +121,7 @@ public class AfterSales {
 
     public void setRefundAmount(BigDecimal refundAmount) {
         this.refundAmount = refundAmount;
+        dirtyFields.mark(FIELD_REFUND_AMOUNT);
     }
 
     public LocalDateTime getApplyTime() {
@@ -110,6 +130,7 @@ public class AfterSales {
 
     public void setApplyTime(LocalDateTime applyTime) {
         this.applyTime = applyTime;
+        dirtyFields.mark(FIELD_APPLY_TIME);
     }
 
     public LocalDateTime getProcessTime() {
@@ -118,6 +139,7 @@ public class AfterSales {
 
     public void setProcessTime(LocalDateTime processTime) {
         this.processTime = processTime;
+        dirtyFields.mark(FIELD_PROCESS_TIME);
     }
 
     public String getProcessRemark() {
@@ -126,5 +148,29 @@ public class AfterSales {
 
     public void setProcessRemark(String processRemark) {
         this.processRemark = processRemark;
+        dirtyFields.mark(FIELD_PROCESS_REMARK);
+    }
+
+    /**
+     * 获取自上次与数据库同步后修改过的字段
+     * @return 字段序号位掩码
+     */
+    public long changedFields() {
+        return dirtyFields.mask();
+    }
+
+    /**
+     * 判断实体是否已与数据库同步并处于变更跟踪状态
+     * @return 从数据库加载或写入后返回true
+     */
+    public boolean tracksChanges() {
+        return dirtyFields.isTracking();
+    }
+
+    /**
+     * 清空变更记录，由DAO在加载或写入成功后调用
+     */
+    public void markClean() {
+        dirtyFields.reset();
     }
 }
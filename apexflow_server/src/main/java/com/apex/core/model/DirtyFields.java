@@ -0,0 +1,49 @@
+package com.apex.core.model;
+
+/**
+ * 实体字段变更跟踪器。
+ * 以位掩码记录实体自上次与数据库同步后被修改过的字段序号，
+ * DAO据此生成只更新变更列的UPDATE语句。
+ * 新建（未从数据库加载）的实体处于非跟踪状态，DAO对其仍执行整行更新。
+ */
+public final class DirtyFields {
+    /**
+     * 已修改字段的位掩码，第n位对应字段序号n
+     */
+    private long mask;
+
+    /**
+     * 是否已与数据库同步（由DAO在加载或写入成功后开启）
+     */
+    private boolean tracking;
+
+    /**
+     * 标记字段已修改
+     * @param field 字段序号（0-63）
+     */
+    public void mark(int field) {
+        mask |= 1L << field;
+    }
+
+    /**
+     * 清空变更记录并开始跟踪
+     */
+    public void reset() {
+        mask = 0L;
+        tracking = true;
+    }
+
+    /**
+     * @return 实体是否处于跟踪状态
+     */
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * @return 已修改字段的位掩码
+     */
+    public long mask() {
+        return mask;
+    }
+}
@@ -7,6 +7,15 @@ import java.time.LocalDateTime;
  * 包含快递公司、运单号、物流状态以及发货和收货的地址信息。
  */
 public class Logistics {
+    // 可更新字段序号，用于变更跟踪（DAO按此序号映射到数据库列）
+    public static final int FIELD_EXPRESS_COMPANY = 0;
+    public static final int FIELD_TRACKING_NUMBER = 1;
+    public static final int FIELD_STATUS = 2;
+    public static final int FIELD_SENDER_ADDRESS = 3;
+    public static final int FIELD_RECEIVER_ADDRESS = 4;
+    public static final int FIELD_SHIPPED_AT = 5;
+    public static final int FIELD_DELIVERED_AT = 6;
+
     /**
      * 物流信息的唯一标识符
      */
@@ -57,6 +66,11 @@ public class Logistics {
      */
     private LocalDateTime createdAt;
 
+    /**
+     * 字段变更跟踪器，不参与序列化
+     */
+    private final transient DirtyFields dirtyFields = new DirtyFields();
+
     public Logistics() {}
 
     // Getter和Setter方法
@@ -82,6 +96,7 @@ public class Logistics {
 
     public void setExpressCompany(String expressCompany) {
         this.expressCompany = expressCompany;
+        dirtyFields.mark(FIELD_EXPRESS_COMPANY);
     }
 
     public String getTrackingNumber() {
@@ -90,6 +105,7 @@ public class Logistics {
 
     public void setTrackingNumber(String trackingNumber) {
         this.trackingNumber = trackingNumber;
+        dirtyFields.mark(FIELD_TRACKING_NUMBER);
     }
 
     public String getStatus() {
@@ -98,6 +114,7 @@ public class Logistics {
 
     public void setStatus(String status) {
         this.status = status;
+        dirtyFields.mark(FIELD_STATUS);
     }
 
     public String getSenderAddress() {
@@ -106,6 +123,7 @@ public class Logistics {
 
     public void setSenderAddress(String senderAddress) {
         this.senderAddress = senderAddress;
+        dirtyFields.mark(FIELD_SENDER_ADDRESS);
     }
 
     public String getReceiverAddress() {
@@ -114,6 +132,7 @@ public class Logistics {
 
     public void setReceiverAddress(String receiverAddress) {
         this.receiverAddress = receiverAddress;
+        dirtyFields.mark(FIELD_RECEIVER_ADDRESS);
     }
 
     public LocalDateTime getShippedAt() {
@@ -122,6 +141,7 @@ public class Logistics {
 
     public void setShippedAt(LocalDateTime shippedAt) {
         this.shippedAt = shippedAt;
+        dirtyFields.mark(FIELD_SHIPPED_AT);
     }
 
     public LocalDateTime getDeliveredAt() {
@@ -130,6 +150,7 @@ public class Logistics {
 
     public void setDeliveredAt(LocalDateTime deliveredAt) {
         this.deliveredAt = deliveredAt;
+        dirtyFields.mark(FIELD_DELIVERED_AT);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -139,4 +160,27 @@ public class Logistics {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    /**
+     * 获取自上次与数据库同步后修改过的字段
+     * @return 字段序号位掩码
+     */
+    public long changedFields() {
+        return dirtyFields.mask();
+    }
+
+    /**
+     * 判断实体是否已与数据库同步并处于变更跟踪状态
+     * @return 从数据库加载或写入后返回true
+     */
+    public boolean tracksChanges() {
+        return dirtyFields.isTracking();
+    }
+
+    /**
+     * 清空变更记录，由DAO在加载或写入成功后调用
+     */
+    public void markClean() {
+        dirtyFields.reset();
+    }
 }
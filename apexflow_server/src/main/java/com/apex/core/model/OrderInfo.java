@@ -8,6 +8,17 @@ import java.time.LocalDateTime;
  * 包含订单的基本信息、状态、支付方式以及各个时间节点。
  */
 public class OrderInfo {
+    // 可更新字段序号，用于变更跟踪（DAO按此序号映射到数据库列）
+    public static final int FIELD_USER_ID = 0;
+    public static final int FIELD_TOTAL_AMOUNT = 1;
+    public static final int FIELD_STATUS = 2;
+    public static final int FIELD_PAYMENT_METHOD = 3;
+    public static final int FIELD_ADDRESS_ID = 4;
+    public static final int FIELD_CREATED_AT = 5;
+    public static final int FIELD_PAID_AT = 6;
+    public static final int FIELD_SHIPPED_AT = 7;
+    public static final int FIELD_COMPLETED_AT = 8;
+
     /**
      * 订单号，格式如ORDER20231215001，作为订单的唯一标识符
      */
@@ -58,6 +69,11 @@ public class OrderInfo {
      */
     private LocalDateTime completedAt;
 
+    /**
+     * 字段变更跟踪器，不参与序列化
+     */
+    private final transient DirtyFields dirtyFields = new DirtyFields();
+
     public OrderInfo() {}
 
     // Getter和Setter方法
@@ -75,6 +91,7 @@ public class OrderInfo {
 
     public void setUserId(Integer userId) {
         this.userId = userId;
+        dirtyFields.mark(FIELD_USER_ID);
     }
 
     public BigDecimal getTotalAmount() {
@@ -83,6 +100,7 @@ public class OrderInfo {
 
     public void setTotalAmount(BigDecimal totalAmount) {
         this.totalAmount = totalAmount;
+        dirtyFields.mark(FIELD_TOTAL_AMOUNT);
     }
 
     public Integer getStatus() {
@@ -91,6 +109,7 @@ public class OrderInfo {
 
     public void setStatus(Integer status) {
         this.status = status;
+        dirtyFields.mark(FIELD_STATUS);
     }
 
     public String getPaymentMethod() {
@@ -99,6 +118,7 @@ public class OrderInfo {
 
     public void setPaymentMethod(String paymentMethod) {
         this.paymentMethod = paymentMethod;
+        dirtyFields.mark(FIELD_PAYMENT_METHOD);
     }
 
     public Integer getAddressId() {
@@ -107,6 +127,7 @@ public class OrderInfo {
 
     public void setAddressId(Integer addressId) {
         this.addressId = addressId;
+        dirtyFields.mark(FIELD_ADDRESS_ID);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -115,6 +136,7 @@ public class OrderInfo {
 
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
+        dirtyFields.mark(FIELD_CREATED_AT);
     }
 
     public LocalDateTime getPaidAt() {
@@ -123,6 +145,7 @@ public class OrderInfo {
 
     public void setPaidAt(LocalDateTime paidAt) {
         this.paidAt = paidAt;
+        dirtyFields.mark(FIELD_PAID_AT);
     }
 
     public LocalDateTime getShippedAt() {
@@ -131,6 +154,7 @@ public class OrderInfo {
 
     public void setShippedAt(LocalDateTime shippedAt) {
         this.shippedAt = shippedAt;
+        dirtyFields.mark(FIELD_SHIPPED_AT);
     }
 
     public LocalDateTime getCompletedAt() {
@@ -139,5 +163,29 @@ public class OrderInfo {
 
     public void setCompletedAt(LocalDateTime completedAt) {
         this.completedAt = completedAt;
+        dirtyFields.mark(FIELD_COMPLETED_AT);
+    }
+
+    /**
+     * 获取自上次与数据库同步后修改过的字段
+     * @return 字段序号位掩码
+     */
+    public long changedFields() {
+        return dirtyFields.mask();
+    }
+
+    /**
+     * 判断实体是否已与数据库同步并处于变更跟踪状态
+     * @return 从数据库加载或写入后返回true
+     */
+    public boolean tracksChanges() {
+        return dirtyFields.isTracking();
+    }
+
+    /**
+     * 清空变更记录，由DAO在加载或写入成功后调用
+     */
+    public void markClean() {
+        dirtyFields.reset();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package com.apex.core.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * 事务发件箱记录实体类，代表一条待投递的领域事件。
+ * 与产生事件的业务数据在同一事务中写入，由OutboxDispatcher异步投递给事件处理器。
+ */
+public class OutboxEvent {
+    /**
+     * 待投递
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 已投递给所有处理器
+     */
+    public static final int STATUS_DELIVERED = 1;
+
+    /**
+     * 重试次数耗尽，需人工处理
+     */
+    public static final int STATUS_DEAD = 2;
+
+    /**
+     * 发件箱记录ID，按写入顺序递增
+     */
+    private Long id;
+
+    /**
+     * 事件类型，如 OrderCreated、OrderPaid
+     */
+    private String eventType;
+
+    /**
+     * 事件所属的业务对象ID（如订单号）
+     */
+    private String aggregateId;
+
+    /**
+     * 幂等键，处理器按 (幂等键, 处理器名) 记录处理回执，重复投递时跳过
+     */
+    private String idempotencyKey;
+
+    /**
+     * 事件内容（JSON）
+     */
+    private String payload;
+
+    /**
+     * 投递状态：0-待投递，1-已投递，2-失败
+     */
+    private Integer status;
+
+    /**
+     * 已尝试投递的次数
+     */
+    private Integer attempts;
+
+    /**
+     * 下次可投递的时间
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * 最近一次投递失败的原因
+     */
+    private String lastError;
+
+    /**
+     * 事件产生时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 投递完成时间
+     */
+    private LocalDateTime deliveredAt;
+
+    public OutboxEvent() {}
+
+    // Getter和Setter方法
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", eventType='" + eventType + '\'' +
+                ", aggregateId='" + aggregateId + '\'' +
+                ", idempotencyKey='" + idempotencyKey + '\'' +
+                ", status=" + status +
+                ", attempts=" + attempts +
+                ", nextAttemptAt=" + nextAttemptAt +
+                '}';
+    }
+}
@@ -8,6 +8,15 @@ import java.time.LocalDateTime;
  * 包含商品的分类、价格、库存、状态等核心信息。
  */
 public class Product {
+    // 可更新字段序号，用于变更跟踪（DAO按此序号映射到数据库列）
+    public static final int FIELD_NAME = 0;
+    public static final int FIELD_CATEGORY = 1;
+    public static final int FIELD_PRICE = 2;
+    public static final int FIELD_STOCK = 3;
+    public static final int FIELD_STATUS = 4;
+    public static final int FIELD_IMAGE = 5;
+    public static final int FIELD_CREATED_AT = 6;
+
     /**
      * 商品的唯一标识符
      */
@@ -48,6 +57,11 @@ public class Product {
      */
     private LocalDateTime createdAt;
 
+    /**
+     * 字段变更跟踪器，不参与序列化
+     */
+    private final transient DirtyFields dirtyFields = new DirtyFields();
+
     public Product() {}
 
     // Getter和Setter方法
@@ -65,6 +79,7 @@ public class Product {
 
     public void setName(String name) {
         this.name = name;
+        dirtyFields.mark(FIELD_NAME);
     }
 
     public String getCategory() {
@@ -73,6 +88,7 @@ public class Product {
 
     public void setCategory(String category) {
         this.category = category;
+        dirtyFields.mark(FIELD_CATEGORY);
     }
 
     public BigDecimal getPrice() {
@@ -81,6 +97,7 @@ public class Product {
 
     public void setPrice(BigDecimal price) {
         this.price = price;
+        dirtyFields.mark(FIELD_PRICE);
     }
 
     public Integer getStock() {
@@ -89,6 +106,7 @@ public class Product {
 
     public void setStock(Integer stock) {
         this.stock = stock;
+        dirtyFields.mark(FIELD_STOCK);
     }
 
     public Integer getStatus() {
@@ -97,6 +115,7 @@ public class Product {
 
     public void setStatus(Integer status) {
         this.status = status;
+        dirtyFields.mark(FIELD_STATUS);
     }
 
     public String getImage() {
@@ -105,6 +124,7 @@ public class Product {
 
     public void setImage(String image) {
         this.image = image;
+        dirtyFields.mark(FIELD_IMAGE);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -113,5 +133,29 @@ public class Product {
 
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
+        dirtyFields.mark(FIELD_CREATED_AT);
+    }
+
+    /**
+     * 获取自上次与数据库同步后修改过的字段
+     * @return 字段序号位掩码
+     */
+    public long changedFields() {
+        return dirtyFields.mask();
+    }
+
+    /**
+     * 判断实体是否已与数据库同步并处于变更跟踪状态
+     * @return 从数据库加载或写入后返回true
+     */
+    public boolean tracksChanges() {
+        return dirtyFields.isTracking();
+    }
+
+    /**
+     * 清空变更记录，由DAO在加载或写入成功后调用
+     */
+    public void markClean() {
+        dirtyFields.reset();
     }
 }
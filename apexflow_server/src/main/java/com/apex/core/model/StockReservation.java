@@ -0,0 +1,125 @@
+package com.apex.core.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存预留记录实体类，代表待支付订单对某个商品占用的数量。
+ * 预留期间商品库存不扣减，可售数量为库存减去有效预留；
+ * 订单支付时转为真实扣减并删除记录，取消或删除订单时直接删除记录。
+ */
+public class StockReservation {
+    /**
+     * 预留中
+     */
+    public static final int STATUS_HELD = 0;
+
+    /**
+     * 已过期释放（记录保留到订单支付或取消，用于区分订单是否扣减过库存）
+     */
+    public static final int STATUS_RELEASED = 1;
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 订单号
+     */
+    private String orderId;
+
+    /**
+     * 商品ID
+     */
+    private Integer productId;
+
+    /**
+     * 预留数量
+     */
+    private Integer quantity;
+
+    /**
+     * 状态：0-预留中，1-已过期释放
+     */
+    private Integer status;
+
+    /**
+     * 预留到期时间
+     */
+    private LocalDateTime expiresAt;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    public StockReservation() {}
+
+    // Getter和Setter方法
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StockReservation{" +
+                "orderId='" + orderId + '\'' +
+                ", productId=" + productId +
+                ", quantity=" + quantity +
+                ", status=" + status +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,362 @@
+package com.apex.core.reservation;
+
+import com.apex.core.dao.IStockReservationDAO;
+import com.apex.core.dao.StockReservationDAO;
+import com.apex.core.model.StockReservation;
+import com.apex.util.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待支付订单的库存预留
+ *
+ * 待支付订单下单时不扣减商品库存，而是按商品预留数量：可售数量 = 库存 - 有效预留。
+ * 预留同时保存在内存（订单号 -> 预留、商品ID -> 预留总量）和预留表中，
+ * 内存用于下单时的可售校验，表用于重启后重建内存状态以及区分订单是否使用了预留。
+ *
+ * 生命周期：
+ * hold()     - 下单事务中写入预留记录，事务回滚时撤销内存预留
+ * convert()  - 支付（1->2）事务中删除预留记录，返回需要真实扣减的数量
+ * release()  - 取消或删除订单的事务中删除预留记录
+ * 到期       - 时间轮清扫线程释放内存预留并把记录标记为已过期释放，不需要轮询数据库；
+ *              订单之后仍可支付，此时按当前可售数量重新校验后扣减
+ *
+ * 预留只在本实例内存中校验，多实例部署时各实例只知道自己创建的预留，重启时从表中重建。
+ *
+ * 配置（系统属性）：
+ * apexflow.reservation.ttlMinutes - 预留时长，默认30
+ * apexflow.reservation.tickMs     - 清扫间隔（时间轮刻度），默认1000
+ */
+public final class StockReservations {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservations.class);
+
+    private static final long TICK_MS = Long.getLong("apexflow.reservation.tickMs", 1000L);
+    private static final int WHEEL_SLOTS = 512;
+
+    private static final StockReservations SHARED = new StockReservations(new StockReservationDAO(),
+            Long.getLong("apexflow.reservation.ttlMinutes", 30L) * 60_000L);
+
+    /**
+     * 一个订单的预留
+     */
+    private static final class Hold {
+        final String orderId;
+        final Map<Integer, Integer> quantities;
+
+        Hold(String orderId, Map<Integer, Integer> quantities) {
+            this.orderId = orderId;
+            this.quantities = quantities;
+        }
+    }
+
+    private final IStockReservationDAO reservationDAO;
+    private final long ttlMillis;
+    private final TimerWheel<Hold> wheel;
+
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> reserved = new ConcurrentHashMap<>();
+
+    /**
+     * 可售校验与增加预留在同一把锁内完成；释放预留只会增加可售数量，不需要加锁
+     */
+    private final Object reserveLock = new Object();
+    private final Object lifecycleLock = new Object();
+    private volatile ScheduledExecutorService sweeper;
+
+    public StockReservations(IStockReservationDAO reservationDAO, long ttlMillis) {
+        this.reservationDAO = reservationDAO;
+        this.ttlMillis = ttlMillis;
+        this.wheel = new TimerWheel<>(WHEEL_SLOTS, TICK_MS, System.currentTimeMillis());
+    }
+
+    /**
+     * 应用内共享的库存预留
+     */
+    public static StockReservations shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return 商品当前被预留的总数量
+     */
+    public int reservedQuantity(Integer productId) {
+        return reserved.getOrDefault(productId, 0);
+    }
+
+    /**
+     * @param stock 商品库存
+     * @return 扣除有效预留后的可售数量
+     */
+    public int available(Integer productId, int stock) {
+        return stock - reservedQuantity(productId);
+    }
+
+    /**
+     * 订单自身的预留也计为可售，用于该订单支付时的校验
+     */
+    public int availableFor(String orderId, Integer productId, int stock) {
+        Hold hold = holds.get(orderId);
+        int own = hold != null ? hold.quantities.getOrDefault(productId, 0) : 0;
+        return available(productId, stock) + own;
+    }
+
+    /**
+     * 为待支付订单预留库存，应在创建订单的事务中调用
+     *
+     * @param orderId 订单号
+     * @param quantities 商品ID -> 数量
+     * @param stocks 商品ID -> 当前库存
+     * @throws IllegalStateException 可售数量不足
+     * @throws SQLException 写入预留记录失败，调用方事务应回滚
+     */
+    public void hold(String orderId, Map<Integer, Integer> quantities, Map<Integer, Integer> stocks) throws SQLException {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        Hold hold = new Hold(orderId, Collections.unmodifiableMap(new LinkedHashMap<>(quantities)));
+
+        synchronized (reserveLock) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                int available = available(entry.getKey(), stocks.getOrDefault(entry.getKey(), 0));
+                if (available < entry.getValue()) {
+                    throw new IllegalStateException("Product " + entry.getKey() + " has insufficient available stock. " +
+                            "Available: " + available + ", Required: " + entry.getValue());
+                }
+            }
+            Hold previous = holds.put(orderId, hold);
+            if (previous != null) {
+                unreserve(previous);
+            }
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                reserved.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+        }
+        Transactions.onRollback(() -> releaseInMemory(hold));
+
+        LocalDateTime expiresAtTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault());
+        List<StockReservation> rows = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrderId(orderId);
+            reservation.setProductId(entry.getKey());
+            reservation.setQuantity(entry.getValue());
+            reservation.setExpiresAt(expiresAtTime);
+            rows.add(reservation);
+        }
+        if (!reservationDAO.createBatch(rows)) {
+            releaseInMemory(hold);
+            throw new SQLException("Failed to create stock reservations for order " + orderId);
+        }
+
+        wheel.schedule(hold, expiresAt);
+        logger.debug("[RESERVATION_HOLD] Order {} holds {} until {}", orderId, quantities, expiresAtTime);
+    }
+
+    /**
+     * 订单支付时把预留转为真实扣减，应在状态更新事务中调用；事务提交后释放内存预留。
+     * 预留已过期的订单同样返回数量，调用方按当前可售数量重新校验。
+     *
+     * @return 商品ID -> 需要扣减的数量；订单没有预留记录（下单时已扣减库存）时返回null
+     * @throws SQLException 删除预留记录失败，调用方事务应回滚
+     */
+    public Map<Integer, Integer> convert(String orderId) throws SQLException {
+        List<StockReservation> rows = reservationDAO.findByOrderId(orderId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (StockReservation row : rows) {
+            quantities.merge(row.getProductId(), row.getQuantity(), Integer::sum);
+        }
+        if (reservationDAO.deleteByOrderIds(List.of(orderId)) < 0) {
+            throw new SQLException("Failed to delete stock reservations for order " + orderId);
+        }
+        releaseAfterCommit(orderId);
+        logger.debug("[RESERVATION_CONVERT] Order {} converts reservation {} to stock decrement", orderId, quantities);
+        return quantities;
+    }
+
+    /**
+     * 取消或删除订单时释放预留，应在对应事务中调用；事务提交后释放内存预留
+     *
+     * @return 订单使用了预留（包括已过期的预留）返回true，即下单时没有扣减库存
+     * @throws SQLException 删除预留记录失败，调用方事务应回滚
+     */
+    public boolean release(String orderId) throws SQLException {
+        int rows = reservationDAO.deleteByOrderIds(List.of(orderId));
+        if (rows < 0) {
+            throw new SQLException("Failed to delete stock reservations for order " + orderId);
+        }
+        boolean held = holds.containsKey(orderId);
+        releaseAfterCommit(orderId);
+        logger.debug("[RESERVATION_RELEASE] Order {} released {} reservation rows", orderId, rows);
+        return rows > 0 || held;
+    }
+
+    /**
+     * 释放当前已到期的预留，清扫线程定时调用；测试中也可直接调用
+     *
+     * @return 释放的订单数
+     */
+    public int sweepExpired() {
+        return sweepExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * 按指定时间释放已到期的预留（测试中用于模拟时间推进）
+     */
+    public synchronized int sweepExpired(long nowMillis) {
+        List<String> expired = new ArrayList<>();
+        for (Hold hold : wheel.advance(nowMillis)) {
+            // 已支付、已取消或被同一订单的新预留替换的条目不再处理
+            if (releaseInMemory(hold)) {
+                expired.add(hold.orderId);
+            }
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        if (reservationDAO.markReleased(expired) < 0) {
+            // 记录仍为预留中，重启重建时会按到期时间再次释放
+            logger.warn("[RESERVATION_SWEEP] Failed to mark {} expired reservations released", expired.size());
+        }
+        logger.info("[RESERVATION_SWEEP] Released expired reservations of {} orders", expired.size());
+        return expired.size();
+    }
+
+    /**
+     * 从预留表重建内存状态：已到期的记录直接标记为过期释放，其余重新加入时间轮
+     */
+    public synchronized void reload() {
+        List<StockReservation> rows = reservationDAO.findHeld();
+        if (rows == null) {
+            logger.error("[RESERVATION_RELOAD] Failed to load held reservations, keeping in-memory state");
+            return;
+        }
+
+        wheel.clear();
+        holds.clear();
+        reserved.clear();
+
+        Map<String, List<StockReservation>> byOrder = new LinkedHashMap<>();
+        for (StockReservation row : rows) {
+            byOrder.computeIfAbsent(row.getOrderId(), key -> new ArrayList<>()).add(row);
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, List<StockReservation>> entry : byOrder.entrySet()) {
+            long expiresAt = entry.getValue().get(0).getExpiresAt()
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (expiresAt <= now) {
+                expired.add(entry.getKey());
+                continue;
+            }
+            Map<Integer, Integer> quantities = new LinkedHashMap<>();
+            for (StockReservation row : entry.getValue()) {
+                quantities.merge(row.getProductId(), row.getQuantity(), Integer::sum);
+            }
+            Hold hold = new Hold(entry.getKey(), Collections.unmodifiableMap(quantities));
+            holds.put(hold.orderId, hold);
+            quantities.forEach((productId, quantity) -> reserved.merge(productId, quantity, Integer::sum));
+            wheel.schedule(hold, expiresAt);
+        }
+        if (!expired.isEmpty()) {
+            reservationDAO.markReleased(expired);
+        }
+        logger.info("[RESERVATION_RELOAD] Restored {} held orders, released {} expired", holds.size(), expired.size());
+    }
+
+    /**
+     * 重建内存状态并启动后台清扫线程；重复调用无副作用
+     */
+    public void start() {
+        synchronized (lifecycleLock) {
+            if (sweeper != null) {
+                return;
+            }
+            reload();
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "stock-reservation-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::sweepQuietly, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+            sweeper = executor;
+        }
+        logger.info("[RESERVATION_SWEEPER] Started. TTL: {} ms, Tick: {} ms", ttlMillis, TICK_MS);
+    }
+
+    /**
+     * 停止后台清扫线程，预留记录保留在表中，下次启动时重建
+     */
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (lifecycleLock) {
+            current = sweeper;
+            if (current == null) {
+                return;
+            }
+            sweeper = null;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("[RESERVATION_SWEEPER] Stopped");
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweepExpired();
+        } catch (RuntimeException e) {
+            logger.error("[RESERVATION_SWEEPER] Sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void releaseAfterCommit(String orderId) {
+        Hold hold = holds.get(orderId);
+        if (hold != null) {
+            Transactions.afterCommit(() -> releaseInMemory(hold));
+        }
+    }
+
+    /**
+     * @return 该预留仍然有效并被本次调用释放返回true
+     */
+    private boolean releaseInMemory(Hold hold) {
+        if (!holds.remove(hold.orderId, hold)) {
+            return false;
+        }
+        unreserve(hold);
+        return true;
+    }
+
+    private void unreserve(Hold hold) {
+        for (Map.Entry<Integer, Integer> entry : hold.quantities.entrySet()) {
+            reserved.computeIfPresent(entry.getKey(), (productId, total) -> {
+                int remaining = total - entry.getValue();
+                return remaining > 0 ? remaining : null;
+            });
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.apex.core.reservation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 单层时间轮
+ * 时间按tickMs划分为刻度，条目按到期刻度放入 刻度 % 槽数 的槽中；
+ * advance()只扫描上次推进以来经过的槽（最多一整圈），取出其中已到期的条目，
+ * 未到期的条目（到期时间超过一圈）留在槽中等下一圈。
+ * 调度和推进的开销与到期条目数相关，与条目总数无关，适合大量同时长、很少提前取消的定时任务。
+ *
+ * 不支持取消：调用方在条目到期时自行判断是否仍然有效。
+ */
+public final class TimerWheel<T> {
+
+    private static final class Entry<T> {
+        final T item;
+        final long tick;
+
+        Entry(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Entry<T>>[] slots;
+
+    /**
+     * 已推进到的刻度，该刻度及之前到期的条目都已取出
+     */
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param slotCount 槽数，向上取整为2的幂
+     * @param tickMs 刻度长度（毫秒）
+     * @param startMillis 起始时间
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(int slotCount, long tickMs, long startMillis) {
+        if (slotCount <= 0 || tickMs <= 0) {
+            throw new IllegalArgumentException("slotCount and tickMs must be positive");
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickMs = tickMs;
+        this.mask = capacity - 1;
+        this.slots = new ArrayDeque[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.currentTick = startMillis / tickMs;
+    }
+
+    /**
+     * 安排条目在deadlineMillis之后的第一次推进中到期；已过期的时间在下一个刻度到期
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMs - 1, tickMs), currentTick + 1);
+        slots[(int) (tick & mask)].add(new Entry<>(item, tick));
+        size++;
+    }
+
+    /**
+     * 推进到nowMillis，取出所有已到期的条目
+     *
+     * @return 到期条目，按槽顺序排列
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMs;
+        if (targetTick <= currentTick) {
+            return List.of();
+        }
+
+        List<T> expired = new ArrayList<>();
+        long steps = Math.min(targetTick - currentTick, slots.length);
+        for (long tick = currentTick + 1; tick <= currentTick + steps && size > 0; tick++) {
+            Iterator<Entry<T>> iterator = slots[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.tick <= targetTick) {
+                    expired.add(entry.item);
+                    iterator.remove();
+                    size--;
+                }
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    /**
+     * 清空所有条目
+     */
+    public synchronized void clear() {
+        for (ArrayDeque<Entry<T>> slot : slots) {
+            slot.clear();
+        }
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
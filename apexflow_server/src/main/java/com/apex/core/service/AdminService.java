@@ -1,6 +1,7 @@
 package com.apex.core.service;
 
 import com.apex.core.dao.IUserDAO;
+import com.apex.core.dao.RowMappers;
 import com.apex.core.dao.UserDAO;
 import com.apex.core.dto.*;
 import com.apex.core.model.SystemUser;
@@ -8,7 +9,6 @@ import com.apex.util.PasswordUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +20,8 @@ import java.util.Map;
 public class AdminService {
     private static final Logger logger = LoggerFactory.getLogger(AdminService.class);
     private final IUserDAO userDAO = new UserDAO();
+    private final RowCountService rowCountService = new RowCountService();
+    private final UserSearchIndex searchIndex = UserSearchIndex.shared();
 
     /**
      * 获取用户列表（分页）
@@ -42,17 +44,13 @@ public class AdminService {
         }
 
         try {
-            // 获取用户列表
-            List<SystemUser> users = userDAO.findAll(page, pageSize);
+            // 获取用户列表（列表投影，不读取密码哈希和盐值）
+            List<AdminUserDTO> userDTOs = userDAO.findAdminUsers(page, pageSize);
 
-            // 转换为DTO列表
-            List<AdminUserDTO> userDTOs = new ArrayList<>();
-            for (SystemUser user : users) {
-                userDTOs.add(convertToAdminUserDTO(user));
-            }
-
-            // 获取总用户数
-            long totalCount = userDAO.count();
+            // 获取总用户数（末页由本页行数推算，否则读取增量维护的计数）
+            TotalCount total = rowCountService.countFromPage(page, pageSize, userDTOs.size(),
+                    () -> rowCountService.countAll(RowMappers.SYSTEM_USER.getTableName()));
+            long totalCount = total.getCount();
             int totalPages = (int) Math.ceil((double) totalCount / pageSize);
 
             AdminUserListResponse response = new AdminUserListResponse();
@@ -61,6 +59,7 @@ public class AdminService {
             response.setPageSize(pageSize);
             response.setTotalCount(totalCount);
             response.setTotalPages(totalPages);
+            response.setTotalExact(total.isExact());
 
             logger.info("[ADMIN_SERVICE] User list retrieved successfully. Total users: {}, Current page: {}",
                     totalCount, page);
@@ -146,6 +145,8 @@ public class AdminService {
                 throw new RuntimeException("更新用户信息失败");
             }
 
+            searchIndex.index(user.getId(), user.getUsername(), user.getRealName(), user.getEmail(), user.getPhone());
+
             logger.info("[ADMIN_SERVICE] User info updated successfully. User ID: {}", userId);
             return convertToAdminUserDTO(user);
 
@@ -363,22 +364,26 @@ public class AdminService {
         if (pageSize < 1 || pageSize > 100) pageSize = 20;
 
         try {
-            // 搜索用户
-            List<SystemUser> users = userDAO.search(keyword.trim(), page, pageSize);
-
-            // 转换为DTO列表
-            List<AdminUserDTO> userDTOs = new ArrayList<>();
-            for (SystemUser user : users) {
-                userDTOs.add(convertToAdminUserDTO(user));
+            if (searchIndex.isReady()) {
+                return searchUsersByIndex(keyword.trim(), page, pageSize);
             }
 
-            // 由于分页搜索的计数较复杂，这里简化处理
+            // 索引尚未构建完成时回退到数据库LIKE查询（列表投影，不读取密码哈希和盐值）
+            List<AdminUserDTO> userDTOs = userDAO.searchAdminUsers(keyword.trim(), page, pageSize);
+
+            // 关键词搜索为临时过滤条件，总数使用短时缓存的计数
+            String searchKeyword = keyword.trim();
+            TotalCount total = rowCountService.countFromPage(page, pageSize, userDTOs.size(),
+                    () -> rowCountService.countCached("users:search:" + searchKeyword,
+                            () -> userDAO.countSearch(searchKeyword)));
+
             AdminUserListResponse response = new AdminUserListResponse();
             response.setUsers(userDTOs);
             response.setCurrentPage(page);
             response.setPageSize(pageSize);
-            response.setTotalCount((long) userDTOs.size());
-            response.setTotalPages(1);
+            response.setTotalCount(total.getCount());
+            response.setTotalPages((int) Math.ceil((double) total.getCount() / pageSize));
+            response.setTotalExact(total.isExact());
 
             logger.info("[ADMIN_SERVICE] User search completed. Keyword: {}, Found {} users",
                     keyword, userDTOs.size());
@@ -391,6 +396,33 @@ public class AdminService {
         }
     }
 
+    /**
+     * 通过内存索引搜索用户：索引给出排序后的当前页ID和精确总数，数据库只按ID读取本页用户
+     */
+    private AdminUserListResponse searchUsersByIndex(String keyword, int page, int pageSize) {
+        UserSearchIndex.SearchResult result = searchIndex.search(keyword, page, pageSize);
+        List<AdminUserDTO> userDTOs = userDAO.findAdminUsersByIds(result.getIds());
+
+        AdminUserListResponse response = new AdminUserListResponse();
+        response.setUsers(userDTOs);
+        response.setCurrentPage(page);
+        response.setPageSize(pageSize);
+        response.setTotalCount((long) result.getTotal());
+        response.setTotalPages((int) Math.ceil((double) result.getTotal() / pageSize));
+        response.setTotalExact(true);
+
+        logger.info("[ADMIN_SERVICE] User search completed via index. Keyword: {}, Found {} users, Total: {}",
+                keyword, userDTOs.size(), result.getTotal());
+        return response;
+    }
+
+    /**
+     * 构建用户搜索索引（启动时在后台调用，已构建时直接返回）
+     */
+    public void buildSearchIndex() {
+        searchIndex.build(userDAO);
+    }
+
     // --- [新增] 创建用户 ---
     public void createUser(CreateUserRequest request) {
         logger.info("[ADMIN_SERVICE] Creating user: {}", request.getUsername());
@@ -439,6 +471,7 @@ public class AdminService {
         if (!success) {
             throw new RuntimeException("数据库写入失败");
         }
+        searchIndex.index(user.getId(), user.getUsername(), user.getRealName(), user.getEmail(), user.getPhone());
     }
 
     // --- [新增] 删除用户 ---
@@ -452,6 +485,7 @@ public class AdminService {
         if (!success) {
             throw new IllegalArgumentException("用户不存在或删除失败");
         }
+        searchIndex.remove(userId);
     }
 
     /**
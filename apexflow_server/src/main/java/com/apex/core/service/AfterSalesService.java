@@ -1,6 +1,7 @@
 package com.apex.core.service;
 
 import com.apex.core.dao.AfterSalesDAO;
+import com.apex.core.dao.RowMappers;
 import com.apex.core.model.AfterSales;
 import com.apex.core.dto.*;
 import org.slf4j.Logger;
@@ -16,6 +17,8 @@ import java.util.List;
 public class AfterSalesService {
     private static final Logger logger = LoggerFactory.getLogger(AfterSalesService.class);
     private final AfterSalesDAO afterSalesDAO = new AfterSalesDAO();
+    private final RowCountService rowCountService = new RowCountService();
+    private static final String TABLE = RowMappers.AFTER_SALES.getTableName();
 
     // 售后状态常量
     private static final int STATUS_APPLIED = 1;    // 申请中
@@ -96,15 +99,16 @@ public class AfterSalesService {
         validatePageParams(page, pageSize);
 
         List<AfterSales> afterSalesList = afterSalesDAO.findAll(page, pageSize);
-        long totalCount = afterSalesDAO.count();
+        TotalCount total = rowCountService.countFromPage(page, pageSize, afterSalesList.size(),
+                () -> rowCountService.countAll(TABLE));
 
         PagedResult<AfterSales> result = new PagedResult<>();
         result.setData(afterSalesList);
         result.setCurrentPage(page);
         result.setPageSize(pageSize);
-        result.setTotalCount((int) totalCount);
+        result.applyTotal(total);
 
-        logger.info("After sales list retrieved. Total: {}, Current page: {}", totalCount, page);
+        logger.info("After sales list retrieved. Total: {}, Current page: {}", total.getCount(), page);
         return result;
     }
 
@@ -121,13 +125,15 @@ public class AfterSalesService {
         validatePageParams(page, pageSize);
 
         List<AfterSales> afterSalesList = afterSalesDAO.findByStatus(status, page, pageSize);
-        long totalCount = afterSalesDAO.count();
+        // 总数按状态过滤统计
+        TotalCount total = rowCountService.countFromPage(page, pageSize, afterSalesList.size(),
+                () -> rowCountService.countWhere(TABLE, "status", status));
 
         PagedResult<AfterSales> result = new PagedResult<>();
         result.setData(afterSalesList);
         result.setCurrentPage(page);
         result.setPageSize(pageSize);
-        result.setTotalCount((int) totalCount);
+        result.applyTotal(total);
 
         logger.info("After sales list by status retrieved. Status: {}, Count: {}", status, afterSalesList.size());
         return result;
@@ -206,7 +212,7 @@ public class AfterSalesService {
 
         // 这里可以扩展实现更复杂的统计逻辑
         // 当前简单返回总记录数
-        long totalCount = afterSalesDAO.count();
+        long totalCount = rowCountService.countAll(TABLE).getCount();
 
         AfterSalesStatsDTO stats = new AfterSalesStatsDTO();
         stats.setTotalCount(totalCount);
@@ -0,0 +1,122 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.ArchiveDAO;
+import com.apex.core.dao.IArchiveDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 冷数据归档服务
+ * 把已完成/已取消的旧订单（连同订单项、物流、财务、售后、评价）和过期库存日志
+ * 分批搬迁到 *_archive 归档表，使热表只保留近期数据；每批一个事务，失败的批次整体回滚并停止本轮归档。
+ * 归档后的订单仍可通过OrderService.getOrderDetail查询，库存日志仍可通过InventoryLogDAO.findByProductId分页查询。
+ *
+ * 配置（系统属性）：
+ * apexflow.archive.orderDays         - 订单下单超过多少天后归档，默认180
+ * apexflow.archive.inventoryLogDays  - 库存日志超过多少天后归档，默认365
+ * apexflow.archive.batchSize         - 每批搬迁的订单数/日志条数，默认500
+ */
+public class ArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    public static final int DEFAULT_ORDER_DAYS = Integer.getInteger("apexflow.archive.orderDays", 180);
+    public static final int DEFAULT_INVENTORY_LOG_DAYS = Integer.getInteger("apexflow.archive.inventoryLogDays", 365);
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("apexflow.archive.batchSize", 500);
+
+    private final IArchiveDAO archiveDAO;
+
+    public ArchiveService() {
+        this(new ArchiveDAO());
+    }
+
+    public ArchiveService(IArchiveDAO archiveDAO) {
+        this.archiveDAO = archiveDAO;
+    }
+
+    /**
+     * 按配置的时间范围归档订单和库存日志
+     * @return 各类数据的归档条数：orders、inventoryLogs
+     */
+    public Map<String, Integer> archiveColdData() {
+        return archiveColdData(DEFAULT_ORDER_DAYS, DEFAULT_INVENTORY_LOG_DAYS, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 按指定时间范围归档订单和库存日志
+     * @param orderDays 订单保留天数
+     * @param inventoryLogDays 库存日志保留天数
+     * @param batchSize 每批条数
+     * @return 各类数据的归档条数：orders、inventoryLogs
+     */
+    public Map<String, Integer> archiveColdData(int orderDays, int inventoryLogDays, int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("orders", archiveOrders(now.minusDays(orderDays), batchSize));
+        result.put("inventoryLogs", archiveInventoryLogs(now.minusDays(inventoryLogDays), batchSize));
+        return result;
+    }
+
+    /**
+     * 分批归档下单时间早于createdBefore的已完成/已取消订单
+     * @return 归档的订单数
+     */
+    public int archiveOrders(LocalDateTime createdBefore, int batchSize) {
+        String operation = "ARCHIVE_ORDERS";
+        logger.info("[{}] Archiving finished orders created before {}", operation, createdBefore);
+
+        int archived = 0;
+        long startTime = System.currentTimeMillis();
+        while (true) {
+            List<String> orderIds = archiveDAO.findArchivableOrderIds(createdBefore, batchSize);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+
+            int moved = archiveDAO.archiveOrders(orderIds);
+            if (moved < 0) {
+                logger.error("[{}] Failed to archive batch of {} orders, stopping", operation, orderIds.size());
+                break;
+            }
+            archived += moved;
+
+            if (orderIds.size() < batchSize) {
+                break;
+            }
+        }
+
+        logger.info("[{}] Archived {} orders in {} ms", operation, archived, System.currentTimeMillis() - startTime);
+        return archived;
+    }
+
+    /**
+     * 分批归档变更时间早于createdBefore的库存日志
+     * @return 归档的日志条数
+     */
+    public int archiveInventoryLogs(LocalDateTime createdBefore, int batchSize) {
+        String operation = "ARCHIVE_INVENTORY_LOGS";
+        logger.info("[{}] Archiving inventory logs created before {}", operation, createdBefore);
+
+        int archived = 0;
+        long startTime = System.currentTimeMillis();
+        while (true) {
+            int moved = archiveDAO.archiveInventoryLogs(createdBefore, batchSize);
+            if (moved < 0) {
+                logger.error("[{}] Failed to archive inventory log batch, stopping", operation);
+                break;
+            }
+            archived += moved;
+
+            if (moved < batchSize) {
+                break;
+            }
+        }
+
+        logger.info("[{}] Archived {} inventory logs in {} ms", operation, archived, System.currentTimeMillis() - startTime);
+        return archived;
+    }
+}
@@ -4,24 +4,43 @@ import com.apex.core.dto.LoginRequest;
 import com.apex.core.dao.UserDAO;
 import com.apex.core.model.SystemUser;
 import com.apex.util.JwtUtil;
+import com.apex.util.LoginThrottle;
 import com.apex.util.PasswordUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 认证服务
  */
 public class AuthService {
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+    public static final String ERROR_TOO_MANY_ATTEMPTS = "TOO_MANY_ATTEMPTS";
+    public static final String ERROR_SERVER_BUSY = "SERVER_BUSY";
+
     private final UserDAO userDAO = new UserDAO();
+    private final LoginThrottle loginThrottle = new LoginThrottle();
+    private final LoginActivityRecorder loginActivity = LoginActivityRecorder.shared();
 
     /**
-     * 用户登录
+     * 用户登录（不按IP限流）
      */
     public Map<String, Object> login(LoginRequest loginRequest) {
+        return login(loginRequest, null);
+    }
+
+    /**
+     * 用户登录
+     * 在计算密码哈希之前按用户名和IP限流；哈希线程池繁忙时直接返回，不占用请求线程等待。
+     * 被拒绝时结果中带errorCode（TOO_MANY_ATTEMPTS / SERVER_BUSY）和retryAfter（秒）。
+     * 密码为旧格式或成本参数已调高时，登录成功后用当前算法重新计算并保存。
+     *
+     * @param clientIp 连接的对端地址（request.getRemoteAddr()），未知时为null
+     */
+    public Map<String, Object> login(LoginRequest loginRequest, String clientIp) {
         Map<String, Object> result = new HashMap<>();
 
         logger.info("Login attempt for username: {}", loginRequest.getUsername());
@@ -41,8 +60,41 @@ public class AuthService {
             return result;
         }
 
+        // 限流（在查询用户和计算哈希之前）
+        long retryAfter = loginThrottle.tryAcquire(loginRequest.getUsername().trim(), clientIp);
+        if (retryAfter > 0) {
+            result.put("success", false);
+            result.put("message", "登录尝试过于频繁，请稍后再试");
+            result.put("errorCode", ERROR_TOO_MANY_ATTEMPTS);
+            result.put("retryAfter", retryAfter);
+            return result;
+        }
+
         // 查询用户
         SystemUser user = userDAO.findByUsername(loginRequest.getUsername().trim());
+
+        // 验证密码；用户不存在时同样计算一次哈希，避免通过响应耗时判断用户名是否存在
+        boolean passwordValid;
+        try {
+            if (user == null) {
+                PasswordUtil.verifyDummyPassword(loginRequest.getPassword());
+                passwordValid = false;
+            } else {
+                passwordValid = PasswordUtil.verifyPassword(
+                        loginRequest.getPassword(),
+                        user.getSalt(),
+                        user.getPasswordHash()
+                );
+            }
+        } catch (RejectedExecutionException e) {
+            result.put("success", false);
+            result.put("message", "登录请求繁忙，请稍后重试");
+            result.put("errorCode", ERROR_SERVER_BUSY);
+            result.put("retryAfter", 1L);
+            logger.warn("Login rejected: password hashing busy for user: {}", loginRequest.getUsername());
+            return result;
+        }
+
         if (user == null) {
             result.put("success", false);
             result.put("message", "用户名或密码错误");
@@ -50,13 +102,6 @@ public class AuthService {
             return result;
         }
 
-        // 验证密码
-        boolean passwordValid = PasswordUtil.verifyPassword(
-                loginRequest.getPassword(),
-                user.getSalt(),
-                user.getPasswordHash()
-        );
-
         if (!passwordValid) {
             result.put("success", false);
             result.put("message", "用户名或密码错误");
@@ -64,11 +109,14 @@ public class AuthService {
             return result;
         }
 
+        loginThrottle.recordSuccess(loginRequest.getUsername().trim());
+        rehashIfNeeded(user, loginRequest.getPassword());
+
         // 生成JWT Token
         String token = JwtUtil.generateToken(user.getId(), user.getUsername());
 
-        // 更新最后登录时间
-        userDAO.updateLastLoginTime(user.getId());
+        // 记录最后登录时间，由后台线程批量写回
+        loginActivity.record(user.getId());
 
         // 构建响应数据
         Map<String, Object> userInfo = new HashMap<>();
@@ -88,6 +136,27 @@ public class AuthService {
         return result;
     }
 
+    /**
+     * 旧格式或低成本参数的哈希在登录成功后用当前算法重新计算，失败不影响本次登录（下次登录重试）
+     */
+    private void rehashIfNeeded(SystemUser user, String password) {
+        if (!PasswordUtil.needsRehash(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            String salt = PasswordUtil.generateSalt();
+            String hash = PasswordUtil.hashPassword(password, salt);
+            if (userDAO.updatePassword(user.getId(), hash, salt)) {
+                user.setPasswordHash(hash);
+                user.setSalt(salt);
+                logger.info("Password hash upgraded to {} for user: {}",
+                        PasswordUtil.getCurrentHasher().id(), user.getUsername());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Password rehash skipped for user: {} - {}", user.getUsername(), e.getMessage());
+        }
+    }
+
     /**
      * 用户登出
      */
@@ -0,0 +1,98 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.IIncomeDAO;
+import com.apex.core.dao.IInventoryLogDAO;
+import com.apex.core.dao.IOrderInfoDAO;
+import com.apex.core.dao.IncomeDAO;
+import com.apex.core.dao.InventoryLogDAO;
+import com.apex.core.dao.OrderInfoDAO;
+import com.apex.core.dao.RowHandler;
+import com.apex.core.export.ExportColumn;
+import com.apex.core.export.ExportColumns;
+import com.apex.core.export.ExportFormat;
+import com.apex.core.export.ExportWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 数据导出服务
+ * 订单、财务记录、库存日志按时间范围从DAO流式读取并逐行写到输出流，
+ * 内存占用与导出行数无关。输出流由调用方负责压缩和关闭。
+ */
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    /**
+     * 按时间范围流式读取某类数据的DAO方法
+     */
+    @FunctionalInterface
+    private interface RangeStream<T> {
+        long stream(LocalDateTime from, LocalDateTime to, RowHandler<T> handler);
+    }
+
+    private final IOrderInfoDAO orderInfoDAO;
+    private final IIncomeDAO incomeDAO;
+    private final IInventoryLogDAO inventoryLogDAO;
+
+    public ExportService() {
+        this(new OrderInfoDAO(), new IncomeDAO(), new InventoryLogDAO());
+    }
+
+    public ExportService(IOrderInfoDAO orderInfoDAO, IIncomeDAO incomeDAO, IInventoryLogDAO inventoryLogDAO) {
+        this.orderInfoDAO = orderInfoDAO;
+        this.incomeDAO = incomeDAO;
+        this.inventoryLogDAO = inventoryLogDAO;
+    }
+
+    /**
+     * 导出下单时间在 [from, to) 内的订单
+     * @return 导出的行数，读取失败返回-1（已写出的部分不会撤回）
+     */
+    public long exportOrders(LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out)
+            throws IOException {
+        return export("orders", ExportColumns.ORDERS, orderInfoDAO::streamByCreatedAt, from, to, format, out);
+    }
+
+    /**
+     * 导出交易时间在 [from, to) 内的财务记录
+     * @return 导出的行数，读取失败返回-1（已写出的部分不会撤回）
+     */
+    public long exportIncomes(LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out)
+            throws IOException {
+        return export("incomes", ExportColumns.INCOMES, incomeDAO::streamByTransactionTime, from, to, format, out);
+    }
+
+    /**
+     * 导出变更时间在 [from, to) 内的库存日志
+     * @return 导出的行数，读取失败返回-1（已写出的部分不会撤回）
+     */
+    public long exportInventoryLogs(LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out)
+            throws IOException {
+        return export("inventory logs", ExportColumns.INVENTORY_LOGS, inventoryLogDAO::streamByCreatedAt,
+                from, to, format, out);
+    }
+
+    private <T> long export(String dataset, List<ExportColumn<T>> columns, RangeStream<T> source,
+                            LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out)
+            throws IOException {
+        logger.info("[EXPORT] Exporting {} as {}. From: {}, To: {}", dataset, format, from, to);
+        long startTime = System.currentTimeMillis();
+
+        ExportWriter<T> writer = new ExportWriter<>(format, columns, out);
+        writer.writeHeader();
+        long rows = source.stream(from, to, writer);
+        writer.finish();
+
+        if (rows < 0) {
+            logger.error("[EXPORT] Export of {} failed after {} rows", dataset, writer.getRows());
+            return -1;
+        }
+        logger.info("[EXPORT] Exported {} {} in {} ms", rows, dataset, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+}
@@ -2,8 +2,12 @@ package com.apex.core.service;
 
 import com.apex.core.dao.IProductDAO;
 import com.apex.core.dao.IInventoryLogDAO;
+import com.apex.core.dao.RowMappers;
+import com.apex.core.dto.ProductListItem;
+import com.apex.core.dto.TotalCount;
 import com.apex.core.model.Product;
 import com.apex.core.model.InventoryLog;
+import com.apex.core.reservation.StockReservations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,10 +23,26 @@ public class InventoryService {
 
     private final IProductDAO productDAO;
     private final IInventoryLogDAO inventoryLogDAO;
+    private final StockCoordinator stockCoordinator;
+    private final StockReservations stockReservations;
+
+    private final RowCountService rowCountService = new RowCountService();
 
     public InventoryService(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO) {
+        this(productDAO, inventoryLogDAO, new StockCoordinator(productDAO, inventoryLogDAO));
+    }
+
+    public InventoryService(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO,
+                            StockCoordinator stockCoordinator) {
+        this(productDAO, inventoryLogDAO, stockCoordinator, StockReservations.shared());
+    }
+
+    public InventoryService(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO,
+                            StockCoordinator stockCoordinator, StockReservations stockReservations) {
         this.productDAO = productDAO;
         this.inventoryLogDAO = inventoryLogDAO;
+        this.stockCoordinator = stockCoordinator;
+        this.stockReservations = stockReservations;
         logger.info("[INVENTORY_SERVICE] InventoryService initialized");
     }
 
@@ -70,6 +90,7 @@ public class InventoryService {
 
     /**
      * 更新商品信息（需要库存管理权限）
+     * 调低库存时不能低于待支付订单预留的数量
      * @param productId 商品ID
      * @param product 更新后的商品信息
      * @return 更新成功返回true
@@ -78,6 +99,12 @@ public class InventoryService {
         logger.info("[INVENTORY_SERVICE] Updating product ID: {}", productId);
 
         try {
+            if (product.getStock() != null) {
+                Product current = productDAO.findById(productId);
+                if (current != null && !canLowerStock(current, product.getStock())) {
+                    return false;
+                }
+            }
             product.setId(productId);
             return productDAO.update(product);
         } catch (Exception e) {
@@ -126,6 +153,15 @@ public class InventoryService {
         }
     }
 
+    /**
+     * 获取商品行版本，用于详情接口的条件请求
+     * @param productId 商品ID
+     * @return 行版本，商品不存在时返回null
+     */
+    public Long getProductVersion(Integer productId) {
+        return productDAO.findVersion(productId);
+    }
+
     /**
      * 获取商品列表（分页）
      * @param page 页码
@@ -143,6 +179,24 @@ public class InventoryService {
         }
     }
 
+    /**
+     * 获取商品列表项（列表投影）
+     * 过滤条件优先级：关键词 > 分类 > 状态，均为空时查询全部
+     * @return 商品列表项，失败时返回null
+     */
+    public List<ProductListItem> getProductListItems(String keyword, String category, Integer status,
+                                                     int page, int pageSize) {
+        logger.debug("[INVENTORY_SERVICE] Getting product list items. Keyword: {}, Category: {}, Status: {}, Page: {}",
+                keyword, category, status, page);
+
+        try {
+            return productDAO.findListItems(keyword, category, status, page, pageSize);
+        } catch (Exception e) {
+            logger.error("[INVENTORY_SERVICE] Failed to get product list items: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
     /**
      * 根据分类获取商品
      * @param category 分类
@@ -180,6 +234,27 @@ public class InventoryService {
         }
     }
 
+    /**
+     * 搜索商品，可同时按分类、状态过滤
+     * @param keyword 关键词（匹配名称或分类）
+     * @param category 分类（可选）
+     * @param status 状态（可选）
+     * @param page 页码
+     * @param pageSize 每页大小
+     * @return 商品列表，失败时返回null
+     */
+    public List<Product> searchProducts(String keyword, String category, Integer status, int page, int pageSize) {
+        logger.debug("[INVENTORY_SERVICE] Searching products. Keyword: {}, Category: {}, Status: {}",
+                keyword, category, status);
+
+        try {
+            return productDAO.search(keyword, category, status, page, pageSize);
+        } catch (Exception e) {
+            logger.error("[INVENTORY_SERVICE] Failed to search products: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
     /**
      * 增加库存（采购入库）
      * @param productId 商品ID
@@ -226,6 +301,7 @@ public class InventoryService {
 
     /**
      * 减少库存（销售出库）
+     * 同一商品的并发扣减由StockCoordinator合并为一次数据库更新，库存日志按请求逐条记录
      * @param productId 商品ID
      * @param quantity 减少数量
      * @param orderId 订单ID
@@ -235,50 +311,27 @@ public class InventoryService {
         logger.info("[INVENTORY_SERVICE] Decreasing stock for product ID: {}, quantity: {}, order: {}",
                 productId, quantity, orderId);
 
-        try {
-            Product product = productDAO.findById(productId);
-            if (product == null) {
+        StockCoordinator.Outcome outcome = stockCoordinator.decrease(productId, quantity, orderId);
+        switch (outcome) {
+            case APPLIED:
+                logger.info("[INVENTORY_SERVICE] Stock decreased. Product: {}, Quantity: {}, Order: {}",
+                        productId, quantity, orderId);
+                return true;
+            case NOT_FOUND:
                 logger.warn("[INVENTORY_SERVICE] Product not found: {}", productId);
                 return false;
-            }
-
-            // 检查库存是否充足
-            int currentStock = product.getStock() != null ? product.getStock() : 0;
-            if (currentStock < quantity) {
-                logger.warn("[INVENTORY_SERVICE] Insufficient stock. Product: {}, Current: {}, Required: {}",
-                        productId, currentStock, quantity);
+            case INSUFFICIENT:
+                logger.warn("[INVENTORY_SERVICE] Insufficient stock. Product: {}, Required: {}", productId, quantity);
+                return false;
+            default:
+                logger.error("[INVENTORY_SERVICE] Failed to decrease stock for product {}", productId);
                 return false;
-            }
-
-            int beforeStock = currentStock;
-            boolean success = productDAO.decreaseStock(productId, quantity);
-
-            if (success) {
-                // 记录库存日志
-                InventoryLog log = new InventoryLog();
-                log.setProductId(productId);
-                log.setChangeType("sale"); // 销售出库
-                log.setQuantity(-quantity); // 负数表示减少
-                log.setBeforeStock(beforeStock);
-                log.setAfterStock(beforeStock - quantity);
-                log.setOrderId(orderId);
-                log.setCreatedAt(LocalDateTime.now());
-
-                inventoryLogDAO.create(log);
-                logger.info("[INVENTORY_SERVICE] Stock decreased. Product: {}, Before: {}, After: {}, Order: {}",
-                        productId, beforeStock, beforeStock - quantity, orderId);
-            }
-
-            return success;
-        } catch (Exception e) {
-            logger.error("[INVENTORY_SERVICE] Failed to decrease stock for product {}: {}",
-                    productId, e.getMessage(), e);
-            return false;
         }
     }
 
     /**
      * 调整库存（库存调整）
+     * 调低库存时不能低于待支付订单预留的数量
      * @param productId 商品ID
      * @param newStock 新库存数量
      * @param reason 调整原因
@@ -295,6 +348,10 @@ public class InventoryService {
                 return false;
             }
 
+            if (!canLowerStock(product, newStock)) {
+                return false;
+            }
+
             int beforeStock = product.getStock() != null ? product.getStock() : 0;
             int quantity = newStock - beforeStock;
 
@@ -324,6 +381,19 @@ public class InventoryService {
         }
     }
 
+    /**
+     * 库存调低后可售数量（扣除待支付订单的预留）不能为负，否则这些订单支付时无法扣减；调高不受限制
+     */
+    private boolean canLowerStock(Product product, int newStock) {
+        int beforeStock = product.getStock() != null ? product.getStock() : 0;
+        if (newStock >= beforeStock || stockReservations.available(product.getId(), newStock) >= 0) {
+            return true;
+        }
+        logger.warn("[INVENTORY_SERVICE] Stock of product {} cannot go below reserved quantity. New stock: {}, Reserved: {}",
+                product.getId(), newStock, stockReservations.reservedQuantity(product.getId()));
+        return false;
+    }
+
     /**
      * 获取库存变更日志
      * @param productId 商品ID（可选）
@@ -418,7 +488,28 @@ public class InventoryService {
         }
     }
 
-    public long countLogs() {
-        return inventoryLogDAO.count();
+    /**
+     * 统计库存变更日志总数，过滤条件与getInventoryLogs一致
+     * 日志只追加写入，商品和变更类型维度的计数均由DAO写入时增量维护；
+     * 按商品查询时列表会接续归档表中的日志，总数同样加上归档部分，否则客户端翻不到后面的归档页
+     * @param productId 商品ID（可选）
+     * @param changeType 变更类型（可选）
+     * @return 总记录数及是否精确
+     */
+    public TotalCount countLogs(Integer productId, String changeType) {
+        String table = RowMappers.INVENTORY_LOG.getTableName();
+        if (productId != null) {
+            TotalCount hot = rowCountService.countWhere(table, "product_id", productId);
+            long archived = inventoryLogDAO.countArchivedByProductId(productId);
+            if (archived < 0) {
+                // 归档部分未计入，标记为估算值
+                return TotalCount.estimated(hot.getCount());
+            }
+            long total = hot.getCount() + archived;
+            return hot.isExact() ? TotalCount.exact(total) : TotalCount.estimated(total);
+        } else if (changeType != null && !changeType.isEmpty()) {
+            return rowCountService.countWhere(table, "change_type", changeType);
+        }
+        return rowCountService.countAll(table);
     }
 }
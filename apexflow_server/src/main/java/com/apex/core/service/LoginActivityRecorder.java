@@ -0,0 +1,172 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.IUserDAO;
+import com.apex.core.dao.UserDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 最后登录时间异步记录器
+ *
+ * 登录成功时只把时间写入内存（每个用户只保留最新一次），不占用数据库连接；
+ * 后台线程按固定间隔把待写入的时间合并为一条批量UPDATE写回 apexflow_system_user。
+ * 上班高峰集中登录时，写库次数从每次登录一次降为每个间隔一次。
+ * 写入失败的记录保留到下一轮重试；stop()时把剩余记录全部写回。
+ *
+ * 配置（系统属性）：
+ * apexflow.loginActivity.flushMs - 写回间隔，默认5000
+ */
+public final class LoginActivityRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(LoginActivityRecorder.class);
+
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("apexflow.loginActivity.flushMs", 5000L);
+
+    private static final LoginActivityRecorder SHARED = new LoginActivityRecorder(new UserDAO());
+
+    private final IUserDAO userDAO;
+
+    /**
+     * 用户ID -> 尚未写回的最后登录时间
+     */
+    private final ConcurrentHashMap<Integer, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder flushedUsers = new LongAdder();
+    private final LongAdder flushBatches = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    private final Object lifecycleLock = new Object();
+    private volatile ScheduledExecutorService flusher;
+
+    public LoginActivityRecorder(IUserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    /**
+     * 应用内共享的记录器
+     */
+    public static LoginActivityRecorder shared() {
+        return SHARED;
+    }
+
+    /**
+     * 记录一次登录，同一用户在写回前多次登录只保留最新时间
+     */
+    public void record(Integer userId) {
+        record(userId, LocalDateTime.now());
+    }
+
+    void record(Integer userId, LocalDateTime loginAt) {
+        if (userId == null) {
+            return;
+        }
+        pending.merge(userId, loginAt, (previous, current) -> current.isAfter(previous) ? current : previous);
+    }
+
+    /**
+     * 把当前待写入的登录时间写回数据库，返回写回的用户数；失败时记录保留，返回-1。
+     * 后台线程定时调用；测试和停机时也可直接同步调用。
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, LocalDateTime> snapshot = new HashMap<>(pending);
+        int updated = userDAO.updateLastLoginTimes(snapshot);
+        if (updated < 0) {
+            failedFlushes.increment();
+            logger.warn("[LOGIN_ACTIVITY] Flush failed, {} users kept for retry", snapshot.size());
+            return -1;
+        }
+        // 写回期间又登录的用户时间已更新，保留到下一轮
+        snapshot.forEach(pending::remove);
+        flushBatches.increment();
+        flushedUsers.add(snapshot.size());
+        logger.debug("[LOGIN_ACTIVITY] Flushed last login time for {} users ({} rows)", snapshot.size(), updated);
+        return snapshot.size();
+    }
+
+    /**
+     * @return 等待写回的用户数
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 获取记录器指标
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", flusher != null);
+        stats.put("pendingUsers", pending.size());
+        stats.put("flushedUsers", flushedUsers.sum());
+        stats.put("flushBatches", flushBatches.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("flushIntervalMs", FLUSH_INTERVAL_MS);
+        return stats;
+    }
+
+    /**
+     * 启动后台写回线程；重复调用无副作用
+     */
+    public void start() {
+        synchronized (lifecycleLock) {
+            if (flusher != null) {
+                return;
+            }
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "login-activity-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+            flusher = executor;
+        }
+        logger.info("[LOGIN_ACTIVITY] Started. Flush interval: {} ms", FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * 停止后台写回线程，并把剩余的登录时间写回数据库
+     */
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (lifecycleLock) {
+            current = flusher;
+            if (current == null) {
+                return;
+            }
+            flusher = null;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        int flushed = flush();
+        logger.info("[LOGIN_ACTIVITY] Stopped. Drained {} users, {} still pending", Math.max(0, flushed), pending.size());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            logger.error("[LOGIN_ACTIVITY] Flush round failed: {}", e.getMessage(), e);
+        }
+    }
+}
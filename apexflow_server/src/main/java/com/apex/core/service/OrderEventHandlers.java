@@ -0,0 +1,144 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.IIncomeDAO;
+import com.apex.core.dao.IInventoryLogDAO;
+import com.apex.core.dao.ILogisticsDAO;
+import com.apex.core.dao.IOrderItemDAO;
+import com.apex.core.dao.IProductDAO;
+import com.apex.core.event.OrderCancelled;
+import com.apex.core.event.OrderCreated;
+import com.apex.core.event.OrderPaid;
+import com.apex.core.event.OutboxDispatcher;
+import com.apex.core.model.Income;
+import com.apex.core.model.InventoryLog;
+import com.apex.core.model.Logistics;
+import com.apex.core.model.OrderItem;
+import com.apex.core.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 订单领域事件处理器
+ * 承接原先在下单和状态变更请求中同步完成的附属写入：
+ * OrderCreated   -> 创建物流记录
+ * OrderPaid      -> 创建财务入账记录
+ * OrderCancelled -> 恢复库存并记录库存日志（只释放了库存预留的订单跳过）
+ * 每个处理器在投递器开启的独立事务中执行，DAO返回失败时抛出异常以回滚并重试。
+ */
+public class OrderEventHandlers {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventHandlers.class);
+
+    /**
+     * 处理器名称，写入事件处理回执
+     */
+    static final String LOGISTICS_HANDLER = "order.logistics";
+    static final String INCOME_HANDLER = "order.income";
+    static final String STOCK_RESTORE_HANDLER = "order.stockRestore";
+
+    private final IOrderItemDAO orderItemDAO;
+    private final IProductDAO productDAO;
+    private final IInventoryLogDAO inventoryLogDAO;
+    private final ILogisticsDAO logisticsDAO;
+    private final IIncomeDAO incomeDAO;
+
+    public OrderEventHandlers(IOrderItemDAO orderItemDAO,
+                              IProductDAO productDAO,
+                              IInventoryLogDAO inventoryLogDAO,
+                              ILogisticsDAO logisticsDAO,
+                              IIncomeDAO incomeDAO) {
+        this.orderItemDAO = orderItemDAO;
+        this.productDAO = productDAO;
+        this.inventoryLogDAO = inventoryLogDAO;
+        this.logisticsDAO = logisticsDAO;
+        this.incomeDAO = incomeDAO;
+    }
+
+    /**
+     * 向投递器注册全部订单事件处理器（同名处理器会被替换）
+     */
+    public void registerWith(OutboxDispatcher dispatcher) {
+        dispatcher.register(OrderCreated.class, LOGISTICS_HANDLER, this::createLogistics);
+        dispatcher.register(OrderPaid.class, INCOME_HANDLER, this::recordIncome);
+        dispatcher.register(OrderCancelled.class, STOCK_RESTORE_HANDLER, this::restoreStock);
+    }
+
+    /**
+     * 创建待发货物流记录
+     */
+    void createLogistics(OrderCreated event) {
+        logger.debug("[ORDER_EVENT] Creating logistics record for order {}", event.getOrderId());
+        Logistics logistics = new Logistics();
+        logistics.setOrderId(event.getOrderId());
+        logistics.setStatus("pending");
+        logistics.setReceiverAddress("To be filled"); // 实际应用中应从用户地址获取
+        if (!logisticsDAO.create(logistics)) {
+            throw new IllegalStateException("Failed to create logistics record for order " + event.getOrderId());
+        }
+    }
+
+    /**
+     * 创建已入账的财务记录
+     */
+    void recordIncome(OrderPaid event) {
+        logger.debug("[ORDER_EVENT] Creating income record for paid order {}", event.getOrderId());
+        Income income = new Income();
+        income.setOrderId(event.getOrderId());
+        income.setType("income");
+        income.setAmount(event.getAmount());
+        income.setPaymentMethod(event.getPaymentMethod());
+        income.setStatus(2); // 已入账
+        income.setTransactionTime(event.getPaidAt() != null ? event.getPaidAt() : LocalDateTime.now());
+        if (!incomeDAO.create(income)) {
+            throw new IllegalStateException("Failed to create income record for order " + event.getOrderId());
+        }
+    }
+
+    /**
+     * 恢复已取消订单占用的库存
+     */
+    void restoreStock(OrderCancelled event) {
+        String orderId = event.getOrderId();
+        if (!event.isRestoreStock()) {
+            logger.debug("[ORDER_EVENT] Cancelled order {} only held reserved stock, nothing to restore", orderId);
+            return;
+        }
+        logger.debug("[ORDER_EVENT] Restoring product stock for cancelled order {}", orderId);
+
+        Map<Integer, Integer> quantities = event.getQuantities();
+        if (quantities == null) {
+            // 升级前写入发件箱的事件不带数量，只能按订单项恢复
+            quantities = new LinkedHashMap<>();
+            for (OrderItem item : orderItemDAO.findByOrderId(orderId)) {
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Integer productId = entry.getKey();
+            int quantity = entry.getValue();
+            if (!productDAO.increaseStock(productId, quantity)) {
+                throw new IllegalStateException("Failed to restore stock for product " + productId);
+            }
+
+            // 记录库存恢复日志
+            Product product = productDAO.findById(productId);
+            if (product == null) {
+                throw new IllegalStateException("Product " + productId + " not found after restoring stock");
+            }
+            InventoryLog inventoryLog = new InventoryLog();
+            inventoryLog.setProductId(productId);
+            inventoryLog.setChangeType("cancel");
+            inventoryLog.setQuantity(quantity);
+            inventoryLog.setBeforeStock(product.getStock() - quantity);
+            inventoryLog.setAfterStock(product.getStock());
+            inventoryLog.setOrderId(orderId);
+            if (!inventoryLogDAO.create(inventoryLog)) {
+                throw new IllegalStateException("Failed to create inventory log for product " + productId);
+            }
+        }
+    }
+}
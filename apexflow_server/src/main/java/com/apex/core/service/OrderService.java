@@ -2,17 +2,26 @@ package com.apex.core.service;
 
 import com.apex.core.dao.*;
 import com.apex.core.dto.OrderDetail;
+import com.apex.core.dto.OrderListItem;
 import com.apex.core.dto.OrderWithItemsResponse;
+import com.apex.core.dto.TotalCount;
+import com.apex.core.event.OrderCancelled;
+import com.apex.core.event.OrderCreated;
+import com.apex.core.event.OrderPaid;
+import com.apex.core.event.OrderShipped;
+import com.apex.core.event.OutboxDispatcher;
 import com.apex.core.model.*;
+import com.apex.core.reservation.StockReservations;
 import java.math.BigDecimal;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
-import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
+import com.apex.util.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,11 +40,16 @@ public class OrderService {
     private final IIncomeDAO incomeDAO;
     private final IAfterSalesDAO afterSalesDAO;
     private final IReviewDAO reviewDAO;
+    private final OutboxDispatcher eventDispatcher;
+    private final IArchiveDAO archiveDAO;
+    private final StockReservations stockReservations;
+    private final StockCoordinator stockCoordinator;
+    private final RowCountService rowCountService = new RowCountService();
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
     /**
-     * 构造函数，注入所有需要的DAO
+     * 构造函数，注入所有需要的DAO，订单事件通过应用共享的发件箱投递器发布
      */
     public OrderService(IOrderInfoDAO orderInfoDAO,
                         IOrderItemDAO orderItemDAO,
@@ -45,6 +59,57 @@ public class OrderService {
                         IIncomeDAO incomeDAO,
                         IAfterSalesDAO afterSalesDAO,
                         IReviewDAO reviewDAO) {
+        this(orderInfoDAO, orderItemDAO, productDAO, inventoryLogDAO, logisticsDAO,
+                incomeDAO, afterSalesDAO, reviewDAO, OutboxDispatcher.shared());
+    }
+
+    /**
+     * 构造函数，注入所有需要的DAO和事件投递器，并向投递器注册订单事件处理器
+     */
+    public OrderService(IOrderInfoDAO orderInfoDAO,
+                        IOrderItemDAO orderItemDAO,
+                        IProductDAO productDAO,
+                        IInventoryLogDAO inventoryLogDAO,
+                        ILogisticsDAO logisticsDAO,
+                        IIncomeDAO incomeDAO,
+                        IAfterSalesDAO afterSalesDAO,
+                        IReviewDAO reviewDAO,
+                        OutboxDispatcher eventDispatcher) {
+        this(orderInfoDAO, orderItemDAO, productDAO, inventoryLogDAO, logisticsDAO,
+                incomeDAO, afterSalesDAO, reviewDAO, eventDispatcher, new ArchiveDAO());
+    }
+
+    /**
+     * 构造函数，另外注入归档DAO（热表查不到的订单从归档表回读）
+     */
+    public OrderService(IOrderInfoDAO orderInfoDAO,
+                        IOrderItemDAO orderItemDAO,
+                        IProductDAO productDAO,
+                        IInventoryLogDAO inventoryLogDAO,
+                        ILogisticsDAO logisticsDAO,
+                        IIncomeDAO incomeDAO,
+                        IAfterSalesDAO afterSalesDAO,
+                        IReviewDAO reviewDAO,
+                        OutboxDispatcher eventDispatcher,
+                        IArchiveDAO archiveDAO) {
+        this(orderInfoDAO, orderItemDAO, productDAO, inventoryLogDAO, logisticsDAO,
+                incomeDAO, afterSalesDAO, reviewDAO, eventDispatcher, archiveDAO, StockReservations.shared());
+    }
+
+    /**
+     * 构造函数，另外注入待支付订单的库存预留
+     */
+    public OrderService(IOrderInfoDAO orderInfoDAO,
+                        IOrderItemDAO orderItemDAO,
+                        IProductDAO productDAO,
+                        IInventoryLogDAO inventoryLogDAO,
+                        ILogisticsDAO logisticsDAO,
+                        IIncomeDAO incomeDAO,
+                        IAfterSalesDAO afterSalesDAO,
+                        IReviewDAO reviewDAO,
+                        OutboxDispatcher eventDispatcher,
+                        IArchiveDAO archiveDAO,
+                        StockReservations stockReservations) {
         this.orderInfoDAO = orderInfoDAO;
         this.orderItemDAO = orderItemDAO;
         this.productDAO = productDAO;
@@ -53,23 +118,37 @@ public class OrderService {
         this.incomeDAO = incomeDAO;
         this.afterSalesDAO = afterSalesDAO;
         this.reviewDAO = reviewDAO;
+        this.eventDispatcher = eventDispatcher;
+        this.archiveDAO = archiveDAO;
+        this.stockReservations = stockReservations;
+        this.stockCoordinator = new StockCoordinator(productDAO, inventoryLogDAO, stockReservations);
+
+        new OrderEventHandlers(orderItemDAO, productDAO, inventoryLogDAO, logisticsDAO, incomeDAO)
+                .registerWith(eventDispatcher);
     }
 
     /**
      * 创建完整订单
      * 步骤：
-     * 1. 验证订单信息和商品库存
+     * 1. 验证订单信息和商品可售数量（库存减去待支付订单的预留）
      * 2. 创建订单主记录
      * 3. 创建订单项记录
-     * 4. 更新商品库存
-     * 5. 创建物流记录
-     * 6. 创建财务记录
+     * 4. 待支付订单预留库存（支付时再扣减，超时未支付自动释放）；已支付订单直接扣减库存
+     * 5. 发布OrderCreated事件（物流记录由事件处理器创建）
+     * 6. 已支付订单发布OrderPaid事件（财务记录由事件处理器创建）
+     * 步骤2-6在同一事务中提交，任一步失败全部回滚
      *
      * @param order 订单主信息
      * @param orderItems 订单项列表
      * @return 创建成功返回true，失败返回false
      */
     public boolean createOrder(OrderInfo order, List<OrderItem> orderItems) {
+        try (Tracer.Span ignored = Tracer.span("OrderService.createOrder", order != null ? order.getId() : null)) {
+            return doCreateOrder(order, orderItems);
+        }
+    }
+
+    private boolean doCreateOrder(OrderInfo order, List<OrderItem> orderItems) {
         String operation = "CREATE_ORDER";
 
         if (order == null) {
@@ -77,7 +156,7 @@ public class OrderService {
             return false;
         }
 
-        logger.info("[{}] Starting order creation process. Order ID: {}, User ID: {}",
+        logger.debug("[{}] Starting order creation process. Order ID: {}, User ID: {}",
                 operation, order.getId(), order.getUserId());
 
         try {
@@ -93,97 +172,72 @@ public class OrderService {
                 if (product == null) {
                     throw new RuntimeException("Product ID " + item.getProductId() + " does not exist");
                 }
-                if (product.getStock() < item.getQuantity()) {
+                int available = stockReservations.available(product.getId(), product.getStock());
+                if (available < item.getQuantity()) {
                     throw new RuntimeException("Product " + product.getName() + " has insufficient stock. " +
-                            "Current stock: " + product.getStock() + ", Required: " + item.getQuantity());
+                            "Available stock: " + available + ", Required: " + item.getQuantity());
                 }
             }
 
-            // 3. 保存订单主信息
-            logger.debug("[{}] Saving order information", operation);
-            boolean orderCreated = orderInfoDAO.create(order);
-            if (!orderCreated) {
-                throw new RuntimeException("Failed to create order");
-            }
-
-            // 4. 批量保存订单项
-            logger.debug("[{}] Saving order items (count: {})", operation, orderItems.size());
-
-            for (OrderItem orderItem : orderItems) {
-                // [修复关键点]：查询商品详情，补充 productName
-                Product product = productDAO.findById(orderItem.getProductId());
-                if (product != null) {
-                    orderItem.setProductName(product.getName()); // 设置商品名称
-                    orderItem.setSubtotal(
-                            product.getPrice().multiply(new BigDecimal(orderItem.getQuantity()))
-                    );
-                } else {
-                    // 如果找不到商品，可以报错或设置默认值
-                    throw new RuntimeException("商品不存在，ID: " + orderItem.getProductId());
+            Transactions.execute(() -> {
+                // 3. 保存订单主信息
+                logger.debug("[{}] Saving order information", operation);
+                boolean orderCreated = orderInfoDAO.create(order);
+                if (!orderCreated) {
+                    throw new RuntimeException("Failed to create order");
                 }
-            }
 
-            boolean itemsCreated = orderItemDAO.createBatch(orderItems);
-            if (!itemsCreated) {
-                throw new RuntimeException("Failed to create order items");
-            }
+                // 4. 批量保存订单项
+                logger.debug("[{}] Saving order items (count: {})", operation, orderItems.size());
 
-            // 5. 更新商品库存
-            logger.debug("[{}] Updating product stock for {} items", operation, orderItems.size());
-            for (OrderItem item : orderItems) {
-                boolean stockUpdated = productDAO.decreaseStock(item.getProductId(), item.getQuantity());
-                if (!stockUpdated) {
-                    throw new RuntimeException("Failed to update product stock. Product ID: " + item.getProductId());
+                Map<Integer, Integer> quantities = new LinkedHashMap<>();
+                Map<Integer, Integer> stocks = new LinkedHashMap<>();
+                for (OrderItem orderItem : orderItems) {
+                    // [修复关键点]：查询商品详情，补充 productName
+                    Product product = productDAO.findById(orderItem.getProductId());
+                    if (product != null) {
+                        orderItem.setProductName(product.getName()); // 设置商品名称
+                        orderItem.setSubtotal(
+                                product.getPrice().multiply(new BigDecimal(orderItem.getQuantity()))
+                        );
+                        quantities.merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
+                        stocks.put(product.getId(), product.getStock());
+                    } else {
+                        // 如果找不到商品，可以报错或设置默认值
+                        throw new RuntimeException("商品不存在，ID: " + orderItem.getProductId());
+                    }
                 }
 
-                // 记录库存变更日志
-                Product product = productDAO.findById(item.getProductId());
-                if (product != null) {
-                    InventoryLog inventoryLog = new InventoryLog();
-                    inventoryLog.setProductId(item.getProductId());
-                    inventoryLog.setChangeType("sale");
-                    inventoryLog.setQuantity(-item.getQuantity());
-                    inventoryLog.setBeforeStock(product.getStock() + item.getQuantity());
-                    inventoryLog.setAfterStock(product.getStock());
-                    inventoryLog.setOrderId(order.getId());
-                    inventoryLogDAO.create(inventoryLog);
-                    logger.debug("[{}] Created inventory log for product {} (ID: {})",
-                            operation, product.getName(), product.getId());
+                boolean itemsCreated = orderItemDAO.createBatch(orderItems);
+                if (!itemsCreated) {
+                    throw new RuntimeException("Failed to create order items");
                 }
-            }
 
-            // 6. 创建物流记录
-            logger.debug("[{}] Creating logistics record", operation);
-            Logistics logistics = new Logistics();
-            logistics.setOrderId(order.getId());
-            logistics.setStatus("pending");
-            logistics.setReceiverAddress("To be filled"); // 实际应用中应从用户地址获取
-            boolean logisticsCreated = logisticsDAO.create(logistics);
-            if (!logisticsCreated) {
-                throw new RuntimeException("Failed to create logistics record");
-            }
+                // 5. 待支付订单预留库存，其余订单扣减库存
+                if (isPending(order)) {
+                    logger.debug("[{}] Reserving stock for {} products", operation, quantities.size());
+                    stockReservations.hold(order.getId(), quantities, stocks);
+                } else {
+                    logger.debug("[{}] Updating product stock for {} products", operation, quantities.size());
+                    decreaseStock(order.getId(), quantities);
+                }
 
-            // 7. 创建财务记录（仅当订单已支付时）
-            if (order.getStatus() == 2) { // 已支付状态
-                logger.debug("[{}] Creating income record for paid order", operation);
-                Income income = new Income();
-                income.setOrderId(order.getId());
-                income.setType("income");
-                income.setAmount(order.getTotalAmount());
-                income.setPaymentMethod(order.getPaymentMethod());
-                income.setStatus(2); // 已入账
-                income.setTransactionTime(order.getPaidAt());
-                incomeDAO.create(income);
-            }
+                // 6. 发布订单事件，物流和财务记录由事件处理器在事务提交后异步创建
+                eventDispatcher.publish(new OrderCreated(order.getId(), order.getUserId(),
+                        order.getTotalAmount(), order.getStatus()));
+                if (order.getStatus() != null && order.getStatus() == 2) { // 已支付状态
+                    eventDispatcher.publish(new OrderPaid(order.getId(), order.getTotalAmount(),
+                            order.getPaymentMethod(), order.getPaidAt()));
+                }
+                return null;
+            });
 
-            logger.info("[{}] Order created successfully. Order ID: {}, Total amount: {}",
+            logger.debug("[{}] Order created successfully. Order ID: {}, Total amount: {}",
                     operation, order.getId(), order.getTotalAmount());
             return true;
         } catch (Exception e) {
             logger.error("[{}] Failed to create order. Order ID: {}, Error: {}",
                     operation, order.getId(), e.getMessage(), e);
-            // 这里应该回滚所有操作，但在不使用事务管理器的情况下需要手动处理
-            // 可以考虑使用补偿操作或者将整个操作放在数据库事务中
             return false;
         }
     }
@@ -198,7 +252,7 @@ public class OrderService {
      */
     public boolean updateOrder(String orderId, OrderInfo updatedOrder) {
         String operation = "UPDATE_ORDER";
-        logger.info("[{}] Starting order update. Order ID: {}", operation, orderId);
+        logger.debug("[{}] Starting order update. Order ID: {}", operation, orderId);
 
         try {
             // 1. 检查订单是否存在
@@ -218,10 +272,10 @@ public class OrderService {
                     operation, existingOrder.getAddressId(), updatedOrder.getAddressId());
             existingOrder.setAddressId(updatedOrder.getAddressId());
 
-            // 4. 更新订单
+            // 4. 更新订单（existingOrder由DAO加载并跟踪变更，只会写入address_id列）
             boolean result = orderInfoDAO.update(existingOrder);
             if (result) {
-                logger.info("[{}] Order updated successfully. Order ID: {}", operation, orderId);
+                logger.debug("[{}] Order updated successfully. Order ID: {}", operation, orderId);
             } else {
                 logger.warn("[{}] Failed to update order. Order ID: {}", operation, orderId);
             }
@@ -237,20 +291,17 @@ public class OrderService {
      * 删除订单（级联删除）
      * 需要删除所有相关的记录：
      * 1. 检查订单状态（只有特定状态可以删除）
-     * 2. 恢复商品库存
-     * 3. 删除订单项
-     * 4. 删除物流记录
-     * 5. 删除财务记录
-     * 6. 删除售后记录
-     * 7. 删除评价记录
-     * 8. 删除订单主记录
+     * 2. 待支付订单释放库存预留；已支付订单及未使用预留的历史待支付订单恢复商品库存（一次批量更新）并批量记录库存日志
+     * 3. 按订单号集合删除订单项、物流、财务、售后、评价记录
+     * 4. 删除订单主记录
+     * 步骤2-4在同一事务中提交
      *
      * @param orderId 订单ID
      * @return 删除成功返回true，失败返回false
      */
     public boolean deleteOrder(String orderId) {
         String operation = "DELETE_ORDER";
-        logger.info("[{}] Starting order deletion. Order ID: {}", operation, orderId);
+        logger.debug("[{}] Starting order deletion. Order ID: {}", operation, orderId);
 
         try {
             // 1. 检查订单是否存在
@@ -264,98 +315,128 @@ public class OrderService {
                 throw new RuntimeException("Shipped or completed orders cannot be deleted");
             }
 
-            // 3. 恢复商品库存（如果订单已支付或已发货）
-            if (order.getStatus() == 2) {
-                List<OrderItem> orderItems = orderItemDAO.findByOrderId(orderId);
-                logger.debug("[{}] Restoring stock for {} order items", operation, orderItems.size());
-
-                for (OrderItem item : orderItems) {
-                    productDAO.increaseStock(item.getProductId(), item.getQuantity());
-
-                    // 记录库存恢复日志
-                    Product product = productDAO.findById(item.getProductId());
-                    if (product != null) {
-                        InventoryLog inventoryLog = new InventoryLog();
-                        inventoryLog.setProductId(item.getProductId());
-                        inventoryLog.setChangeType("cancel");
-                        inventoryLog.setQuantity(item.getQuantity());
-                        inventoryLog.setBeforeStock(product.getStock() - item.getQuantity());
-                        inventoryLog.setAfterStock(product.getStock());
-                        inventoryLog.setOrderId(orderId);
-                        inventoryLogDAO.create(inventoryLog);
-                    }
+            Transactions.execute(() -> {
+                // 3. 恢复商品库存（如果订单已支付）；待支付订单释放预留，下单时已扣减库存的历史订单同样恢复库存
+                if (order.getStatus() == 2 || (order.getStatus() == 1 && !stockReservations.release(orderId))) {
+                    restoreStock(orderId);
                 }
-            }
 
-            // 4. 删除订单项
-            List<OrderItem> orderItems = orderItemDAO.findByOrderId(orderId);
-            logger.debug("[{}] Deleting {} order items", operation, orderItems.size());
+                // 4. 删除子表记录和订单主记录；主记录已不存在时回滚，避免重复恢复库存
+                if (deleteOrderRows(List.of(orderId)) == 0) {
+                    throw new RuntimeException("Order was deleted concurrently: " + orderId);
+                }
+                return null;
+            });
 
-            for (OrderItem item : orderItems) {
-                orderItemDAO.delete(item.getId());
-            }
+            logger.debug("[{}] Order deleted successfully. Order ID: {}", operation, orderId);
+            return true;
+        } catch (Exception e) {
+            logger.error("[{}] Failed to delete order. Order ID: {}, Error: {}",
+                    operation, orderId, e.getMessage(), e);
+            return false;
+        }
+    }
 
-            // 5. 删除物流记录
-            Logistics logistics = logisticsDAO.findByOrderId(orderId);
-            if (logistics != null && logistics.getId() != null) {
-                logger.debug("[{}] Deleting logistics record", operation);
-                logisticsDAO.delete(logistics.getId());
-            }
+    /**
+     * 批量清理已取消订单（供夜间清理任务调用）
+     * 已取消订单的库存由取消事件恢复，事件自带需恢复的数量，不依赖订单项，
+     * 因此事件尚未投递或正在重试时也可以清理；这里只删除订单及其子表记录，
+     * 每批一个事务，单批失败时停止并返回已清理的数量。
+     *
+     * @param createdBefore 只清理下单时间早于该时间的订单
+     * @param batchSize 每批清理的订单数
+     * @return 清理的订单数
+     */
+    public int purgeCancelledOrders(LocalDateTime createdBefore, int batchSize) {
+        String operation = "PURGE_CANCELLED_ORDERS";
+        logger.info("[{}] Purging cancelled orders created before {}", operation, createdBefore);
 
-            // 6. 删除财务记录
-            List<Income> incomes = incomeDAO.findByOrderId(orderId);
-            logger.debug("[{}] Deleting {} income records", operation, incomes.size());
-            for (Income income : incomes) {
-                incomeDAO.delete(income.getId());
+        int purged = 0;
+        long startTime = System.currentTimeMillis();
+        while (true) {
+            List<String> orderIds = orderInfoDAO.findIdsByStatus(5, createdBefore, batchSize);
+            if (orderIds.isEmpty()) {
+                break;
             }
 
-            // 7. 删除售后记录
-            List<AfterSales> afterSalesList = afterSalesDAO.findByOrderId(orderId);
-            logger.debug("[{}] Deleting {} after-sales records", operation, afterSalesList.size());
-            for (AfterSales afterSales : afterSalesList) {
-                afterSalesDAO.delete(afterSales.getId());
+            try {
+                purged += Transactions.execute(() -> deleteOrderRows(orderIds));
+            } catch (Exception e) {
+                logger.error("[{}] Failed to purge batch of {} orders. Error: {}",
+                        operation, orderIds.size(), e.getMessage(), e);
+                break;
             }
 
-            // 8. 删除评价记录
-            Review review = reviewDAO.findByOrderId(orderId);
-            if (review != null && review.getId() != null) {
-                logger.debug("[{}] Deleting review record", operation);
-                reviewDAO.delete(review.getId());
+            if (orderIds.size() < batchSize) {
+                break;
             }
+        }
 
-            // 9. 删除订单主记录
-            logger.debug("[{}] Deleting main order record", operation);
-
-            String sql = "DELETE FROM apexflow_order WHERE id = ?";
-
-            logger.warn("Deleting review ID: {}", orderId);
+        logger.info("[{}] Purged {} cancelled orders in {} ms",
+                operation, purged, System.currentTimeMillis() - startTime);
+        return purged;
+    }
 
-            boolean result;
+    /**
+     * 恢复订单占用的库存：同一商品的数量合并后一次批量更新，库存日志一次批量写入
+     */
+    private void restoreStock(String orderId) {
+        List<OrderItem> orderItems = orderItemDAO.findByOrderId(orderId);
+        if (orderItems.isEmpty()) {
+            return;
+        }
+        logger.debug("[DELETE_ORDER] Restoring stock for {} order items", orderItems.size());
 
-            try (Connection conn = ConnectionPool.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : orderItems) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
 
-                pstmt.setString(1, orderId);
-                int rowsAffected = pstmt.executeUpdate();
-                logger.warn("Review deleted. Rows affected: {}", rowsAffected);
-                result = true;
+        Map<Integer, Integer> stocks = productDAO.increaseStockBatch(quantities);
+        if (stocks == null) {
+            throw new RuntimeException("Failed to restore product stock for order " + orderId);
+        }
 
-            } catch (SQLException e) {
-                logger.error("Failed to delete review ID: {}", orderId, e);
-                result = false;
-            }
-            if (result) {
-                logger.info("[{}] Order deleted successfully. Order ID: {}", operation, orderId);
-            } else {
-                logger.warn("[{}] Failed to delete order. Order ID: {}", operation, orderId);
+        // 记录库存恢复日志
+        List<InventoryLog> inventoryLogs = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Integer afterStock = stocks.get(entry.getKey());
+            if (afterStock == null) {
+                continue;
             }
+            InventoryLog inventoryLog = new InventoryLog();
+            inventoryLog.setProductId(entry.getKey());
+            inventoryLog.setChangeType("cancel");
+            inventoryLog.setQuantity(entry.getValue());
+            inventoryLog.setBeforeStock(afterStock - entry.getValue());
+            inventoryLog.setAfterStock(afterStock);
+            inventoryLog.setOrderId(orderId);
+            inventoryLogs.add(inventoryLog);
+        }
+        if (!inventoryLogs.isEmpty() && !inventoryLogDAO.createBatch(inventoryLogs)) {
+            throw new RuntimeException("Failed to create inventory logs for order " + orderId);
+        }
+    }
 
-            return result;
-        } catch (Exception e) {
-            logger.error("[{}] Failed to delete order. Order ID: {}, Error: {}",
-                    operation, orderId, e.getMessage(), e);
-            return false;
+    /**
+     * 按订单号集合删除子表记录和订单主记录，每张表一条（或分段的）DELETE语句，需在事务中调用
+     *
+     * @return 删除的订单主记录数
+     */
+    private int deleteOrderRows(List<String> orderIds) {
+        requireDeleted("order items", orderItemDAO.deleteByOrderIds(orderIds));
+        requireDeleted("logistics records", logisticsDAO.deleteByOrderIds(orderIds));
+        requireDeleted("income records", incomeDAO.deleteByOrderIds(orderIds));
+        requireDeleted("after sales records", afterSalesDAO.deleteByOrderIds(orderIds));
+        requireDeleted("reviews", reviewDAO.deleteByOrderIds(orderIds));
+        return requireDeleted("orders", orderInfoDAO.deleteByIds(orderIds));
+    }
+
+    private static int requireDeleted(String what, int rows) {
+        if (rows < 0) {
+            throw new RuntimeException("Failed to delete " + what);
         }
+        return rows;
     }
 
     /**
@@ -366,8 +447,14 @@ public class OrderService {
      * @return 更新成功返回true，失败返回false
      */
     public boolean updateOrderStatus(String orderId, int newStatus) {
+        try (Tracer.Span ignored = Tracer.span("OrderService.updateOrderStatus", orderId)) {
+            return doUpdateOrderStatus(orderId, newStatus);
+        }
+    }
+
+    private boolean doUpdateOrderStatus(String orderId, int newStatus) {
         String operation = "UPDATE_ORDER_STATUS";
-        logger.info("[{}] Updating order status. Order ID: {}, New Status: {}",
+        logger.debug("[{}] Updating order status. Order ID: {}, New Status: {}",
                 operation, orderId, newStatus);
 
         try {
@@ -390,16 +477,19 @@ public class OrderService {
                 throw new RuntimeException("Invalid status transition: " + oldStatus + " -> " + newStatus);
             }
 
-            // 更新订单状态
-            boolean success = orderInfoDAO.updateStatus(orderId, newStatus);
+            // 更新订单状态，与状态时间戳和订单事件在同一事务中提交
+            boolean success = Transactions.execute(() -> {
+                if (!orderInfoDAO.updateStatus(orderId, newStatus)) {
+                    return false;
+                }
+                applyStatusChange(order, oldStatus, newStatus);
+                return true;
+            });
 
             if (success) {
-                logger.info("[{}] Order status updated successfully. Order ID: {}, " +
+                logger.debug("[{}] Order status updated successfully. Order ID: {}, " +
                                 "Old Status: {}, New Status: {}",
                         operation, orderId, oldStatus, newStatus);
-
-                // 根据状态变化执行相应操作
-                handleStatusChangeActions(orderId, oldStatus, newStatus);
             } else {
                 logger.warn("[{}] Failed to update order status. Order ID: {}", operation, orderId);
             }
@@ -437,66 +527,92 @@ public class OrderService {
     }
 
     /**
-     * 处理状态变化相关的操作
+     * 处理状态变化相关的操作（在状态更新事务内执行）
+     * 发货/完成时间属于订单本身，直接写回订单；财务入账和库存恢复通过事件交给处理器异步完成。
+     * 待支付订单支付时把库存预留转为扣减，取消时释放预留。
      */
-    private void handleStatusChangeActions(String orderId, int oldStatus, int newStatus) {
-        OrderInfo order = orderInfoDAO.findById(orderId);
-        if (order == null) return;
-
-        logger.info("[UPDATE_ORDER_STATUS] update from old state:{}", oldStatus);
+    private void applyStatusChange(OrderInfo order, int oldStatus, int newStatus) throws SQLException {
+        String orderId = order.getId();
+        logger.debug("[UPDATE_ORDER_STATUS] update from old state:{}", oldStatus);
 
         switch (newStatus) {
             case 2: // 已支付
-                logger.debug("[UPDATE_ORDER_STATUS] Creating income record for paid order");
-                // 创建财务记录
-                Income income = new Income();
-                income.setOrderId(orderId);
-                income.setType("income");
-                income.setAmount(order.getTotalAmount());
-                income.setPaymentMethod(order.getPaymentMethod());
-                income.setStatus(2); // 已入账
-                income.setTransactionTime(LocalDateTime.now());
-                incomeDAO.create(income);
+                if (oldStatus == 1) {
+                    convertReservation(orderId);
+                }
+                logger.debug("[UPDATE_ORDER_STATUS] Publishing OrderPaid event");
+                eventDispatcher.publish(new OrderPaid(orderId, order.getTotalAmount(),
+                        order.getPaymentMethod(), LocalDateTime.now()));
                 break;
 
             case 3: // 已发货
                 logger.debug("[UPDATE_ORDER_STATUS] Updating shipment time");
-                // 更新发货时间
+                // 更新发货时间；状态已由updateStatus写入，这里只写变化的时间列
                 order.setShippedAt(LocalDateTime.now());
                 orderInfoDAO.update(order);
+                eventDispatcher.publish(new OrderShipped(orderId, order.getShippedAt()));
                 break;
 
             case 4: // 已完成
                 logger.debug("[UPDATE_ORDER_STATUS] Updating completion time");
-                // 更新完成时间
+                // 更新完成时间；状态已由updateStatus写入，这里只写变化的时间列
                 order.setCompletedAt(LocalDateTime.now());
                 orderInfoDAO.update(order);
                 break;
 
             case 5: // 已取消
-                logger.debug("[UPDATE_ORDER_STATUS] Restoring product stock for cancelled order");
-                // 恢复库存
-                List<OrderItem> orderItems = orderItemDAO.findByOrderId(orderId);
-                for (OrderItem item : orderItems) {
-                    productDAO.increaseStock(item.getProductId(), item.getQuantity());
-
-                    // 记录库存恢复日志
-                    Product product = productDAO.findById(item.getProductId());
-                    if (product != null) {
-                        InventoryLog inventoryLog = new InventoryLog();
-                        inventoryLog.setProductId(item.getProductId());
-                        inventoryLog.setChangeType("cancel");
-                        inventoryLog.setQuantity(item.getQuantity());
-                        inventoryLog.setBeforeStock(product.getStock() - item.getQuantity());
-                        inventoryLog.setAfterStock(product.getStock());
-                        inventoryLog.setOrderId(orderId);
-                        inventoryLogDAO.create(inventoryLog);
+                // 只持有预留的待支付订单没有扣减过库存，释放预留即可
+                boolean reserved = oldStatus == 1 && stockReservations.release(orderId);
+                // 需要恢复的数量随事件写入发件箱，不依赖投递时订单项是否还在
+                Map<Integer, Integer> quantities = new LinkedHashMap<>();
+                if (!reserved) {
+                    for (OrderItem item : orderItemDAO.findByOrderId(orderId)) {
+                        quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
                     }
                 }
+                logger.debug("[UPDATE_ORDER_STATUS] Publishing OrderCancelled event");
+                eventDispatcher.publish(new OrderCancelled(orderId, oldStatus, !reserved, quantities));
                 break;
         }
     }
 
+    /**
+     * 待支付订单支付时扣减预留的库存并记录库存日志（在状态更新事务内执行）
+     * 预留已过期时按当前可售数量校验，不足则支付失败；没有预留记录的历史订单下单时已扣减库存，跳过
+     */
+    private void convertReservation(String orderId) throws SQLException {
+        Map<Integer, Integer> quantities = stockReservations.convert(orderId);
+        if (quantities == null) {
+            logger.debug("[UPDATE_ORDER_STATUS] Order {} has no stock reservation, stock was decreased at creation", orderId);
+            return;
+        }
+
+        decreaseStock(orderId, quantities);
+    }
+
+    /**
+     * 订单扣减库存，经库存协调器在当前事务中逐个商品锁行、按可售数量（订单自身的预留计为可售）扣减并写销售日志，
+     * 与库存管理的扣减走同一条路径；任一商品不足时抛出异常，由调用方事务整体回滚
+     *
+     * @param quantities 商品ID -> 扣减数量
+     */
+    private void decreaseStock(String orderId, Map<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            StockCoordinator.Outcome outcome = stockCoordinator.decrease(entry.getKey(), entry.getValue(), orderId);
+            if (outcome == StockCoordinator.Outcome.NOT_FOUND) {
+                throw new RuntimeException("Product ID " + entry.getKey() + " does not exist");
+            }
+            if (outcome != StockCoordinator.Outcome.APPLIED) {
+                throw new RuntimeException("Insufficient available stock. Product ID: " + entry.getKey() +
+                        ", Required: " + entry.getValue());
+            }
+        }
+    }
+
+    private static boolean isPending(OrderInfo order) {
+        return order.getStatus() != null && order.getStatus() == 1;
+    }
+
     /**
      * 计算订单总金额（从订单项汇总）
      *
@@ -514,6 +630,17 @@ public class OrderService {
         return total;
     }
 
+    /**
+     * 获取订单行版本，用于详情接口的条件请求
+     * 已归档订单不在热表中，返回null，调用方按无版本处理
+     *
+     * @param orderId 订单ID
+     * @return 行版本，订单不存在时返回null
+     */
+    public Long getOrderVersion(String orderId) {
+        return orderInfoDAO.findVersion(orderId);
+    }
+
     /**
      * 获取订单详情（包括订单项）
      *
@@ -521,6 +648,12 @@ public class OrderService {
      * @return 包含订单项的订单详情对象
      */
     public OrderDetail getOrderDetail(String orderId) {
+        try (Tracer.Span ignored = Tracer.span("OrderService.getOrderDetail", orderId)) {
+            return doGetOrderDetail(orderId);
+        }
+    }
+
+    private OrderDetail doGetOrderDetail(String orderId) {
         String operation = "GET_ORDER_DETAIL";
         logger.debug("[{}] Retrieving order detail. Order ID: {}", operation, orderId);
 
@@ -529,6 +662,12 @@ public class OrderService {
         // 获取订单主信息
         OrderInfo order = orderInfoDAO.findById(orderId);
         if (order == null) {
+            // 已结束的旧订单可能已搬迁到归档表
+            OrderDetail archived = archiveDAO.findArchivedOrderDetail(orderId);
+            if (archived != null) {
+                logger.debug("[{}] Order detail served from archive. Order ID: {}", operation, orderId);
+                return archived;
+            }
             logger.warn("[{}] Order not found. Order ID: {}", operation, orderId);
             return null;
         }
@@ -558,7 +697,7 @@ public class OrderService {
         Review review = reviewDAO.findByOrderId(orderId);
         detail.setReview(review);
 
-        logger.info("[{}] Order detail retrieved successfully. Order ID: {}, User ID: {}",
+        logger.debug("[{}] Order detail retrieved successfully. Order ID: {}, User ID: {}",
                 operation, orderId, order.getUserId());
 
         return detail;
@@ -573,10 +712,16 @@ public class OrderService {
      * @return 包含订单和订单项信息的列表 / List containing order and order item information
      */
     public List<OrderWithItemsResponse> getAllOrdersWithItems(int page, int pageSize) {
+        try (Tracer.Span ignored = Tracer.span("OrderService.getAllOrdersWithItems")) {
+            return doGetAllOrdersWithItems(page, pageSize);
+        }
+    }
+
+    private List<OrderWithItemsResponse> doGetAllOrdersWithItems(int page, int pageSize) {
         String operation = "GET_ALL_ORDERS_WITH_ITEMS";
         long startTime = System.currentTimeMillis();
 
-        logger.info("[{}] Starting to get all orders with items. Page: {}, PageSize: {}",
+        logger.debug("[{}] Starting to get all orders with items. Page: {}, PageSize: {}",
                 operation, page, pageSize);
 
         List<OrderWithItemsResponse> result = new ArrayList<>();
@@ -588,7 +733,7 @@ public class OrderService {
 
             if (orders == null || orders.isEmpty()) {
                 long duration = System.currentTimeMillis() - startTime;
-                logger.info("[{}] No orders found. Page: {}, Duration: {} ms",
+                logger.debug("[{}] No orders found. Page: {}, Duration: {} ms",
                         operation, page, duration);
                 return result;
             }
@@ -611,7 +756,7 @@ public class OrderService {
             }
 
             long duration = System.currentTimeMillis() - startTime;
-            logger.info("[{}] Successfully retrieved {} orders with items in {} ms. Page: {}",
+            logger.debug("[{}] Successfully retrieved {} orders with items in {} ms. Page: {}",
                     operation, result.size(), duration, page);
 
             return result;
@@ -624,7 +769,45 @@ public class OrderService {
         }
     }
 
+    /**
+     * 获取订单列表项（分页）
+     * Get order list items with pagination
+     *
+     * 只查询列表展示所需的列，不加载订单项，适用于订单列表页
+     * Selects only the displayed columns and skips order items; intended for list pages
+     *
+     * @param page 页码，从1开始 / Page number, starting from 1
+     * @param pageSize 每页记录数 / Number of records per page
+     * @return 订单列表项 / Order list items
+     */
+    public List<OrderListItem> getOrderListItems(int page, int pageSize) {
+        String operation = "GET_ORDER_LIST_ITEMS";
+
+        try {
+            List<OrderListItem> items = orderInfoDAO.findListItems(page, pageSize);
+            return items != null ? items : new ArrayList<>();
+        } catch (Exception e) {
+            logger.error("[{}] Failed to get order list items. Page: {}, Error: {}",
+                    operation, page, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
     public long getCount() {
         return orderInfoDAO.count();
     }
+
+    /**
+     * 获取订单列表的总记录数
+     * 末页直接由本页行数推算，否则读取增量维护的订单计数，不再每次执行COUNT(*)
+     *
+     * @param page 页码，从1开始 / Page number, starting from 1
+     * @param pageSize 每页记录数 / Number of records per page
+     * @param rowsOnPage 本页实际返回的行数 / Rows returned for this page
+     * @return 总记录数及是否精确 / Total and whether it is exact
+     */
+    public TotalCount getOrderTotal(int page, int pageSize, int rowsOnPage) {
+        return rowCountService.countFromPage(page, pageSize, rowsOnPage,
+                () -> rowCountService.countAll(RowMappers.ORDER_INFO.getTableName()));
+    }
 }
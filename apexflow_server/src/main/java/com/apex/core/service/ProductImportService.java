@@ -0,0 +1,327 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.IInventoryLogDAO;
+import com.apex.core.dao.IProductDAO;
+import com.apex.core.dao.InventoryLogDAO;
+import com.apex.core.dao.ProductDAO;
+import com.apex.core.dto.ProductImportResult;
+import com.apex.core.importer.ImportFormat;
+import com.apex.core.importer.ProductImportReader;
+import com.apex.core.importer.ProductImportRow;
+import com.apex.core.model.InventoryLog;
+import com.apex.core.model.Product;
+import com.apex.core.reservation.StockReservations;
+import com.apex.util.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 商品及库存批量导入服务
+ * 文件按批流式读取（-Dapexflow.import.batchSize，默认500行），每批：
+ * 1. 并行校验各行字段（不访问数据库）
+ * 2. 在一个事务中锁定涉及的商品，逐行确定新建/更新及库存变化
+ * 3. 批量INSERT新商品、批量UPDATE商品信息、批量增减库存、批量写库存日志
+ *
+ * 单行错误（商品不存在、库存不足等）只跳过该行；批次写入失败时该批全部回滚并记为失败，
+ * 之后的批次继续导入。
+ */
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int BATCH_SIZE = Integer.getInteger("apexflow.import.batchSize", 500);
+
+    private final IProductDAO productDAO;
+    private final IInventoryLogDAO inventoryLogDAO;
+    private final StockReservations stockReservations;
+
+    /**
+     * 一批行的写入计划及结果
+     */
+    private static final class BatchOutcome {
+        final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        long created;
+        long updated;
+
+        void fail(ProductImportRow row, String message) {
+            errors.add(new ProductImportResult.RowError(row.getRowNumber(), message));
+        }
+    }
+
+    public ProductImportService() {
+        this(new ProductDAO(), new InventoryLogDAO());
+    }
+
+    public ProductImportService(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO) {
+        this(productDAO, inventoryLogDAO, StockReservations.shared());
+    }
+
+    public ProductImportService(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO,
+                                StockReservations stockReservations) {
+        this.productDAO = productDAO;
+        this.inventoryLogDAO = inventoryLogDAO;
+        this.stockReservations = stockReservations;
+    }
+
+    /**
+     * 导入商品文件
+     * @param in 文件内容，导入结束后关闭
+     * @param format 文件格式
+     * @return 导入结果，文件中途无法解析时completed为false
+     */
+    public ProductImportResult importProducts(InputStream in, ImportFormat format) {
+        logger.info("[PRODUCT_IMPORT] Starting import. Format: {}, Batch size: {}", format, BATCH_SIZE);
+        long startTime = System.currentTimeMillis();
+        ProductImportResult result = new ProductImportResult();
+
+        try (ProductImportReader reader = ProductImportReader.open(in, format)) {
+            List<ProductImportRow> rows;
+            while (!(rows = reader.next(BATCH_SIZE)).isEmpty()) {
+                result.addRows(rows.size());
+                List<ProductImportRow> valid = validate(rows, result);
+                if (!valid.isEmpty()) {
+                    applyBatch(valid, result);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("[PRODUCT_IMPORT] Import aborted after {} rows: {}", result.getTotalRows(), e.getMessage());
+            result.abort(e.getMessage());
+        }
+
+        logger.info("[PRODUCT_IMPORT] Import finished. Rows: {}, Created: {}, Updated: {}, Failed: {}, Duration: {}ms",
+                result.getTotalRows(), result.getCreated(), result.getUpdated(), result.getFailed(),
+                System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * 并行校验一批行，返回通过校验的行（保持文件顺序）
+     */
+    private List<ProductImportRow> validate(List<ProductImportRow> rows, ProductImportResult result) {
+        rows.parallelStream().forEach(ProductImportRow::validate);
+
+        List<ProductImportRow> valid = new ArrayList<>(rows.size());
+        for (ProductImportRow row : rows) {
+            if (row.getError() == null) {
+                valid.add(row);
+            } else {
+                result.fail(row.getRowNumber(), row.getError());
+            }
+        }
+        return valid;
+    }
+
+    private void applyBatch(List<ProductImportRow> rows, ProductImportResult result) {
+        BatchOutcome outcome;
+        try {
+            outcome = Transactions.execute(() -> writeBatch(rows));
+        } catch (SQLException | RuntimeException e) {
+            logger.error("[PRODUCT_IMPORT] Batch of {} rows starting at row {} rolled back: {}",
+                    rows.size(), rows.get(0).getRowNumber(), e.getMessage(), e);
+            for (ProductImportRow row : rows) {
+                result.fail(row.getRowNumber(), "批次写入失败，已回滚：" + e.getMessage());
+            }
+            return;
+        }
+
+        for (ProductImportResult.RowError error : outcome.errors) {
+            result.fail(error.getRow(), error.getMessage());
+        }
+        result.addCreated(outcome.created);
+        result.addUpdated(outcome.updated);
+    }
+
+    /**
+     * 在事务中写入一批已校验的行
+     * 已有商品先加行锁再按文件顺序累计库存，日志的变更前后库存与实际写入一致
+     */
+    private BatchOutcome writeBatch(List<ProductImportRow> rows) throws SQLException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (ProductImportRow row : rows) {
+            if (row.getId() != null) {
+                ids.add(row.getId());
+            } else {
+                names.add(row.getName());
+            }
+        }
+
+        List<Product> locked = productDAO.lockByIdsOrNames(ids, names);
+        if (locked == null) {
+            throw new SQLException("锁定商品失败");
+        }
+        Map<Integer, Product> byId = new HashMap<>();
+        Map<String, List<Product>> byName = new HashMap<>();
+        for (Product product : locked) {
+            byId.put(product.getId(), product);
+            byName.computeIfAbsent(product.getName(), key -> new ArrayList<>()).add(product);
+        }
+
+        BatchOutcome outcome = new BatchOutcome();
+        Map<String, Product> creates = new LinkedHashMap<>();
+        Map<Integer, Product> updates = new LinkedHashMap<>();
+        Map<Integer, Integer> stocks = new HashMap<>();
+        Map<Integer, Integer> deltas = new LinkedHashMap<>();
+        List<InventoryLog> logs = new ArrayList<>();
+
+        for (ProductImportRow row : rows) {
+            Product target;
+            if (row.getId() != null) {
+                target = byId.get(row.getId());
+                if (target == null) {
+                    outcome.fail(row, "商品不存在: " + row.getId());
+                    continue;
+                }
+            } else {
+                List<Product> matches = byName.get(row.getName());
+                if (matches != null && matches.size() > 1) {
+                    outcome.fail(row, "名称匹配到" + matches.size() + "个商品，请指定id");
+                    continue;
+                }
+                if (matches == null) {
+                    planCreate(row, creates, outcome);
+                    continue;
+                }
+                target = matches.get(0);
+            }
+
+            int before = stocks.getOrDefault(target.getId(), target.getStock() != null ? target.getStock() : 0);
+            int after = before + row.getQuantity();
+            if (after < 0) {
+                outcome.fail(row, "库存不足：当前" + before + "，变化" + row.getQuantity());
+                continue;
+            }
+            // 扣减不能动用待支付订单预留的库存
+            if (row.getQuantity() < 0 && stockReservations.available(target.getId(), after) < 0) {
+                outcome.fail(row, "可售库存不足：当前" + before + "，已预留"
+                        + stockReservations.reservedQuantity(target.getId()) + "，变化" + row.getQuantity());
+                continue;
+            }
+            if (applyFields(target, row)) {
+                updates.put(target.getId(), target);
+            }
+            if (row.getQuantity() != 0) {
+                stocks.put(target.getId(), after);
+                deltas.merge(target.getId(), row.getQuantity(), Integer::sum);
+                logs.add(stockLog(target.getId(), row.getQuantity(), before, after));
+            }
+            outcome.updated++;
+        }
+
+        List<Product> newProducts = new ArrayList<>(creates.values());
+        if (!productDAO.createBatch(newProducts)) {
+            throw new SQLException("批量创建商品失败");
+        }
+        if (!productDAO.updateBatch(new ArrayList<>(updates.values()))) {
+            throw new SQLException("批量更新商品失败");
+        }
+        if (!deltas.isEmpty()) {
+            // increaseStockBatch执行 stock = stock + ?，负数即扣减
+            Map<Integer, Integer> written = productDAO.increaseStockBatch(deltas);
+            if (written == null) {
+                throw new SQLException("批量更新库存失败");
+            }
+            for (Integer id : deltas.keySet()) {
+                if (!Objects.equals(written.get(id), stocks.get(id))) {
+                    throw new SQLException("商品" + id + "库存校验失败：期望" + stocks.get(id) + "，实际" + written.get(id));
+                }
+            }
+        }
+        for (Product product : newProducts) {
+            logs.add(stockLog(product.getId(), product.getStock(), 0, product.getStock()));
+        }
+        if (!logs.isEmpty() && !inventoryLogDAO.createBatch(logs)) {
+            throw new SQLException("批量写入库存日志失败");
+        }
+        return outcome;
+    }
+
+    /**
+     * 新建商品；同一批中同名的后续行合并到待创建的商品上
+     */
+    private void planCreate(ProductImportRow row, Map<String, Product> creates, BatchOutcome outcome) {
+        Product pending = creates.get(row.getName());
+        if (pending != null) {
+            int stock = pending.getStock() + row.getQuantity();
+            if (stock < 0) {
+                outcome.fail(row, "库存不足：当前" + pending.getStock() + "，变化" + row.getQuantity());
+                return;
+            }
+            applyFields(pending, row);
+            pending.setStock(stock);
+            outcome.updated++;
+            return;
+        }
+
+        if (row.getPrice() == null) {
+            outcome.fail(row, "新商品必须提供price");
+            return;
+        }
+        if (row.getQuantity() < 0) {
+            outcome.fail(row, "新商品的quantity不能为负数");
+            return;
+        }
+        Product product = new Product();
+        product.setName(row.getName());
+        product.setCategory(row.getCategory());
+        product.setPrice(row.getPrice());
+        product.setStock(row.getQuantity());
+        product.setStatus(row.getStatus() != null ? row.getStatus() : 1);
+        product.setImage(row.getImage());
+        product.setCreatedAt(LocalDateTime.now());
+        creates.put(row.getName(), product);
+        outcome.created++;
+    }
+
+    /**
+     * 把行中提供的字段写到商品上
+     * @return 有字段发生变化返回true
+     */
+    private boolean applyFields(Product product, ProductImportRow row) {
+        boolean changed = false;
+        if (row.getName() != null && !row.getName().equals(product.getName())) {
+            product.setName(row.getName());
+            changed = true;
+        }
+        if (row.getCategory() != null && !row.getCategory().equals(product.getCategory())) {
+            product.setCategory(row.getCategory());
+            changed = true;
+        }
+        if (row.getPrice() != null && (product.getPrice() == null || row.getPrice().compareTo(product.getPrice()) != 0)) {
+            product.setPrice(row.getPrice());
+            changed = true;
+        }
+        if (row.getStatus() != null && !row.getStatus().equals(product.getStatus())) {
+            product.setStatus(row.getStatus());
+            changed = true;
+        }
+        if (row.getImage() != null && !row.getImage().equals(product.getImage())) {
+            product.setImage(row.getImage());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private InventoryLog stockLog(Integer productId, int quantity, int before, int after) {
+        InventoryLog log = new InventoryLog();
+        log.setProductId(productId);
+        log.setChangeType(quantity >= 0 ? "purchase" : "adjust");
+        log.setQuantity(quantity);
+        log.setBeforeStock(before);
+        log.setAfterStock(after);
+        log.setCreatedAt(LocalDateTime.now());
+        return log;
+    }
+}
@@ -3,6 +3,7 @@ package com.apex.core.service;
 
 import com.apex.core.dao.IReviewDAO;
 import com.apex.core.dao.ReviewDAO;
+import com.apex.core.dao.RowMappers;
 import com.apex.core.dto.*;
 import com.apex.core.model.Review;
 import org.slf4j.Logger;
@@ -19,6 +20,8 @@ public class ReviewService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
     private final IReviewDAO reviewDAO = new ReviewDAO();
+    private final RowCountService rowCountService = new RowCountService();
+    private static final String TABLE = RowMappers.REVIEW.getTableName();
 
     /**
      * 创建评价（简洁版）
@@ -63,7 +66,6 @@ public class ReviewService {
 
         try {
             List<Review> reviews;
-            int total;
 
             // 根据查询类型获取数据
             if (query.getProductId() != null) {
@@ -72,23 +74,22 @@ public class ReviewService {
                         query.getPage(),
                         query.getPageSize()
                 );
-                total = reviewDAO.countByProductId(query.getProductId());
             } else if (query.getUserId() != null) {
                 reviews = reviewDAO.findByUserId(
                         query.getUserId(),
                         query.getPage(),
                         query.getPageSize()
                 );
-                total = reviews.size(); // 简化处理
             } else {
                 reviews = reviewDAO.findLatestReviews(query.getPageSize());
-                total = Math.toIntExact(reviewDAO.count());
             }
+            TotalCount total = countTotal(query);
 
             // 构建响应
             ReviewListResponse response = new ReviewListResponse();
             response.setReviews(reviews);
-            response.setTotal(total);
+            response.setTotal(Math.toIntExact(total.getCount()));
+            response.setTotalExact(total.isExact());
             response.setPage(query.getPage());
             response.setPageSize(query.getPageSize());
 
@@ -100,6 +101,38 @@ public class ReviewService {
         }
     }
 
+    /**
+     * 获取评价摘要列表
+     * 只查询列表展示列，content截取摘要，images只返回是否存在
+     */
+    public ApiResponse<PagedResult<ReviewSummary>> listSummaries(ReviewQueryRequest query) {
+        logger.debug("Querying review summaries with params: {}", query);
+
+        try {
+            List<ReviewSummary> summaries = reviewDAO.findSummaries(
+                    query.getProductId(),
+                    query.getUserId(),
+                    query.getPage(),
+                    query.getPageSize()
+            );
+
+            TotalCount total = rowCountService.countFromPage(query.getPage(), query.getPageSize(),
+                    summaries.size(), () -> countTotal(query));
+
+            PagedResult<ReviewSummary> result = new PagedResult<>();
+            result.setData(summaries);
+            result.setCurrentPage(query.getPage());
+            result.setPageSize(query.getPageSize());
+            result.applyTotal(total);
+
+            return ApiResponse.success(result, "获取成功");
+
+        } catch (Exception e) {
+            logger.error("Failed to query review summaries: {}", e.getMessage());
+            return ApiResponse.error("查询失败", "QUERY_FAILED");
+        }
+    }
+
     /**
      * 获取评价详情（简洁版）
      */
@@ -155,4 +188,16 @@ public class ReviewService {
             return ApiResponse.error("获取失败", "QUERY_FAILED");
         }
     }
+
+    /**
+     * 按查询条件统计评价总数（商品、用户维度均由增量维护的计数提供）
+     */
+    private TotalCount countTotal(ReviewQueryRequest query) {
+        if (query.getProductId() != null) {
+            return rowCountService.countWhere(TABLE, "product_id", query.getProductId());
+        } else if (query.getUserId() != null) {
+            return rowCountService.countWhere(TABLE, "user_id", query.getUserId());
+        }
+        return rowCountService.countAll(TABLE);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.RowCounts;
+import com.apex.core.dto.TotalCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数服务
+ * 列表接口的总记录数按以下顺序获取，并标明结果是否精确：
+ * 1. 当前页未取满时，由页码和本页行数直接算出（精确，无需计数查询）
+ * 2. 整表或单列等值过滤：读取RowCounts中由DAO写入增量维护的计数（精确）
+ * 3. 关键字搜索等临时过滤：短时缓存的计数结果，命中缓存时标记为估算值
+ *
+ * 缓存时长可通过 -Dapexflow.count.cacheTtlMs 调整（默认5秒）。
+ */
+public class RowCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RowCountService.class);
+
+    private static final long CACHE_TTL_MS = Long.getLong("apexflow.count.cacheTtlMs", 5_000L);
+
+    private static final Map<String, CachedCount> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 整表精确行数
+     */
+    public TotalCount countAll(String table) {
+        return countWhere(table, null, null);
+    }
+
+    /**
+     * 单列等值过滤的精确行数
+     */
+    public TotalCount countWhere(String table, String column, Object value) {
+        try {
+            return TotalCount.exact(RowCounts.count(table, column, value));
+        } catch (SQLException e) {
+            logger.error("[ROW_COUNT] Failed to count {} where {} = {}: {}", table, column, value, e.getMessage(), e);
+            return TotalCount.estimated(0);
+        }
+    }
+
+    /**
+     * 临时过滤条件的计数，结果缓存CACHE_TTL_MS毫秒
+     * @param cacheKey 过滤条件的唯一标识，如 "users:search:张"
+     * @param counter 实际执行计数查询
+     */
+    public TotalCount countCached(String cacheKey, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = CACHE.get(cacheKey);
+        if (cached != null && now - cached.cachedAt <= CACHE_TTL_MS) {
+            return TotalCount.estimated(cached.count);
+        }
+
+        long count = counter.getAsLong();
+        CACHE.put(cacheKey, new CachedCount(count, now));
+        if (CACHE.size() > 1024) {
+            CACHE.entrySet().removeIf(entry -> now - entry.getValue().cachedAt > CACHE_TTL_MS);
+        }
+        return TotalCount.exact(count);
+    }
+
+    /**
+     * 根据当前页结果推算总数：本页未取满说明已到末页，总数可直接算出；否则使用fallback
+     * @param page 页码（从1开始）
+     * @param rowsOnPage 本页实际返回的行数
+     */
+    public TotalCount countFromPage(int page, int pageSize, int rowsOnPage, Supplier<TotalCount> fallback) {
+        if (rowsOnPage < pageSize && (rowsOnPage > 0 || page <= 1)) {
+            return TotalCount.exact((long) (Math.max(page, 1) - 1) * pageSize + rowsOnPage);
+        }
+        return fallback.get();
+    }
+
+    private static final class CachedCount {
+        final long count;
+        final long cachedAt;
+
+        CachedCount(long count, long cachedAt) {
+            this.count = count;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
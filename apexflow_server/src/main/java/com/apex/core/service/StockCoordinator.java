@@ -0,0 +1,291 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.IInventoryLogDAO;
+import com.apex.core.dao.IProductDAO;
+import com.apex.core.model.InventoryLog;
+import com.apex.core.model.Product;
+import com.apex.core.reservation.StockReservations;
+import com.apex.util.Transactions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 热点商品库存扣减协调器
+ *
+ * 秒杀等场景下大量请求同时扣减同一商品，逐个执行时都在同一行锁上排队，
+ * 每个等待者各占一个连接池连接，很快耗尽连接池。协调器在进程内按商品合并这些请求：
+ * 1. 商品ID按哈希分到固定数量的锁分段，每个分段维护各商品的待扣减队列
+ * 2. 商品没有正在执行的批次时，提交者成为执行者；否则排队等待，不占用连接
+ * 3. 执行者取出队列中的请求，在一个事务中锁行、按到达顺序分配可售库存（扣除待支付订单的预留）、
+ *    一次扣减、批量写日志，
+ *    再把结果分别交给各个等待者；执行期间到达的请求组成下一批，由队首的请求接手执行
+ * 同一商品同一时刻最多一个连接在扣减，不同商品互不影响。
+ *
+ * 配置（系统属性）：
+ * apexflow.stock.coalesceMicros - 执行者取批前额外等待的时间（微秒），默认0，即只合并执行期间到达的请求
+ * apexflow.stock.maxBatch       - 单批最多合并的请求数，默认500
+ */
+public class StockCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(StockCoordinator.class);
+
+    private static final int STRIPES = 64;
+    private static final long LINGER_NANOS = Long.getLong("apexflow.stock.coalesceMicros", 0L) * 1000L;
+    private static final int MAX_BATCH = Math.max(1, Integer.getInteger("apexflow.stock.maxBatch", 500));
+
+    /**
+     * 扣减结果
+     */
+    public enum Outcome {
+        /** 已扣减 */
+        APPLIED,
+        /** 库存不足 */
+        INSUFFICIENT,
+        /** 商品不存在 */
+        NOT_FOUND,
+        /** 数据库写入失败，本批全部回滚 */
+        FAILED
+    }
+
+    private static final class Request {
+        final int quantity;
+        final String orderId;
+        final CompletableFuture<Outcome> result = new CompletableFuture<>();
+        /**
+         * 前一批执行完后由其执行者完成，表示轮到本请求执行下一批
+         */
+        final CompletableFuture<Void> turn = new CompletableFuture<>();
+
+        Request(int quantity, String orderId) {
+            this.quantity = quantity;
+            this.orderId = orderId;
+        }
+    }
+
+    /**
+     * 单个商品的待扣减队列，由所属分段的锁保护
+     */
+    private static final class ProductQueue {
+        final ArrayDeque<Request> pending = new ArrayDeque<>();
+        boolean flushing;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Integer, ProductQueue> queues = new HashMap<>();
+    }
+
+    private final IProductDAO productDAO;
+    private final IInventoryLogDAO inventoryLogDAO;
+    private final StockReservations stockReservations;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public StockCoordinator(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO) {
+        this(productDAO, inventoryLogDAO, StockReservations.shared());
+    }
+
+    public StockCoordinator(IProductDAO productDAO, IInventoryLogDAO inventoryLogDAO,
+                            StockReservations stockReservations) {
+        this.productDAO = productDAO;
+        this.inventoryLogDAO = inventoryLogDAO;
+        this.stockReservations = stockReservations;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 扣减库存并记录销售出库日志，与同一商品的并发请求合并执行；阻塞到本请求所在批次提交或回滚。
+     * 调用方已在事务中时不合并，直接在调用方事务中扣减，避免把其他请求卷入调用方的事务；
+     * 此时写入失败会抛出异常，由调用方事务回滚，不会只扣减库存而缺少日志
+     *
+     * @param productId 商品ID
+     * @param quantity 扣减数量（正数）
+     * @param orderId 订单ID（可为空）
+     * @return 扣减结果
+     * @throws IllegalStateException 在调用方事务中写入失败
+     */
+    public Outcome decrease(Integer productId, int quantity, String orderId) {
+        requestCount.incrementAndGet();
+        Request request = new Request(quantity, orderId);
+        if (Transactions.isActive()) {
+            batchCount.incrementAndGet();
+            try {
+                return allocate(productId, List.of(request))[0];
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        Stripe stripe = stripes[Math.floorMod(productId.hashCode(), STRIPES)];
+
+        boolean leader;
+        stripe.lock.lock();
+        try {
+            ProductQueue queue = stripe.queues.computeIfAbsent(productId, key -> new ProductQueue());
+            queue.pending.add(request);
+            leader = !queue.flushing;
+            queue.flushing = true;
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (!leader) {
+            CompletableFuture.anyOf(request.result, request.turn).join();
+        }
+        if (!request.result.isDone()) {
+            flush(productId, stripe);
+        }
+        return request.result.join();
+    }
+
+    /**
+     * @return 累计扣减请求数
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return 累计执行的批次数（数据库事务数）
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * 取出队首的一批请求执行，完成后把执行权交给下一批的队首请求
+     */
+    private void flush(Integer productId, Stripe stripe) {
+        if (LINGER_NANOS > 0) {
+            LockSupport.parkNanos(LINGER_NANOS);
+        }
+
+        List<Request> batch = new ArrayList<>();
+        stripe.lock.lock();
+        try {
+            ArrayDeque<Request> pending = stripe.queues.get(productId).pending;
+            while (batch.size() < MAX_BATCH && !pending.isEmpty()) {
+                batch.add(pending.poll());
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        try {
+            apply(productId, batch);
+        } finally {
+            for (Request request : batch) {
+                request.result.complete(Outcome.FAILED);
+            }
+
+            Request next = null;
+            stripe.lock.lock();
+            try {
+                ProductQueue queue = stripe.queues.get(productId);
+                if (queue.pending.isEmpty()) {
+                    stripe.queues.remove(productId);
+                } else {
+                    next = queue.pending.peek();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            if (next != null) {
+                next.turn.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 在一个独立事务中执行一批扣减，失败时整批回滚，结果由flush()统一置为FAILED
+     */
+    private void apply(Integer productId, List<Request> batch) {
+        batchCount.incrementAndGet();
+        Outcome[] outcomes;
+        try {
+            outcomes = Transactions.execute(() -> allocate(productId, batch));
+        } catch (SQLException | RuntimeException e) {
+            logger.error("[STOCK_COORDINATOR] Batch of {} requests for product {} rolled back: {}",
+                    batch.size(), productId, e.getMessage(), e);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(outcomes[i]);
+        }
+    }
+
+    /**
+     * 在当前事务中锁定商品行，按到达顺序分配可售库存，库存不足的请求跳过；
+     * 待支付订单预留的数量不可售，避免合并扣减卖掉已预留的库存、导致订单支付时转换失败。
+     * 订单自身的预留计为该订单可售（支付时把预留转为扣减）
+     */
+    private Outcome[] allocate(Integer productId, List<Request> batch) throws SQLException {
+        Outcome[] planned = new Outcome[batch.size()];
+        List<Product> locked = productDAO.lockByIdsOrNames(List.of(productId), List.of());
+        if (locked == null) {
+            throw new SQLException("Failed to lock product " + productId);
+        }
+        if (locked.isEmpty()) {
+            Arrays.fill(planned, Outcome.NOT_FOUND);
+            return planned;
+        }
+
+        int stock = locked.get(0).getStock() != null ? locked.get(0).getStock() : 0;
+        int available = stockReservations.available(productId, stock);
+        int sold = 0;
+        List<InventoryLog> logs = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Request request = batch.get(i);
+            int availableForRequest = request.orderId != null
+                    ? stockReservations.availableFor(request.orderId, productId, stock) : available;
+            if (request.quantity > availableForRequest - sold) {
+                planned[i] = Outcome.INSUFFICIENT;
+                continue;
+            }
+            logs.add(saleLog(productId, request, stock - sold));
+            sold += request.quantity;
+            planned[i] = Outcome.APPLIED;
+        }
+
+        if (!logs.isEmpty()) {
+            if (!productDAO.decreaseStock(productId, sold)) {
+                throw new SQLException("Failed to decrease stock of product " + productId);
+            }
+            if (!inventoryLogDAO.createBatch(logs)) {
+                throw new SQLException("Failed to create inventory logs for product " + productId);
+            }
+        }
+        logger.debug("[STOCK_COORDINATOR] Product {} batch of {} requests applied. Before: {}, After: {}, Available: {}",
+                productId, batch.size(), stock, stock - sold, available - sold);
+        return planned;
+    }
+
+    private static InventoryLog saleLog(Integer productId, Request request, int beforeStock) {
+        InventoryLog log = new InventoryLog();
+        log.setProductId(productId);
+        log.setChangeType("sale"); // 销售出库
+        log.setQuantity(-request.quantity); // 负数表示减少
+        log.setBeforeStock(beforeStock);
+        log.setAfterStock(beforeStock - request.quantity);
+        log.setOrderId(request.orderId);
+        log.setCreatedAt(LocalDateTime.now());
+        return log;
+    }
+}
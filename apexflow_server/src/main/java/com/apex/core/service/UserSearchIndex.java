@@ -0,0 +1,296 @@
+package com.apex.core.service;
+
+import com.apex.core.dao.IUserDAO;
+import com.apex.core.dto.AdminUserDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户搜索内存倒排索引
+ * 对用户名、姓名、邮箱、电话建立1~3字符的n-gram倒排表（按用户ID存为BitSet），
+ * 关键词的所有n-gram取交集得到候选，再逐个校验子串以保证结果与 LIKE '%keyword%' 一致，
+ * 最后按匹配程度排序分页，数据库只按ID读取当前页的用户。
+ *
+ * 索引在进程内共享，由AdminServlet启动时后台构建（按ID分批顺序读取用户表），
+ * 之后由AdminService/UserService在创建、修改、删除用户成功后同步更新。
+ * 构建完成前isReady()为false，调用方应回退到数据库LIKE查询。
+ */
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int MAX_GRAM = 3;
+    private static final int BUILD_BATCH_SIZE = 500;
+
+    private static final UserSearchIndex SHARED = new UserSearchIndex();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+    /**
+     * 构建期间被增量更新过的用户ID，构建时读到的旧数据不得覆盖这些用户
+     */
+    private final Set<Integer> touchedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    /**
+     * 一次搜索的结果：当前页的用户ID（已排序）与命中总数
+     */
+    public static final class SearchResult {
+        private final List<Integer> ids;
+        private final int total;
+
+        SearchResult(List<Integer> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Integer> getIds() { return ids; }
+
+        public int getTotal() { return total; }
+    }
+
+    /**
+     * @return 进程内共享的索引实例
+     */
+    public static UserSearchIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return 索引是否已构建完成，可以提供搜索
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 从用户表构建索引，已构建时直接返回
+     * 按ID升序分批读取，每批读取后立即写入索引，不在内存中保留整表数据
+     */
+    public synchronized void build(IUserDAO userDAO) {
+        if (ready) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        building = true;
+        touchedDuringBuild.clear();
+
+        int indexed = 0;
+        try {
+            int lastId = 0;
+            while (true) {
+                List<AdminUserDTO> batch = userDAO.findAdminUsersAfter(lastId, BUILD_BATCH_SIZE);
+                for (AdminUserDTO user : batch) {
+                    if (!touchedDuringBuild.contains(user.getId())) {
+                        put(user.getId(), user.getUsername(), user.getRealName(), user.getEmail(), user.getPhone());
+                    }
+                    lastId = user.getId();
+                    indexed++;
+                }
+                if (batch.size() < BUILD_BATCH_SIZE) {
+                    break;
+                }
+            }
+            ready = true;
+        } finally {
+            building = false;
+            touchedDuringBuild.clear();
+        }
+
+        logger.info("[USER_SEARCH_INDEX] Index built. Users: {}, Grams: {}, Took: {} ms",
+                indexed, postings.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 新增或更新一个用户的索引
+     */
+    public void index(Integer id, String username, String realName, String email, String phone) {
+        if (id == null) {
+            return;
+        }
+        if (building) {
+            touchedDuringBuild.add(id);
+        }
+        put(id, username, realName, email, phone);
+    }
+
+    /**
+     * 从索引中移除用户
+     */
+    public void remove(Integer id) {
+        if (id == null) {
+            return;
+        }
+        if (building) {
+            touchedDuringBuild.add(id);
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索包含关键词的用户（不区分大小写的子串匹配）
+     * 排序：用户名完全匹配 > 用户名前缀 > 其他字段完全匹配 > 其他字段前缀 > 子串匹配，同分按ID倒序
+     *
+     * @param page 页码（从1开始）
+     * @return 当前页用户ID与命中总数
+     */
+    public SearchResult search(String keyword, int page, int pageSize) {
+        String needle = normalize(keyword);
+        if (needle.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        List<long[]> scored = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(needle);
+            if (candidates == null) {
+                return new SearchResult(Collections.emptyList(), 0);
+            }
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                int score = score(documents.get(id), needle);
+                if (score > 0) {
+                    scored.add(new long[]{score, id});
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        scored.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+
+        int from = Math.min((Math.max(page, 1) - 1) * pageSize, scored.size());
+        int to = Math.min(from + pageSize, scored.size());
+        List<Integer> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add((int) scored.get(i)[1]);
+        }
+        return new SearchResult(ids, scored.size());
+    }
+
+    /**
+     * 清空索引并标记为未构建
+     */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(int id, String username, String realName, String email, String phone) {
+        String[] fields = {normalize(username), normalize(realName), normalize(email), normalize(phone)};
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            documents.put(id, fields);
+            for (String gram : grams(fields)) {
+                postings.computeIfAbsent(gram, g -> new BitSet()).set(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(int id) {
+        String[] previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            BitSet ids = postings.get(gram);
+            if (ids != null) {
+                ids.clear(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关键词所有长度为min(3, len)的gram对应ID集合的交集；某个gram不存在时返回null
+     */
+    private BitSet candidates(String needle) {
+        int n = Math.min(MAX_GRAM, needle.length());
+        BitSet result = null;
+        for (int i = 0; i + n <= needle.length(); i++) {
+            BitSet ids = postings.get(needle.substring(i, i + n));
+            if (ids == null) {
+                return null;
+            }
+            if (result == null) {
+                result = (BitSet) ids.clone();
+            } else {
+                result.and(ids);
+            }
+            if (result.isEmpty()) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String[] fields) {
+        Set<String> grams = new HashSet<>();
+        for (String field : fields) {
+            for (int n = 1; n <= MAX_GRAM; n++) {
+                for (int i = 0; i + n <= field.length(); i++) {
+                    grams.add(field.substring(i, i + n));
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static int score(String[] fields, String needle) {
+        if (fields == null) {
+            return 0;
+        }
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int score;
+            if (field.equals(needle)) {
+                score = i == 0 ? 5 : 3;
+            } else if (field.startsWith(needle)) {
+                score = i == 0 ? 4 : 2;
+            } else if (field.contains(needle)) {
+                score = 1;
+            } else {
+                score = 0;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -133,6 +133,7 @@ public class UserService {
             logger.error("Update profile failed: database update failed for user: {}", userId);
             return result;
         }
+        UserSearchIndex.shared().index(user.getId(), user.getUsername(), user.getRealName(), user.getEmail(), user.getPhone());
 
         // 构建响应数据
         Map<String, Object> profileData = new HashMap<>();
@@ -217,6 +218,8 @@ public class UserService {
             logger.error("Create user failed: database creation failed for user: {}", request.getUsername());
             return result;
         }
+        UserSearchIndex.shared().index(newUser.getId(), newUser.getUsername(), newUser.getRealName(),
+                newUser.getEmail(), newUser.getPhone());
 
         // 构建响应数据
         Map<String, Object> userData = new HashMap<>();
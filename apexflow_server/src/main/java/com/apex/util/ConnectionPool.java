@@ -7,9 +7,11 @@ import com.zaxxer.hikari.pool.HikariPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * HikariCP Database Connection Pool Manager with comprehensive logging
@@ -20,10 +22,36 @@ public class ConnectionPool {
     private static volatile HikariDataSource dataSource;
     private static volatile boolean initialized = false;
 
+    private static final int MAXIMUM_POOL_SIZE = 20;
+    private static final int MINIMUM_IDLE = 5;
+    private static final long CONNECTION_TIMEOUT_MS = 30000;
+
+    /**
+     * Optional admission permits sized to the pool, enabled for virtual-thread execution
+     * so that thousands of cheap threads queue here instead of stampeding HikariCP
+     */
+    private static volatile Semaphore connectionPermits;
+
     /**
-     * Get or initialize the data source with lazy initialization
+     * Connection of the transaction bound to the current thread (see Transactions);
+     * getConnection() hands out non-closing views of it so existing DAOs join the transaction
      */
-    private static synchronized DataSource getDataSource() {
+    private static final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
+    /**
+     * Get the data source, creating it on first use.
+     * Once the pool exists this is a single volatile read, so concurrent checkouts never
+     * contend on the ConnectionPool class monitor; only the first callers enter initDataSource().
+     */
+    private static HikariDataSource getDataSource() {
+        HikariDataSource current = dataSource;
+        return current != null ? current : initDataSource();
+    }
+
+    /**
+     * Create the data source exactly once; the volatile write publishes the fully built pool
+     */
+    private static synchronized HikariDataSource initDataSource() {
         if (dataSource == null) {
             try {
                 logger.info("Initializing HikariCP connection pool...");
@@ -91,9 +119,9 @@ public class ConnectionPool {
 
         // Connection pool tuning
         config.setPoolName("ApexFlow-HikariPool");
-        config.setMaximumPoolSize(20);
-        config.setMinimumIdle(5);
-        config.setConnectionTimeout(30000);
+        config.setMaximumPoolSize(MAXIMUM_POOL_SIZE);
+        config.setMinimumIdle(MINIMUM_IDLE);
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
         config.setIdleTimeout(600000);
         config.setMaxLifetime(1800000);
         config.setConnectionTestQuery("SELECT 1");
@@ -104,27 +132,147 @@ public class ConnectionPool {
      * Get a database connection from the pool
      */
     public static Connection getConnection() throws SQLException {
-        long startTime = System.currentTimeMillis();
+        Connection bound = boundConnection.get();
+        if (bound != null) {
+            // Already a non-closing view over a LoggingConnection; wrapping again would log every statement twice
+            return bound;
+        }
+
+        long startNanos = System.nanoTime();
+
+        Semaphore permits = connectionPermits;
+        if (permits != null) {
+            acquirePermit(permits);
+        }
 
         try {
             Connection connection = getDataSource().getConnection();
-            long duration = System.currentTimeMillis() - startTime;
+            long endNanos = System.nanoTime();
+            RequestSummary.recordConnectionWait(endNanos - startNanos);
+            Tracer.record("pool.wait", null, startNanos, endNanos);
 
-            sqlLogger.debug("Acquired database connection in {} ms [Active: {}, Idle: {}, Total: {}]",
-                    duration,
-                    getActiveConnections(),
-                    getIdleConnections(),
-                    getTotalConnections());
+            // The pool counters walk HikariCP's connection bag; only read them when the line is logged
+            if (sqlLogger.isDebugEnabled()) {
+                sqlLogger.debug("Acquired database connection in {} ms [Active: {}, Idle: {}, Total: {}]",
+                        (endNanos - startNanos) / 1_000_000,
+                        getActiveConnections(),
+                        getIdleConnections(),
+                        getTotalConnections());
+            }
 
-            return new LoggingConnection(connection, sqlLogger);
+            if (permits == null) {
+                return new LoggingConnection(connection, sqlLogger);
+            }
+            AtomicBoolean released = new AtomicBoolean(false);
+            return new LoggingConnection(connection, sqlLogger, () -> {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            });
 
-        } catch (SQLException e) {
-            long duration = System.currentTimeMillis() - startTime;
-            logger.error("Failed to acquire database connection after {} ms: {}", duration, e.getMessage());
+        } catch (SQLException | RuntimeException e) {
+            if (permits != null) {
+                permits.release();
+            }
+            long endNanos = System.nanoTime();
+            Tracer.record("pool.wait", "failed", startNanos, endNanos);
+            logger.error("Failed to acquire database connection after {} ms: {}",
+                    (endNanos - startNanos) / 1_000_000, e.getMessage());
             throw e;
         }
     }
 
+    private static void acquirePermit(Semaphore permits) throws SQLException {
+        try {
+            if (!permits.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + CONNECTION_TIMEOUT_MS
+                        + " ms waiting for a connection permit [Waiting: " + permits.getQueueLength() + "]");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection permit", e);
+        }
+    }
+
+    /**
+     * Eagerly create the pool and wait until HikariCP has opened minimumIdle connections,
+     * so the first requests after startup do not pay for connection setup.
+     * HikariCP fills the pool in the background; this only polls its counters.
+     *
+     * @param timeoutMillis maximum time to wait for the pool to fill
+     * @return number of open connections when the wait ended
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public static int warmUp(long timeoutMillis) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        getDataSource();
+        long deadline = startTime + timeoutMillis;
+        while (getTotalConnections() < MINIMUM_IDLE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        int total = getTotalConnections();
+        if (total < MINIMUM_IDLE) {
+            logger.warn("Connection pool not filled after {} ms [Total: {}, Minimum idle: {}]",
+                    timeoutMillis, total, MINIMUM_IDLE);
+        } else {
+            logger.info("Connection pool warmed up in {} ms [Idle: {}, Total: {}]",
+                    System.currentTimeMillis() - startTime, getIdleConnections(), total);
+        }
+        return total;
+    }
+
+    /**
+     * Bind a transaction connection to the current thread; pass null to unbind.
+     * The bound connection must ignore close() — it is closed by its owner.
+     */
+    static void bindConnection(Connection connection) {
+        if (connection == null) {
+            boundConnection.remove();
+        } else {
+            boundConnection.set(connection);
+        }
+    }
+
+    /**
+     * Whether the current thread has a bound transaction connection
+     */
+    static boolean hasBoundConnection() {
+        return boundConnection.get() != null;
+    }
+
+    /**
+     * Gate getConnection() with a fair semaphore sized to the pool.
+     * Used when request handlers run on virtual threads; idempotent.
+     */
+    public static synchronized void enableConnectionPermits() {
+        if (connectionPermits == null) {
+            connectionPermits = new Semaphore(MAXIMUM_POOL_SIZE, true);
+            logger.info("Connection permits enabled. Permits: {}", MAXIMUM_POOL_SIZE);
+        }
+    }
+
+    /**
+     * Number of callers currently waiting for a connection permit (0 when permits are disabled)
+     */
+    public static int getPermitWaiters() {
+        Semaphore permits = connectionPermits;
+        return permits != null ? permits.getQueueLength() : 0;
+    }
+
+    /**
+     * Configured minimum number of idle connections
+     */
+    public static int getMinimumIdle() {
+        return MINIMUM_IDLE;
+    }
+
+    /**
+     * Configured maximum number of pooled connections
+     */
+    public static int getMaximumPoolSize() {
+        return MAXIMUM_POOL_SIZE;
+    }
+
     /**
      * Close the connection pool (call on application shutdown)
      */
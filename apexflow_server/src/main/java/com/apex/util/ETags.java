@@ -0,0 +1,36 @@
+package com.apex.util;
+
+/**
+ * ETag工具类
+ * 供静态资源（StaticAssetServlet）和API条件GET（BaseServlet）共用
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * 判断If-None-Match是否与ETag匹配
+     * If-None-Match使用弱比较（RFC 7232 3.2），任一侧带W/前缀仍视为匹配
+     *
+     * @param ifNoneMatch 请求头If-None-Match的值，可为null
+     * @param etag 当前版本的ETag
+     * @return 匹配（客户端缓存仍有效）返回true
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || opaque.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
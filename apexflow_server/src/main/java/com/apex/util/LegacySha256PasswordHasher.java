@@ -0,0 +1,58 @@
+package com.apex.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * 旧版密码哈希：Base64(SHA-256(盐 + 密码))，没有格式前缀
+ * 只用于校验升级前保存的哈希，校验通过后总是需要重新计算。
+ * 旧代码按平台默认字符集编码，默认字符集不是UTF-8时两种编码都尝试。
+ */
+public class LegacySha256PasswordHasher implements PasswordHasher {
+
+    public static final String ID = "sha256";
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && !storedHash.startsWith("$");
+    }
+
+    @Override
+    public String hash(String password, String salt) {
+        return digest(salt + password, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean verify(String password, String salt, String storedHash) {
+        byte[] expected = storedHash.getBytes(StandardCharsets.US_ASCII);
+        String combined = salt + password;
+        if (MessageDigest.isEqual(expected, digest(combined, StandardCharsets.UTF_8).getBytes(StandardCharsets.US_ASCII))) {
+            return true;
+        }
+        Charset platform = Charset.defaultCharset();
+        return !StandardCharsets.UTF_8.equals(platform)
+                && MessageDigest.isEqual(expected, digest(combined, platform).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return true;
+    }
+
+    private static String digest(String combined, Charset charset) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(combined.getBytes(charset)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
@@ -8,8 +8,14 @@ import java.util.concurrent.Executor;
 
 /**
  * Connection wrapper that logs all SQL operations with timing
+ *
+ * @param onClose optional callback run after the delegate is closed (may be null)
  */
-public record LoggingConnection(Connection delegate, Logger logger) implements Connection {
+public record LoggingConnection(Connection delegate, Logger logger, Runnable onClose) implements Connection {
+
+    public LoggingConnection(Connection delegate, Logger logger) {
+        this(delegate, logger, null);
+    }
 
     @Override
     public Statement createStatement() throws SQLException {
@@ -35,7 +41,13 @@ public record LoggingConnection(Connection delegate, Logger logger) implements C
     @Override
     public void close() throws SQLException {
         logger.debug("Closing database connection");
-        delegate.close();
+        try {
+            delegate.close();
+        } finally {
+            if (onClose != null) {
+                onClose.run();
+            }
+        }
     }
 
     // Delegate all other methods
@@ -26,12 +26,24 @@ public class LoggingPreparedStatement implements PreparedStatement {
         this.logger = logger;
     }
 
+    private void recordTiming(long startNanos) {
+        long endNanos = System.nanoTime();
+        RequestSummary.recordSql(endNanos - startNanos);
+        Tracer.record("jdbc", originalSql, startNanos, endNanos);
+    }
+
+    private void recordWrite() {
+        TableVersions.recordWrite(originalSql);
+    }
+
     @Override
     public ResultSet executeQuery() throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         try {
             ResultSet result = delegate.executeQuery();
+            recordTiming(startNanos);
             long duration = System.currentTimeMillis() - startTime;
 
             logger.debug("PreparedQuery executed in {} ms: {} with params: {}",
@@ -48,9 +60,12 @@ public class LoggingPreparedStatement implements PreparedStatement {
     @Override
     public int executeUpdate() throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         try {
             int rows = delegate.executeUpdate();
+            recordTiming(startNanos);
+            recordWrite();
             long duration = System.currentTimeMillis() - startTime;
 
             logger.debug("PreparedUpdate executed in {} ms. Rows affected: {}, SQL: {} with params: {}",
@@ -67,9 +82,12 @@ public class LoggingPreparedStatement implements PreparedStatement {
     @Override
     public boolean execute() throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         try {
             boolean result = delegate.execute();
+            recordTiming(startNanos);
+            recordWrite();
             long duration = System.currentTimeMillis() - startTime;
 
             logger.debug("PreparedStatement executed in {} ms. Result: {}, SQL: {} with params: {}",
@@ -86,10 +104,13 @@ public class LoggingPreparedStatement implements PreparedStatement {
     @Override
     public int[] executeBatch() throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         logger.debug("Executing prepared statement batch");
 
         try {
             int[] results = delegate.executeBatch();
+            recordTiming(startNanos);
+            recordWrite();
             long duration = System.currentTimeMillis() - startTime;
 
             int totalRows = 0;
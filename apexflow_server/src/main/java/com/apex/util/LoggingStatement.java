@@ -11,10 +11,12 @@ record LoggingStatement(Statement delegate, Logger logger) implements Statement
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         logger.debug("Executing query: {}", sanitizeSql(sql));
 
         try {
             ResultSet result = delegate.executeQuery(sql);
+            recordTiming(startNanos, sql);
             long duration = System.currentTimeMillis() - startTime;
             logger.debug("Query executed successfully in {} ms: {}", duration, sanitizeSql(sql));
             return result;
@@ -29,10 +31,13 @@ record LoggingStatement(Statement delegate, Logger logger) implements Statement
     @Override
     public int executeUpdate(String sql) throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         logger.debug("Executing update: {}", sanitizeSql(sql));
 
         try {
             int rows = delegate.executeUpdate(sql);
+            recordTiming(startNanos, sql);
+            recordWrite(sql);
             long duration = System.currentTimeMillis() - startTime;
             logger.debug("Update executed successfully in {} ms. Rows affected: {}, SQL: {}",
                     duration, rows, sanitizeSql(sql));
@@ -48,10 +53,13 @@ record LoggingStatement(Statement delegate, Logger logger) implements Statement
     @Override
     public boolean execute(String sql) throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         logger.debug("Executing statement: {}", sanitizeSql(sql));
 
         try {
             boolean result = delegate.execute(sql);
+            recordTiming(startNanos, sql);
+            recordWrite(sql);
             long duration = System.currentTimeMillis() - startTime;
             logger.debug("Statement executed in {} ms. Result: {}, SQL: {}",
                     duration, result, sanitizeSql(sql));
@@ -67,10 +75,12 @@ record LoggingStatement(Statement delegate, Logger logger) implements Statement
     @Override
     public int[] executeBatch() throws SQLException {
         long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         logger.debug("Executing batch update");
 
         try {
             int[] results = delegate.executeBatch();
+            recordTiming(startNanos, null);
             long duration = System.currentTimeMillis() - startTime;
             int totalRows = 0;
             for (int rows : results) {
@@ -87,6 +97,16 @@ record LoggingStatement(Statement delegate, Logger logger) implements Statement
         }
     }
 
+    private void recordTiming(long startNanos, String sql) {
+        long endNanos = System.nanoTime();
+        RequestSummary.recordSql(endNanos - startNanos);
+        Tracer.record("jdbc", sql, startNanos, endNanos);
+    }
+
+    private void recordWrite(String sql) {
+        TableVersions.recordWrite(sql);
+    }
+
     @Override
     public void close() throws SQLException {
         logger.trace("Closing statement");
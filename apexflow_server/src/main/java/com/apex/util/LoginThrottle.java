@@ -0,0 +1,122 @@
+package com.apex.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登录限流：按用户名和客户端IP分别维护令牌桶
+ * 每次登录尝试在计算密码哈希之前各消耗一个令牌，令牌按固定速率恢复；
+ * 登录成功后清空该用户名的桶，避免正常用户被之前输错的次数影响。
+ *
+ * 默认值可通过系统属性覆盖：
+ * -Dapexflow.auth.userBurst=5     -Dapexflow.auth.userPerMinute=5
+ * -Dapexflow.auth.ipBurst=30      -Dapexflow.auth.ipPerMinute=30
+ */
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    // 超过此数量时清理已回满的桶，限制被随机用户名刷出的内存占用
+    private static final int MAX_TRACKED_KEYS = 10_000;
+
+    private final ConcurrentHashMap<String, Bucket> userBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Bucket> ipBuckets = new ConcurrentHashMap<>();
+    private final int userBurst;
+    private final double userTokensPerNano;
+    private final int ipBurst;
+    private final double ipTokensPerNano;
+
+    public LoginThrottle() {
+        this(Integer.getInteger("apexflow.auth.userBurst", 5),
+                Integer.getInteger("apexflow.auth.userPerMinute", 5),
+                Integer.getInteger("apexflow.auth.ipBurst", 30),
+                Integer.getInteger("apexflow.auth.ipPerMinute", 30));
+    }
+
+    public LoginThrottle(int userBurst, int userPerMinute, int ipBurst, int ipPerMinute) {
+        this.userBurst = userBurst;
+        this.userTokensPerNano = userPerMinute / 60e9;
+        this.ipBurst = ipBurst;
+        this.ipTokensPerNano = ipPerMinute / 60e9;
+    }
+
+    /**
+     * 为一次登录尝试消耗令牌
+     * @param clientIp 连接的对端地址（不取X-Forwarded-For等可伪造的请求头），未知时为null（只按用户名限流）
+     * @return 0表示放行；否则为建议的重试等待秒数
+     */
+    public long tryAcquire(String username, String clientIp) {
+        long now = System.nanoTime();
+        if (clientIp != null) {
+            long wait = acquire(ipBuckets, clientIp, ipBurst, ipTokensPerNano, now);
+            if (wait > 0) {
+                logger.warn("[LOGIN_THROTTLE] Too many login attempts from IP: {}", clientIp);
+                return wait;
+            }
+        }
+        if (username != null) {
+            long wait = acquire(userBuckets, username.toLowerCase(Locale.ROOT), userBurst, userTokensPerNano, now);
+            if (wait > 0) {
+                logger.warn("[LOGIN_THROTTLE] Too many login attempts for user: {}", username);
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 登录成功后重置该用户名的令牌桶
+     */
+    public void recordSuccess(String username) {
+        if (username != null) {
+            userBuckets.remove(username.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static long acquire(ConcurrentHashMap<String, Bucket> buckets, String key,
+                                int burst, double tokensPerNano, long now) {
+        if (buckets.size() > MAX_TRACKED_KEYS) {
+            buckets.values().removeIf(bucket -> bucket.isFull(burst, tokensPerNano, now));
+        }
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(burst, now));
+        return bucket.tryTake(burst, tokensPerNano, now);
+    }
+
+    /**
+     * 单个键的令牌桶，按访问时间惰性补充令牌
+     */
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int burst, long now) {
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        synchronized long tryTake(int burst, double tokensPerNano, long now) {
+            refill(burst, tokensPerNano, now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            if (tokensPerNano <= 0) {
+                return 60;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano / 1e9));
+        }
+
+        synchronized boolean isFull(int burst, double tokensPerNano, long now) {
+            refill(burst, tokensPerNano, now);
+            return tokens >= burst;
+        }
+
+        private void refill(int burst, double tokensPerNano, long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.apex.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希专用线程池
+ * KDF计算是CPU密集的，登录高峰时放在少量固定线程上排队执行，队列满或等待超时直接拒绝，
+ * 不会占满处理订单等其他接口的CPU和请求线程。
+ *
+ * 可通过系统属性调整：
+ * -Dapexflow.password.kdfThreads=2    线程数（默认CPU核数的一半，1到4之间）
+ * -Dapexflow.password.kdfQueue=32     等待队列容量
+ * -Dapexflow.password.kdfTimeoutMs=5000 调用方最长等待时间
+ */
+public final class PasswordHashExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashExecutor.class);
+
+    private static final int THREADS = Integer.getInteger("apexflow.password.kdfThreads",
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    private static final int QUEUE_CAPACITY = Integer.getInteger("apexflow.password.kdfQueue", 32);
+    private static final long TIMEOUT_MILLIS = Long.getLong("apexflow.password.kdfTimeoutMs", 5_000L);
+
+    private static final LongAdder rejected = new LongAdder();
+    private static final LongAdder timedOut = new LongAdder();
+
+    private static volatile ThreadPoolExecutor executor;
+
+    private PasswordHashExecutor() {
+    }
+
+    /**
+     * 在哈希线程池上执行并等待结果
+     * @throws RejectedExecutionException 队列已满、等待超时或线程池已关闭
+     */
+    public static <T> T call(Callable<T> task) {
+        ThreadPoolExecutor pool = executor();
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("[PASSWORD_HASH] Task rejected. Active: {}, Queue: {}/{}",
+                    pool.getActiveCount(), pool.getQueue().size(), QUEUE_CAPACITY);
+            throw e;
+        }
+
+        try {
+            return future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            logger.warn("[PASSWORD_HASH] Task timed out after {} ms. Queue: {}/{}",
+                    TIMEOUT_MILLIS, pool.getQueue().size(), QUEUE_CAPACITY);
+            throw new RejectedExecutionException("Password hashing timed out after " + TIMEOUT_MILLIS + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * 获取线程池运行指标
+     */
+    public static Map<String, Object> snapshot() {
+        ThreadPoolExecutor pool = executor();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", THREADS);
+        stats.put("activeThreads", pool.getActiveCount());
+        stats.put("queueDepth", pool.getQueue().size());
+        stats.put("queueCapacity", QUEUE_CAPACITY);
+        stats.put("completedTasks", pool.getCompletedTaskCount());
+        stats.put("rejectedTasks", rejected.sum());
+        stats.put("timedOutTasks", timedOut.sum());
+        stats.put("timeoutMs", TIMEOUT_MILLIS);
+        return stats;
+    }
+
+    /**
+     * 关闭线程池，等待正在执行的哈希计算结束；之后的调用会重新创建线程池
+     */
+    public static synchronized void shutdown() {
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            return;
+        }
+        executor = null;
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("[PASSWORD_HASH] Executor shut down");
+    }
+
+    private static ThreadPoolExecutor executor() {
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            synchronized (PasswordHashExecutor.class) {
+                if (executor == null) {
+                    executor = create();
+                }
+                current = executor;
+            }
+        }
+        return current;
+    }
+
+    private static ThreadPoolExecutor create() {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor created = new ThreadPoolExecutor(
+                THREADS, THREADS,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "apexflow-kdf-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        created.allowCoreThreadTimeOut(true);
+        logger.info("[PASSWORD_HASH] Executor created. Threads: {}, Queue: {}, Timeout: {}ms",
+                THREADS, QUEUE_CAPACITY, TIMEOUT_MILLIS);
+        return created;
+    }
+}
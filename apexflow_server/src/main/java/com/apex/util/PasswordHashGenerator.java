@@ -354,7 +354,7 @@ public class PasswordHashGenerator {
         String expectedHash = scanner.nextLine();
 
         String actualHash = PasswordUtil.hashPassword(password, salt);
-        boolean matches = actualHash.equals(expectedHash);
+        boolean matches = PasswordUtil.verifyPassword(password, salt, expectedHash);
 
         System.out.println("\n========== 验证结果 ==========");
         System.out.println("输入密码: " + password);
@@ -0,0 +1,35 @@
+package com.apex.util;
+
+/**
+ * 密码哈希算法
+ * 存储的哈希值自带格式前缀（如 $pbkdf2-sha256$310000$...），PasswordUtil按前缀选择算法校验，
+ * 旧格式或成本参数低于当前配置的哈希在登录成功后由AuthService用当前算法重新计算。
+ * 盐值仍单独保存在salt列中。
+ */
+public interface PasswordHasher {
+
+    /**
+     * @return 算法标识，用于日志和格式前缀
+     */
+    String id();
+
+    /**
+     * @return 存储的哈希值是否为本算法的格式
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * 计算密码哈希（CPU密集，由PasswordUtil放到专用线程池执行）
+     */
+    String hash(String password, String salt);
+
+    /**
+     * 以常量时间比较校验密码
+     */
+    boolean verify(String password, String salt, String storedHash);
+
+    /**
+     * @return 存储的哈希是否应该用当前算法/成本参数重新计算
+     */
+    boolean needsRehash(String storedHash);
+}
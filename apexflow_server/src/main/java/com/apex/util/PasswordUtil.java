@@ -3,15 +3,28 @@ package com.apex.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.List;
 import java.util.Random;
 
 public class PasswordUtil {
     private static final Logger logger = LoggerFactory.getLogger(PasswordUtil.class);
 
+    // 可校验的哈希格式；新密码使用currentHasher
+    private static final List<PasswordHasher> KNOWN_HASHERS =
+            List.of(new Pbkdf2PasswordHasher(), new LegacySha256PasswordHasher());
+
+    private static volatile PasswordHasher currentHasher = KNOWN_HASHERS.get(0);
+
+    // 用户不存在时参与校验的固定哈希，按当前算法首次使用时生成
+    private static final String DUMMY_PASSWORD = "apexflow-dummy-password";
+    private static final String DUMMY_SALT = "ApexFlowDummySaltForUnknownUsers";
+    private static volatile DummyHash dummyHash;
+
+    private record DummyHash(PasswordHasher hasher, String hash) {
+    }
+
     // 用于生成32位盐值的字符集
     private static final String SALT_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
 
@@ -44,33 +57,82 @@ public class PasswordUtil {
     }
 
     /**
-     * 哈希密码（使用SHA-256）
+     * 哈希密码（使用当前算法，在密码哈希专用线程池上计算）
+     * @throws java.util.concurrent.RejectedExecutionException 哈希线程池繁忙
      */
     public static String hashPassword(String password, String salt) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            // 将盐和密码组合
-            String combined = salt + password;
-            byte[] hashedBytes = md.digest(combined.getBytes());
-            String hash = Base64.getEncoder().encodeToString(hashedBytes);
-            logger.debug("Password hashed with salt");
-            return hash;
-        } catch (NoSuchAlgorithmException e) {
-            logger.error("SHA-256 algorithm not available", e);
-            throw new RuntimeException("Error hashing password", e);
-        }
+        PasswordHasher hasher = currentHasher;
+        String hash = PasswordHashExecutor.call(() -> hasher.hash(password, salt));
+        logger.debug("Password hashed with {}", hasher.id());
+        return hash;
     }
 
     /**
-     * 验证密码
+     * 验证密码（按存储哈希的格式选择算法）
+     * @throws java.util.concurrent.RejectedExecutionException 哈希线程池繁忙
      */
     public static boolean verifyPassword(String password, String salt, String storedHash) {
-        String hashedInput = hashPassword(password, salt);
-        boolean matches = hashedInput.equals(storedHash);
-        logger.debug("Password verification result: {}", matches ? "SUCCESS" : "FAILED");
+        if (password == null || salt == null || storedHash == null) {
+            return false;
+        }
+        PasswordHasher hasher = hasherFor(storedHash);
+        if (hasher == null) {
+            logger.warn("Unknown password hash format");
+            return false;
+        }
+        boolean matches = PasswordHashExecutor.call(() -> hasher.verify(password, salt, storedHash));
+        logger.debug("Password verification result: {} ({})", matches ? "SUCCESS" : "FAILED", hasher.id());
         return matches;
     }
 
+    /**
+     * 用户不存在时用固定哈希做一次同等成本的校验，使耗时与用户存在时一致，
+     * 避免通过响应时间判断用户名是否存在
+     * @throws java.util.concurrent.RejectedExecutionException 哈希线程池繁忙
+     */
+    public static void verifyDummyPassword(String password) {
+        PasswordHasher hasher = currentHasher;
+        DummyHash dummy = dummyHash;
+        if (dummy == null || dummy.hasher() != hasher) {
+            dummy = new DummyHash(hasher, PasswordHashExecutor.call(() -> hasher.hash(DUMMY_PASSWORD, DUMMY_SALT)));
+            dummyHash = dummy;
+        }
+        String hash = dummy.hash();
+        PasswordHashExecutor.call(() -> hasher.verify(password != null ? password : "", DUMMY_SALT, hash));
+    }
+
+    /**
+     * @return 存储的哈希是否为旧格式或成本参数低于当前配置，需要在登录成功后重新计算
+     */
+    public static boolean needsRehash(String storedHash) {
+        PasswordHasher current = currentHasher;
+        return !current.supports(storedHash) || current.needsRehash(storedHash);
+    }
+
+    /**
+     * 替换新密码使用的哈希算法；已保存的其他格式哈希仍可校验并在登录时升级
+     */
+    public static void setCurrentHasher(PasswordHasher hasher) {
+        currentHasher = hasher;
+    }
+
+    public static PasswordHasher getCurrentHasher() {
+        return currentHasher;
+    }
+
+    private static PasswordHasher hasherFor(String storedHash) {
+        PasswordHasher current = currentHasher;
+        if (current.supports(storedHash)) {
+            return current;
+        }
+        for (PasswordHasher hasher : KNOWN_HASHERS) {
+            if (hasher.supports(storedHash)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
     /**
      * 生成随机密码（12位）
      */
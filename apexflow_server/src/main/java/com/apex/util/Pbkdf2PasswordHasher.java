@@ -0,0 +1,105 @@
+package com.apex.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希
+ * 存储格式：$pbkdf2-sha256$迭代次数$Base64(256位派生密钥)，迭代次数随哈希保存，
+ * 调高 -Dapexflow.password.pbkdf2.iterations 后旧哈希在下次登录时自动升级。
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    public static final String ID = "pbkdf2-sha256";
+    public static final int DEFAULT_ITERATIONS = 310_000;
+
+    private static final String PREFIX = "$" + ID + "$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int KEY_BITS = 256;
+
+    private final int iterations;
+
+    public Pbkdf2PasswordHasher() {
+        this(Integer.getInteger("apexflow.password.pbkdf2.iterations", DEFAULT_ITERATIONS));
+    }
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public String hash(String password, String salt) {
+        return PREFIX + iterations + "$" + Base64.getEncoder().encodeToString(derive(password, salt, iterations));
+    }
+
+    @Override
+    public boolean verify(String password, String salt, String storedHash) {
+        int storedIterations = iterationsOf(storedHash);
+        if (storedIterations < 1) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = Base64.getDecoder().decode(storedHash.substring(storedHash.lastIndexOf('$') + 1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, derive(password, salt, storedIterations));
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return iterationsOf(storedHash) < iterations;
+    }
+
+    /**
+     * @return 哈希中保存的迭代次数，格式不正确时返回-1
+     */
+    private static int iterationsOf(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(PREFIX)) {
+            return -1;
+        }
+        int end = storedHash.indexOf('$', PREFIX.length());
+        if (end < 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(storedHash.substring(PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] derive(String password, String salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8),
+                iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
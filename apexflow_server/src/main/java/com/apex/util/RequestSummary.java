@@ -0,0 +1,114 @@
+package com.apex.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 单个请求的耗时汇总，用一条汇总日志代替逐步输出的INFO日志
+ *
+ * BaseServlet在执行处理逻辑的线程上开始汇总，响应完成后结束；
+ * 期间由日志语句包装器和ConnectionPool累加SQL耗时与获取连接的等待时间。
+ * 每个线程复用同一个实例，记录时只更新字段、不分配对象；
+ * 没有进行中汇总的线程（定时任务、outbox分发线程）只多一次ThreadLocal查找。
+ *
+ * 汇总日志以键值对形式输出到REQUEST_SUMMARY日志器，生产环境的JSON编码器会把它们写成独立字段。
+ */
+public final class RequestSummary {
+
+    private static final Logger summaryLogger = LoggerFactory.getLogger("REQUEST_SUMMARY");
+
+    private static final ThreadLocal<RequestSummary> current = ThreadLocal.withInitial(RequestSummary::new);
+
+    private boolean active;
+    private String method;
+    private String uri;
+    private String workload;
+    private long startNanos;
+    private long queueNanos;
+    private int sqlCount;
+    private long sqlNanos;
+    private int connectionCount;
+    private long connectionWaitNanos;
+
+    private RequestSummary() {
+    }
+
+    /**
+     * 开始本线程所处理请求的汇总
+     *
+     * @param workload   负载类型，在容器线程上直接处理的请求为null
+     * @param queueNanos 请求等待业务线程的时间
+     */
+    public static void begin(String method, String uri, String workload, long queueNanos) {
+        RequestSummary summary = current.get();
+        summary.active = true;
+        summary.method = method;
+        summary.uri = uri;
+        summary.workload = workload;
+        summary.startNanos = System.nanoTime();
+        summary.queueNanos = queueNanos;
+        summary.sqlCount = 0;
+        summary.sqlNanos = 0;
+        summary.connectionCount = 0;
+        summary.connectionWaitNanos = 0;
+    }
+
+    /**
+     * 结束汇总并输出日志；没有进行中的汇总时不做处理
+     */
+    public static void end(int status) {
+        RequestSummary summary = current.get();
+        if (!summary.active) {
+            return;
+        }
+        summary.active = false;
+        if (!summaryLogger.isInfoEnabled()) {
+            return;
+        }
+        long durationMicros = (System.nanoTime() - summary.startNanos) / 1_000;
+        summaryLogger.atInfo()
+                .addKeyValue("method", summary.method)
+                .addKeyValue("uri", summary.uri)
+                .addKeyValue("status", status)
+                .addKeyValue("workload", summary.workload)
+                .addKeyValue("durationMs", durationMicros / 1000.0)
+                .addKeyValue("queueMs", summary.queueNanos / 1_000_000.0)
+                .addKeyValue("sqlCount", summary.sqlCount)
+                .addKeyValue("sqlMs", summary.sqlNanos / 1_000_000.0)
+                .addKeyValue("connections", summary.connectionCount)
+                .addKeyValue("connectionWaitMs", summary.connectionWaitNanos / 1_000_000.0)
+                .log("[REQUEST_SUMMARY] {} {} -> {} in {} ms (sql: {} in {} ms, queue: {} ms)",
+                        summary.method, summary.uri, status, durationMicros / 1000.0,
+                        summary.sqlCount, summary.sqlNanos / 1_000_000, summary.queueNanos / 1_000_000);
+    }
+
+    /**
+     * 累加一条已执行的语句
+     */
+    static void recordSql(long nanos) {
+        RequestSummary summary = current.get();
+        if (summary.active) {
+            summary.sqlCount++;
+            summary.sqlNanos += nanos;
+        }
+    }
+
+    /**
+     * 累加一次从连接池获取连接
+     */
+    static void recordConnectionWait(long nanos) {
+        RequestSummary summary = current.get();
+        if (summary.active) {
+            summary.connectionCount++;
+            summary.connectionWaitNanos += nanos;
+        }
+    }
+
+    /**
+     * @return 当前汇总中已记录的语句数，没有进行中的汇总时返回0
+     */
+    public static int sqlCount() {
+        RequestSummary summary = current.get();
+        return summary.active ? summary.sqlCount : 0;
+    }
+}
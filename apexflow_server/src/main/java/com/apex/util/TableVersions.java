@@ -0,0 +1,173 @@
+package com.apex.util;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按表统计的写入计数器，作为聚合查询（统计接口）的低成本版本标记
+ *
+ * 经过日志语句包装器执行的INSERT/UPDATE/DELETE/MERGE/REPLACE/TRUNCATE在写入可见后使目标表的计数加一：
+ * 自动提交模式下立即生效，事务中在提交后生效，回滚时不计数。
+ * 计数器只在本进程内有效，因此版本标记中还带有启动ID（重启后不会复用旧标记）；
+ * 其他节点的写入在这里看不到，由调用方在标记中加入时间窗口来兜底。
+ */
+public final class TableVersions {
+
+    private static final int MAX_CACHED_STATEMENTS = 4096;
+
+    /** 区分本进程与上次运行或其他节点的计数器 */
+    private static final String BOOT_ID = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    /** 不写入任何表的语句 */
+    private static final String NO_TABLE = "";
+
+    private static final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /** 按SQL文本缓存解析出的目标表；预编译语句的SQL是有限的固定集合 */
+    private static final ConcurrentHashMap<String, String> targets = new ConcurrentHashMap<>();
+
+    private TableVersions() {
+    }
+
+    public static String bootId() {
+        return BOOT_ID;
+    }
+
+    /**
+     * 表的当前写入版本（本进程内首次写入之前为0）
+     */
+    public static long current(String table) {
+        AtomicLong version = versions.get(table.toLowerCase(Locale.ROOT));
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * 多张表写入版本之和，用于读取多张表的聚合查询
+     */
+    public static long combined(String... tables) {
+        long sum = 0;
+        for (String table : tables) {
+            sum += current(table);
+        }
+        return sum;
+    }
+
+    /**
+     * 记录一条执行成功的写语句；查询以及TRUNCATE以外的DDL不做处理
+     */
+    static void recordWrite(String sql) {
+        String table = targetOf(sql);
+        if (table != NO_TABLE) {
+            Transactions.afterCommit(() -> bump(table));
+        }
+    }
+
+    static void bump(String table) {
+        versions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    static String targetOf(String sql) {
+        if (sql == null) {
+            return NO_TABLE;
+        }
+        String table = targets.get(sql);
+        if (table == null) {
+            table = parseTarget(sql);
+            if (targets.size() < MAX_CACHED_STATEMENTS) {
+                targets.put(sql, table);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 从INSERT INTO t / REPLACE INTO t / MERGE INTO t / UPDATE t / DELETE FROM t / TRUNCATE TABLE t
+     * 中解析出被写入的表，跳过开头的空白和注释
+     */
+    static String parseTarget(String sql) {
+        Tokens tokens = new Tokens(sql);
+        String verb = tokens.next();
+        String table;
+        switch (verb) {
+            case "insert":
+            case "replace":
+            case "merge":
+                table = tokens.next();
+                if ("ignore".equals(table)) {
+                    table = tokens.next();
+                }
+                if ("into".equals(table)) {
+                    table = tokens.next();
+                }
+                break;
+            case "update":
+                table = tokens.next();
+                if ("ignore".equals(table)) {
+                    table = tokens.next();
+                }
+                break;
+            case "delete":
+                table = tokens.next();
+                if ("from".equals(table)) {
+                    table = tokens.next();
+                }
+                break;
+            case "truncate":
+                table = tokens.next();
+                if ("table".equals(table)) {
+                    table = tokens.next();
+                }
+                break;
+            default:
+                return NO_TABLE;
+        }
+        return table.isEmpty() ? NO_TABLE : table;
+    }
+
+    /**
+     * 简单的分词器：标识符转小写，去掉反引号，跳过注释
+     */
+    private static final class Tokens {
+        private final String sql;
+        private int pos;
+
+        Tokens(String sql) {
+            this.sql = sql;
+        }
+
+        String next() {
+            skipWhitespaceAndComments();
+            int start = pos;
+            while (pos < sql.length()) {
+                char c = sql.charAt(pos);
+                if (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '`' || c == '"') {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+            String word = sql.substring(start, pos).replace("`", "").replace("\"", "");
+            int dot = word.lastIndexOf('.');
+            return (dot >= 0 ? word.substring(dot + 1) : word).toLowerCase(Locale.ROOT);
+        }
+
+        private void skipWhitespaceAndComments() {
+            while (pos < sql.length()) {
+                char c = sql.charAt(pos);
+                if (Character.isWhitespace(c) || c == '(') {
+                    pos++;
+                } else if (sql.startsWith("--", pos)) {
+                    int end = sql.indexOf('\n', pos);
+                    pos = end < 0 ? sql.length() : end + 1;
+                } else if (sql.startsWith("/*", pos)) {
+                    int end = sql.indexOf("*/", pos + 2);
+                    pos = end < 0 ? sql.length() : end + 2;
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.apex.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一条已结束的采样请求追踪，保存在Tracer的环形缓冲区中，由/api/admin/traces返回
+ * span的起始偏移和耗时均相对于请求开始时刻，单位为毫秒。
+ */
+public final class TraceRecord {
+
+    private final String requestId;
+    private final String method;
+    private final String uri;
+    private final int status;
+    private final long startedAt;
+    private final long durationNanos;
+    private final List<SpanRecord> spans;
+    private final int droppedSpans;
+
+    TraceRecord(String requestId, String method, String uri, int status, long startedAt,
+                long durationNanos, List<SpanRecord> spans, int droppedSpans) {
+        this.requestId = requestId;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.durationNanos = durationNanos;
+        this.spans = Collections.unmodifiableList(spans);
+        this.droppedSpans = droppedSpans;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return 收到请求的时间（epoch毫秒）
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public double getDurationMs() {
+        return toMillis(durationNanos);
+    }
+
+    public List<SpanRecord> getSpans() {
+        return spans;
+    }
+
+    /**
+     * @return 因达到span数量上限而未记录的span数
+     */
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    /**
+     * 把所有span输出为一行，子span放在父span后的花括号中，例如
+     * {@code OrderService.getOrderDetail=4.21{pool.wait=0.02 jdbc=0.85 jdbc=2.90}}
+     */
+    String compactSpans() {
+        StringBuilder sb = new StringBuilder(spans.size() * 24);
+        int open = 0;
+        for (SpanRecord span : spans) {
+            while (open > span.getDepth()) {
+                sb.append('}');
+                open--;
+            }
+            if (open < span.getDepth()) {
+                while (open < span.getDepth()) {
+                    sb.append('{');
+                    open++;
+                }
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '{') {
+                sb.append(' ');
+            }
+            sb.append(span.getName()).append('=').append(span.getDurationMs());
+        }
+        while (open-- > 0) {
+            sb.append('}');
+        }
+        if (droppedSpans > 0) {
+            sb.append(" +").append(droppedSpans).append(" dropped");
+        }
+        return sb.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return (nanos / 1_000) / 1000.0;
+    }
+
+    /**
+     * 请求中被计时的一段：一次服务方法调用、一次JDBC执行或一次连接池等待
+     */
+    public static final class SpanRecord {
+
+        private final String name;
+        private final String detail;
+        private final int depth;
+        private final long startNanos;
+        private volatile long durationNanos = -1;
+
+        SpanRecord(String name, String detail, int depth, long startNanos) {
+            this.name = name;
+            this.detail = detail;
+            this.depth = depth;
+            this.startNanos = startNanos;
+        }
+
+        void finish(long nanos) {
+            durationNanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return JDBC span为SQL，服务span为实体ID等信息；可能为null
+         */
+        public String getDetail() {
+            return detail;
+        }
+
+        /**
+         * @return 嵌套层级，直接位于请求之下的span为0
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        public double getStartMs() {
+            return toMillis(startNanos);
+        }
+
+        /**
+         * @return 耗时；请求结束时span仍未关闭则为-1
+         */
+        public double getDurationMs() {
+            long nanos = durationNanos;
+            return nanos < 0 ? -1 : toMillis(nanos);
+        }
+    }
+}
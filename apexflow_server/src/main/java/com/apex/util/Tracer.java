@@ -0,0 +1,302 @@
+package com.apex.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 轻量级请求追踪：MDC中的请求ID加上嵌套的span耗时
+ *
+ * BaseServlet在执行处理逻辑的线程上开始追踪，响应完成后结束。
+ * 每个请求都会在MDC中放入请求ID（键为"requestId"），便于关联同一请求的所有日志；
+ * 只有按比例采样的请求（apexflow.trace.sampleRate，默认0.1）才记录span。
+ * 服务方法用try-with-resources打开span，日志语句包装器和ConnectionPool为每次JDBC执行和连接池等待记录一个叶子span。
+ * 未被采样的请求以及没有追踪的线程得到共享的空span。
+ *
+ * 结束的追踪以一行紧凑格式输出到REQUEST_TRACE日志器，并保存在固定大小的内存环形缓冲区中
+ * （apexflow.trace.bufferSize，默认256），由/api/admin/traces返回。
+ */
+public final class Tracer {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
+
+    private static final Logger traceLogger = LoggerFactory.getLogger("REQUEST_TRACE");
+
+    // 限制单条追踪占用的内存，例如每行执行一次查询的列表接口
+    private static final int MAX_SPANS = 200;
+    private static final int MAX_DETAIL_LENGTH = 160;
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private static final ThreadLocal<Tracer> current = ThreadLocal.withInitial(Tracer::new);
+
+    private static volatile double sampleRate =
+            clampRate(parseRate(System.getProperty("apexflow.trace.sampleRate"), 0.1));
+
+    private static final AtomicReferenceArray<TraceRecord> buffer =
+            new AtomicReferenceArray<>(Math.max(1, Integer.getInteger("apexflow.trace.bufferSize", 256)));
+    private static final AtomicLong written = new AtomicLong();
+
+    private boolean active;
+    private boolean sampled;
+    private String requestId;
+    private String method;
+    private String uri;
+    private long startedAt;
+    private long startNanos;
+    private int depth;
+    private int droppedSpans;
+    private List<TraceRecord.SpanRecord> spans;
+
+    private Tracer() {
+    }
+
+    /**
+     * 以当前时刻为起点，开始本线程所处理请求的追踪
+     */
+    public static void begin(String requestId, String method, String uri) {
+        begin(requestId, method, uri, System.nanoTime());
+    }
+
+    /**
+     * 开始本线程所处理请求的追踪
+     *
+     * @param startNanos 收到请求时的System.nanoTime()，请求排队时早于当前时刻
+     */
+    public static void begin(String requestId, String method, String uri, long startNanos) {
+        Tracer tracer = current.get();
+        tracer.active = true;
+        tracer.sampled = shouldSample();
+        tracer.requestId = requestId;
+        tracer.method = method;
+        tracer.uri = uri;
+        tracer.startedAt = System.currentTimeMillis() - (System.nanoTime() - startNanos) / 1_000_000;
+        tracer.startNanos = startNanos;
+        tracer.depth = 0;
+        tracer.droppedSpans = 0;
+        tracer.spans = tracer.sampled ? new ArrayList<>() : null;
+        MDC.put(MDC_REQUEST_ID, requestId);
+    }
+
+    /**
+     * 结束追踪；被采样的追踪输出日志并存入环形缓冲区。没有进行中的追踪时不做处理
+     */
+    public static void end(int status) {
+        Tracer tracer = current.get();
+        if (!tracer.active) {
+            return;
+        }
+        tracer.active = false;
+        try {
+            if (tracer.sampled) {
+                TraceRecord trace = new TraceRecord(tracer.requestId, tracer.method, tracer.uri, status,
+                        tracer.startedAt, System.nanoTime() - tracer.startNanos, tracer.spans, tracer.droppedSpans);
+                store(trace);
+                if (traceLogger.isInfoEnabled()) {
+                    traceLogger.info("[REQUEST_TRACE] {} {} {} -> {} in {} ms: {}",
+                            trace.getRequestId(), trace.getMethod(), trace.getUri(), status,
+                            trace.getDurationMs(), trace.compactSpans());
+                }
+            }
+        } finally {
+            tracer.spans = null;
+            MDC.remove(MDC_REQUEST_ID);
+        }
+    }
+
+    /**
+     * 打开嵌套span，须在同一线程上用try-with-resources关闭
+     */
+    public static Span span(String name) {
+        return span(name, null);
+    }
+
+    /**
+     * 打开带附加信息（如实体ID）的嵌套span
+     */
+    public static Span span(String name, String detail) {
+        Tracer tracer = current.get();
+        if (!tracer.active || !tracer.sampled) {
+            return Span.NOOP;
+        }
+        long startNanos = System.nanoTime();
+        TraceRecord.SpanRecord record = tracer.add(name, detail, startNanos);
+        if (record == null) {
+            return Span.NOOP;
+        }
+        tracer.depth++;
+        return new Span(tracer, record, startNanos);
+    }
+
+    /**
+     * 在当前打开的span下记录一个已结束的叶子span（JDBC执行、连接池等待、线程池排队）
+     */
+    public static void record(String name, String detail, long startNanos, long endNanos) {
+        Tracer tracer = current.get();
+        if (tracer.active && tracer.sampled) {
+            TraceRecord.SpanRecord record = tracer.add(name, detail, startNanos);
+            if (record != null) {
+                record.finish(endNanos - startNanos);
+            }
+        }
+    }
+
+    /**
+     * @return 本线程所处理的请求是否记录span
+     */
+    public static boolean isSampled() {
+        Tracer tracer = current.get();
+        return tracer.active && tracer.sampled;
+    }
+
+    /**
+     * @return 本线程所处理请求的请求ID，没有时返回null
+     */
+    public static String currentRequestId() {
+        Tracer tracer = current.get();
+        return tracer.active ? tracer.requestId : null;
+    }
+
+    private TraceRecord.SpanRecord add(String name, String detail, long spanStartNanos) {
+        if (spans.size() >= MAX_SPANS) {
+            droppedSpans++;
+            return null;
+        }
+        if (detail != null && detail.length() > MAX_DETAIL_LENGTH) {
+            detail = detail.substring(0, MAX_DETAIL_LENGTH) + "...";
+        }
+        TraceRecord.SpanRecord record =
+                new TraceRecord.SpanRecord(name, detail, depth, spanStartNanos - startNanos);
+        spans.add(record);
+        return record;
+    }
+
+    private static boolean shouldSample() {
+        double rate = sampleRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static void store(TraceRecord trace) {
+        long slot = written.getAndIncrement();
+        buffer.set((int) (slot % buffer.length()), trace);
+    }
+
+    /**
+     * 最近的采样追踪，最新的在前
+     */
+    public static List<TraceRecord> recent(int limit) {
+        int capacity = buffer.length();
+        long end = written.get();
+        int count = (int) Math.min(Math.min(end, capacity), Math.max(0, limit));
+        List<TraceRecord> traces = new ArrayList<>(count);
+        for (long slot = end - 1; slot >= end - count; slot--) {
+            TraceRecord trace = buffer.get((int) (slot % capacity));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * 运行时修改采样率（0不记录span，1记录所有请求）
+     */
+    public static void setSampleRate(double rate) {
+        sampleRate = clampRate(rate);
+    }
+
+    public static double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 清空已保存的追踪
+     */
+    public static void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+        written.set(0);
+    }
+
+    /**
+     * 调用方传入的请求ID是安全字符串时沿用，便于与上游代理的追踪关联；否则生成新的请求ID
+     */
+    public static String resolveRequestId(String incoming) {
+        if (incoming != null && !incoming.isEmpty() && incoming.length() <= MAX_REQUEST_ID_LENGTH) {
+            boolean valid = true;
+            for (int i = 0; i < incoming.length() && valid; i++) {
+                char c = incoming.charAt(i);
+                valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '_' || c == '.';
+            }
+            if (valid) {
+                return incoming;
+            }
+        }
+        return newRequestId();
+    }
+
+    public static String newRequestId() {
+        String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    private static double parseRate(String value, double defaultRate) {
+        if (value == null || value.isBlank()) {
+            return defaultRate;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultRate;
+        }
+    }
+
+    private static double clampRate(double rate) {
+        if (Double.isNaN(rate)) {
+            return 0.0;
+        }
+        return Math.max(0.0, Math.min(1.0, rate));
+    }
+
+    /**
+     * 打开的span，关闭时记录耗时并回到父span
+     */
+    public static final class Span implements AutoCloseable {
+
+        static final Span NOOP = new Span(null, null, 0L);
+
+        private final Tracer tracer;
+        private final TraceRecord.SpanRecord record;
+        private final List<TraceRecord.SpanRecord> owner;
+        private final long startNanos;
+        private boolean closed;
+
+        private Span(Tracer tracer, TraceRecord.SpanRecord record, long startNanos) {
+            this.tracer = tracer;
+            this.record = record;
+            this.owner = tracer != null ? tracer.spans : null;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (tracer == null || closed) {
+                return;
+            }
+            closed = true;
+            record.finish(System.nanoTime() - startNanos);
+            // 请求结束后才关闭的span不能影响下一个请求的嵌套层级
+            if (tracer.spans == owner) {
+                tracer.depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.apex.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 线程绑定的数据库事务
+ * execute()从连接池取出一个连接、关闭自动提交并绑定到当前线程，
+ * 工作单元内所有DAO通过ConnectionPool.getConnection()拿到的都是这个连接，
+ * 因此无需修改DAO方法签名即可让多次写入在同一事务中提交或回滚。
+ *
+ * 注意：DAO方法捕获SQLException后返回false/null，事务内调用方必须检查返回值并抛出异常，
+ * 否则失败的语句不会导致回滚。
+ */
+public final class Transactions {
+
+    private static final Logger logger = LoggerFactory.getLogger(Transactions.class);
+
+    private static final ThreadLocal<List<Runnable>> rollbackCallbacks = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> commitCallbacks = new ThreadLocal<>();
+
+    private Transactions() {
+    }
+
+    /**
+     * 事务内执行的工作单元
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * 在事务中执行work：正常返回时提交，抛出异常时回滚并原样抛出
+     * （受检异常包装为SQLException）。当前线程已在事务中时直接加入外层事务。
+     */
+    public static <T> T execute(Work<T> work) throws SQLException {
+        if (ConnectionPool.hasBoundConnection()) {
+            return runJoined(work);
+        }
+
+        long startTime = System.currentTimeMillis();
+        T result;
+        List<Runnable> committed;
+        try (Connection connection = ConnectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            ConnectionPool.bindConnection(nonClosing(connection));
+            rollbackCallbacks.set(new ArrayList<>());
+            commitCallbacks.set(new ArrayList<>());
+
+            try {
+                result = work.run();
+                connection.commit();
+                committed = commitCallbacks.get();
+                logger.debug("[TRANSACTION] Committed in {} ms", System.currentTimeMillis() - startTime);
+            } catch (Exception e) {
+                rollback(connection);
+                logger.debug("[TRANSACTION] Rolled back after {} ms: {}",
+                        System.currentTimeMillis() - startTime, e.getMessage());
+                throw rethrow(e);
+            } finally {
+                ConnectionPool.bindConnection(null);
+                rollbackCallbacks.remove();
+                commitCallbacks.remove();
+                connection.setAutoCommit(true);
+            }
+        }
+        // 连接归还后再执行提交回调，回调中可以开启新的事务
+        runCallbacks(committed);
+        return result;
+    }
+
+    /**
+     * @return 当前线程是否处于事务中
+     */
+    public static boolean isActive() {
+        return ConnectionPool.hasBoundConnection();
+    }
+
+    /**
+     * 注册当前事务回滚时执行的回调（如作废已增量维护的内存计数）；不在事务中时忽略
+     */
+    public static void onRollback(Runnable callback) {
+        List<Runnable> callbacks = rollbackCallbacks.get();
+        if (callbacks != null) {
+            callbacks.add(callback);
+        }
+    }
+
+    /**
+     * 注册当前事务提交后执行的回调（如唤醒事件投递线程）；不在事务中时立即执行
+     */
+    public static void afterCommit(Runnable callback) {
+        List<Runnable> callbacks = commitCallbacks.get();
+        if (callbacks != null) {
+            callbacks.add(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+    private static <T> T runJoined(Work<T> work) throws SQLException {
+        try {
+            return work.run();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("[TRANSACTION] Rollback failed: {}", e.getMessage(), e);
+        }
+        runCallbacks(rollbackCallbacks.get());
+    }
+
+    private static void runCallbacks(List<Runnable> callbacks) {
+        if (callbacks == null) {
+            return;
+        }
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                logger.warn("[TRANSACTION] Callback failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static SQLException rethrow(Exception e) {
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e instanceof SQLException sql) {
+            return sql;
+        }
+        return new SQLException(e.getMessage(), e);
+    }
+
+    /**
+     * 绑定到线程上的连接视图：DAO的try-with-resources关闭它时不归还连接，由execute()负责关闭
+     */
+    private static Connection nonClosing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "isClosed":
+                            return false;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+}
@@ -0,0 +1,124 @@
+import com.apex.config.ApplicationBootstrap;
+import com.apex.core.controller.HealthServlet;
+import com.apex.core.dao.ProductSearchIndex;
+import com.apex.util.ConnectionPool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 启动预热与就绪检查测试
+ * 验证启动阶段完成后连接池已填充到minimumIdle、/api/health/ready返回200；
+ * 表结构校验失败时保持未就绪并返回503；停机时就绪状态撤销、连接池关闭。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ApplicationBootstrapTest {
+
+    static {
+        try {
+            // 必须在ProductSearchIndex类加载前设置，避免写入默认的临时目录
+            Path indexFile = Files.createTempDirectory("apexflow-bootstrap").resolve("product-search.idx");
+            System.setProperty("apexflow.search.productIndexFile", indexFile.toString());
+            System.setProperty("apexflow.search.productIndexFlushMs", "0");
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Connection conn;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        ProductSearchIndex.shared().reset();
+        ConnectionPool.shutdown();
+    }
+
+    private Map<?, ?> getReady(int expectedStatus) throws Exception {
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        StringWriter body = new StringWriter();
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getPathInfo()).thenReturn("/ready");
+        when(resp.getWriter()).thenReturn(new PrintWriter(body));
+
+        new HealthServlet().doGet(req, resp);
+
+        verify(resp).setStatus(expectedStatus);
+        return objectMapper.readValue(body.toString(), Map.class);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("表结构不完整时保持未就绪，就绪检查返回503")
+    void testSchemaFailureKeepsNotReady() throws Exception {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE apexflow_event_receipt RENAME TO apexflow_event_receipt_tmp");
+        }
+        try {
+            assertFalse(ApplicationBootstrap.startup(1, 5_000));
+            assertFalse(ApplicationBootstrap.isReady());
+
+            Map<?, ?> body = getReady(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            assertEquals("FAILED", body.get("status"));
+            assertTrue(String.valueOf(body.get("failure")).contains("apexflow_event_receipt"));
+        } finally {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE apexflow_event_receipt_tmp RENAME TO apexflow_event_receipt");
+            }
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("各启动阶段完成后连接池已填充、缓存已加载，就绪检查返回200")
+    void testStartupReady() throws Exception {
+        assertTrue(ApplicationBootstrap.startup(3, 5_000));
+        assertTrue(ApplicationBootstrap.isReady());
+        assertTrue(ConnectionPool.getTotalConnections() >= ConnectionPool.getMinimumIdle());
+        assertTrue(ProductSearchIndex.shared().isReady());
+
+        Map<?, ?> body = getReady(HttpServletResponse.SC_OK);
+        assertEquals("READY", body.get("status"));
+        assertEquals(3, body.get("warmUpIterations"));
+        Map<?, ?> phases = (Map<?, ?>) body.get("phasesMs");
+        assertEquals(List.of("pool", "schema", "caches", "warmup"), new ArrayList<>(phases.keySet()));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("停机时撤销就绪状态并关闭连接池")
+    void testShutdown() throws Exception {
+        ServletContext context = mock(ServletContext.class);
+        ApplicationBootstrap bootstrap = new ApplicationBootstrap();
+        bootstrap.contextDestroyed(new ServletContextEvent(context));
+
+        assertFalse(ApplicationBootstrap.isReady());
+        assertEquals("STOPPING", getReady(HttpServletResponse.SC_SERVICE_UNAVAILABLE).get("status"));
+        assertEquals(0, ConnectionPool.getTotalConnections());
+    }
+}
@@ -0,0 +1,182 @@
+import com.apex.core.dao.*;
+import com.apex.core.dto.OrderDetail;
+import com.apex.core.dto.TotalCount;
+import com.apex.core.event.OutboxDispatcher;
+import com.apex.core.model.InventoryLog;
+import com.apex.core.service.ArchiveService;
+import com.apex.core.service.InventoryService;
+import com.apex.core.service.OrderService;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 冷数据归档测试
+ * 使用H2内存数据库，验证已结束旧订单连同关联记录、过期库存日志分批搬迁到归档表，
+ * 以及订单详情和库存日志分页查询对归档数据的回读
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ArchiveServiceTest {
+
+    private Connection conn;
+    private ArchiveService archiveService;
+    private OrderService orderService;
+    private InventoryLogDAO inventoryLogDAO;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        archiveService = new ArchiveService();
+        inventoryLogDAO = new InventoryLogDAO();
+        orderService = new OrderService(
+                new OrderInfoDAO(), new OrderItemDAO(), new ProductDAO(), inventoryLogDAO,
+                new LogisticsDAO(), new IncomeDAO(), new AfterSalesDAO(), new ReviewDAO(),
+                new OutboxDispatcher(new OutboxDAO(), 3, 0));
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status) VALUES " +
+                    "(1, 'iPhone 14 Pro', '手机', 7999.00, 100, 1)");
+        }
+    }
+
+    private void insertOrder(String orderId, int status, LocalDateTime createdAt) throws Exception {
+        try (var ps = conn.prepareStatement(
+                "INSERT INTO apexflow_order (id, user_id, total_amount, status, created_at) VALUES (?, 1001, 7999.00, ?, ?)")) {
+            ps.setString(1, orderId);
+            ps.setInt(2, status);
+            ps.setObject(3, createdAt);
+            ps.executeUpdate();
+        }
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_order_item (order_id, product_id, product_name, quantity, price, subtotal) " +
+                    "VALUES ('" + orderId + "', 1, 'iPhone 14 Pro', 1, 7999.00, 7999.00)");
+            stmt.execute("INSERT INTO apexflow_logistics (order_id, status) VALUES ('" + orderId + "', 'delivered')");
+            stmt.execute("INSERT INTO apexflow_income (order_id, type, amount, status) VALUES ('" + orderId + "', 'income', 7999.00, 2)");
+            stmt.execute("INSERT INTO apexflow_review (order_id, product_id, user_id, rating) VALUES ('" + orderId + "', 1, 1001, 5)");
+        }
+    }
+
+    private void insertInventoryLog(int quantity, LocalDateTime createdAt) throws Exception {
+        try (var ps = conn.prepareStatement("INSERT INTO apexflow_inventory_log " +
+                "(product_id, change_type, quantity, before_stock, after_stock, created_at) VALUES (1, 'adjust', ?, 0, 0, ?)")) {
+            ps.setInt(1, quantity);
+            ps.setObject(2, createdAt);
+            ps.executeUpdate();
+        }
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    @Order(1)
+    void testArchivesFinishedOldOrdersWithRelatedRows() throws Exception {
+        LocalDateTime old = LocalDateTime.now().minusDays(400);
+        for (int i = 0; i < 5; i++) {
+            insertOrder("OLD_DONE_" + i, i % 2 == 0 ? 4 : 5, old.plusMinutes(i));
+        }
+        insertOrder("OLD_SHIPPED", 3, old);
+        insertOrder("RECENT_DONE", 4, LocalDateTime.now());
+
+        int archived = archiveService.archiveOrders(LocalDateTime.now().minusDays(180), 2);
+
+        assertEquals(5, archived);
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_order"), "未结束或未过期的订单留在热表");
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM apexflow_order_archive"));
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM apexflow_order_item_archive"));
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM apexflow_logistics_archive"));
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM apexflow_income_archive"));
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM apexflow_review_archive"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_income WHERE order_id LIKE 'OLD_DONE_%'"));
+        assertEquals(2, RowCounts.count("apexflow_order"), "热表计数应随搬迁减少");
+
+        assertEquals(0, archiveService.archiveOrders(LocalDateTime.now().minusDays(180), 2), "重复归档无数据可搬");
+    }
+
+    @Test
+    @Order(2)
+    void testOrderDetailFallsBackToArchive() throws Exception {
+        insertOrder("ARCHIVED_ORDER", 4, LocalDateTime.now().minusDays(400));
+        assertEquals(1, archiveService.archiveOrders(LocalDateTime.now().minusDays(180), 10));
+
+        OrderDetail detail = orderService.getOrderDetail("ARCHIVED_ORDER");
+
+        assertNotNull(detail, "已归档订单应能查到详情");
+        assertTrue(detail.isArchived());
+        assertEquals("ARCHIVED_ORDER", detail.getOrderInfo().getId());
+        assertEquals(4, detail.getOrderInfo().getStatus());
+        assertEquals(1, detail.getOrderItems().size());
+        assertEquals(1, detail.getIncomes().size());
+        assertNotNull(detail.getLogistics());
+        assertNotNull(detail.getReview());
+        assertTrue(detail.getAfterSalesList().isEmpty());
+
+        assertNull(orderService.getOrderDetail("NO_SUCH_ORDER"));
+    }
+
+    @Test
+    @Order(3)
+    void testInventoryLogsPageAcrossHotAndArchive() throws Exception {
+        LocalDateTime old = LocalDateTime.now().minusDays(500);
+        for (int i = 1; i <= 5; i++) {
+            insertInventoryLog(i, old.plusHours(i));
+        }
+        for (int i = 6; i <= 8; i++) {
+            insertInventoryLog(i, LocalDateTime.now().minusHours(10 - i));
+        }
+
+        Map<String, Integer> result = archiveService.archiveColdData(180, 365, 2);
+        assertEquals(5, result.get("inventoryLogs"));
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log"));
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log_archive"));
+
+        // 按变更时间倒序：8,7,6 在热表，5..1 在归档表
+        assertEquals(List.of(8, 7), quantities(inventoryLogDAO.findByProductId(1, 1, 2)));
+        assertEquals(List.of(6, 5), quantities(inventoryLogDAO.findByProductId(1, 2, 2)));
+        assertEquals(List.of(4, 3), quantities(inventoryLogDAO.findByProductId(1, 3, 2)));
+        assertEquals(List.of(2, 1), quantities(inventoryLogDAO.findByProductId(1, 4, 2)));
+        assertTrue(inventoryLogDAO.findByProductId(1, 5, 2).isEmpty());
+        assertEquals(List.of(8, 7, 6, 5, 4, 3, 2, 1), quantities(inventoryLogDAO.findByProductId(1, 1, 20)));
+
+        // 分页总数包含归档部分，客户端可以按总数翻到最后一页
+        TotalCount total = new InventoryService(new ProductDAO(), inventoryLogDAO).countLogs(1, null);
+        assertEquals(8, total.getCount());
+        assertTrue(total.isExact());
+        assertEquals(5, inventoryLogDAO.countArchivedByProductId(1));
+    }
+
+    private static List<Integer> quantities(List<InventoryLog> logs) {
+        return logs.stream().map(InventoryLog::getQuantity).toList();
+    }
+}
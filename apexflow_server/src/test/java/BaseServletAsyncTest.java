@@ -0,0 +1,210 @@
+import com.apex.api.BaseServlet;
+import com.apex.api.WorkloadClass;
+import com.apex.api.WorkloadExecutors;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * BaseServlet异步执行模式测试
+ * 使用Mockito模拟容器的AsyncContext，验证线程池分发、队列满时的503降级和超时处理
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BaseServletAsyncTest {
+
+    /**
+     * 测试用Servlet：/bulk路径归入BULK线程池，除/ping、/gbk外处理时等待latch释放；
+     * /gbk只通过Content-Type的charset参数指定编码
+     */
+    private static class TestServlet extends BaseServlet {
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private final List<String> threadNames = new ArrayList<>();
+
+        @Override
+        protected WorkloadClass classifyWorkload(HttpServletRequest request) {
+            return "/bulk".equals(request.getPathInfo()) ? WorkloadClass.BULK : WorkloadClass.FAST;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            synchronized (threadNames) {
+                threadNames.add(Thread.currentThread().getName());
+            }
+            if ("/gbk".equals(req.getPathInfo())) {
+                resp.setContentType("text/csv; charset=GBK");
+                resp.getWriter().write("商品,库存");
+                return;
+            }
+            try {
+                if (!"/ping".equals(req.getPathInfo())) {
+                    gate.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sendJsonResponse(resp, HttpServletResponse.SC_OK, "{\"ok\":true}");
+        }
+    }
+
+    /**
+     * 单个模拟请求及其捕获的响应
+     */
+    private static class Exchange {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        final AsyncContext asyncContext = mock(AsyncContext.class);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final StringWriter errorBody = new StringWriter();
+
+        Exchange(String pathInfo) throws IOException {
+            when(request.getMethod()).thenReturn("GET");
+            when(request.getPathInfo()).thenReturn(pathInfo);
+            when(request.getRequestURI()).thenReturn("/api/test" + pathInfo);
+            when(request.isAsyncSupported()).thenReturn(true);
+            when(request.getDispatcherType()).thenReturn(DispatcherType.REQUEST);
+            when(request.startAsync(request, response)).thenReturn(asyncContext);
+
+            when(response.getWriter()).thenReturn(new PrintWriter(errorBody, true));
+            when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+            });
+        }
+
+        String bodyText() {
+            return body.toString(StandardCharsets.UTF_8);
+        }
+
+        AsyncListener listener() {
+            ArgumentCaptor<AsyncListener> captor = ArgumentCaptor.forClass(AsyncListener.class);
+            verify(asyncContext).addListener(captor.capture());
+            return captor.getValue();
+        }
+    }
+
+    private TestServlet servlet;
+
+    @BeforeEach
+    void setUp() {
+        servlet = new TestServlet();
+    }
+
+    @Test
+    @Order(1)
+    void testRequestRunsOnWorkloadExecutor() throws Exception {
+        Exchange exchange = new Exchange("/fast");
+
+        servlet.service(exchange.request, exchange.response);
+
+        verify(exchange.asyncContext, timeout(2000)).complete();
+        verify(exchange.asyncContext).setTimeout(WorkloadClass.FAST.getTimeoutMillis());
+        verify(exchange.response).setStatus(HttpServletResponse.SC_OK);
+        assertEquals("{\"ok\":true}", exchange.bodyText());
+        assertTrue(servlet.threadNames.get(0).startsWith("apexflow-fast-"),
+                "请求应该在fast线程池中执行");
+    }
+
+    @Test
+    @Order(2)
+    void testQueueFullRejectedWith503() throws Exception {
+        servlet.gate = new CountDownLatch(1);
+        int capacity = WorkloadClass.BULK.getThreads() + WorkloadClass.BULK.getQueueCapacity();
+
+        List<Exchange> accepted = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            Exchange exchange = new Exchange("/bulk");
+            servlet.service(exchange.request, exchange.response);
+            accepted.add(exchange);
+        }
+
+        // 线程和队列均已占满，下一个请求应被拒绝
+        Exchange rejected = new Exchange("/bulk");
+        servlet.service(rejected.request, rejected.response);
+
+        verify(rejected.response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(rejected.response).setHeader("Retry-After", "1");
+        verify(rejected.asyncContext).complete();
+        assertTrue(rejected.errorBody.toString().contains("SERVICE_OVERLOADED"));
+
+        // FAST线程池不受BULK饱和影响
+        Exchange ping = new Exchange("/ping");
+        servlet.service(ping.request, ping.response);
+        verify(ping.asyncContext, timeout(2000)).complete();
+
+        servlet.gate.countDown();
+        for (Exchange exchange : accepted) {
+            verify(exchange.asyncContext, timeout(5000)).complete();
+        }
+        assertEquals(0, WorkloadExecutors.queueDepth(WorkloadClass.BULK));
+
+        Object rejectedCount = WorkloadExecutors.snapshot().get("bulk").get("rejectedTasks");
+        assertTrue(((Long) rejectedCount) >= 1L);
+    }
+
+    @Test
+    @Order(3)
+    void testTimeoutRespondsOnceWith503() throws Exception {
+        servlet.gate = new CountDownLatch(1);
+        Exchange exchange = new Exchange("/fast");
+
+        servlet.service(exchange.request, exchange.response);
+        AsyncListener listener = exchange.listener();
+
+        // 模拟容器触发超时
+        listener.onTimeout(new AsyncEvent(exchange.asyncContext));
+        verify(exchange.response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertTrue(exchange.errorBody.toString().contains("REQUEST_TIMEOUT"));
+
+        // 业务线程结束后不应再写入真实响应
+        servlet.gate.countDown();
+        Thread.sleep(200);
+        verify(exchange.asyncContext, times(1)).complete();
+        assertEquals("", exchange.bodyText());
+    }
+
+    @Test
+    @Order(4)
+    void testCharsetFromContentTypeUsedForWriter() throws Exception {
+        Exchange exchange = new Exchange("/gbk");
+
+        servlet.service(exchange.request, exchange.response);
+
+        verify(exchange.asyncContext, timeout(2000)).complete();
+        verify(exchange.response).setCharacterEncoding("GBK");
+        verify(exchange.response).setContentType("text/csv; charset=GBK");
+        assertArrayEquals("商品,库存".getBytes("GBK"), exchange.body.toByteArray(),
+                "响应体应按Content-Type中的charset编码");
+    }
+}
@@ -0,0 +1,265 @@
+import com.apex.config.CompressionFilter;
+import org.junit.jupiter.api.*;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * API响应压缩过滤器测试
+ * 验证超过阈值的JSON按gzip压缩、小响应和非文本响应原样输出、客户端不支持时不压缩，
+ * 声明长度的异步回放和分段flush的流式导出都能得到完整的gzip流，以及非阻塞写出时原样交给底层输出流
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CompressionFilterTest {
+
+    private CompressionFilter filter;
+
+    private ByteArrayOutputStream body;
+    private Map<String, String> headers;
+    private long[] contentLength;
+    private boolean[] flushedBeforeEnd;
+    private WriteListener[] writeListener;
+    private HttpServletResponse response;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        filter = new CompressionFilter();
+        filter.init(null);
+    }
+
+    private HttpServletRequest request(String acceptEncoding, boolean async) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(request.isAsyncStarted()).thenReturn(async);
+        when(request.getAsyncContext()).thenReturn(mock(AsyncContext.class));
+        return request;
+    }
+
+    private void newResponse() {
+        body = new ByteArrayOutputStream();
+        headers = new HashMap<>();
+        contentLength = new long[]{-1};
+        flushedBeforeEnd = new boolean[]{false};
+        writeListener = new WriteListener[1];
+
+        response = mock(HttpServletResponse.class);
+        String[] contentType = {null};
+        doAnswer(inv -> headers.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(response).setHeader(anyString(), anyString());
+        doAnswer(inv -> headers.merge(inv.getArgument(0), inv.getArgument(1), (a, b) -> a + ", " + b))
+                .when(response).addHeader(anyString(), anyString());
+        when(response.getHeader(anyString())).thenAnswer(inv -> headers.get(inv.getArgument(0, String.class)));
+        doAnswer(inv -> contentType[0] = inv.getArgument(0)).when(response).setContentType(anyString());
+        when(response.getContentType()).thenAnswer(inv -> contentType[0]);
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getStatus()).thenReturn(200);
+        doAnswer(inv -> contentLength[0] = inv.getArgument(0, Integer.class)).when(response).setContentLength(anyInt());
+        doAnswer(inv -> contentLength[0] = inv.getArgument(0, Long.class)).when(response).setContentLengthLong(anyLong());
+        try {
+            when(response.getWriter()).thenReturn(new PrintWriter(body, true, StandardCharsets.UTF_8));
+            when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    writeListener[0] = listener;
+                }
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+
+                @Override
+                public void flush() {
+                    flushedBeforeEnd[0] = body.size() > 0;
+                }
+            });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String largeJson() {
+        StringBuilder json = new StringBuilder("{\"code\":200,\"data\":[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"ORD").append(1000 + i).append("\",\"status\":2,\"paymentMethod\":\"alipay\",")
+                    .append("\"remark\":\"订单备注\",\"totalAmount\":199.00}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void run(HttpServletRequest request, FilterChain chain) throws Exception {
+        filter.doFilter(request, response, chain);
+    }
+
+    @Test
+    @DisplayName("超过阈值的JSON响应按gzip压缩")
+    void testLargeJsonIsCompressed() throws Exception {
+        String json = largeJson();
+        newResponse();
+        run(request("gzip, deflate, br", false), (req, resp) -> {
+            resp.setContentType("application/json");
+            PrintWriter writer = resp.getWriter();
+            writer.write(json);
+        });
+
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals("Accept-Encoding", headers.get("Vary"));
+        assertEquals(-1, contentLength[0], "压缩后长度未知，不应设置Content-Length");
+        assertEquals(json, gunzip(body.toByteArray()));
+        assertTrue(body.size() < json.getBytes(StandardCharsets.UTF_8).length / 5,
+                "重复JSON压缩率应很高: " + body.size());
+    }
+
+    @Test
+    @DisplayName("小响应、二进制响应和不支持gzip的客户端原样输出")
+    void testSkippedResponses() throws Exception {
+        newResponse();
+        run(request("gzip", false), (req, resp) -> {
+            resp.setContentType("application/json");
+            resp.getWriter().write("{\"code\":200}");
+        });
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals("{\"code\":200}", body.toString(StandardCharsets.UTF_8));
+        assertEquals(12, contentLength[0], "小响应按实际长度输出");
+
+        byte[] gzipped = new byte[4096];
+        newResponse();
+        run(request("gzip", false), (req, resp) -> {
+            resp.setContentType("application/gzip");
+            resp.getOutputStream().write(gzipped);
+        });
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals(4096, body.size());
+
+        String json = largeJson();
+        newResponse();
+        run(request(null, false), (req, resp) -> {
+            resp.setContentType("application/json");
+            resp.getWriter().write(json);
+            resp.getWriter().flush();
+        });
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals("Accept-Encoding", headers.get("Vary"));
+        assertEquals(json, body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("异步回放 - 声明长度后写满即结束gzip流；未声明长度的异步写出不压缩")
+    void testDeclaredLengthCompletesStream() throws Exception {
+        byte[] json = largeJson().getBytes(StandardCharsets.UTF_8);
+        HttpServletResponse[] captured = new HttpServletResponse[1];
+        newResponse();
+        run(request("gzip", true), (req, resp) -> captured[0] = (HttpServletResponse) resp);
+
+        // 模拟BufferedResponse.replayTo在业务线程完成后写回
+        captured[0].setContentType("application/json");
+        captured[0].setContentLength(json.length);
+        OutputStream out = captured[0].getOutputStream();
+        out.write(json, 0, 1000);
+        out.write(json, 1000, json.length - 1000);
+
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals(-1, contentLength[0]);
+        assertEquals(new String(json, StandardCharsets.UTF_8), gunzip(body.toByteArray()));
+
+        // 超时错误响应：异步且无长度
+        newResponse();
+        run(request("gzip", true), (req, resp) -> captured[0] = (HttpServletResponse) resp);
+        captured[0].setContentType("application/json");
+        captured[0].getWriter().write(largeJson());
+        captured[0].getWriter().flush();
+        assertNull(headers.get("Content-Encoding"));
+    }
+
+    @Test
+    @DisplayName("非阻塞写出 - 注册WriteListener后不压缩，监听器交给底层输出流")
+    void testWriteListenerPassesThrough() throws Exception {
+        byte[] json = largeJson().getBytes(StandardCharsets.UTF_8);
+        HttpServletResponse[] captured = new HttpServletResponse[1];
+        newResponse();
+        run(request("gzip", true), (req, resp) -> captured[0] = (HttpServletResponse) resp);
+
+        captured[0].setContentType("application/json");
+        captured[0].setContentLength(json.length);
+        ServletOutputStream out = captured[0].getOutputStream();
+        WriteListener listener = mock(WriteListener.class);
+        out.setWriteListener(listener);
+        assertSame(listener, writeListener[0]);
+        assertTrue(out.isReady());
+        out.write(json);
+
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals(json.length, contentLength[0]);
+        assertArrayEquals(json, body.toByteArray());
+
+        // 已开始压缩后不能再切换为非阻塞写出
+        newResponse();
+        run(request("gzip", true), (req, resp) -> captured[0] = (HttpServletResponse) resp);
+        captured[0].setContentType("application/json");
+        captured[0].setContentLength(json.length);
+        ServletOutputStream compressing = captured[0].getOutputStream();
+        compressing.write(json, 0, 1000);
+        assertThrows(IllegalStateException.class, () -> compressing.setWriteListener(listener));
+    }
+
+    @Test
+    @DisplayName("流式导出 - flush时推送已压缩数据，结束后为完整gzip流")
+    void testStreamingFlush() throws Exception {
+        newResponse();
+        StringBuilder expected = new StringBuilder();
+        boolean[] flushedMidway = {false};
+        run(request("gzip", false), (req, resp) -> {
+            resp.setContentType("text/csv;charset=UTF-8");
+            OutputStream out = resp.getOutputStream();
+            for (int batch = 0; batch < 5; batch++) {
+                StringBuilder rows = new StringBuilder();
+                for (int i = 0; i < 100; i++) {
+                    rows.append("ORD").append(batch * 100 + i).append(",2,alipay,199.00\n");
+                }
+                expected.append(rows);
+                out.write(rows.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (batch == 2) {
+                    flushedMidway[0] = flushedBeforeEnd[0];
+                }
+            }
+        });
+
+        assertTrue(flushedMidway[0], "flush应把已压缩的数据推给客户端");
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals(expected.toString(), gunzip(body.toByteArray()));
+    }
+}
@@ -0,0 +1,189 @@
+import com.apex.core.controller.OrderServlet;
+import com.apex.core.dao.OrderInfoDAO;
+import com.apex.core.dao.ProductDAO;
+import com.apex.core.model.OrderInfo;
+import com.apex.core.model.Product;
+import com.apex.util.ConnectionPool;
+import com.apex.util.TableVersions;
+import com.apex.util.Transactions;
+import org.junit.jupiter.api.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 条件请求测试
+ * 验证商品/订单的各类更新都会递增行版本、详情接口在If-None-Match命中时返回304且不输出内容，
+ * 以及统计类ETag使用的表写入版本只在提交后递增、回滚时不变。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ConditionalGetTest {
+
+    private Connection conn;
+    private ProductDAO productDAO;
+    private OrderInfoDAO orderInfoDAO;
+    private OrderServlet orderServlet;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        productDAO = new ProductDAO();
+        orderInfoDAO = new OrderInfoDAO();
+        orderServlet = new OrderServlet();
+        orderServlet.init();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @Test
+    @DisplayName("商品整行更新、部分列更新、库存和状态变更都会递增行版本")
+    void testProductVersionBumps() {
+        long version = productDAO.findVersion(1);
+
+        assertTrue(productDAO.decreaseStock(1, 1));
+        assertEquals(version + 1, productDAO.findVersion(1));
+
+        assertTrue(productDAO.updateStatus(1, 1));
+        assertEquals(version + 2, productDAO.findVersion(1));
+
+        Product product = productDAO.findById(1);
+        product.setPrice(new BigDecimal("7899.00"));
+        assertTrue(productDAO.update(product));
+        assertEquals(version + 3, productDAO.findVersion(1));
+
+        assertNull(productDAO.findVersion(99999), "不存在的商品返回null");
+    }
+
+    @Test
+    @DisplayName("订单状态和部分列更新递增行版本")
+    void testOrderVersionBumps() {
+        String orderId = "ORDER20231201005";
+        long version = orderInfoDAO.findVersion(orderId);
+
+        assertTrue(orderInfoDAO.updateStatus(orderId, 3));
+        assertEquals(version + 1, orderInfoDAO.findVersion(orderId));
+
+        OrderInfo order = orderInfoDAO.findById(orderId);
+        order.setPaymentMethod("wxpay");
+        assertTrue(orderInfoDAO.update(order));
+        assertEquals(version + 2, orderInfoDAO.findVersion(orderId));
+
+        assertNull(orderInfoDAO.findVersion("ORDER_MISSING"));
+    }
+
+    @Test
+    @DisplayName("订单详情 - ETag命中返回304，订单变更后返回新内容")
+    void testOrderDetailNotModified() throws Exception {
+        String orderId = "ORDER20231201003";
+
+        Captured first = getOrderDetail(orderId, null);
+        assertEquals(HttpServletResponse.SC_OK, first.status);
+        String etag = first.headers.get("ETag");
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/\""), etag);
+        assertEquals("private, no-cache", first.headers.get("Cache-Control"));
+        assertTrue(first.body.contains(orderId));
+
+        Captured second = getOrderDetail(orderId, etag);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, second.status);
+        assertEquals(etag, second.headers.get("ETag"));
+        assertTrue(second.body.isEmpty(), "304不应输出内容");
+
+        assertTrue(orderInfoDAO.updateStatus(orderId, 4));
+
+        Captured third = getOrderDetail(orderId, etag);
+        assertEquals(HttpServletResponse.SC_OK, third.status);
+        assertNotEquals(etag, third.headers.get("ETag"));
+        assertTrue(third.body.contains(orderId));
+    }
+
+    @Test
+    @DisplayName("表写入版本 - 自动提交和事务提交后递增，回滚不变")
+    void testTableVersionsFollowCommits() throws Exception {
+        String table = "apexflow_income";
+        long before = TableVersions.current(table);
+
+        insertIncome("ORDER20231201001");
+        assertEquals(before + 1, TableVersions.current(table));
+
+        Transactions.execute(() -> {
+            insertIncome("ORDER20231201002");
+            assertEquals(before + 1, TableVersions.current(table), "提交前不应可见");
+            return null;
+        });
+        assertEquals(before + 2, TableVersions.current(table));
+
+        assertThrows(IllegalStateException.class, () -> Transactions.execute(() -> {
+            insertIncome("ORDER20231201003");
+            throw new IllegalStateException("rollback");
+        }));
+        assertEquals(before + 2, TableVersions.current(table));
+
+        // 查询不改变版本
+        try (var stmt = ConnectionPool.getConnection().createStatement()) {
+            stmt.executeQuery("SELECT COUNT(*) FROM apexflow_income").close();
+        }
+        assertEquals(before + 2, TableVersions.current(table));
+    }
+
+    private void insertIncome(String orderId) throws SQLException {
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     "INSERT INTO apexflow_income (order_id, type, amount, status) VALUES (?, 'income', 10.00, 1)")) {
+            pstmt.setString(1, orderId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private Captured getOrderDetail(String orderId, String ifNoneMatch) throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getPathInfo()).thenReturn("/" + orderId);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn("/api/orders/" + orderId);
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+
+        Captured captured = new Captured();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body, true));
+        doAnswer(inv -> captured.headers.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(response).setHeader(anyString(), anyString());
+        doAnswer(inv -> captured.status = inv.getArgument(0)).when(response).setStatus(anyInt());
+
+        orderServlet.doGet(request, response);
+        captured.body = body.toString();
+        return captured;
+    }
+
+    private static final class Captured {
+        final Map<String, String> headers = new HashMap<>();
+        int status = HttpServletResponse.SC_OK;
+        String body;
+    }
+}
@@ -0,0 +1,178 @@
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 连接获取路径并发测试
+ * 验证连接池初始化完成后，获取连接不再进入ConnectionPool类的监视器锁：
+ * 其他线程持有该锁时，大量线程仍能正常获取和归还连接。
+ * 基准部分在64个以上线程下对比"每次获取都进入类锁"（改动前的getDataSource）与当前路径的吞吐量，
+ * 并采样线程状态，统计阻塞在ConnectionPool类锁上的次数。
+ *
+ * 基准部分默认跳过：
+ * mvn test -Dtest=ConnectionPoolBenchmarkTest -Dapexflow.benchmark=true
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ConnectionPoolBenchmarkTest {
+
+    private static final int THREADS = Math.max(64, Integer.getInteger("apexflow.benchmark.threads", 64));
+    private static final int CHECKOUTS = Integer.getInteger("apexflow.benchmark.checkouts", 200_000);
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        ConnectionPool.warmUp(5_000);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        ConnectionPool.shutdown();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("其他线程持有ConnectionPool类锁时，获取连接不受阻塞")
+    void testCheckoutDoesNotTakeClassMonitor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            synchronized (ConnectionPool.class) {
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        for (int j = 0; j < 20; j++) {
+                            try (Connection conn = ConnectionPool.getConnection()) {
+                                if (!conn.isValid(1)) {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> future : futures) {
+                    assertTrue(future.get(30, TimeUnit.SECONDS), "连接应可用");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Order(2)
+    @EnabledIfSystemProperty(named = "apexflow.benchmark", matches = "true")
+    @DisplayName("基准：64线程并发获取连接，对比每次进入类锁与无锁路径")
+    void benchmarkCheckoutContention() throws Exception {
+        Callable<Void> monitorPerCheckout = () -> {
+            // 改动前：每次获取都先进入static synchronized getDataSource()
+            synchronized (ConnectionPool.class) {
+                ConnectionPool.isInitialized();
+            }
+            ConnectionPool.getConnection().close();
+            return null;
+        };
+        Callable<Void> lockFree = () -> {
+            ConnectionPool.getConnection().close();
+            return null;
+        };
+
+        // 预热
+        run(CHECKOUTS / 10, monitorPerCheckout);
+        run(CHECKOUTS / 10, lockFree);
+
+        Result before = run(CHECKOUTS, monitorPerCheckout);
+        Result after = run(CHECKOUTS, lockFree);
+
+        System.out.printf("[BENCHMARK] checkouts=%d threads=%d poolSize=%d%n",
+                CHECKOUTS, THREADS, ConnectionPool.getMaximumPoolSize());
+        System.out.printf("[BENCHMARK] class monitor per checkout: %10.0f checkouts/s, blocked on monitor in %d/%d samples%n",
+                before.perSecond, before.blockedSamples, before.samples);
+        System.out.printf("[BENCHMARK] lock-free checkout:         %10.0f checkouts/s, blocked on monitor in %d/%d samples%n",
+                after.perSecond, after.blockedSamples, after.samples);
+
+        assertEquals(0, after.blockedSamples, "获取连接时不应阻塞在ConnectionPool类锁上");
+    }
+
+    private record Result(double perSecond, long samples, long blockedSamples) {
+    }
+
+    /**
+     * 以THREADS个线程并发执行checkouts次获取/归还，同时每毫秒采样一次线程状态
+     */
+    private Result run(int checkouts, Callable<Void> checkout) throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        String monitorName = ConnectionPool.class.getClass().getName() + "@"
+                + Integer.toHexString(System.identityHashCode(ConnectionPool.class));
+
+        ConcurrentLinkedQueue<Long> workerIds = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "pool-benchmark");
+            workerIds.add(thread.getId());
+            return thread;
+        });
+        CountDownLatch done = new CountDownLatch(checkouts);
+        AtomicLong failures = new AtomicLong();
+
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        AtomicLong samples = new AtomicLong();
+        AtomicLong blocked = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                long[] ids = workerIds.stream().mapToLong(Long::longValue).toArray();
+                for (ThreadInfo info : threadBean.getThreadInfo(ids)) {
+                    if (info == null) {
+                        continue;
+                    }
+                    samples.incrementAndGet();
+                    if (info.getThreadState() == Thread.State.BLOCKED && monitorName.equals(info.getLockName())) {
+                        blocked.incrementAndGet();
+                    }
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "pool-benchmark-sampler");
+        sampler.setDaemon(true);
+
+        long start = System.nanoTime();
+        sampler.start();
+        try {
+            for (int i = 0; i < checkouts; i++) {
+                executor.execute(() -> {
+                    try {
+                        checkout.call();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.MINUTES));
+        } finally {
+            sampling.set(false);
+            sampler.join(1_000);
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(0, failures.get());
+        return new Result(checkouts / seconds, samples.get(), blocked.get());
+    }
+}
@@ -0,0 +1,270 @@
+import com.apex.core.controller.ExportServlet;
+import com.apex.core.export.ExportFormat;
+import com.apex.core.service.ExportService;
+import com.apex.util.ConnectionPool;
+import com.apex.util.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 数据导出测试
+ * 使用H2数据库，验证CSV/NDJSON格式、时间范围过滤、gzip下载，
+ * 以及在小堆内存的子进程中流式导出一百万行财务记录
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ExportServiceTest {
+
+    private static final int MILLION = 1_000_000;
+
+    private Connection conn;
+    private ExportService exportService;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        exportService = new ExportService();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_order (id, user_id, total_amount, status, created_at) VALUES " +
+                    "('EXP001', 1001, 100.00, 4, '2024-01-01 08:00:00')");
+            stmt.execute("INSERT INTO apexflow_income (order_id, type, amount, status, transaction_time, remark) VALUES " +
+                    "('EXP001', 'income', 100.50, 2, '2024-01-01 09:00:00', '含逗号,和\"引号\"'), " +
+                    "('EXP001', 'income', 200.00, 2, '2024-01-02 09:00:00', NULL), " +
+                    "('EXP001', 'refund', 50.00, 2, '2024-01-03 09:00:00', NULL)");
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("CSV导出 - 表头、转义和左闭右开时间范围")
+    void testCsvExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportIncomes(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 3, 9, 0), ExportFormat.CSV, out);
+
+        assertEquals(2, rows);
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("\uFEFFid,orderId,type,amount,"));
+        String[] lines = csv.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].contains(",EXP001,income,100.50,"));
+        assertTrue(lines[1].contains("2024-01-01 09:00:00"));
+        assertTrue(lines[1].endsWith(",\"含逗号,和\"\"引号\"\"\""));
+        assertTrue(lines[2].contains("2024-01-02 09:00:00"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("NDJSON导出 - 每行一个JSON对象")
+    void testNdjsonExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportIncomes(null, null, ExportFormat.NDJSON, out);
+
+        assertEquals(3, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals("EXP001", first.get("orderId").asText());
+        assertEquals("2024-01-01T09:00:00", first.get("transactionTime").asText());
+        assertEquals("refund", mapper.readTree(lines[2]).get("type").asText());
+
+        out.reset();
+        assertEquals(1, exportService.exportOrders(null, null, ExportFormat.NDJSON, out));
+        assertEquals("EXP001", mapper.readTree(out.toString(StandardCharsets.UTF_8)).get("id").asText());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("导出接口 - gzip下载及参数校验")
+    void testServletGzipDownload() throws Exception {
+        ExportServlet servlet = new ExportServlet();
+        String token = JwtUtil.generateToken(1, "admin");
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        when(req.getPathInfo()).thenReturn("/incomes");
+        when(req.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(req.getParameter("format")).thenReturn("csv");
+        when(req.getParameter("from")).thenReturn("2024-01-02");
+        when(req.getParameter("gzip")).thenReturn("true");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(resp.getOutputStream()).thenReturn(new CapturingOutputStream(body));
+
+        invokeDoGet(servlet, req, resp);
+
+        verify(resp).setStatus(HttpServletResponse.SC_OK);
+        verify(resp).setContentType("application/gzip");
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(body.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(3, csv.split("\r\n").length);
+
+        HttpServletRequest badReq = mock(HttpServletRequest.class);
+        HttpServletResponse badResp = mock(HttpServletResponse.class);
+        when(badReq.getPathInfo()).thenReturn("/incomes");
+        when(badReq.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(badReq.getParameter("format")).thenReturn("xlsx");
+        when(badResp.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+
+        invokeDoGet(servlet, badReq, badResp);
+
+        verify(badResp).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("一百万行导出 - 64MB堆的子进程内流式完成")
+    void testMillionRowsUnderSmallHeap(@TempDir Path dir) throws Exception {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(javaBin, "-Xmx64m",
+                "-Dapexflow.test.h2=true",
+                "-Dapexflow.test.h2.url=jdbc:h2:file:" + dir.resolve("export").toAbsolutePath() + ";MODE=MySQL",
+                "-cp", childClasspath(),
+                MillionRowExport.class.getName());
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertTrue(process.waitFor(10, TimeUnit.MINUTES), "子进程超时");
+        assertEquals(0, process.exitValue(), output);
+        assertTrue(output.contains("rows=" + MILLION + " lines=" + (MILLION + 1)), output);
+    }
+
+    /**
+     * 子进程类路径：JVM类路径加上测试运行器类加载器追加的路径
+     */
+    private String childClasspath() throws Exception {
+        StringBuilder classpath = new StringBuilder(System.getProperty("java.class.path"));
+        for (ClassLoader loader = getClass().getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader urlLoader) {
+                for (URL url : urlLoader.getURLs()) {
+                    classpath.append(File.pathSeparator).append(new File(url.toURI()).getPath());
+                }
+            }
+        }
+        return classpath.toString();
+    }
+
+    private void invokeDoGet(ExportServlet servlet, HttpServletRequest request,
+                             HttpServletResponse response) throws Exception {
+        Method method = ExportServlet.class.getDeclaredMethod(
+                "doGet", HttpServletRequest.class, HttpServletResponse.class);
+        method.setAccessible(true);
+        method.invoke(servlet, request, response);
+    }
+
+    /**
+     * 子进程入口：在文件数据库中生成一百万行财务记录并导出到只计数的输出流
+     */
+    public static class MillionRowExport {
+        public static void main(String[] args) throws Exception {
+            try (Connection conn = ConnectionPool.getConnection(); Statement stmt = conn.createStatement()) {
+                H2DatabaseInitializer.initialize(conn);
+                for (int start = 1; start <= MILLION; start += 100_000) {
+                    stmt.executeUpdate("INSERT INTO apexflow_income (order_id, type, amount, status, transaction_time, remark) " +
+                            "SELECT 'ORDER20231201001', 'income', X / 100.0, 2, " +
+                            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), 'row ' || X " +
+                            "FROM SYSTEM_RANGE(" + start + ", " + (start + 99_999) + ")");
+                }
+            }
+
+            LineCountingStream out = new LineCountingStream();
+            long rows = new ExportService().exportIncomes(LocalDateTime.of(2024, 1, 1, 0, 0), null,
+                    ExportFormat.CSV, out);
+            ConnectionPool.shutdown();
+            System.out.println("rows=" + rows + " lines=" + out.lines);
+            System.exit(rows == MILLION ? 0 : 1);
+        }
+    }
+
+    /**
+     * 丢弃数据只统计换行数
+     */
+    private static final class LineCountingStream extends OutputStream {
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+
+    private static final class CapturingOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream target;
+
+        CapturingOutputStream(ByteArrayOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) {
+            target.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
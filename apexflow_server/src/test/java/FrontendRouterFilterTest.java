@@ -0,0 +1,237 @@
+import com.apex.config.FrontendRouterFilter;
+import com.apex.config.FrontendRouterFilter.RouteClass;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.servlet.FilterChain;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 前端路由过滤器请求分类测试
+ * 验证新分类器与原先基于前缀集合+正则的判断结果一致、转发和放行行为以及分类计数；
+ * 基准部分按真实URL比例对比两种分类方式的耗时和每次分配的字节数。
+ *
+ * 基准部分默认跳过：
+ * mvn test -Dtest=FrontendRouterFilterTest -Dapexflow.benchmark=true
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class FrontendRouterFilterTest {
+
+    private static final int ITERATIONS = Integer.getInteger("apexflow.benchmark.iterations", 5_000_000);
+
+    private static final List<String> SAMPLE_PATHS = List.of(
+            "/", "/api/orders", "/api/orders/ORD001/items", "/api/", "/apix", "/api",
+            "/assets/index-C-PAn4RE.js", "/assets/", "/static/logo.png", "/css/app.css", "/js/app.js",
+            "/img/a.gif", "/upload/avatar/1.jpeg", "/error", "/error/404.html", "/errors/list",
+            "/favicon.ico", "/favicon.icox", "/orders", "/orders/123", "/products/edit/7",
+            "/report.PDF", "/report.JSON", "/docs/readme.html", "/font.woff2", "/font.woff3",
+            "/dir.js/route", "/.js", "/v1.2/orders", "/login", "/dashboard?x=1.js", "/a.b.c.svg");
+
+    private FrontendRouterFilter filter;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        filter = new FrontendRouterFilter();
+        filter.init(null);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("分类结果与原有前缀集合+正则判断一致")
+    void testMatchesLegacyClassification() {
+        for (String path : SAMPLE_PATHS) {
+            boolean legacyPassThrough = LegacyClassifier.passThrough(path);
+            RouteClass routeClass = FrontendRouterFilter.classify(path, 0);
+            assertEquals(legacyPassThrough, routeClass != RouteClass.FRONTEND, path + " -> " + routeClass);
+
+            // 带上下文路径时结果相同
+            assertEquals(routeClass, FrontendRouterFilter.classify("/apexflow" + path, "/apexflow".length()), path);
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("具体分类")
+    void testRouteClasses() {
+        assertEquals(RouteClass.API, FrontendRouterFilter.classify("/api/orders", 0));
+        assertEquals(RouteClass.STATIC_PREFIX, FrontendRouterFilter.classify("/assets/index-C-PAn4RE.js", 0));
+        assertEquals(RouteClass.STATIC_PREFIX, FrontendRouterFilter.classify("/favicon.ico", 0));
+        assertEquals(RouteClass.STATIC_FILE, FrontendRouterFilter.classify("/docs/Readme.HTML", 0));
+        assertEquals(RouteClass.ERROR, FrontendRouterFilter.classify("/error/500.html", 0));
+        assertEquals(RouteClass.FRONTEND, FrontendRouterFilter.classify("/orders/123", 0));
+        assertEquals(RouteClass.FRONTEND, FrontendRouterFilter.classify("/", 0));
+        assertEquals(RouteClass.FRONTEND, FrontendRouterFilter.classify("/ctx", 4));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("前端路由转发到index.html，其他请求放行并计数")
+    void testDoFilter() throws Exception {
+        long apiBefore = FrontendRouterFilter.snapshot().get("api");
+        long frontendBefore = FrontendRouterFilter.snapshot().get("frontend");
+        long websocketBefore = FrontendRouterFilter.snapshot().get("websocket");
+
+        // API请求放行
+        HttpServletRequest apiRequest = request("/api/orders");
+        HttpServletResponse apiResponse = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(apiRequest, apiResponse, chain);
+        verify(chain).doFilter(apiRequest, apiResponse);
+
+        // 前端路由转发并禁止缓存index.html
+        HttpServletRequest routeRequest = request("/orders/123");
+        HttpServletResponse routeResponse = mock(HttpServletResponse.class);
+        RequestDispatcher dispatcher = mock(RequestDispatcher.class);
+        when(routeRequest.getRequestDispatcher("/index.html")).thenReturn(dispatcher);
+        FilterChain routeChain = mock(FilterChain.class);
+        filter.doFilter(routeRequest, routeResponse, routeChain);
+        verify(dispatcher).forward(routeRequest, routeResponse);
+        verify(routeResponse).setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
+        verifyNoInteractions(routeChain);
+
+        // WebSocket握手放行
+        HttpServletRequest wsRequest = request("/ws");
+        when(wsRequest.getHeader("Upgrade")).thenReturn("websocket");
+        when(wsRequest.getHeader("Connection")).thenReturn("Upgrade");
+        FilterChain wsChain = mock(FilterChain.class);
+        filter.doFilter(wsRequest, mock(HttpServletResponse.class), wsChain);
+        verify(wsChain).doFilter(eq(wsRequest), any());
+
+        assertEquals(apiBefore + 1, FrontendRouterFilter.snapshot().get("api"));
+        assertEquals(frontendBefore + 1, FrontendRouterFilter.snapshot().get("frontend"));
+        assertEquals(websocketBefore + 1, FrontendRouterFilter.snapshot().get("websocket"));
+    }
+
+    @Test
+    @Order(4)
+    @EnabledIfSystemProperty(named = "apexflow.benchmark", matches = "true")
+    void benchmarkClassifier() {
+        String[] mix = realisticMix(4096);
+
+        // 预热，触发JIT编译
+        runLegacy(mix, ITERATIONS / 5);
+        runClassifier(mix, ITERATIONS / 5);
+
+        long[] legacy = runLegacy(mix, ITERATIONS);
+        long[] classifier = runClassifier(mix, ITERATIONS);
+
+        System.out.printf("[BENCHMARK] iterations=%d mix=60%% api, 25%% assets, 10%% routes, 5%% other%n", ITERATIONS);
+        System.out.printf("[BENCHMARK] legacy:     %.1f ns/op, %.1f bytes/op%n",
+                (double) legacy[0] / ITERATIONS, (double) legacy[1] / ITERATIONS);
+        System.out.printf("[BENCHMARK] classifier: %.1f ns/op, %.1f bytes/op%n",
+                (double) classifier[0] / ITERATIONS, (double) classifier[1] / ITERATIONS);
+
+        assertTrue(classifier[0] < legacy[0], "新分类器应快于原实现");
+        assertTrue((double) classifier[1] / ITERATIONS < 1.0, "新分类器不应在每次请求上分配内存");
+    }
+
+    private static HttpServletRequest request(String uri) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getContextPath()).thenReturn("");
+        return request;
+    }
+
+    /**
+     * 按线上典型比例生成请求路径：大部分是API调用，其次是静态资源，少量前端路由
+     */
+    private static String[] realisticMix(int size) {
+        Random random = new Random(42);
+        String[] api = {"/api/orders", "/api/orders/ORD20240101001", "/api/products/search", "/api/inventory/logs",
+                "/api/auth/login", "/api/users/17", "/api/income/stats", "/api/logistics/track/SF123"};
+        String[] assets = {"/assets/index-C-PAn4RE.js", "/assets/vendor-Bq3x_9aT.js", "/assets/index-D2mPqL0z.css",
+                "/assets/AfterSales--lz-6mtL.js", "/favicon.ico"};
+        String[] routes = {"/", "/orders", "/orders/ORD20240101001", "/products/edit/7", "/dashboard"};
+        String[] other = {"/error/404.html", "/static/logo.png", "/robots.txt", "/docs/guide.html"};
+
+        List<String> paths = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int roll = random.nextInt(100);
+            String[] source = roll < 60 ? api : roll < 85 ? assets : roll < 95 ? routes : other;
+            paths.add(source[random.nextInt(source.length)]);
+        }
+        return paths.toArray(new String[0]);
+    }
+
+    private static long[] runLegacy(String[] mix, int iterations) {
+        int passThrough = 0;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (LegacyClassifier.passThrough(mix[i & (mix.length - 1)])) {
+                passThrough++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        assertTrue(passThrough > 0);
+        return new long[]{elapsed, allocated};
+    }
+
+    private static long[] runClassifier(String[] mix, int iterations) {
+        int passThrough = 0;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (FrontendRouterFilter.classify(mix[i & (mix.length - 1)], 0) != RouteClass.FRONTEND) {
+                passThrough++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        assertTrue(passThrough > 0);
+        return new long[]{elapsed, allocated};
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * 改造前的判断逻辑（前缀集合遍历 + 扩展名子串 + 正则），用于对照
+     */
+    private static final class LegacyClassifier {
+        private static final Set<String> STATIC_EXTENSIONS = new HashSet<>(Arrays.asList(
+                ".js", ".css", ".html", ".htm", ".json", ".xml",
+                ".jpg", ".jpeg", ".png", ".gif", ".svg", ".ico",
+                ".woff", ".woff2", ".ttf", ".eot", ".otf",
+                ".mp4", ".webm", ".mp3", ".wav", ".ogg"));
+
+        private static final Set<String> EXCLUDED_PREFIXES = new HashSet<>(Arrays.asList(
+                "/api/", "/assets/", "/static/", "/css/", "/js/", "/img/", "/upload/", "/error", "/favicon.ico"));
+
+        private static final Pattern STATIC_FILE_PATTERN = Pattern.compile(
+                ".*\\.(js|css|html|htm|json|xml|jpg|jpeg|png|gif|svg|ico|woff|woff2|ttf|eot|otf|mp4|webm|mp3|wav|ogg)$",
+                Pattern.CASE_INSENSITIVE);
+
+        static boolean passThrough(String path) {
+            if (!path.isEmpty() && !"/".equals(path)) {
+                for (String prefix : EXCLUDED_PREFIXES) {
+                    if (path.startsWith(prefix)) {
+                        return true;
+                    }
+                }
+            }
+            int dotIndex = path.lastIndexOf('.');
+            if (dotIndex > 0 && STATIC_EXTENSIONS.contains(path.substring(dotIndex).toLowerCase())) {
+                return true;
+            }
+            return STATIC_FILE_PATTERN.matcher(path).matches();
+        }
+    }
+}
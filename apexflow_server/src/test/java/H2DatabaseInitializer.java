@@ -1,3 +1,6 @@
+import com.apex.core.dao.ProductSearchIndex;
+import com.apex.core.dao.RowCounts;
+import com.apex.core.service.UserSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,6 +14,14 @@ import java.sql.Statement;
 public class H2DatabaseInitializer {
     private static final Logger logger = LoggerFactory.getLogger(H2DatabaseInitializer.class);
 
+    /**
+     * 有同结构归档表（表名加_archive后缀）的热表
+     */
+    private static final String[] ARCHIVED_TABLES = {
+            "apexflow_order", "apexflow_order_item", "apexflow_logistics", "apexflow_income",
+            "apexflow_after_sales", "apexflow_review", "apexflow_inventory_log"
+    };
+
     /**
      * 初始化H2数据库，创建所有表结构和插入测试数据
      */
@@ -77,7 +88,8 @@ public class H2DatabaseInitializer {
                             stock INT DEFAULT 0 COMMENT '库存数量',
                             status TINYINT DEFAULT 1 COMMENT '状态：1-上架，0-下架',
                             image VARCHAR(200) COMMENT '主图URL',
-                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间'
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+                            version INT NOT NULL DEFAULT 0 COMMENT '行版本'
                         )
                     """);
 
@@ -93,7 +105,8 @@ public class H2DatabaseInitializer {
                             created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '下单时间',
                             paid_at TIMESTAMP COMMENT '支付时间',
                             shipped_at TIMESTAMP COMMENT '发货时间',
-                            completed_at TIMESTAMP COMMENT '完成时间'
+                            completed_at TIMESTAMP COMMENT '完成时间',
+                            version INT NOT NULL DEFAULT 0 COMMENT '行版本'
                         )
                     """);
 
@@ -192,6 +205,57 @@ public class H2DatabaseInitializer {
                         )
                     """);
 
+            // 10. 创建事务发件箱表及事件处理回执表
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS apexflow_outbox (
+                            id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '发件箱记录ID',
+                            event_type VARCHAR(50) NOT NULL COMMENT '事件类型',
+                            aggregate_id VARCHAR(50) NOT NULL COMMENT '业务对象ID',
+                            idempotency_key VARCHAR(64) NOT NULL UNIQUE COMMENT '幂等键',
+                            payload TEXT NOT NULL COMMENT '事件内容（JSON）',
+                            status TINYINT DEFAULT 0 COMMENT '状态：0-待投递，1-已投递，2-失败',
+                            attempts INT DEFAULT 0 COMMENT '已尝试投递次数',
+                            next_attempt_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '下次投递时间',
+                            last_error VARCHAR(500) COMMENT '最近一次失败原因',
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '事件产生时间',
+                            delivered_at TIMESTAMP COMMENT '投递完成时间'
+                        )
+                    """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_outbox_due ON apexflow_outbox (status, next_attempt_at)");
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS apexflow_event_receipt (
+                            idempotency_key VARCHAR(64) NOT NULL COMMENT '事件幂等键',
+                            handler VARCHAR(50) NOT NULL COMMENT '处理器名称',
+                            processed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '处理时间',
+                            PRIMARY KEY (idempotency_key, handler)
+                        )
+                    """);
+
+            // 11. 按时间范围导出使用的索引
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_order_created ON apexflow_order (created_at)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_income_transaction_time ON apexflow_income (transaction_time)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_inventory_log_created ON apexflow_inventory_log (created_at)");
+
+            // 12. 创建冷数据归档表（与热表同结构，无主键和外键约束）
+            for (String table : ARCHIVED_TABLES) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + table + "_archive AS SELECT * FROM " + table + " WITH NO DATA");
+            }
+
+            // 13. 创建待支付订单的库存预留表
+            stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS apexflow_stock_reservation (
+                            id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '预留记录ID',
+                            order_id VARCHAR(50) NOT NULL COMMENT '订单号',
+                            product_id INT NOT NULL COMMENT '商品ID',
+                            quantity INT NOT NULL COMMENT '预留数量',
+                            status TINYINT DEFAULT 0 COMMENT '状态：0-预留中，1-已过期释放',
+                            expires_at TIMESTAMP NOT NULL COMMENT '预留到期时间',
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间'
+                        )
+                    """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservation_order ON apexflow_stock_reservation (order_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservation_status ON apexflow_stock_reservation (status, expires_at)");
+
             logger.info("All tables created successfully");
         }
     }
@@ -243,8 +307,15 @@ public class H2DatabaseInitializer {
         try (Statement stmt = conn.createStatement()) {
             stmt.execute("SET REFERENTIAL_INTEGRITY FALSE");
 
+            for (String table : ARCHIVED_TABLES) {
+                stmt.execute("DELETE FROM " + table + "_archive");
+            }
+
             // 按依赖关系的逆序清空表
             String[] tables = {
+                    "apexflow_stock_reservation",
+                    "apexflow_event_receipt",
+                    "apexflow_outbox",
                     "apexflow_review",
                     "apexflow_logistics",
                     "apexflow_income",
@@ -261,6 +332,10 @@ public class H2DatabaseInitializer {
             }
 
             stmt.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            // 清表绕过了DAO，增量维护的行数计数和搜索索引需要作废
+            RowCounts.clear();
+            UserSearchIndex.shared().reset();
+            ProductSearchIndex.shared().reset();
             logger.info("All tables cleared successfully");
         } catch (Exception e) {
             logger.error("Failed to clear tables", e);
@@ -181,7 +181,8 @@ public class InventoryServletIntegrationTest {
                         stock INT DEFAULT 0,
                         status TINYINT DEFAULT 1,
                         image VARCHAR(200),
-                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        version INT NOT NULL DEFAULT 0
                     )
                 """);
                 System.out.println("[INVENTORY-DB] 商品表创建完成");
@@ -0,0 +1,134 @@
+import com.apex.core.dao.IUserDAO;
+import com.apex.core.dao.UserDAO;
+import com.apex.core.service.LoginActivityRecorder;
+import com.apex.util.ConnectionPool;
+import com.apex.util.RequestSummary;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 最后登录时间批量写回测试
+ * 验证同一用户多次登录只保留一条待写记录、每轮写回只执行一条UPDATE、写回失败时保留记录重试、停止时排空。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class LoginActivityRecorderTest {
+
+    private Connection conn;
+    private final List<Integer> userIds = new ArrayList<>();
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userIds.clear();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM apexflow_system_user WHERE username LIKE 'shift_%'");
+            for (int i = 1; i <= 3; i++) {
+                stmt.execute("INSERT INTO apexflow_system_user (username, password_hash, salt, status) VALUES " +
+                        "('shift_" + i + "', 'hash', 'a1b2c3d4e5f678901234567890123456', 1)");
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT id FROM apexflow_system_user WHERE username LIKE 'shift_%' ORDER BY id")) {
+                while (rs.next()) {
+                    userIds.add(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    private int countLoggedIn() throws Exception {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM apexflow_system_user " +
+                     "WHERE username LIKE 'shift_%' AND last_login_at IS NOT NULL")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    @DisplayName("多次登录合并，一轮写回只执行一条UPDATE")
+    void testCoalescedBatchFlush() throws Exception {
+        LoginActivityRecorder recorder = new LoginActivityRecorder(new UserDAO());
+        for (int round = 0; round < 5; round++) {
+            for (Integer userId : userIds) {
+                recorder.record(userId);
+            }
+        }
+        assertEquals(3, recorder.pendingCount());
+        assertEquals(0, countLoggedIn(), "登录路径不写库");
+
+        RequestSummary.begin("FLUSH", "login-activity", null, 0);
+        try {
+            assertEquals(3, recorder.flush());
+            assertEquals(1, RequestSummary.sqlCount());
+        } finally {
+            RequestSummary.end(200);
+        }
+
+        assertEquals(3, countLoggedIn());
+        assertEquals(0, recorder.pendingCount());
+        assertEquals(0, recorder.flush());
+        assertEquals(3L, recorder.snapshot().get("flushedUsers"));
+    }
+
+    @Test
+    @DisplayName("写回失败时保留记录，下一轮重试")
+    void testFailedFlushIsRetried() {
+        IUserDAO userDAO = mock(IUserDAO.class);
+        when(userDAO.updateLastLoginTimes(anyMap())).thenReturn(-1).thenReturn(2);
+        LoginActivityRecorder recorder = new LoginActivityRecorder(userDAO);
+        recorder.record(userIds.get(0));
+        recorder.record(userIds.get(1));
+
+        assertEquals(-1, recorder.flush());
+        assertEquals(2, recorder.pendingCount());
+        assertEquals(1L, recorder.snapshot().get("failedFlushes"));
+
+        assertEquals(2, recorder.flush());
+        assertEquals(0, recorder.pendingCount());
+        verify(userDAO, times(2)).updateLastLoginTimes(argThat((Map<Integer, LocalDateTime> map) -> map.size() == 2));
+    }
+
+    @Test
+    @DisplayName("停止时把剩余记录写回")
+    void testStopDrains() throws Exception {
+        LoginActivityRecorder recorder = new LoginActivityRecorder(new UserDAO());
+        recorder.start();
+        for (Integer userId : userIds) {
+            recorder.record(userId);
+        }
+        assertEquals(true, recorder.snapshot().get("running"));
+        recorder.stop();
+
+        assertEquals(0, recorder.pendingCount());
+        assertEquals(3, countLoggedIn());
+        assertEquals(false, recorder.snapshot().get("running"));
+    }
+}
@@ -1,4 +1,5 @@
 import com.apex.core.dao.OrderInfoDAO;
+import com.apex.core.dto.OrderListItem;
 import com.apex.core.model.OrderInfo;
 import com.apex.util.ConnectionPool;
 import org.junit.jupiter.api.*;
@@ -336,4 +337,62 @@ public class OrderInfoDAOTest {
         // Assert
         assertTrue(orders.isEmpty(), "Should return empty list for empty database");
     }
+
+    @Test
+    @Order(15)
+    void testUpdateOrder_OnlyChangedColumnsWritten() throws Exception {
+        // Arrange - load order, then change another column behind the DAO's back
+        OrderInfo order = orderInfoDAO.findById("TEST001");
+        assertNotNull(order);
+        assertTrue(order.tracksChanges(), "Loaded order should track changes");
+        assertEquals(0, order.changedFields(), "Freshly loaded order should have no changes");
+
+        try (var stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE apexflow_order SET payment_method = 'bank' WHERE id = 'TEST001'");
+        }
+
+        // Act - only address_id is modified
+        order.setAddressId(202);
+        assertEquals(1L << OrderInfo.FIELD_ADDRESS_ID, order.changedFields());
+        boolean result = orderInfoDAO.update(order);
+
+        // Assert - concurrent change to payment_method is preserved
+        assertTrue(result, "Partial update should succeed");
+        assertEquals(0, order.changedFields(), "Changes should be cleared after update");
+
+        OrderInfo updatedOrder = orderInfoDAO.findById("TEST001");
+        assertEquals(202, updatedOrder.getAddressId());
+        assertEquals("bank", updatedOrder.getPaymentMethod());
+    }
+
+    @Test
+    @Order(16)
+    void testUpdateOrder_NoChangedColumns() {
+        // Arrange
+        OrderInfo order = orderInfoDAO.findById("TEST001");
+        assertNotNull(order);
+
+        // Act & Assert - nothing to write is still a successful update
+        assertTrue(orderInfoDAO.update(order));
+    }
+
+    @Test
+    @Order(17)
+    void testFindListItems_Pagination() {
+        // Act
+        List<OrderListItem> page1 = orderInfoDAO.findListItems(1, 2);
+        List<OrderListItem> page2 = orderInfoDAO.findListItems(2, 2);
+
+        // Assert - same order and paging as findAll
+        assertEquals(2, page1.size(), "First page should have 2 items");
+        assertEquals(1, page2.size(), "Second page should have 1 item");
+
+        OrderListItem latest = page1.get(0);
+        assertEquals("TEST003", latest.getOrderId());
+        assertEquals(1001, latest.getUserId());
+        assertEquals(0, new BigDecimal("299.99").compareTo(latest.getTotalAmount()));
+        assertEquals(3, latest.getStatus());
+        assertEquals("alipay", latest.getPaymentMethod());
+        assertEquals(LocalDateTime.of(2023, 12, 1, 12, 0), latest.getCreatedAt());
+    }
 }
@@ -0,0 +1,157 @@
+import com.apex.core.dao.*;
+import com.apex.core.event.OutboxDispatcher;
+import com.apex.core.service.OrderService;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 订单集合删除与已取消订单批量清理测试
+ * 使用H2内存数据库（含外键约束），验证子表按订单号集合删除、已支付订单删除时的库存恢复，
+ * 以及按批次清理过期的已取消订单（取消事件尚未投递时清理，库存仍应恢复）
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class OrderPurgeTest {
+
+    private Connection conn;
+    private OutboxDispatcher dispatcher;
+    private OrderService orderService;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        dispatcher = new OutboxDispatcher(new OutboxDAO(), 3, 0);
+        orderService = new OrderService(
+                new OrderInfoDAO(), new OrderItemDAO(), new ProductDAO(), new InventoryLogDAO(),
+                new LogisticsDAO(), new IncomeDAO(), new AfterSalesDAO(), new ReviewDAO(), dispatcher);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status) VALUES " +
+                    "(1, 'iPhone 14 Pro', '手机', 7999.00, 100, 1), " +
+                    "(2, 'AirPods Pro', '耳机', 1899.00, 50, 1)");
+        }
+    }
+
+    private void insertOrder(String orderId, int status, LocalDateTime createdAt) throws Exception {
+        try (var ps = conn.prepareStatement(
+                "INSERT INTO apexflow_order (id, user_id, total_amount, status, created_at) VALUES (?, 1001, 100.00, ?, ?)")) {
+            ps.setString(1, orderId);
+            ps.setInt(2, status);
+            ps.setObject(3, createdAt);
+            ps.executeUpdate();
+        }
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_order_item (order_id, product_id, product_name, quantity, price, subtotal) " +
+                    "VALUES ('" + orderId + "', 1, 'iPhone 14 Pro', 2, 7999.00, 15998.00), " +
+                    "('" + orderId + "', 2, 'AirPods Pro', 1, 1899.00, 1899.00), " +
+                    "('" + orderId + "', 1, 'iPhone 14 Pro', 1, 7999.00, 7999.00)");
+            stmt.execute("INSERT INTO apexflow_logistics (order_id, status) VALUES ('" + orderId + "', 'pending')");
+            stmt.execute("INSERT INTO apexflow_income (order_id, type, amount, status) VALUES ('" + orderId + "', 'income', 100.00, 2)");
+            stmt.execute("INSERT INTO apexflow_after_sales (order_id, type, status) VALUES ('" + orderId + "', 1, 1)");
+            stmt.execute("INSERT INTO apexflow_review (order_id, product_id, user_id, rating) VALUES ('" + orderId + "', 1, 1001, 5)");
+        }
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private long countRowsFor(String orderId) throws Exception {
+        long total = 0;
+        for (String table : new String[]{"apexflow_order_item", "apexflow_logistics", "apexflow_income",
+                "apexflow_after_sales", "apexflow_review"}) {
+            total += queryLong("SELECT COUNT(*) FROM " + table + " WHERE order_id = '" + orderId + "'");
+        }
+        return total + queryLong("SELECT COUNT(*) FROM apexflow_order WHERE id = '" + orderId + "'");
+    }
+
+    @Test
+    @Order(1)
+    void testDeletePaidOrderRemovesAllRowsAndRestoresStock() throws Exception {
+        insertOrder("PAID_ORDER", 2, LocalDateTime.now());
+        insertOrder("OTHER_ORDER", 1, LocalDateTime.now());
+
+        assertTrue(orderService.deleteOrder("PAID_ORDER"));
+
+        assertEquals(0, countRowsFor("PAID_ORDER"), "订单及其全部关联记录应被删除");
+        assertEquals(8, countRowsFor("OTHER_ORDER"), "其他订单不受影响");
+        assertEquals(103, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"), "同一商品的数量应合并恢复");
+        assertEquals(51, queryLong("SELECT stock FROM apexflow_product WHERE id = 2"));
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log " +
+                "WHERE order_id = 'PAID_ORDER' AND change_type = 'cancel'"), "每个商品一条库存日志");
+        assertEquals(103, queryLong("SELECT after_stock FROM apexflow_inventory_log WHERE product_id = 1"));
+
+        assertFalse(orderService.deleteOrder("PAID_ORDER"), "重复删除应失败且不再恢复库存");
+        assertEquals(103, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"));
+    }
+
+    @Test
+    @Order(2)
+    void testPurgeCancelledOrdersInBatches() throws Exception {
+        LocalDateTime old = LocalDateTime.now().minusDays(120);
+        for (int i = 0; i < 7; i++) {
+            insertOrder("CANCELLED_" + i, 5, old.plusMinutes(i));
+        }
+        insertOrder("CANCELLED_RECENT", 5, LocalDateTime.now());
+        insertOrder("PAID_OLD", 2, old);
+
+        int purged = orderService.purgeCancelledOrders(LocalDateTime.now().minusDays(90), 3);
+
+        assertEquals(7, purged);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(0, countRowsFor("CANCELLED_" + i));
+        }
+        assertEquals(8, countRowsFor("CANCELLED_RECENT"), "未过期的已取消订单应保留");
+        assertEquals(8, countRowsFor("PAID_OLD"), "非取消状态的订单应保留");
+        assertEquals(100, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"), "清理不应再次恢复库存");
+
+        assertEquals(0, orderService.purgeCancelledOrders(LocalDateTime.now().minusDays(90), 3));
+    }
+
+    @Test
+    @Order(3)
+    void testPurgeBeforeCancelEventDeliveredStillRestoresStock() throws Exception {
+        insertOrder("CANCELLED_PENDING", 2, LocalDateTime.now().minusDays(120));
+        assertTrue(orderService.updateOrderStatus("CANCELLED_PENDING", 5));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_outbox " +
+                "WHERE aggregate_id = 'CANCELLED_PENDING' AND status = 0"), "取消事件尚未投递");
+
+        assertEquals(1, orderService.purgeCancelledOrders(LocalDateTime.now().minusDays(90), 10));
+        assertEquals(0, countRowsFor("CANCELLED_PENDING"));
+
+        dispatcher.dispatchPending();
+
+        assertEquals(103, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"), "应按事件中的数量恢复库存");
+        assertEquals(51, queryLong("SELECT stock FROM apexflow_product WHERE id = 2"));
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log " +
+                "WHERE order_id = 'CANCELLED_PENDING' AND change_type = 'cancel'"));
+    }
+}
@@ -1,6 +1,8 @@
 import com.apex.core.dao.*;
 import com.apex.core.dto.OrderWithItemsResponse;
+import com.apex.core.event.OutboxDispatcher;
 import com.apex.core.model.*;
+import com.apex.core.reservation.StockReservations;
 import com.apex.core.service.OrderService;
 import com.apex.util.ConnectionPool;
 import org.junit.jupiter.api.*;
@@ -12,6 +14,7 @@ import java.sql.Connection;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +40,7 @@ public class OrderServiceTest {
     private IIncomeDAO incomeDAO;
     private IAfterSalesDAO afterSalesDAO;
     private IReviewDAO reviewDAO;
+    private StockReservations stockReservations;
 
     // 测试数据
     private OrderInfo testOrder;
@@ -62,10 +66,14 @@ public class OrderServiceTest {
         afterSalesDAO = Mockito.mock(IAfterSalesDAO.class);
         reviewDAO = Mockito.mock(IReviewDAO.class);
 
+        // 库存预留使用真实的预留表，每个测试前随清表重建
+        stockReservations = new StockReservations(new StockReservationDAO(), 30 * 60_000L);
+
         // 创建OrderManagerService实例
         orderService = new OrderService(
                 orderInfoDAO, orderItemDAO, productDAO, inventoryLogDAO,
-                logisticsDAO, incomeDAO, afterSalesDAO, reviewDAO
+                logisticsDAO, incomeDAO, afterSalesDAO, reviewDAO,
+                OutboxDispatcher.shared(), new ArchiveDAO(), stockReservations
         );
 
         // 初始化测试数据
@@ -86,6 +94,10 @@ public class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
+        // 清空发件箱，避免上一个测试未投递的事件干扰验证
+        H2DatabaseInitializer.clearAllTables(conn);
+        stockReservations.reload();
+
         // 重置所有Mock
         resetDAOMocks();
 
@@ -137,12 +149,15 @@ public class OrderServiceTest {
         when(orderInfoDAO.update(any(OrderInfo.class))).thenReturn(true);
         when(orderInfoDAO.updateStatus(anyString(), anyInt())).thenReturn(true);
         when(orderInfoDAO.delete(anyString())).thenReturn(true);
+        when(orderInfoDAO.deleteByIds(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
 
         // ProductDAO 默认行为
         when(productDAO.findById(anyInt())).thenReturn(null);
         when(productDAO.findById(testProduct.getId())).thenReturn(testProduct);
+        when(productDAO.lockByIdsOrNames(List.of(testProduct.getId()), List.of())).thenReturn(List.of(testProduct));
         when(productDAO.decreaseStock(anyInt(), anyInt())).thenReturn(true);
         when(productDAO.increaseStock(anyInt(), anyInt())).thenReturn(true);
+        when(productDAO.increaseStockBatch(anyMap())).thenReturn(Map.of(testProduct.getId(), testProduct.getStock()));
 
         // OrderItemDAO 默认行为
         when(orderItemDAO.findByOrderId(anyString())).thenReturn(new ArrayList<>());
@@ -155,6 +170,7 @@ public class OrderServiceTest {
         when(logisticsDAO.findByOrderId(anyString())).thenReturn(null);
         when(logisticsDAO.findByOrderId(testOrder.getId())).thenReturn(new Logistics());
         when(inventoryLogDAO.create(any(InventoryLog.class))).thenReturn(true);
+        when(inventoryLogDAO.createBatch(anyList())).thenReturn(true);
         when(incomeDAO.create(any(Income.class))).thenReturn(true);
         when(incomeDAO.findByOrderId(anyString())).thenReturn(new ArrayList<>());
         when(afterSalesDAO.findByOrderId(anyString())).thenReturn(new ArrayList<>());
@@ -176,8 +192,15 @@ public class OrderServiceTest {
         // 验证各个DAO方法被正确调用
         verify(orderInfoDAO, times(1)).create(testOrder);
         verify(orderItemDAO, times(1)).createBatch(testOrderItems);
-        verify(productDAO, times(1)).decreaseStock(testProduct.getId(), 1);
-        verify(inventoryLogDAO, times(1)).create(any(InventoryLog.class));
+        // 待支付订单只预留库存，支付时才扣减
+        verify(productDAO, never()).decreaseStock(anyInt(), anyInt());
+        verify(inventoryLogDAO, never()).create(any(InventoryLog.class));
+        assertEquals(1, stockReservations.reservedQuantity(testProduct.getId()));
+        assertEquals(99, stockReservations.available(testProduct.getId(), testProduct.getStock()));
+
+        // 物流记录由OrderCreated事件处理器创建
+        verify(logisticsDAO, never()).create(any(Logistics.class));
+        OutboxDispatcher.shared().dispatchPending();
         verify(logisticsDAO, times(1)).create(any(Logistics.class));
 
         // 对于待支付状态，不应该创建财务记录
@@ -197,7 +220,8 @@ public class OrderServiceTest {
         // Assert
         assertTrue(result);
 
-        // 验证财务记录被创建
+        // 验证财务记录由OrderPaid事件处理器创建
+        OutboxDispatcher.shared().dispatchPending();
         verify(incomeDAO, times(1)).create(any(Income.class));
     }
 
@@ -325,9 +349,10 @@ public class OrderServiceTest {
 
         // Assert
         assertTrue(result, "删除待支付订单应该成功");
-        verify(orderInfoDAO, times(1)).delete("PENDING_ORDER");
+        verify(orderInfoDAO, times(1)).deleteByIds(List.of("PENDING_ORDER"));
         // 待支付订单删除时不应该恢复库存
         verify(productDAO, never()).increaseStock(anyInt(), anyInt());
+        verify(productDAO, never()).increaseStockBatch(anyMap());
     }
 
     @Test
@@ -353,9 +378,10 @@ public class OrderServiceTest {
 
         // Assert
         assertTrue(result, "删除已支付订单应该成功");
-        // 应该恢复库存
-        verify(productDAO, times(1)).increaseStock(testProduct.getId(), 2);
-        verify(inventoryLogDAO, times(1)).create(any(InventoryLog.class));
+        // 应该一次批量恢复库存，并批量写入库存日志
+        verify(productDAO, times(1)).increaseStockBatch(Map.of(testProduct.getId(), 2));
+        verify(inventoryLogDAO, times(1)).createBatch(argThat(logs -> logs.size() == 1));
+        verify(productDAO, never()).increaseStock(anyInt(), anyInt());
     }
 
     @Test
@@ -373,7 +399,7 @@ public class OrderServiceTest {
 
         // Assert
         assertFalse(result, "已发货订单不应该允许删除");
-        verify(orderInfoDAO, never()).delete(anyString());
+        verify(orderInfoDAO, never()).deleteByIds(anyList());
     }
 
     @Test
@@ -387,7 +413,7 @@ public class OrderServiceTest {
 
         // Assert
         assertFalse(result, "订单不存在应该失败");
-        verify(orderInfoDAO, never()).delete(anyString());
+        verify(orderInfoDAO, never()).deleteByIds(anyList());
     }
 
     @Test
@@ -399,6 +425,7 @@ public class OrderServiceTest {
 
         boolean result1 = orderService.updateOrderStatus(testOrder.getId(), 2);
         assertTrue(result1, "待支付到已支付的状态转换应该成功");
+        OutboxDispatcher.shared().dispatchPending();
         verify(incomeDAO, times(1)).create(any(Income.class));
 
         // Test Case 2: 已支付 -> 已发货
@@ -430,6 +457,7 @@ public class OrderServiceTest {
 
         boolean result4 = orderService.updateOrderStatus(testOrder.getId(), 5);
         assertTrue(result4, "待支付到已取消的状态转换应该成功");
+        OutboxDispatcher.shared().dispatchPending();
         verify(productDAO, times(1)).increaseStock(anyInt(), anyInt());
     }
 
@@ -656,7 +684,9 @@ public class OrderServiceTest {
         // 验证创建订单的调用
         verify(orderInfoDAO, times(1)).create(any(OrderInfo.class));
         verify(orderItemDAO, times(1)).createBatch(anyList());
-        verify(productDAO, times(1)).decreaseStock(anyInt(), anyInt());
+        verify(productDAO, never()).decreaseStock(anyInt(), anyInt());
+        assertEquals(1, stockReservations.reservedQuantity(1));
+        OutboxDispatcher.shared().dispatchPending();
         verify(logisticsDAO, times(1)).create(any(Logistics.class));
 
         // ========== 步骤2：更新订单状态为已支付 ==========
@@ -666,13 +696,21 @@ public class OrderServiceTest {
         when(orderInfoDAO.findById(orderId)).thenReturn(orderStatus1); // 当前是状态1
         when(orderInfoDAO.updateStatus(orderId, 2)).thenReturn(true);
         when(orderItemDAO.findByOrderId(orderId)).thenReturn(newItems);
+        when(productDAO.findById(1)).thenReturn(testProduct);
+        when(productDAO.lockByIdsOrNames(List.of(1), List.of())).thenReturn(List.of(testProduct));
+        when(productDAO.decreaseStock(1, 1)).thenReturn(true);
+        when(inventoryLogDAO.createBatch(anyList())).thenReturn(true);
 
         // 执行状态更新
         boolean payResult = orderService.updateOrderStatus(orderId, 2);
         assertTrue(payResult, "支付订单应该成功");
 
-        // 验证状态更新和相关操作
+        // 验证状态更新和相关操作：预留转为真实扣减
         verify(orderInfoDAO, times(1)).updateStatus(orderId, 2);
+        verify(productDAO, times(1)).decreaseStock(1, 1);
+        verify(inventoryLogDAO, times(1)).createBatch(anyList());
+        assertEquals(0, stockReservations.reservedQuantity(1));
+        OutboxDispatcher.shared().dispatchPending();
         verify(incomeDAO, times(1)).create(any(Income.class));
 
         // ========== 步骤3：更新订单状态为已发货 ==========
@@ -755,12 +793,13 @@ public class OrderServiceTest {
         when(reviewDAO.findByOrderId("CASCADE_ORDER")).thenReturn(review);
 
         // 设置删除操作成功
-        when(orderItemDAO.delete(1)).thenReturn(true);
-        when(logisticsDAO.delete(1)).thenReturn(true);
-        when(incomeDAO.delete(1)).thenReturn(true);
-        when(afterSalesDAO.delete(1)).thenReturn(true);
-        when(reviewDAO.delete(1)).thenReturn(true);
-        when(orderInfoDAO.delete("CASCADE_ORDER")).thenReturn(true);
+        List<String> orderIds = List.of("CASCADE_ORDER");
+        when(orderItemDAO.deleteByOrderIds(orderIds)).thenReturn(1);
+        when(logisticsDAO.deleteByOrderIds(orderIds)).thenReturn(1);
+        when(incomeDAO.deleteByOrderIds(orderIds)).thenReturn(1);
+        when(afterSalesDAO.deleteByOrderIds(orderIds)).thenReturn(1);
+        when(reviewDAO.deleteByOrderIds(orderIds)).thenReturn(1);
+        when(orderInfoDAO.deleteByIds(orderIds)).thenReturn(1);
 
         // Act
         boolean result = orderService.deleteOrder("CASCADE_ORDER");
@@ -768,13 +807,15 @@ public class OrderServiceTest {
         // Assert
         assertTrue(result, "级联删除应该成功");
 
-        // 验证所有相关记录都被删除
-        verify(orderItemDAO, times(1)).delete(1);
-        verify(logisticsDAO, times(1)).delete(1);
-        verify(incomeDAO, times(1)).delete(1);
-        verify(afterSalesDAO, times(1)).delete(1);
-        verify(reviewDAO, times(1)).delete(1);
-        verify(orderInfoDAO, times(1)).delete("CASCADE_ORDER");
+        // 验证每张子表各执行一次按订单号的集合删除，而不是逐行删除
+        verify(orderItemDAO, times(1)).deleteByOrderIds(orderIds);
+        verify(logisticsDAO, times(1)).deleteByOrderIds(orderIds);
+        verify(incomeDAO, times(1)).deleteByOrderIds(orderIds);
+        verify(afterSalesDAO, times(1)).deleteByOrderIds(orderIds);
+        verify(reviewDAO, times(1)).deleteByOrderIds(orderIds);
+        verify(orderInfoDAO, times(1)).deleteByIds(orderIds);
+        verify(orderItemDAO, never()).delete(anyInt());
+        verify(incomeDAO, never()).delete(anyInt());
     }
 
     @Test
@@ -794,12 +835,14 @@ public class OrderServiceTest {
         boolean result2 = orderService.createOrder(testOrder, testOrderItems);
         assertFalse(result2, "订单项创建失败应该返回false");
 
-        // Case 3: Stock update fails
+        // Case 3: Stock update fails（已支付订单下单时直接扣减库存）
         resetDAOMocks();
         setupCommonMockBehaviors();
+        testOrder.setStatus(2);
         when(productDAO.decreaseStock(anyInt(), anyInt())).thenReturn(false);
         boolean result3 = orderService.createOrder(testOrder, testOrderItems);
         assertFalse(result3, "库存更新失败应该返回false");
+        testOrder.setStatus(1);
     }
 
     @Test
@@ -1285,4 +1328,47 @@ public class OrderServiceTest {
         assertNotNull(detail);
         assertEquals(testOrder.getId(), detail.getOrderInfo().getId());
     }
+
+    @Test
+    @Order(36)
+    void testPayingReservedOrderUsesOwnReservation() {
+        // 库存只有1件且已被待支付订单预留：其他订单不能扣减，该订单自己支付时可以扣减
+        Product lastOne = new Product();
+        lastOne.setId(7);
+        lastOne.setName("最后一件");
+        lastOne.setPrice(new BigDecimal("10.00"));
+        lastOne.setStock(1);
+        when(productDAO.findById(7)).thenReturn(lastOne);
+        when(productDAO.lockByIdsOrNames(List.of(7), List.of())).thenReturn(List.of(lastOne));
+
+        OrderItem item = new OrderItem();
+        item.setProductId(7);
+        item.setQuantity(1);
+        item.setPrice(new BigDecimal("10.00"));
+
+        OrderInfo pending = new OrderInfo();
+        pending.setId("RESERVED_LAST_ONE");
+        pending.setUserId(1001);
+        pending.setTotalAmount(new BigDecimal("10.00"));
+        pending.setStatus(1);
+        assertTrue(orderService.createOrder(pending, new ArrayList<>(List.of(item))));
+        assertEquals(0, stockReservations.available(7, 1));
+
+        OrderItem otherItem = new OrderItem();
+        otherItem.setProductId(7);
+        otherItem.setQuantity(1);
+        OrderInfo other = new OrderInfo();
+        other.setId("PAID_LAST_ONE");
+        other.setUserId(1002);
+        other.setTotalAmount(new BigDecimal("10.00"));
+        other.setStatus(2);
+        assertFalse(orderService.createOrder(other, new ArrayList<>(List.of(otherItem))), "已预留的库存不可售");
+        verify(productDAO, never()).decreaseStock(anyInt(), anyInt());
+
+        when(orderInfoDAO.findById(pending.getId())).thenReturn(pending);
+        assertTrue(orderService.updateOrderStatus(pending.getId(), 2), "订单自身的预留计为可售");
+        verify(productDAO, times(1)).decreaseStock(7, 1);
+        verify(inventoryLogDAO, times(1)).createBatch(anyList());
+        assertEquals(0, stockReservations.reservedQuantity(7));
+    }
 }
@@ -0,0 +1,252 @@
+import com.apex.core.dao.*;
+import com.apex.core.event.OrderCancelled;
+import com.apex.core.event.OrderCreated;
+import com.apex.core.event.OrderPaid;
+import com.apex.core.event.OutboxDispatcher;
+import com.apex.core.model.OrderInfo;
+import com.apex.core.model.OrderItem;
+import com.apex.core.model.OutboxEvent;
+import com.apex.core.service.OrderService;
+import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事务发件箱测试
+ * 使用H2内存数据库，验证事件与业务数据同事务提交/回滚、按幂等键去重、失败重试与放弃，
+ * 以及订单创建和状态变更的附属写入通过事件处理器完成
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class OutboxDispatcherTest {
+
+    private Connection conn;
+    private OutboxDAO outboxDAO;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        outboxDAO = new OutboxDAO();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status) VALUES " +
+                    "(1, 'iPhone 14 Pro', '手机', 7999.00, 100, 1)");
+        }
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private static OrderInfo newOrder(String orderId, int status) {
+        OrderInfo order = new OrderInfo();
+        order.setId(orderId);
+        order.setUserId(1001);
+        order.setTotalAmount(new BigDecimal("7999.00"));
+        order.setStatus(status);
+        order.setPaymentMethod("alipay");
+        order.setCreatedAt(LocalDateTime.now());
+        if (status == 2) {
+            order.setPaidAt(LocalDateTime.now());
+        }
+        return order;
+    }
+
+    @Test
+    @Order(1)
+    void testEventRolledBackWithBusinessData() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 3, 0);
+        OrderInfoDAO orderInfoDAO = new OrderInfoDAO();
+
+        assertThrows(IllegalStateException.class, () -> Transactions.execute(() -> {
+            assertTrue(orderInfoDAO.create(newOrder("OUTBOX_ROLLBACK", 1)));
+            dispatcher.publish(new OrderCreated("OUTBOX_ROLLBACK", 1001, new BigDecimal("7999.00"), 1));
+            throw new IllegalStateException("boom");
+        }));
+
+        assertNull(orderInfoDAO.findById("OUTBOX_ROLLBACK"), "订单应随事务回滚");
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_outbox"), "事件应随事务回滚");
+
+        Transactions.execute(() -> {
+            assertTrue(orderInfoDAO.create(newOrder("OUTBOX_COMMIT", 1)));
+            dispatcher.publish(new OrderCreated("OUTBOX_COMMIT", 1001, new BigDecimal("7999.00"), 1));
+            return null;
+        });
+        assertNotNull(orderInfoDAO.findById("OUTBOX_COMMIT"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_outbox WHERE aggregate_id = 'OUTBOX_COMMIT'"));
+    }
+
+    @Test
+    @Order(2)
+    void testDeliversOnceToEachHandler() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 3, 0);
+        List<String> received = new ArrayList<>();
+        dispatcher.register(OrderPaid.class, "a", event -> received.add("a:" + event.getOrderId()));
+        dispatcher.register(OrderPaid.class, "b", event -> received.add("b:" + event.getAmount()));
+
+        dispatcher.publish(new OrderPaid("ORDER1", new BigDecimal("10.50"), "alipay", LocalDateTime.now()));
+
+        assertEquals(1, dispatcher.dispatchPending());
+        assertEquals(List.of("a:ORDER1", "b:10.50"), received, "事件内容应完整还原");
+        assertEquals(0, dispatcher.dispatchPending(), "已投递事件不应再次投递");
+        assertEquals(1, outboxDAO.findByStatus(OutboxEvent.STATUS_DELIVERED, 1, 10).size());
+    }
+
+    @Test
+    @Order(3)
+    void testRetryUsesReceiptsToSkipSucceededHandlers() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 5, 0);
+        AtomicInteger stableCalls = new AtomicInteger();
+        AtomicInteger flakyCalls = new AtomicInteger();
+        dispatcher.register(OrderCancelled.class, "stable", event -> stableCalls.incrementAndGet());
+        dispatcher.register(OrderCancelled.class, "flaky", event -> {
+            if (flakyCalls.incrementAndGet() < 3) {
+                throw new IllegalStateException("temporary failure");
+            }
+        });
+
+        dispatcher.publish(new OrderCancelled("ORDER2", 1));
+
+        dispatcher.dispatchPending();
+        OutboxEvent pending = outboxDAO.findByStatus(OutboxEvent.STATUS_PENDING, 1, 10).get(0);
+        assertEquals(1, pending.getAttempts());
+        assertTrue(pending.getLastError().contains("temporary failure"));
+
+        dispatcher.dispatchPending();
+        dispatcher.dispatchPending();
+
+        assertEquals(3, flakyCalls.get());
+        assertEquals(1, stableCalls.get(), "已成功的处理器重试时应按回执跳过");
+        assertTrue(outboxDAO.findByStatus(OutboxEvent.STATUS_PENDING, 1, 10).isEmpty());
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_event_receipt"));
+    }
+
+    @Test
+    @Order(4)
+    void testGivesUpAfterMaxAttempts() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 2, 0);
+        AtomicInteger calls = new AtomicInteger();
+        dispatcher.register(OrderCancelled.class, "broken", event -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("permanent failure");
+        });
+
+        dispatcher.publish(new OrderCancelled("ORDER3", 2));
+        dispatcher.dispatchPending();
+        dispatcher.dispatchPending();
+        dispatcher.dispatchPending();
+
+        assertEquals(2, calls.get());
+        List<OutboxEvent> dead = outboxDAO.findByStatus(OutboxEvent.STATUS_DEAD, 1, 10);
+        assertEquals(1, dead.size());
+        assertEquals(2, dead.get(0).getAttempts());
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_event_receipt"), "失败的处理器不应留下回执");
+    }
+
+    @Test
+    @Order(5)
+    void testFailedHandlerRollsBackItsWrites() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 3, 0);
+        ProductDAO productDAO = new ProductDAO();
+        dispatcher.register(OrderCancelled.class, "partial", event -> {
+            assertTrue(productDAO.increaseStock(1, 5));
+            throw new IllegalStateException("fails after write");
+        });
+
+        dispatcher.publish(new OrderCancelled("ORDER4", 1));
+        dispatcher.dispatchPending();
+
+        assertEquals(100, productDAO.findById(1).getStock(), "处理器失败时其写入应回滚");
+    }
+
+    @Test
+    @Order(6)
+    void testOrderSideEffectsDeliveredThroughOutbox() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 3, 0);
+        OrderService orderService = new OrderService(
+                new OrderInfoDAO(), new OrderItemDAO(), new ProductDAO(), new InventoryLogDAO(),
+                new LogisticsDAO(), new IncomeDAO(), new AfterSalesDAO(), new ReviewDAO(), dispatcher);
+
+        OrderItem item = new OrderItem();
+        item.setOrderId("OUTBOX_ORDER");
+        item.setProductId(1);
+        item.setQuantity(2);
+        item.setPrice(new BigDecimal("7999.00"));
+        assertTrue(orderService.createOrder(newOrder("OUTBOX_ORDER", 2), new ArrayList<>(List.of(item))));
+
+        assertEquals(98, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"), "库存扣减属于下单事务");
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_logistics WHERE order_id = 'OUTBOX_ORDER'"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_income WHERE order_id = 'OUTBOX_ORDER'"));
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_outbox WHERE aggregate_id = 'OUTBOX_ORDER'"));
+
+        assertEquals(2, dispatcher.dispatchPending());
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_logistics WHERE order_id = 'OUTBOX_ORDER'"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_income WHERE order_id = 'OUTBOX_ORDER'"));
+
+        assertTrue(orderService.updateOrderStatus("OUTBOX_ORDER", 5));
+        assertEquals(98, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"));
+        dispatcher.dispatchPending();
+        assertEquals(100, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"), "取消后由处理器恢复库存");
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log " +
+                "WHERE order_id = 'OUTBOX_ORDER' AND change_type = 'cancel'"));
+    }
+
+    @Test
+    @Order(7)
+    void testStockRestoredFromEventPayload() throws Exception {
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxDAO, 3, 0);
+        OrderService orderService = new OrderService(
+                new OrderInfoDAO(), new OrderItemDAO(), new ProductDAO(), new InventoryLogDAO(),
+                new LogisticsDAO(), new IncomeDAO(), new AfterSalesDAO(), new ReviewDAO(), dispatcher);
+
+        OrderItem item = new OrderItem();
+        item.setOrderId("OUTBOX_PAYLOAD");
+        item.setProductId(1);
+        item.setQuantity(3);
+        item.setPrice(new BigDecimal("7999.00"));
+        assertTrue(orderService.createOrder(newOrder("OUTBOX_PAYLOAD", 2), new ArrayList<>(List.of(item))));
+        assertTrue(orderService.updateOrderStatus("OUTBOX_PAYLOAD", 5));
+
+        // 投递前订单项已被删除（清理、归档），处理器仍应按事件中的数量恢复库存
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM apexflow_order_item WHERE order_id = 'OUTBOX_PAYLOAD'");
+        }
+        dispatcher.dispatchPending();
+
+        assertEquals(100, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log " +
+                "WHERE order_id = 'OUTBOX_PAYLOAD' AND change_type = 'cancel'"));
+    }
+}
@@ -0,0 +1,249 @@
+import com.apex.core.controller.AuthServlet;
+import com.apex.core.dao.UserDAO;
+import com.apex.core.dto.LoginRequest;
+import com.apex.core.model.SystemUser;
+import com.apex.core.service.AuthService;
+import com.apex.util.LegacySha256PasswordHasher;
+import com.apex.util.LoginThrottle;
+import com.apex.util.PasswordHashExecutor;
+import com.apex.util.PasswordHasher;
+import com.apex.util.PasswordUtil;
+import com.apex.util.Pbkdf2PasswordHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 密码哈希测试
+ * 验证版本化哈希格式、旧格式哈希在登录成功后自动升级、按用户名/IP限流、哈希线程池满时快速拒绝；
+ * 基准部分测量不同PBKDF2迭代次数下单次哈希耗时和哈希线程池的吞吐量，用于选择成本参数。
+ *
+ * 基准部分默认跳过：
+ * mvn test -Dtest=PasswordHashBenchmarkTest -Dapexflow.benchmark=true
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PasswordHashBenchmarkTest {
+
+    private PasswordHasher originalHasher;
+
+    @BeforeAll
+    void setUpAll() {
+        originalHasher = PasswordUtil.getCurrentHasher();
+        // 单元测试使用较低的迭代次数
+        PasswordUtil.setCurrentHasher(new Pbkdf2PasswordHasher(1_000));
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        PasswordUtil.setCurrentHasher(originalHasher);
+    }
+
+    private static AuthService authServiceWith(UserDAO userDAO) throws Exception {
+        AuthService authService = new AuthService();
+        Field daoField = AuthService.class.getDeclaredField("userDAO");
+        daoField.setAccessible(true);
+        daoField.set(authService, userDAO);
+        return authService;
+    }
+
+    private static SystemUser user(String passwordHash, String salt) {
+        SystemUser user = new SystemUser();
+        user.setId(7);
+        user.setUsername("alice");
+        user.setPasswordHash(passwordHash);
+        user.setSalt(salt);
+        return user;
+    }
+
+    @Test
+    @DisplayName("PBKDF2哈希带版本前缀，迭代次数调高后需要重新计算")
+    void testVersionedFormat() {
+        String salt = PasswordUtil.generateSalt();
+        String hash = PasswordUtil.hashPassword("s3cret!", salt);
+
+        assertTrue(hash.startsWith("$pbkdf2-sha256$1000$"), hash);
+        assertTrue(PasswordUtil.verifyPassword("s3cret!", salt, hash));
+        assertFalse(PasswordUtil.verifyPassword("s3cret?", salt, hash));
+        assertFalse(PasswordUtil.verifyPassword("s3cret!", salt, "$pbkdf2-sha256$1000$not-base64!"));
+        assertFalse(PasswordUtil.needsRehash(hash));
+
+        String legacy = new LegacySha256PasswordHasher().hash("s3cret!", salt);
+        assertTrue(PasswordUtil.verifyPassword("s3cret!", salt, legacy), "旧格式哈希仍可校验");
+        assertTrue(PasswordUtil.needsRehash(legacy));
+
+        PasswordHasher stronger = new Pbkdf2PasswordHasher(2_000);
+        assertTrue(stronger.needsRehash(hash));
+        assertTrue(stronger.verify("s3cret!", salt, hash), "按哈希中保存的迭代次数校验");
+        assertFalse(stronger.needsRehash(stronger.hash("s3cret!", salt)));
+    }
+
+    @Test
+    @DisplayName("旧格式哈希登录成功后升级为当前算法")
+    void testRehashOnLogin() throws Exception {
+        String salt = PasswordUtil.generateSalt();
+        String legacy = new LegacySha256PasswordHasher().hash("admin123", salt);
+        UserDAO userDAO = mock(UserDAO.class);
+        when(userDAO.findByUsername("alice")).thenReturn(user(legacy, salt));
+        when(userDAO.updatePassword(anyInt(), anyString(), anyString())).thenReturn(true);
+
+        Map<String, Object> result = authServiceWith(userDAO).login(new LoginRequest("alice", "admin123"), "10.0.0.1");
+
+        assertEquals(true, result.get("success"));
+        var hashCaptor = org.mockito.ArgumentCaptor.forClass(String.class);
+        var saltCaptor = org.mockito.ArgumentCaptor.forClass(String.class);
+        verify(userDAO).updatePassword(eq(7), hashCaptor.capture(), saltCaptor.capture());
+        assertTrue(hashCaptor.getValue().startsWith("$pbkdf2-sha256$"));
+        assertTrue(PasswordUtil.verifyPassword("admin123", saltCaptor.getValue(), hashCaptor.getValue()));
+
+        // 已是当前格式时不再重写
+        UserDAO upToDate = mock(UserDAO.class);
+        when(upToDate.findByUsername("alice"))
+                .thenReturn(user(hashCaptor.getValue(), saltCaptor.getValue()));
+        assertEquals(true, authServiceWith(upToDate).login(new LoginRequest("alice", "admin123")).get("success"));
+        verify(upToDate, never()).updatePassword(anyInt(), anyString(), anyString());
+
+        // 密码错误时不升级
+        UserDAO wrongPassword = mock(UserDAO.class);
+        when(wrongPassword.findByUsername("alice")).thenReturn(user(legacy, salt));
+        assertEquals(false, authServiceWith(wrongPassword).login(new LoginRequest("alice", "nope")).get("success"));
+        verify(wrongPassword, never()).updatePassword(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("按用户名和IP限流，登录成功后重置用户名的令牌")
+    void testThrottle() {
+        LoginThrottle throttle = new LoginThrottle(3, 1, 5, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, throttle.tryAcquire("Alice", "10.0.0.1"));
+        }
+        long retryAfter = throttle.tryAcquire("alice", "10.0.0.2");
+        assertTrue(retryAfter > 0 && retryAfter <= 60, "用户名不区分大小写，换IP仍受限: " + retryAfter);
+
+        throttle.recordSuccess("ALICE");
+        assertEquals(0, throttle.tryAcquire("alice", "10.0.0.3"));
+
+        // 同一IP换用户名：IP桶容量5，前面已用掉3次
+        assertEquals(0, throttle.tryAcquire("bob", "10.0.0.1"));
+        assertEquals(0, throttle.tryAcquire("carol", "10.0.0.1"));
+        assertTrue(throttle.tryAcquire("dave", "10.0.0.1") > 0);
+    }
+
+    @Test
+    @DisplayName("连续登录失败后返回429和Retry-After，且不再计算哈希")
+    void testLoginServletThrottled() throws Exception {
+        AuthServlet servlet = new AuthServlet();
+        Field serviceField = AuthServlet.class.getDeclaredField("authService");
+        serviceField.setAccessible(true);
+        AuthService authService = (AuthService) serviceField.get(servlet);
+        UserDAO userDAO = mock(UserDAO.class);
+        Field daoField = AuthService.class.getDeclaredField("userDAO");
+        daoField.setAccessible(true);
+        daoField.set(authService, userDAO);
+
+        String salt = PasswordUtil.generateSalt();
+        when(userDAO.findByUsername("alice")).thenReturn(user(PasswordUtil.hashPassword("right", salt), salt));
+
+        String body = new ObjectMapper().writeValueAsString(new LoginRequest("alice", "wrong"));
+        int lastStatus = 0;
+        HttpServletResponse resp = null;
+        for (int i = 0; i < 6; i++) {
+            HttpServletRequest req = mock(HttpServletRequest.class);
+            resp = mock(HttpServletResponse.class);
+            when(req.getPathInfo()).thenReturn("/login");
+            when(req.getMethod()).thenReturn("POST");
+            when(req.getContentType()).thenReturn("application/json");
+            when(req.getRemoteAddr()).thenReturn("10.0.0.9");
+            when(req.getReader()).thenReturn(new BufferedReader(new StringReader(body)));
+            when(resp.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+            servlet.doPost(req, resp);
+            var status = org.mockito.ArgumentCaptor.forClass(Integer.class);
+            verify(resp).setStatus(status.capture());
+            lastStatus = status.getValue();
+        }
+
+        assertEquals(429, lastStatus);
+        verify(resp).setHeader(eq("Retry-After"), anyString());
+        verify(userDAO, times(5)).findByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("哈希线程池队列满时立即拒绝，登录返回繁忙")
+    void testExecutorRejectsWhenSaturated() throws Exception {
+        Map<String, Object> stats = PasswordHashExecutor.snapshot();
+        int threads = (Integer) stats.get("threads");
+        int capacity = (Integer) stats.get("queueCapacity");
+
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(threads + capacity);
+        try {
+            for (int i = 0; i < threads + capacity; i++) {
+                callers.submit(() -> PasswordHashExecutor.call(() -> release.await(30, TimeUnit.SECONDS)));
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((Integer) PasswordHashExecutor.snapshot().get("queueDepth") < capacity
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertThrows(RejectedExecutionException.class, () -> PasswordHashExecutor.call(() -> true));
+
+            String salt = PasswordUtil.generateSalt();
+            UserDAO userDAO = mock(UserDAO.class);
+            when(userDAO.findByUsername("alice")).thenReturn(user("$pbkdf2-sha256$1000$AAAA", salt));
+            Map<String, Object> result = authServiceWith(userDAO).login(new LoginRequest("alice", "pw"), "10.0.0.1");
+            assertEquals(AuthService.ERROR_SERVER_BUSY, result.get("errorCode"));
+            assertTrue((Long) PasswordHashExecutor.snapshot().get("rejectedTasks") >= 2);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "apexflow.benchmark", matches = "true")
+    @DisplayName("基准：不同迭代次数的单次哈希耗时与线程池吞吐量")
+    void benchmarkIterations() throws Exception {
+        int[] iterationCounts = {10_000, 100_000, 210_000, Pbkdf2PasswordHasher.DEFAULT_ITERATIONS, 600_000};
+        int samples = Integer.getInteger("apexflow.benchmark.samples", 20);
+        String salt = PasswordUtil.generateSalt();
+
+        System.out.printf("%-12s %12s %12s %14s%n", "iterations", "avg ms", "p95 ms", "logins/s/pool");
+        for (int iterations : iterationCounts) {
+            Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(iterations);
+            // 预热JIT
+            for (int i = 0; i < 3; i++) {
+                hasher.hash("warmup-password", salt);
+            }
+
+            List<Long> nanos = new ArrayList<>();
+            for (int i = 0; i < samples; i++) {
+                long start = System.nanoTime();
+                hasher.hash("benchmark-password-" + i, salt);
+                nanos.add(System.nanoTime() - start);
+            }
+            nanos.sort(null);
+            double avgMs = nanos.stream().mapToLong(Long::longValue).average().orElse(0) / 1e6;
+            double p95Ms = nanos.get((int) Math.min(nanos.size() - 1, Math.ceil(nanos.size() * 0.95) - 1)) / 1e6;
+            int threads = (Integer) PasswordHashExecutor.snapshot().get("threads");
+            System.out.printf("%-12d %12.2f %12.2f %14.1f%n", iterations, avgMs, p95Ms, threads * 1000 / avgMs);
+            assertTrue(avgMs > 0);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 import com.apex.core.dao.IProductDAO;
 import com.apex.core.dao.ProductDAO;
+import com.apex.core.dto.ProductListItem;
 import com.apex.core.model.Product;
 import com.apex.util.ConnectionPool;
 import org.junit.jupiter.api.*;
@@ -694,4 +695,31 @@ public class ProductDAOTest {
         Product retrieved = productDAO.findById(newProduct.getId());
         assertEquals(-10, retrieved.getStock(), "Stock should be -10");
     }
+
+    @Test
+    @Order(27)
+    void testFindListItems() {
+        // Act
+        List<ProductListItem> all = productDAO.findListItems(null, null, null, 1, 20);
+        List<ProductListItem> phones = productDAO.findListItems(null, "手机", null, 1, 20);
+        List<ProductListItem> offShelf = productDAO.findListItems(null, null, 0, 1, 20);
+        List<ProductListItem> byName = productDAO.findListItems("Pro", "手机", null, 1, 20);
+
+        // Assert
+        assertEquals(8, all.size());
+        assertEquals(4, phones.size());
+        assertEquals(1, offShelf.size());
+        assertEquals(4, offShelf.get(0).getId());
+        assertEquals(2, byName.size(), "关键词应该优先于分类");
+
+        ProductListItem latest = all.get(0);
+        assertEquals(8, latest.getId(), "应该按创建时间倒序");
+        assertEquals("联想ThinkPad X1", latest.getName());
+        assertEquals("电脑", latest.getCategory());
+        assertEquals(0, new BigDecimal("12999.00").compareTo(latest.getPrice()));
+        assertEquals(8, latest.getStock());
+        assertEquals(1, latest.getStatus());
+        assertEquals("thinkpad.jpg", latest.getImage());
+        assertEquals(LocalDateTime.of(2023, 12, 1, 17, 0), latest.getCreatedAt());
+    }
 }
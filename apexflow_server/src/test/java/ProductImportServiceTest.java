@@ -0,0 +1,204 @@
+import com.apex.core.dto.ProductImportResult;
+import com.apex.core.importer.ImportFormat;
+import com.apex.core.service.ProductImportService;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品批量导入测试
+ * 使用H2内存数据库，验证CSV/JSON导入的新建、更新、库存增减、库存日志，
+ * 单行错误不影响其余行，以及大文件分批导入
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ProductImportServiceTest {
+
+    private Connection conn;
+    private ProductImportService importService;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        importService = new ProductImportService();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status) VALUES " +
+                    "(1, 'iPhone 14 Pro', '手机', 7999.00, 100, 1), " +
+                    "(2, '小米13', '手机', 3999.00, 200, 1), " +
+                    "(3, '数据线', '配件', 10.00, 5, 1), " +
+                    "(4, '数据线', '配件', 12.00, 5, 1)");
+            stmt.execute("ALTER TABLE apexflow_product ALTER COLUMN id RESTART WITH 100");
+        }
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int stockOf(int productId) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT stock FROM apexflow_product WHERE id = ?")) {
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private BigDecimal priceOf(int productId) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT price FROM apexflow_product WHERE id = ?")) {
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getBigDecimal(1);
+            }
+        }
+    }
+
+    private long count(String sql) throws Exception {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("CSV导入 - 新建、更新、库存增减，错误行跳过")
+    void testCsvImportWithRowErrors() throws Exception {
+        String csv = "\uFEFFid,name,category,price,quantity,remark\r\n" +
+                "1,,,,50,补货\r\n" +
+                ",小米13,,3799.00,-20,\r\n" +
+                ",新品耳机,配件,199.00,30,\r\n" +
+                ",新品耳机,,,5,同批合并\r\n" +
+                "999,,,,10,\r\n" +
+                ",数据线,,,1,\r\n" +
+                "2,,,,-1000,\r\n" +
+                ",无价格商品,,,1,\r\n" +
+                ",\"带逗号,的名称\",,abc,1,\r\n" +
+                "1,多一列\r\n" +
+                "\r\n";
+
+        ProductImportResult result = importService.importProducts(stream(csv), ImportFormat.CSV);
+
+        assertTrue(result.isCompleted());
+        assertEquals(10, result.getTotalRows());
+        assertEquals(1, result.getCreated());
+        assertEquals(3, result.getUpdated());
+        assertEquals(6, result.getFailed());
+        assertArrayEquals(new long[]{5, 6, 7, 8, 9, 10},
+                result.getErrors().stream().mapToLong(ProductImportResult.RowError::getRow).sorted().toArray());
+
+        assertEquals(150, stockOf(1));
+        assertEquals(180, stockOf(2));
+        assertEquals(5, stockOf(3));
+        assertEquals(0, new BigDecimal("3799.00").compareTo(priceOf(2)));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM apexflow_product WHERE name = '新品耳机'"));
+        assertEquals(35, count("SELECT stock FROM apexflow_product WHERE name = '新品耳机'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM apexflow_inventory_log WHERE product_id = 1 " +
+                "AND change_type = 'purchase' AND before_stock = 100 AND after_stock = 150"));
+        assertEquals(1, count("SELECT COUNT(*) FROM apexflow_inventory_log WHERE product_id = 2 " +
+                "AND change_type = 'adjust' AND quantity = -20 AND after_stock = 180"));
+        assertEquals(3, count("SELECT COUNT(*) FROM apexflow_inventory_log"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("JSON导入 - 对象数组与NDJSON")
+    void testJsonImport() throws Exception {
+        String array = "[{\"id\": 1, \"quantity\": 10, \"status\": 0}, " +
+                "{\"name\": \"蓝牙音箱\", \"price\": 299.5, \"quantity\": 8, \"tags\": [\"忽略\"]}, " +
+                "{\"id\": 2, \"price\": {\"value\": 1}}]";
+        ProductImportResult result = importService.importProducts(stream(array), ImportFormat.JSON);
+
+        assertTrue(result.isCompleted());
+        assertEquals(3, result.getTotalRows());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals(110, stockOf(1));
+        assertEquals(0, count("SELECT status FROM apexflow_product WHERE id = 1"));
+
+        String ndjson = "{\"name\": \"蓝牙音箱\", \"quantity\": -3}\n{\"id\": 2, \"quantity\": 1}\n";
+        result = importService.importProducts(stream(ndjson), ImportFormat.JSON);
+
+        assertEquals(2, result.getUpdated());
+        assertEquals(5, count("SELECT stock FROM apexflow_product WHERE name = '蓝牙音箱'"));
+        assertEquals(201, stockOf(2));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("文件无法解析 - 停止导入并标记为未完成")
+    void testAbortOnSyntaxError() throws Exception {
+        String csv = "name,price,quantity\n商品A,1.00,1\n\"未闭合,2.00,1\n";
+
+        ProductImportResult result = importService.importProducts(stream(csv), ImportFormat.CSV);
+
+        assertFalse(result.isCompleted());
+        assertNotNull(result.getAbortReason());
+        assertEquals(0, count("SELECT COUNT(*) FROM apexflow_product WHERE name = '商品A'"));
+
+        result = importService.importProducts(stream("price,quantity\n1.00,1\n"), ImportFormat.CSV);
+        assertFalse(result.isCompleted());
+        assertEquals(0, result.getTotalRows());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("大文件导入 - 两万行分批新建后再按名称批量入库")
+    void testLargeFileImport() throws Exception {
+        int rows = 20_000;
+        StringBuilder create = new StringBuilder("name,category,price,quantity\n");
+        StringBuilder restock = new StringBuilder("name,quantity\n");
+        for (int i = 1; i <= rows; i++) {
+            create.append("批量商品").append(i).append(",批量,").append(i % 1000).append(".99,").append(i % 50).append('\n');
+            restock.append("批量商品").append(i).append(",10\n");
+        }
+
+        long startTime = System.currentTimeMillis();
+        ProductImportResult created = importService.importProducts(stream(create.toString()), ImportFormat.CSV);
+        ProductImportResult restocked = importService.importProducts(stream(restock.toString()), ImportFormat.CSV);
+        long duration = System.currentTimeMillis() - startTime;
+        System.out.println("Imported " + rows + " products and restocked them in " + duration + " ms");
+
+        assertEquals(rows, created.getCreated());
+        assertEquals(rows, restocked.getUpdated());
+        assertEquals(0, created.getFailed() + restocked.getFailed());
+        assertEquals(rows, count("SELECT COUNT(*) FROM apexflow_product WHERE category = '批量'"));
+        assertEquals(rows * 10L + (long) (rows / 50) * (49 * 50 / 2),
+                count("SELECT SUM(stock) FROM apexflow_product WHERE category = '批量'"));
+        assertEquals(rows * 2L, count("SELECT COUNT(*) FROM apexflow_inventory_log"));
+    }
+}
@@ -0,0 +1,187 @@
+import com.apex.core.dao.ProductDAO;
+import com.apex.core.dao.ProductSearchIndex;
+import com.apex.core.dto.ProductListItem;
+import com.apex.core.model.Product;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品搜索索引测试
+ * 使用H2内存数据库，验证中英文混排分词检索、分类/状态过滤、DAO写入后的增量更新以及快照加载
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ProductSearchIndexTest {
+
+    private static final Path INDEX_FILE;
+
+    static {
+        try {
+            INDEX_FILE = Files.createTempDirectory("apexflow-index").resolve("product-search.idx");
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        // 必须在ProductSearchIndex类加载前设置
+        System.setProperty("apexflow.search.productIndexFile", INDEX_FILE.toString());
+        System.setProperty("apexflow.search.productIndexFlushMs", "0");
+    }
+
+    private ProductDAO productDAO;
+    private ProductSearchIndex index;
+    private Connection conn;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+
+        productDAO = new ProductDAO();
+        index = ProductSearchIndex.shared();
+    }
+
+    @AfterAll
+    void tearDownAll() throws Exception {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+        Files.deleteIfExists(INDEX_FILE);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        Files.deleteIfExists(INDEX_FILE);
+
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("""
+                        INSERT INTO apexflow_product (id, name, category, price, stock, status, created_at) VALUES
+                        (1, '华为Mate 50', '手机', 4999.00, 10, 1, '2023-12-01 10:00:00'),
+                        (2, '华为MateBook 14', '电脑', 5999.00, 5, 1, '2023-12-02 10:00:00'),
+                        (3, 'iPhone 15 Pro', '手机', 7999.00, 8, 1, '2023-12-03 10:00:00'),
+                        (4, '小米手环8', '穿戴', 249.00, 50, 0, '2023-12-04 10:00:00'),
+                        (5, 'MacBook Pro', '电脑', 12999.00, 3, 1, '2023-12-05 10:00:00')
+                    """);
+        }
+        index.open();
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    @Test
+    @Order(1)
+    void testMixedChineseAndLatinSearch() {
+        assertTrue(index.isReady());
+
+        assertEquals(List.of(2, 1), ids(productDAO.searchByName("华为", 1, 10)), "按创建时间倒序");
+        assertEquals(List.of(2, 1), ids(productDAO.searchByName("mate", 1, 10)), "英文不区分大小写");
+        assertEquals(List.of(1), ids(productDAO.searchByName("华为Mate 50", 1, 10)));
+        assertEquals(List.of(3), ids(productDAO.searchByName("phone", 1, 10)), "英文词内子串也能命中");
+        assertEquals(List.of(4), ids(productDAO.searchByName("手环", 1, 10)));
+        assertEquals(List.of(5, 2), ids(productDAO.searchByName("book", 1, 10)));
+        assertTrue(productDAO.searchByName("华米", 1, 10).isEmpty(), "二字词需相邻出现");
+        assertTrue(productDAO.searchByName("不存在", 1, 10).isEmpty());
+
+        assertEquals(List.of(5, 3), ids(productDAO.searchByName("Pro", 1, 2)));
+        assertEquals(List.of(1), ids(productDAO.searchByName("华为", 2, 1)), "分页");
+    }
+
+    @Test
+    @Order(2)
+    void testCategoryAndStatusFilters() {
+        assertEquals(List.of(3, 1), ids(productDAO.searchByName("手机", 1, 10)), "关键词同时匹配分类");
+        assertEquals(List.of(2), ids(productDAO.search("华为", "电脑", null, 1, 10)));
+        assertEquals(List.of(5, 2), ids(productDAO.search(null, "电脑", 1, 1, 10)));
+        assertEquals(List.of(4), ids(productDAO.search("小米", null, 0, 1, 10)));
+        assertTrue(productDAO.search("小米", null, 1, 1, 10).isEmpty());
+
+        List<ProductListItem> items = productDAO.findListItems("mate", null, null, 1, 10);
+        assertEquals(List.of(2, 1), items.stream().map(ProductListItem::getId).toList());
+    }
+
+    @Test
+    @Order(3)
+    void testIncrementalUpdatesFromDao() {
+        Product product = new Product();
+        product.setName("荣耀Magic6");
+        product.setCategory("手机");
+        product.setPrice(new BigDecimal("3999.00"));
+        product.setStock(20);
+        product.setStatus(1);
+        product.setCreatedAt(LocalDateTime.of(2023, 12, 6, 10, 0));
+        assertTrue(productDAO.create(product));
+        assertEquals(List.of(product.getId()), ids(productDAO.searchByName("荣耀", 1, 10)));
+
+        Product loaded = productDAO.findById(product.getId());
+        loaded.setName("荣耀Magic6 Pro");
+        assertTrue(productDAO.update(loaded));
+        assertTrue(ids(productDAO.searchByName("Pro", 1, 10)).contains(product.getId()));
+
+        loaded.setName("Honor Magic6");
+        assertTrue(productDAO.update(loaded));
+        assertTrue(productDAO.searchByName("荣耀", 1, 10).isEmpty(), "改名后旧词项不应命中");
+
+        assertTrue(productDAO.updateStatus(product.getId(), 0));
+        assertEquals(List.of(product.getId()), ids(productDAO.search("magic", null, 0, 1, 10)));
+        assertTrue(productDAO.search("magic", null, 1, 1, 10).isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    void testReopenLoadsSnapshotAndCatchesUp() throws Exception {
+        assertTrue(Files.size(INDEX_FILE) > 0, "打开后应写入快照");
+
+        index.reset();
+        try (var stmt = conn.createStatement()) {
+            // 模拟停机期间其他节点的写入：新增一行，修改已有行（与DAO一样自增行版本）
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status, created_at) VALUES " +
+                    "(6, 'OPPO Find X7', '手机', 4999.00, 6, 1, '2023-12-07 10:00:00')");
+            stmt.execute("UPDATE apexflow_product SET name = 'Redmi手环', version = version + 1 WHERE id = 4");
+        }
+        index.open();
+
+        assertEquals(List.of(6), ids(productDAO.searchByName("oppo", 1, 10)));
+        assertEquals(List.of(4), ids(productDAO.search("redmi", null, null, 1, 10)), "行版本变化的商品应重新读取");
+        assertTrue(productDAO.search("小米", null, null, 1, 10).isEmpty(), "修改前的词项不应命中");
+    }
+
+    @Test
+    @Order(5)
+    void testCatchUpRemovesDeletedProducts() throws Exception {
+        index.reset();
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM apexflow_product WHERE id = 3");
+        }
+        index.open();
+
+        assertTrue(productDAO.searchByName("iphone", 1, 10).isEmpty(), "已删除的商品应移出索引");
+        assertEquals(List.of(2, 1), ids(productDAO.searchByName("华为", 1, 10)));
+    }
+
+    @Test
+    @Order(6)
+    void testFallsBackToLikeBeforeOpen() {
+        index.reset();
+        assertFalse(index.isReady());
+
+        assertEquals(List.of(2, 1), ids(productDAO.searchByName("华为", 1, 10)));
+        assertEquals(List.of(2), ids(productDAO.search("华为", "电脑", 1, 1, 10)));
+    }
+}
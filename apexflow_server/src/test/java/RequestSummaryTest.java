@@ -0,0 +1,180 @@
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.status.Status;
+import com.apex.config.DebugDiscardingAsyncAppender;
+import com.apex.util.ConnectionPool;
+import com.apex.util.RequestSummary;
+import com.apex.util.Transactions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求汇总日志与生产日志配置测试
+ * 验证每个请求只输出一条汇总事件且SQL次数/耗时按处理线程累计（事务内不重复计数），
+ * 以及logback-production.xml能正常加载：异步Appender只丢弃DEBUG/TRACE、输出为JSON。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RequestSummaryTest {
+
+    @TempDir
+    static Path logDir;
+
+    private Connection conn;
+    private ListAppender<ILoggingEvent> events;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+
+        Logger summaryLogger = (Logger) LoggerFactory.getLogger("REQUEST_SUMMARY");
+        summaryLogger.setLevel(Level.INFO);
+        events = new ListAppender<>();
+        events.start();
+        summaryLogger.addAppender(events);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        ((Logger) LoggerFactory.getLogger("REQUEST_SUMMARY")).detachAppender(events);
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        events.list.clear();
+    }
+
+    private static int countProducts() throws Exception {
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement("SELECT COUNT(*) FROM apexflow_product");
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        Map<String, Object> fields = new HashMap<>();
+        event.getKeyValuePairs().forEach(kv -> fields.put(kv.key, kv.value));
+        return fields;
+    }
+
+    @Test
+    @DisplayName("一个请求输出一条汇总事件，累计SQL次数和连接获取")
+    void testSingleSummaryPerRequest() throws Exception {
+        RequestSummary.begin("GET", "/api/inventory/products", "read", 2_000_000L);
+        countProducts();
+        countProducts();
+        countProducts();
+        assertEquals(3, RequestSummary.sqlCount());
+        RequestSummary.end(200);
+
+        assertEquals(1, events.list.size());
+        Map<String, Object> fields = fields(events.list.get(0));
+        assertEquals("GET", fields.get("method"));
+        assertEquals("/api/inventory/products", fields.get("uri"));
+        assertEquals(200, fields.get("status"));
+        assertEquals("read", fields.get("workload"));
+        assertEquals(3, fields.get("sqlCount"));
+        assertEquals(3, fields.get("connections"));
+        assertEquals(2.0, (Double) fields.get("queueMs"), 0.001);
+        assertTrue((Double) fields.get("sqlMs") >= 0);
+
+        // 没有打开汇总的线程不记录也不输出
+        countProducts();
+        assertEquals(0, RequestSummary.sqlCount());
+        RequestSummary.end(200);
+        assertEquals(1, events.list.size());
+    }
+
+    @Test
+    @DisplayName("事务内的语句只计一次")
+    void testTransactionStatementsCountedOnce() throws Exception {
+        RequestSummary.begin("POST", "/api/orders", null, 0);
+        Transactions.execute(() -> {
+            countProducts();
+            countProducts();
+            return null;
+        });
+        RequestSummary.end(201);
+
+        Map<String, Object> fields = fields(events.list.get(0));
+        assertEquals(2, fields.get("sqlCount"));
+        assertEquals(1, fields.get("connections"), "事务只从连接池获取一次连接");
+    }
+
+    @Test
+    @DisplayName("生产配置加载成功：异步Appender、只丢弃DEBUG/TRACE、JSON输出")
+    void testProductionConfiguration() throws Exception {
+        System.setProperty("apexflow.log.dir", logDir.toString());
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        try {
+            JoranConfigurator configurator = new JoranConfigurator();
+            configurator.setContext(context);
+            configurator.doConfigure(getClass().getClassLoader().getResource("logback-production.xml"));
+
+            for (Status status : context.getStatusManager().getCopyOfStatusList()) {
+                assertTrue(status.getLevel() < Status.ERROR, status.toString());
+            }
+
+            Appender<ILoggingEvent> async = context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC_FILE");
+            assertInstanceOf(DebugDiscardingAsyncAppender.class, async);
+            assertEquals(Level.WARN, context.getLogger("com.apex.core.dao.OrderInfoDAO").getEffectiveLevel());
+            assertEquals(Level.INFO, context.getLogger("REQUEST_SUMMARY").getEffectiveLevel());
+
+            var probe = new DebugDiscardingAsyncAppender() {
+                boolean discardable(Level level) {
+                    LoggingEvent event = new LoggingEvent();
+                    event.setLevel(level);
+                    return isDiscardable(event);
+                }
+            };
+            assertTrue(probe.discardable(Level.DEBUG));
+            assertTrue(probe.discardable(Level.TRACE));
+            assertFalse(probe.discardable(Level.INFO));
+            assertFalse(probe.discardable(Level.WARN));
+
+            context.getLogger("REQUEST_SUMMARY").atInfo()
+                    .addKeyValue("sqlCount", 4)
+                    .log("[REQUEST_SUMMARY] GET /api/orders/ORD001 -> 200");
+        } finally {
+            // stop()会排空异步队列
+            context.stop();
+            System.clearProperty("apexflow.log.dir");
+        }
+
+        String json = Files.readString(logDir.resolve("apexflow.json"), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{"), json);
+        assertTrue(json.contains("\"loggerName\":\"REQUEST_SUMMARY\""), json);
+        assertTrue(json.contains("sqlCount"), json);
+    }
+}
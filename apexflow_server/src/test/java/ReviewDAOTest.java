@@ -1,5 +1,6 @@
 import com.apex.core.dao.ReviewDAO;
 import com.apex.core.dto.RatingDistribution;
+import com.apex.core.dto.ReviewSummary;
 import com.apex.core.model.Review;
 import com.apex.util.ConnectionPool;
 import org.junit.jupiter.api.*;
@@ -466,4 +467,48 @@ public class ReviewDAOTest {
         assertEquals(0, distribution.getRating5(), "应该有0个5星评价");
         assertEquals(3, distribution.getTotal(), "总评价数应该是3个");
     }
+
+    @Test
+    @Order(21)
+    void testFindSummaries() {
+        // Act
+        List<ReviewSummary> latest = reviewDAO.findSummaries(null, null, 1, 10);
+        List<ReviewSummary> byProduct = reviewDAO.findSummaries(1, null, 1, 10);
+        List<ReviewSummary> byUser = reviewDAO.findSummaries(null, 2, 1, 10);
+
+        // Assert
+        assertEquals(5, latest.size());
+        assertEquals(3, byProduct.size());
+        assertEquals(2, byUser.size());
+
+        ReviewSummary first = byProduct.get(0);
+        assertEquals(4, first.getId(), "应该按创建时间倒序");
+        assertEquals("第二次购买了，非常满意", first.getExcerpt());
+        assertTrue(first.getHasImages());
+        assertFalse(first.getAnonymous());
+
+        ReviewSummary anonymous = byProduct.get(1);
+        assertEquals(3, anonymous.getId());
+        assertFalse(anonymous.getHasImages(), "没有图片的评价应该标记为无图");
+        assertTrue(anonymous.getAnonymous());
+    }
+
+    @Test
+    @Order(22)
+    void testFindSummaries_ExcerptTruncated() {
+        // Arrange
+        String longContent = "好".repeat(ReviewSummary.EXCERPT_LENGTH + 50);
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("UPDATE apexflow_review SET content = '" + longContent + "' WHERE id = 5");
+        } catch (Exception e) {
+            fail("Failed to update review content");
+        }
+
+        // Act
+        List<ReviewSummary> summaries = reviewDAO.findSummaries(3, null, 1, 10);
+
+        // Assert
+        assertEquals(1, summaries.size());
+        assertEquals(ReviewSummary.EXCERPT_LENGTH, summaries.get(0).getExcerpt().length());
+    }
 }
@@ -0,0 +1,219 @@
+import com.apex.core.dao.AfterSalesDAO;
+import com.apex.core.dao.RowCounts;
+import com.apex.core.dto.PagedResult;
+import com.apex.core.dto.TotalCount;
+import com.apex.core.model.AfterSales;
+import com.apex.core.service.AfterSalesService;
+import com.apex.core.service.RowCountService;
+import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RowCounts计数存储与RowCountService测试
+ * 使用H2内存数据库，验证DAO写入后的增量维护、失效与分页总数的精确标记，
+ * 以及事务中的写入在提交后才计入、事务未结束时并发查询的结果不被缓存
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class RowCountsTest {
+
+    private static final String TABLE = "apexflow_after_sales";
+
+    private AfterSalesDAO afterSalesDAO;
+    private RowCountService rowCountService;
+    private Connection conn;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+
+        afterSalesDAO = new AfterSalesDAO();
+        rowCountService = new RowCountService();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("""
+                        INSERT INTO apexflow_order (id, user_id, total_amount, status, payment_method, created_at) VALUES
+                        ('ORDER001', 1001, 7999.00, 4, 'alipay', '2023-12-01 10:00:00')
+                    """);
+            stmt.execute("""
+                        INSERT INTO apexflow_after_sales (id, order_id, type, reason, status, apply_time) VALUES
+                        (1, 'ORDER001', 1, '质量问题', 1, '2023-12-02 10:00:00'),
+                        (2, 'ORDER001', 2, '颜色不喜欢', 2, '2023-12-02 11:00:00'),
+                        (3, 'ORDER001', 1, '功能故障', 1, '2023-12-02 12:00:00')
+                    """);
+        }
+    }
+
+    private AfterSales newAfterSales(int status) {
+        AfterSales afterSales = new AfterSales();
+        afterSales.setOrderId("ORDER001");
+        afterSales.setType(1);
+        afterSales.setReason("测试");
+        afterSales.setStatus(status);
+        afterSales.setApplyTime(LocalDateTime.now());
+        return afterSales;
+    }
+
+    @Test
+    @Order(1)
+    void testCountersFollowDaoInsertsAndDeletes() throws Exception {
+        assertEquals(3, RowCounts.count(TABLE));
+        assertEquals(2, RowCounts.count(TABLE, "status", 1));
+        assertEquals(1, RowCounts.count(TABLE, "status", 2));
+
+        AfterSales created = newAfterSales(1);
+        assertTrue(afterSalesDAO.create(created));
+        assertEquals(4, RowCounts.count(TABLE));
+        assertEquals(3, RowCounts.count(TABLE, "status", 1));
+        assertEquals(1, RowCounts.count(TABLE, "status", 2), "其他状态的计数不应变化");
+
+        assertTrue(afterSalesDAO.delete(created.getId()));
+        assertEquals(3, RowCounts.count(TABLE));
+        assertEquals(2, RowCounts.count(TABLE, "status", 1), "删除后过滤计数应重新查询得到");
+    }
+
+    @Test
+    @Order(2)
+    void testCountersServedWithoutQueryUntilInvalidated() throws Exception {
+        assertEquals(3, RowCounts.count(TABLE));
+
+        // 绕过DAO写入的行不会反映到已缓存的计数中
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_after_sales (id, order_id, type, reason, status, apply_time) VALUES " +
+                    "(10, 'ORDER001', 1, '直接写入', 1, '2023-12-03 10:00:00')");
+        }
+        assertEquals(3, RowCounts.count(TABLE), "计数应来自存储而非重新查询");
+
+        RowCounts.invalidate(TABLE);
+        assertEquals(4, RowCounts.count(TABLE));
+    }
+
+    @Test
+    @Order(3)
+    void testStatusUpdateInvalidatesFilteredCounters() throws Exception {
+        assertEquals(2, RowCounts.count(TABLE, "status", 1));
+        assertEquals(1, RowCounts.count(TABLE, "status", 2));
+
+        assertTrue(afterSalesDAO.updateStatus(1, 2, "审核通过"));
+
+        assertEquals(1, RowCounts.count(TABLE, "status", 1));
+        assertEquals(2, RowCounts.count(TABLE, "status", 2));
+        assertEquals(3, RowCounts.count(TABLE), "状态变更不影响总数");
+    }
+
+    @Test
+    @Order(4)
+    void testCountNotStoredWhileWriteInProgress() throws Exception {
+        try (RowCounts.Write ignored = RowCounts.beginWrite(TABLE)) {
+            assertEquals(3, RowCounts.count(TABLE));
+            try (var stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO apexflow_after_sales (id, order_id, type, reason, status, apply_time) VALUES " +
+                        "(11, 'ORDER001', 1, '并发写入', 1, '2023-12-03 10:00:00')");
+            }
+        }
+        assertEquals(4, RowCounts.count(TABLE), "写入期间查询的计数不应被缓存");
+    }
+
+    @Test
+    @Order(5)
+    void testTotalsFromPageAndCache() {
+        TotalCount fromPage = rowCountService.countFromPage(3, 20, 5, () -> fail("末页不应触发计数"));
+        assertEquals(45, fromPage.getCount());
+        assertTrue(fromPage.isExact());
+
+        TotalCount fullPage = rowCountService.countFromPage(1, 2, 2, () -> rowCountService.countAll(TABLE));
+        assertEquals(3, fullPage.getCount());
+        assertTrue(fullPage.isExact());
+
+        AtomicInteger queries = new AtomicInteger();
+        String key = "test:adhoc:" + System.nanoTime();
+        TotalCount first = rowCountService.countCached(key, () -> {
+            queries.incrementAndGet();
+            return 7;
+        });
+        TotalCount second = rowCountService.countCached(key, () -> {
+            queries.incrementAndGet();
+            return 8;
+        });
+
+        assertTrue(first.isExact());
+        assertEquals(7, second.getCount());
+        assertFalse(second.isExact(), "缓存命中的总数应标记为估算值");
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    @Order(6)
+    void testAfterSalesByStatusUsesFilteredTotal() {
+        AfterSalesService service = new AfterSalesService();
+
+        PagedResult<AfterSales> result = service.getAfterSalesByStatus(2, 1, 1);
+        assertEquals(1, result.getTotalCount(), "按状态查询的总数应只统计该状态");
+        assertTrue(result.isTotalExact());
+
+        PagedResult<AfterSales> pending = service.getAfterSalesByStatus(1, 1, 1);
+        assertEquals(2, pending.getTotalCount());
+    }
+
+    @Test
+    @Order(7)
+    void testTransactionalWriteCountedOnlyAfterCommit() throws Exception {
+        // 事务未结束时其他线程查询到的是提交前的行数，不能作为精确值缓存
+        Transactions.execute(() -> {
+            assertTrue(afterSalesDAO.create(newAfterSales(1)));
+            assertEquals(3, CompletableFuture.supplyAsync(this::countOnOtherThread).get());
+            return null;
+        });
+        assertEquals(4, RowCounts.count(TABLE), "提交后计数应包含事务中的写入");
+
+        // 已缓存的计数在提交后才应用增量，回滚时保持不变
+        assertThrows(IllegalStateException.class, () -> Transactions.execute(() -> {
+            assertTrue(afterSalesDAO.create(newAfterSales(1)));
+            assertEquals(4, CompletableFuture.supplyAsync(this::countOnOtherThread).get());
+            throw new IllegalStateException("rollback");
+        }));
+        assertEquals(4, RowCounts.count(TABLE), "回滚的写入不应计入");
+
+        Transactions.execute(() -> {
+            assertTrue(afterSalesDAO.create(newAfterSales(2)));
+            return null;
+        });
+        assertEquals(5, RowCounts.count(TABLE));
+    }
+
+    private long countOnOtherThread() {
+        try {
+            return RowCounts.count(TABLE);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
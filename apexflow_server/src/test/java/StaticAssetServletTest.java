@@ -0,0 +1,204 @@
+import com.apex.config.StaticAssetServlet;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 静态资源Servlet测试
+ * 使用临时目录模拟webapp/assets，验证哈希文件的长期缓存、强ETag与304、
+ * 按Accept-Encoding选择预压缩文件、sendfile属性以及路径穿越防护
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class StaticAssetServletTest {
+
+    private static final String HASHED = "index-C-PAn4RE.js";
+    private static final String BODY = "console.log('apexflow');";
+
+    @TempDir
+    static Path webRoot;
+
+    private StaticAssetServlet servlet;
+
+    private ByteArrayOutputStream body;
+    private Map<String, String> headers;
+    private Map<String, Object> attributes;
+    private HttpServletResponse response;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        Path assets = Files.createDirectories(webRoot.resolve("assets"));
+        Files.writeString(assets.resolve(HASHED), BODY);
+        Files.writeString(assets.resolve(HASHED + ".br"), "br-bytes");
+        Files.writeString(assets.resolve(HASHED + ".gz"), "gzip-bytes");
+        Files.writeString(assets.resolve("logo.png"), "png-bytes");
+        Files.writeString(webRoot.resolve("secret.txt"), "secret");
+
+        ServletContext context = mock(ServletContext.class);
+        when(context.getRealPath("/assets")).thenReturn(assets.toString());
+        when(context.getMimeType(anyString())).thenAnswer(inv ->
+                inv.getArgument(0, String.class).endsWith(".js") ? "text/javascript" : "image/png");
+        ServletConfig config = mock(ServletConfig.class);
+        when(config.getServletContext()).thenReturn(context);
+
+        servlet = new StaticAssetServlet();
+        servlet.init(config);
+    }
+
+    private HttpServletRequest request(String pathInfo, String acceptEncoding, String ifNoneMatch) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getPathInfo()).thenReturn(pathInfo);
+        when(request.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(request.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        attributes = new HashMap<>();
+        when(request.getAttribute(anyString())).thenAnswer(inv -> attributes.get(inv.getArgument(0, String.class)));
+        doAnswer(inv -> attributes.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(request).setAttribute(anyString(), any());
+        return request;
+    }
+
+    private int get(HttpServletRequest request) throws Exception {
+        body = new ByteArrayOutputStream();
+        headers = new HashMap<>();
+        int[] status = {HttpServletResponse.SC_OK};
+
+        response = mock(HttpServletResponse.class);
+        doAnswer(inv -> headers.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(response).setHeader(anyString(), anyString());
+        doAnswer(inv -> status[0] = inv.getArgument(0)).when(response).setStatus(anyInt());
+        doAnswer(inv -> status[0] = inv.getArgument(0)).when(response).sendError(anyInt());
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+        });
+
+        servlet.service(request, response);
+        return status[0];
+    }
+
+    @Test
+    @DisplayName("哈希文件 - 长期不可变缓存、强ETag、零拷贝输出原文")
+    void testHashedAssetIsImmutable() throws Exception {
+        assertEquals(200, get(request("/" + HASHED, null, null)));
+
+        assertEquals(BODY, body.toString(StandardCharsets.UTF_8));
+        assertEquals("public, max-age=31536000, immutable", headers.get("Cache-Control"));
+        assertEquals("Accept-Encoding", headers.get("Vary"));
+        assertNull(headers.get("Content-Encoding"));
+        String etag = headers.get("ETag");
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\"") && !etag.startsWith("W/"), "应为强ETag: " + etag);
+        verify(response).setContentType("text/javascript");
+        verify(response).setContentLengthLong(BODY.length());
+    }
+
+    @Test
+    @DisplayName("If-None-Match命中返回304且不输出内容")
+    void testIfNoneMatchReturns304() throws Exception {
+        get(request("/" + HASHED, null, null));
+        String etag = headers.get("ETag");
+
+        assertEquals(304, get(request("/" + HASHED, null, "\"other\", " + etag)));
+        assertEquals(0, body.size());
+        assertEquals(etag, headers.get("ETag"));
+
+        assertEquals(200, get(request("/" + HASHED, null, "\"stale\"")));
+    }
+
+    @Test
+    @DisplayName("按Accept-Encoding选择br/gzip预压缩文件，各自有独立ETag")
+    void testPrecompressedVariants() throws Exception {
+        get(request("/" + HASHED, null, null));
+        String identityTag = headers.get("ETag");
+
+        assertEquals(200, get(request("/" + HASHED, "gzip, deflate, br", null)));
+        assertEquals("br", headers.get("Content-Encoding"));
+        assertEquals("br-bytes", body.toString(StandardCharsets.UTF_8));
+        assertNotEquals(identityTag, headers.get("ETag"));
+        verify(response).setContentType("text/javascript");
+
+        assertEquals(200, get(request("/" + HASHED, "gzip, br;q=0", null)));
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals("gzip-bytes", body.toString(StandardCharsets.UTF_8));
+
+        // 没有预压缩文件时返回原文
+        assertEquals(200, get(request("/logo.png", "br, gzip", null)));
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals("no-cache", headers.get("Cache-Control"), "非哈希文件需要重新验证");
+    }
+
+    @Test
+    @DisplayName("容器支持sendfile时只设置请求属性，由容器发送文件")
+    void testSendfileWhenSupported() throws Exception {
+        HttpServletRequest request = request("/" + HASHED, "gzip", null);
+        attributes.put("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        assertEquals(200, get(request));
+        assertEquals(0, body.size());
+        assertTrue(attributes.get("org.apache.tomcat.sendfile.filename").toString().endsWith(HASHED + ".gz"));
+        assertEquals(0L, attributes.get("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) "gzip-bytes".length(), attributes.get("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    @DisplayName("路径穿越和不存在的文件返回404")
+    void testNotFound() throws Exception {
+        assertEquals(404, get(request("/../secret.txt", null, null)));
+        assertEquals(404, get(request("/missing-AAAAAAAA.js", null, null)));
+        assertEquals(404, get(request("/", null, null)));
+    }
+
+    @Test
+    @DisplayName("Vite哈希文件名识别")
+    void testContentHashDetection() {
+        Map<String, Boolean> names = Map.of(
+                "index-C-PAn4RE.js", true,
+                "AfterSales--lz-6mtL.js", true,
+                "AfterSales-B5ICvmgp.css", true,
+                "logo.png", false,
+                "vendor.min.js", false,
+                "a-short.js", false);
+        names.forEach((name, hashed) -> assertEquals(hashed, invokeIsContentHashed(name), name));
+    }
+
+    private static boolean invokeIsContentHashed(String name) {
+        try {
+            var method = StaticAssetServlet.class.getDeclaredMethod("isContentHashed", String.class);
+            method.setAccessible(true);
+            return (boolean) method.invoke(null, name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
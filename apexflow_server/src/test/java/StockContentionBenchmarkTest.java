@@ -0,0 +1,283 @@
+import com.apex.core.dao.IInventoryLogDAO;
+import com.apex.core.dao.InventoryLogDAO;
+import com.apex.core.dao.ProductDAO;
+import com.apex.core.dao.StockReservationDAO;
+import com.apex.core.model.InventoryLog;
+import com.apex.core.model.Product;
+import com.apex.core.reservation.StockReservations;
+import com.apex.core.service.InventoryService;
+import com.apex.core.service.StockCoordinator;
+import com.apex.core.service.StockCoordinator.Outcome;
+import com.apex.util.ConnectionPool;
+import com.apex.util.Transactions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 热点商品并发扣减测试
+ * 验证StockCoordinator在大量线程同时扣减同一商品时不超卖、不占用待支付订单的预留、日志逐条完整，
+ * 并且请求被合并为更少的事务；在调用方事务中写入失败时异常抛出，由调用方事务整体回滚；
+ * 基准部分对比逐个请求扣减与合并扣减的吞吐量。
+ *
+ * 基准部分默认跳过：
+ * mvn test -Dtest=StockContentionBenchmarkTest -Dapexflow.benchmark=true
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class StockContentionBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("apexflow.benchmark.threads", 64);
+    private static final int REQUESTS = Integer.getInteger("apexflow.benchmark.requests", 5000);
+
+    private Connection conn;
+    private ProductDAO productDAO;
+    private InventoryLogDAO inventoryLogDAO;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        productDAO = new ProductDAO();
+        inventoryLogDAO = new InventoryLogDAO();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+    }
+
+    private void insertProduct(int id, int stock) throws Exception {
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status) VALUES " +
+                    "(" + id + ", 'Hot SKU " + id + "', '秒杀', 99.00, " + stock + ", 1)");
+        }
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("并发扣减同一商品 - 不超卖，日志完整，请求被合并")
+    void testConcurrentDecreaseDoesNotOversell() throws Exception {
+        insertProduct(1, 150);
+        StockCoordinator coordinator = new StockCoordinator(productDAO, inventoryLogDAO);
+
+        int requests = 200;
+        ConcurrentMap<Outcome, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                String orderId = "SECKILL_" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Outcome outcome = coordinator.decrease(1, 1, orderId);
+                    outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(150, outcomes.getOrDefault(Outcome.APPLIED, new AtomicInteger()).get());
+        assertEquals(50, outcomes.getOrDefault(Outcome.INSUFFICIENT, new AtomicInteger()).get());
+        assertEquals(0, queryLong("SELECT stock FROM apexflow_product WHERE id = 1"));
+        assertEquals(150, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log " +
+                "WHERE product_id = 1 AND change_type = 'sale' AND quantity = -1"));
+        assertEquals(150, queryLong("SELECT COUNT(DISTINCT after_stock) FROM apexflow_inventory_log"),
+                "每条日志的库存快照应连续且不重复");
+        assertEquals(requests, coordinator.getRequestCount());
+        assertTrue(coordinator.getBatchCount() < coordinator.getRequestCount(),
+                "并发请求应被合并执行，batches=" + coordinator.getBatchCount());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("InventoryService - 商品不存在和库存不足返回false")
+    void testInventoryServiceOutcomes() throws Exception {
+        insertProduct(2, 3);
+        InventoryService inventoryService = new InventoryService(productDAO, inventoryLogDAO);
+
+        assertTrue(inventoryService.decreaseStock(2, 2, "ORDER_A"));
+        assertFalse(inventoryService.decreaseStock(2, 2, "ORDER_B"), "剩余1件，不足2件");
+        assertFalse(inventoryService.decreaseStock(999, 1, "ORDER_C"));
+        assertEquals(1, queryLong("SELECT stock FROM apexflow_product WHERE id = 2"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log WHERE product_id = 2"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("并发扣减 - 待支付订单预留的库存不被卖出")
+    void testConcurrentDecreaseKeepsReservedStock() throws Exception {
+        insertProduct(3, 100);
+        StockReservations reservations = new StockReservations(new StockReservationDAO(), 60_000L);
+        Transactions.execute(() -> {
+            reservations.hold("ORDER_HELD", Map.of(3, 30), Map.of(3, 100));
+            return null;
+        });
+        StockCoordinator coordinator = new StockCoordinator(productDAO, inventoryLogDAO, reservations);
+
+        int requests = 100;
+        ConcurrentMap<Outcome, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Outcome outcome = coordinator.decrease(3, 1, null);
+                    outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(70, outcomes.getOrDefault(Outcome.APPLIED, new AtomicInteger()).get());
+        assertEquals(30, outcomes.getOrDefault(Outcome.INSUFFICIENT, new AtomicInteger()).get());
+        assertEquals(30, queryLong("SELECT stock FROM apexflow_product WHERE id = 3"), "预留的30件仍在库存中");
+        assertEquals(0, reservations.available(3, 30));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("调用方事务中写日志失败 - 抛出异常，扣减随调用方事务回滚")
+    void testJoinedFailurePropagates() throws Exception {
+        insertProduct(4, 10);
+        IInventoryLogDAO failingLogs = mock(IInventoryLogDAO.class);
+        when(failingLogs.createBatch(anyList())).thenReturn(false);
+        StockCoordinator coordinator = new StockCoordinator(productDAO, failingLogs,
+                new StockReservations(new StockReservationDAO(), 60_000L));
+
+        assertThrows(Exception.class, () -> Transactions.execute(() -> {
+            coordinator.decrease(4, 2, "ORDER_JOINED");
+            return null;
+        }));
+        assertEquals(10, queryLong("SELECT stock FROM apexflow_product WHERE id = 4"));
+    }
+
+    @Test
+    @Order(5)
+    @EnabledIfSystemProperty(named = "apexflow.benchmark", matches = "true")
+    void benchmarkPerRequestVersusCoalesced() throws Exception {
+        StockCoordinator coordinator = new StockCoordinator(productDAO, inventoryLogDAO);
+
+        // 预热
+        insertProduct(10, REQUESTS);
+        run(REQUESTS / 10, () -> decreasePerRequest(10));
+        insertProduct(11, REQUESTS);
+        run(REQUESTS / 10, () -> coordinator.decrease(11, 1, null) == Outcome.APPLIED);
+
+        insertProduct(20, REQUESTS);
+        double perRequest = run(REQUESTS, () -> decreasePerRequest(20));
+        long batchesBefore = coordinator.getBatchCount();
+        insertProduct(21, REQUESTS);
+        double coalesced = run(REQUESTS, () -> coordinator.decrease(21, 1, null) == Outcome.APPLIED);
+        long batches = coordinator.getBatchCount() - batchesBefore;
+
+        assertEquals(0, queryLong("SELECT stock FROM apexflow_product WHERE id = 21"));
+
+        System.out.printf("[BENCHMARK] requests=%d threads=%d poolSize=%d%n",
+                REQUESTS, THREADS, ConnectionPool.getMaximumPoolSize());
+        System.out.printf("[BENCHMARK] per-request: %.1f req/s%n", perRequest);
+        System.out.printf("[BENCHMARK] coalesced:   %.1f req/s (%d batches, %.1f requests/batch)%n",
+                coalesced, batches, (double) REQUESTS / batches);
+    }
+
+    /**
+     * 合并前的扣减方式：查询校验、条件更新、写一条日志，各自占用一次连接
+     */
+    private boolean decreasePerRequest(int productId) {
+        Product product = productDAO.findById(productId);
+        if (product == null || product.getStock() < 1) {
+            return false;
+        }
+        int beforeStock = product.getStock();
+        if (!productDAO.decreaseStock(productId, 1)) {
+            return false;
+        }
+        InventoryLog log = new InventoryLog();
+        log.setProductId(productId);
+        log.setChangeType("sale");
+        log.setQuantity(-1);
+        log.setBeforeStock(beforeStock);
+        log.setAfterStock(beforeStock - 1);
+        log.setCreatedAt(LocalDateTime.now());
+        return inventoryLogDAO.create(log);
+    }
+
+    /**
+     * 以THREADS个线程并发执行扣减，返回每秒完成的请求数
+     */
+    private double run(int requests, Callable<Boolean> decrease) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < requests; i++) {
+                executor.execute(() -> {
+                    try {
+                        if (!decrease.call()) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.MINUTES), "基准请求未在限定时间内完成");
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals(0, failures.get(), "库存充足时不应有失败请求");
+        return requests / (elapsedNanos / 1_000_000_000.0);
+    }
+}
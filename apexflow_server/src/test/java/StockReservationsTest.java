@@ -0,0 +1,260 @@
+import com.apex.core.dao.*;
+import com.apex.core.dto.ProductImportResult;
+import com.apex.core.event.OutboxDispatcher;
+import com.apex.core.importer.ImportFormat;
+import com.apex.core.model.OrderInfo;
+import com.apex.core.model.OrderItem;
+import com.apex.core.model.Product;
+import com.apex.core.reservation.StockReservations;
+import com.apex.core.reservation.TimerWheel;
+import com.apex.core.service.InventoryService;
+import com.apex.core.service.OrderService;
+import com.apex.core.service.ProductImportService;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 待支付订单库存预留测试
+ * 使用H2内存数据库，验证下单预留不扣减库存、可售数量校验、支付时转为扣减、
+ * 取消/删除时释放预留、到期清扫释放、重启后从预留表重建，以及手工调整和导入扣减不能动用预留
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class StockReservationsTest {
+
+    private static final long TTL_MS = 30 * 60_000L;
+
+    private Connection conn;
+    private OutboxDispatcher dispatcher;
+    private StockReservations reservations;
+    private OrderService orderService;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        dispatcher = new OutboxDispatcher(new OutboxDAO(), 3, 0);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_product (id, name, category, price, stock, status) VALUES " +
+                    "(1, 'iPhone 14 Pro', '手机', 7999.00, 10, 1), " +
+                    "(2, 'AirPods Pro', '耳机', 1899.00, 5, 1)");
+        }
+        reservations = new StockReservations(new StockReservationDAO(), TTL_MS);
+        orderService = new OrderService(
+                new OrderInfoDAO(), new OrderItemDAO(), new ProductDAO(), new InventoryLogDAO(),
+                new LogisticsDAO(), new IncomeDAO(), new AfterSalesDAO(), new ReviewDAO(),
+                dispatcher, new ArchiveDAO(), reservations);
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private long stockOf(int productId) throws Exception {
+        return queryLong("SELECT stock FROM apexflow_product WHERE id = " + productId);
+    }
+
+    private boolean placeOrder(String orderId, int status, int iphones, int airpods) {
+        OrderInfo order = new OrderInfo();
+        order.setId(orderId);
+        order.setUserId(1001);
+        order.setTotalAmount(new BigDecimal("100.00"));
+        order.setStatus(status);
+        order.setPaymentMethod("alipay");
+        order.setCreatedAt(LocalDateTime.now());
+
+        List<OrderItem> items = new ArrayList<>();
+        if (iphones > 0) {
+            items.add(item(orderId, 1, iphones));
+        }
+        if (airpods > 0) {
+            items.add(item(orderId, 2, airpods));
+        }
+        return orderService.createOrder(order, items);
+    }
+
+    private static OrderItem item(String orderId, int productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setOrderId(orderId);
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal("1.00"));
+        return item;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("待支付订单预留库存，支付时转为扣减")
+    void testHoldAndConvertOnPayment() throws Exception {
+        assertTrue(placeOrder("HOLD_A", 1, 6, 1));
+
+        assertEquals(10, stockOf(1), "待支付订单不扣减库存");
+        assertEquals(6, reservations.reservedQuantity(1));
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation WHERE order_id = 'HOLD_A'"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log"));
+
+        assertFalse(placeOrder("HOLD_B", 1, 5, 0), "可售数量只剩4件");
+        assertFalse(placeOrder("PAID_B", 2, 5, 0), "已支付订单也不能占用预留数量");
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation WHERE order_id = 'HOLD_B'"));
+        assertEquals(6, reservations.reservedQuantity(1), "失败的下单不留下预留");
+        assertTrue(placeOrder("PAID_C", 2, 4, 0));
+        assertEquals(6, stockOf(1));
+
+        assertTrue(orderService.updateOrderStatus("HOLD_A", 2));
+        assertEquals(0, stockOf(1));
+        assertEquals(4, stockOf(2));
+        assertEquals(0, reservations.reservedQuantity(1));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log WHERE order_id = 'HOLD_A' " +
+                "AND product_id = 1 AND change_type = 'sale' AND before_stock = 6 AND after_stock = 0"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("取消和删除待支付订单只释放预留")
+    void testCancelAndDeleteReleaseHold() throws Exception {
+        assertTrue(placeOrder("CANCEL_A", 1, 3, 0));
+        assertTrue(placeOrder("DELETE_A", 1, 2, 2));
+        assertEquals(5, reservations.reservedQuantity(1));
+
+        assertTrue(orderService.updateOrderStatus("CANCEL_A", 5));
+        dispatcher.dispatchPending();
+        assertEquals(10, stockOf(1), "未扣减过的库存不应被恢复");
+        assertEquals(2, reservations.reservedQuantity(1));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_inventory_log WHERE change_type = 'cancel'"));
+
+        assertTrue(orderService.deleteOrder("DELETE_A"));
+        assertEquals(10, stockOf(1));
+        assertEquals(5, stockOf(2));
+        assertEquals(0, reservations.reservedQuantity(1));
+        assertEquals(0, reservations.reservedQuantity(2));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("到期清扫释放预留，过期订单支付时重新校验可售数量")
+    void testExpiredHoldIsReleased() throws Exception {
+        assertTrue(placeOrder("EXPIRE_A", 1, 8, 0));
+        assertEquals(0, reservations.sweepExpired(System.currentTimeMillis() + TTL_MS / 2), "未到期不释放");
+
+        assertEquals(1, reservations.sweepExpired(System.currentTimeMillis() + TTL_MS + 5_000));
+        assertEquals(0, reservations.reservedQuantity(1));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation " +
+                "WHERE order_id = 'EXPIRE_A' AND status = 1"), "记录保留并标记为已过期释放");
+
+        // 释放的数量被其他订单买走后，过期订单无法支付
+        assertTrue(placeOrder("PAID_B", 2, 5, 0));
+        assertFalse(orderService.updateOrderStatus("EXPIRE_A", 2));
+        assertEquals(5, stockOf(1));
+        assertEquals(1, queryLong("SELECT status FROM apexflow_order WHERE id = 'EXPIRE_A'"), "支付失败时状态回滚");
+
+        // 取消过期订单同样不恢复库存
+        assertTrue(orderService.updateOrderStatus("EXPIRE_A", 5));
+        dispatcher.dispatchPending();
+        assertEquals(5, stockOf(1));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("重启后从预留表重建内存预留，已到期记录直接释放")
+    void testReloadFromTable() throws Exception {
+        assertTrue(placeOrder("RELOAD_A", 1, 4, 0));
+        assertTrue(placeOrder("RELOAD_B", 1, 3, 1));
+        try (var ps = conn.prepareStatement(
+                "UPDATE apexflow_stock_reservation SET expires_at = ? WHERE order_id = 'RELOAD_B'")) {
+            ps.setObject(1, LocalDateTime.now().minusMinutes(1));
+            ps.executeUpdate();
+        }
+
+        StockReservations restarted = new StockReservations(new StockReservationDAO(), TTL_MS);
+        restarted.reload();
+
+        assertEquals(4, restarted.reservedQuantity(1));
+        assertEquals(0, restarted.reservedQuantity(2));
+        assertEquals(6, restarted.available(1, 10));
+        assertEquals(10, restarted.availableFor("RELOAD_A", 1, 10));
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM apexflow_stock_reservation " +
+                "WHERE order_id = 'RELOAD_B' AND status = 1"));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("时间轮 - 跨圈条目等到对应的那一圈才到期")
+    void testTimerWheel() {
+        TimerWheel<String> wheel = new TimerWheel<>(8, 100, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 250 + 800);
+        wheel.schedule("c", 50);
+
+        assertEquals(List.of(), wheel.advance(99));
+        assertEquals(List.of("c"), wheel.advance(100));
+        assertEquals(List.of("a"), wheel.advance(500));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(1000));
+        assertEquals(List.of("b"), wheel.advance(5_000), "跳过多圈时仍取出到期条目");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("手工调整、修改商品和导入扣减都不能动用预留的库存")
+    void testManualReductionsRespectReservations() throws Exception {
+        assertTrue(placeOrder("HOLD_M", 1, 6, 0));
+        InventoryService inventoryService = new InventoryService(new ProductDAO(), new InventoryLogDAO(),
+                null, reservations);
+        ProductImportService importService = new ProductImportService(new ProductDAO(), new InventoryLogDAO(),
+                reservations);
+
+        assertFalse(inventoryService.adjustStock(1, 5, "盘点"), "库存不能调到预留数量以下");
+        Product product = new ProductDAO().findById(1);
+        product.setStock(5);
+        assertFalse(inventoryService.updateProduct(1, product));
+        assertEquals(10, stockOf(1));
+
+        assertTrue(inventoryService.adjustStock(1, 7, "盘点"));
+        ProductImportResult result = importService.importProducts(new ByteArrayInputStream(
+                "id,quantity\n1,-2\n2,-1\n".getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertEquals(7, stockOf(1));
+        assertEquals(4, stockOf(2));
+
+        assertTrue(orderService.updateOrderStatus("HOLD_M", 2), "预留的库存仍可用于支付");
+        assertEquals(1, stockOf(1));
+    }
+}
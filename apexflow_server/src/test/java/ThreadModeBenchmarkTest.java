@@ -0,0 +1,156 @@
+import com.apex.api.WorkloadClass;
+import com.apex.api.WorkloadExecutors;
+import com.apex.api.WorkloadExecutors.ThreadMode;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台线程与虚拟线程执行模式对比测试
+ * 模拟高并发下的典型请求：一次H2查询 + 一段阻塞等待（下游接口/网络延迟），
+ * 分别在PLATFORM和VIRTUAL模式下提交到FAST负载分类并统计吞吐量。
+ *
+ * 基准部分默认跳过，需在JDK 21+上运行：
+ * mvn test -Dtest=ThreadModeBenchmarkTest -Dapexflow.benchmark=true
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ThreadModeBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("apexflow.benchmark.requests", 5000);
+    private static final long BLOCKING_MILLIS = Long.getLong("apexflow.benchmark.blockingMs", 20L);
+
+    static {
+        // 放开FAST分类的在途上限，保证所有请求都被接受，只比较执行效率
+        System.setProperty("apexflow.async.fast.queue", String.valueOf(REQUESTS));
+    }
+
+    private Connection conn;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+        H2DatabaseInitializer.clearAllTables(conn);
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO apexflow_system_user (id, username, password_hash, salt, real_name) VALUES " +
+                    "(1, 'bench', 'hash', 'salt', 'Bench User')");
+        }
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        WorkloadExecutors.reconfigure(ThreadMode.PLATFORM);
+        ConnectionPool.shutdown();
+    }
+
+    @Test
+    @Order(1)
+    void testAutoModeMatchesRuntime() {
+        WorkloadExecutors.reconfigure(ThreadMode.AUTO);
+
+        boolean virtualAvailable = Runtime.version().feature() >= 21;
+        ThreadMode expected = virtualAvailable ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM;
+        assertEquals(expected, WorkloadExecutors.getActiveMode());
+        assertEquals(expected.name().toLowerCase(), WorkloadExecutors.snapshot().get("fast").get("mode"));
+    }
+
+    @Test
+    @Order(2)
+    void testVirtualModeFallsBackOnOldRuntime() {
+        Assumptions.assumeTrue(Runtime.version().feature() < 21, "仅在JDK 21以下验证回退");
+
+        WorkloadExecutors.reconfigure(ThreadMode.VIRTUAL);
+        assertEquals(ThreadMode.PLATFORM, WorkloadExecutors.getActiveMode());
+    }
+
+    @Test
+    @Order(3)
+    @EnabledIfSystemProperty(named = "apexflow.benchmark", matches = "true")
+    void benchmarkPlatformVersusVirtual() throws Exception {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "虚拟线程需要JDK 21+");
+
+        // 预热
+        run(ThreadMode.PLATFORM, REQUESTS / 10);
+        run(ThreadMode.VIRTUAL, REQUESTS / 10);
+
+        double platform = run(ThreadMode.PLATFORM, REQUESTS);
+        double virtual = run(ThreadMode.VIRTUAL, REQUESTS);
+
+        System.out.printf("[BENCHMARK] requests=%d blockingMs=%d poolSize=%d%n",
+                REQUESTS, BLOCKING_MILLIS, ConnectionPool.getMaximumPoolSize());
+        System.out.printf("[BENCHMARK] platform: %.1f req/s (%d threads)%n",
+                platform, WorkloadClass.FAST.getThreads());
+        System.out.printf("[BENCHMARK] virtual:  %.1f req/s (connection permits: %d)%n",
+                virtual, ConnectionPool.getMaximumPoolSize());
+
+        assertTrue(virtual > platform, "虚拟线程模式在阻塞型负载下吞吐量应高于固定平台线程池");
+    }
+
+    /**
+     * 以指定模式并发提交请求，返回每秒完成的请求数
+     */
+    private double run(ThreadMode mode, int requests) throws Exception {
+        WorkloadExecutors.reconfigure(mode);
+        assertEquals(mode, WorkloadExecutors.getActiveMode());
+
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            try {
+                WorkloadExecutors.submit(WorkloadClass.FAST, () -> {
+                    try {
+                        handleRequest();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                failures.incrementAndGet();
+                done.countDown();
+            }
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "基准请求未在限定时间内完成");
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals(0, failures.get(), mode + " 模式下存在失败请求");
+        return requests / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * 模拟一个请求：短查询后归还连接，再阻塞等待下游响应
+     */
+    private void handleRequest() throws Exception {
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT username FROM apexflow_system_user WHERE id = ?")) {
+            ps.setInt(1, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+            }
+        }
+        Thread.sleep(BLOCKING_MILLIS);
+    }
+}
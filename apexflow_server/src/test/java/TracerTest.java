@@ -0,0 +1,200 @@
+import com.apex.api.BaseServlet;
+import com.apex.util.ConnectionPool;
+import com.apex.util.TraceRecord;
+import com.apex.util.Tracer;
+import com.apex.util.Transactions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.slf4j.MDC;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 请求追踪测试
+ * 验证服务片段与JDBC/连接池片段的嵌套关系、请求ID写入MDC和响应头、采样率、以及环形缓冲区的容量和顺序。
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TracerTest {
+
+    private Connection conn;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        Tracer.setSampleRate(0.1);
+        Tracer.clear();
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Tracer.setSampleRate(1.0);
+        Tracer.clear();
+    }
+
+    private static int countProducts() throws Exception {
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement("SELECT COUNT(*) FROM apexflow_product");
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    @DisplayName("JDBC和连接池片段嵌套在服务片段下")
+    void testNestedSpans() throws Exception {
+        Tracer.begin("trace-nested", "GET", "/api/orders/ORD001");
+        try (Tracer.Span ignored = Tracer.span("OrderService.getOrderDetail", "ORD001")) {
+            countProducts();
+            Transactions.execute(() -> {
+                countProducts();
+                return null;
+            });
+        }
+        countProducts();
+        Tracer.end(200);
+
+        List<TraceRecord> traces = Tracer.recent(10);
+        assertEquals(1, traces.size());
+        TraceRecord trace = traces.get(0);
+        assertEquals("trace-nested", trace.getRequestId());
+        assertEquals(200, trace.getStatus());
+
+        List<TraceRecord.SpanRecord> spans = trace.getSpans();
+        assertEquals("OrderService.getOrderDetail", spans.get(0).getName());
+        assertEquals("ORD001", spans.get(0).getDetail());
+        assertEquals(0, spans.get(0).getDepth());
+        // 事务内的语句只记录一次，事务只从连接池获取一次连接
+        assertEquals(List.of("pool.wait", "jdbc", "pool.wait", "jdbc"),
+                spans.subList(1, 5).stream().map(TraceRecord.SpanRecord::getName).toList());
+        spans.subList(1, 5).forEach(span -> assertEquals(1, span.getDepth()));
+        assertEquals("SELECT COUNT(*) FROM apexflow_product", spans.get(2).getDetail());
+        assertEquals(List.of("pool.wait", "jdbc"),
+                spans.subList(5, 7).stream().map(TraceRecord.SpanRecord::getName).toList());
+        spans.subList(5, 7).forEach(span -> assertEquals(0, span.getDepth()));
+        assertEquals(7, spans.size());
+
+        TraceRecord.SpanRecord service = spans.get(0);
+        for (TraceRecord.SpanRecord child : spans.subList(1, 5)) {
+            assertTrue(child.getStartMs() >= service.getStartMs());
+            assertTrue(child.getDurationMs() >= 0);
+        }
+        assertTrue(service.getDurationMs() <= trace.getDurationMs());
+    }
+
+    @Test
+    @DisplayName("请求ID写入MDC和响应头，合法的上游请求ID被沿用")
+    void testRequestIdInMdcAndHeader() throws Exception {
+        AtomicReference<String> seenInHandler = new AtomicReference<>();
+        BaseServlet servlet = new BaseServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                seenInHandler.set(MDC.get(Tracer.MDC_REQUEST_ID));
+                resp.setStatus(HttpServletResponse.SC_OK);
+            }
+        };
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getRequestURI()).thenReturn("/api/test");
+        when(req.getHeader(Tracer.REQUEST_ID_HEADER)).thenReturn("edge-4f2a_01");
+        when(resp.getStatus()).thenReturn(200);
+
+        servlet.service((ServletRequest) req, (ServletResponse) resp);
+
+        assertEquals("edge-4f2a_01", seenInHandler.get());
+        verify(resp).setHeader(Tracer.REQUEST_ID_HEADER, "edge-4f2a_01");
+        assertNull(MDC.get(Tracer.MDC_REQUEST_ID), "请求结束后清除MDC");
+
+        TraceRecord trace = Tracer.recent(1).get(0);
+        assertEquals("edge-4f2a_01", trace.getRequestId());
+        assertEquals(0, trace.getSpans().get(0).getDepth(), "Servlet层片段");
+
+        // 不合法的上游ID不会进入日志和响应头
+        when(req.getHeader(Tracer.REQUEST_ID_HEADER)).thenReturn("bad id\r\nX-Injected: 1");
+        servlet.service((ServletRequest) req, (ServletResponse) resp);
+        assertNotEquals("bad id\r\nX-Injected: 1", seenInHandler.get());
+        assertTrue(seenInHandler.get().matches("[0-9a-f]{16}"), seenInHandler.get());
+        verify(resp).setHeader(Tracer.REQUEST_ID_HEADER, seenInHandler.get());
+    }
+
+    @Test
+    @DisplayName("采样率为0时只设置请求ID，不记录片段")
+    void testSampling() throws Exception {
+        Tracer.setSampleRate(0.0);
+        Tracer.begin("unsampled", "GET", "/api/orders");
+        assertFalse(Tracer.isSampled());
+        assertEquals("unsampled", MDC.get(Tracer.MDC_REQUEST_ID));
+        try (Tracer.Span ignored = Tracer.span("OrderService.getAllOrdersWithItems")) {
+            countProducts();
+        }
+        Tracer.end(200);
+        assertTrue(Tracer.recent(10).isEmpty());
+
+        Tracer.setSampleRate(1.0);
+        Tracer.begin("sampled", "GET", "/api/orders");
+        assertTrue(Tracer.isSampled());
+        Tracer.end(200);
+        assertEquals("sampled", Tracer.recent(10).get(0).getRequestId());
+
+        // 没有打开追踪的线程返回空片段
+        try (Tracer.Span span = Tracer.span("background")) {
+            assertNotNull(span);
+        }
+        assertEquals(1, Tracer.recent(10).size());
+    }
+
+    @Test
+    @DisplayName("环形缓冲区保留最近的追踪，最新的在前，并可序列化为JSON")
+    void testRingBuffer() throws Exception {
+        for (int i = 0; i < 300; i++) {
+            Tracer.begin("req-" + i, "GET", "/api/orders");
+            Tracer.end(200);
+        }
+
+        List<TraceRecord> all = Tracer.recent(1000);
+        assertEquals(256, all.size());
+        assertEquals("req-299", all.get(0).getRequestId());
+        assertEquals("req-44", all.get(255).getRequestId());
+        assertEquals(List.of("req-299", "req-298", "req-297"),
+                Tracer.recent(3).stream().map(TraceRecord::getRequestId).toList());
+
+        Tracer.clear();
+        Tracer.begin("json", "GET", "/api/orders/ORD001");
+        try (Tracer.Span ignored = Tracer.span("OrderService.getOrderDetail", "ORD001")) {
+            countProducts();
+        }
+        Tracer.end(200);
+        JsonNode json = new ObjectMapper().valueToTree(Tracer.recent(1));
+        assertEquals("json", json.get(0).get("requestId").asText());
+        assertEquals("OrderService.getOrderDetail", json.get(0).get("spans").get(0).get("name").asText());
+        assertEquals(1, json.get(0).get("spans").get(2).get("depth").asInt());
+    }
+}
@@ -1,4 +1,5 @@
 import com.apex.core.dao.UserDAO;
+import com.apex.core.dto.AdminUserDTO;
 import com.apex.core.model.SystemUser;
 import com.apex.util.ConnectionPool;
 import org.jetbrains.annotations.NotNull;
@@ -578,4 +579,39 @@ public class UserDAOTest {
                         retrieved.getUpdatedAt().isEqual(retrieved.getCreatedAt()),
                 "更新时间应该晚于或等于创建时间");
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(31)
+    void testFindAdminUsers() {
+        // Act
+        List<AdminUserDTO> users = userDAO.findAdminUsers(1, 10);
+
+        // Assert
+        assertEquals(5, users.size(), "应该返回所有用户");
+
+        AdminUserDTO manager = users.stream()
+                .filter(u -> u.getId() == 2)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("manager1", manager.getUsername());
+        assertEquals("经理1", manager.getRealName());
+        assertEquals("manager1@apexflow.com", manager.getEmail());
+        assertFalse(manager.getIsAdmin());
+        assertTrue(manager.getCanManageOrder());
+        assertFalse(manager.getCanManageAfterSales());
+        assertTrue(manager.getCanManageIncome());
+        assertEquals(1, manager.getStatus());
+        assertNotNull(manager.getCreatedAt());
+    }
+
+    @Test
+    @Order(32)
+    void testSearchAdminUsers() {
+        // Act
+        List<AdminUserDTO> users = userDAO.searchAdminUsers("manager", 1, 10);
+
+        // Assert
+        assertEquals(2, users.size(), "应该找到2个经理用户");
+        assertTrue(users.stream().allMatch(u -> u.getUsername().startsWith("manager")));
+    }
+}
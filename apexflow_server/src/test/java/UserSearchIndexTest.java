@@ -0,0 +1,157 @@
+import com.apex.core.dao.UserDAO;
+import com.apex.core.dto.AdminUserDTO;
+import com.apex.core.dto.AdminUserListResponse;
+import com.apex.core.dto.CreateUserRequest;
+import com.apex.core.dto.UpdateUserInfoRequest;
+import com.apex.core.service.AdminService;
+import com.apex.core.service.UserSearchIndex;
+import com.apex.util.ConnectionPool;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户搜索索引测试
+ * 使用H2内存数据库，验证索引构建、排序分页、与LIKE查询结果一致以及增删改后的同步更新
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class UserSearchIndexTest {
+
+    private UserDAO userDAO;
+    private AdminService adminService;
+    private UserSearchIndex index;
+    private Connection conn;
+
+    @BeforeAll
+    void setUpAll() throws Exception {
+        System.setProperty("apexflow.test.h2", "true");
+
+        conn = ConnectionPool.getConnection();
+        H2DatabaseInitializer.initialize(conn);
+
+        userDAO = new UserDAO();
+        adminService = new AdminService();
+        index = UserSearchIndex.shared();
+    }
+
+    @AfterAll
+    void tearDownAll() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (Exception e) {
+                // 忽略关闭异常
+            }
+        }
+        ConnectionPool.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        H2DatabaseInitializer.clearAllTables(conn);
+
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("""
+                        INSERT INTO apexflow_system_user (id, username, password_hash, salt, real_name, email, phone, status) VALUES
+                        (1, 'admin', 'h', 's', '系统管理员', 'admin@test.com', '13800138000', 1),
+                        (2, 'zhangsan', 'h', 's', '张三', 'zhangsan@test.com', '13900000001', 1),
+                        (3, 'lisi', 'h', 's', '李四', 'lisi@example.com', '13900000002', 1),
+                        (4, 'zhang', 'h', 's', '张伟', 'wei@test.com', '13900000003', 1),
+                        (5, 'adminzhang', 'h', 's', '张管理', 'az@test.com', '13900000004', 0)
+                    """);
+        }
+        adminService.buildSearchIndex();
+    }
+
+    @Test
+    @Order(1)
+    void testBuildAndRanking() {
+        assertTrue(index.isReady());
+
+        UserSearchIndex.SearchResult result = index.search("zhang", 1, 10);
+        assertEquals(3, result.getTotal());
+        // 用户名完全匹配 > 用户名前缀 > 子串匹配
+        assertEquals(List.of(4, 2, 5), result.getIds());
+
+        assertEquals(List.of(5, 4, 2), index.search("张", 1, 10).getIds(), "同分时按ID倒序");
+        assertEquals(List.of(3), index.search("EXAMPLE", 1, 10).getIds(), "搜索不区分大小写");
+        assertEquals(0, index.search("不存在", 1, 10).getTotal());
+    }
+
+    @Test
+    @Order(2)
+    void testMatchesDatabaseSearch() {
+        for (String keyword : new String[]{"a", "zh", "test.com", "139", "管理", "n@t", "xyz"}) {
+            UserSearchIndex.SearchResult result = index.search(keyword, 1, 100);
+            List<AdminUserDTO> expected = userDAO.searchAdminUsers(keyword, 1, 100);
+            assertEquals(expected.size(), result.getTotal(), "关键词 " + keyword + " 的命中数应与LIKE查询一致");
+            assertEquals(expected.stream().map(AdminUserDTO::getId).sorted().toList(),
+                    result.getIds().stream().sorted().toList());
+        }
+    }
+
+    @Test
+    @Order(3)
+    void testPagingThroughService() {
+        AdminUserListResponse first = adminService.searchUsers("test.com", 1, 2);
+        assertEquals(4, first.getTotalCount());
+        assertEquals(2, first.getTotalPages());
+        assertEquals(2, first.getUsers().size());
+        assertTrue(first.getTotalExact());
+
+        AdminUserListResponse second = adminService.searchUsers("test.com", 2, 2);
+        assertEquals(2, second.getUsers().size());
+        assertNotEquals(first.getUsers().get(0).getId(), second.getUsers().get(0).getId());
+        assertEquals("zhangsan", adminService.searchUsers("zhangsan", 1, 10).getUsers().get(0).getUsername());
+    }
+
+    @Test
+    @Order(4)
+    void testIndexFollowsServiceWrites() {
+        CreateUserRequest create = new CreateUserRequest();
+        create.setUsername("wangwu");
+        create.setPassword("123456");
+        create.setRealName("王五");
+        create.setEmail("wangwu@corp.cn");
+        create.setPhone("13700000000");
+        adminService.createUser(create);
+
+        List<Integer> created = index.search("wangwu", 1, 10).getIds();
+        assertEquals(1, created.size());
+        Integer id = created.get(0);
+
+        UpdateUserInfoRequest update = new UpdateUserInfoRequest();
+        update.setEmail("ww@other.cn");
+        adminService.updateUserInfo(id, update);
+        assertEquals(0, index.search("corp.cn", 1, 10).getTotal(), "旧邮箱不应再命中");
+        assertEquals(List.of(id), index.search("other.cn", 1, 10).getIds());
+
+        adminService.deleteUser(id);
+        assertEquals(0, index.search("wangwu", 1, 10).getTotal());
+    }
+
+    @Test
+    @Order(5)
+    void testFallsBackToDatabaseBeforeBuild() {
+        index.reset();
+        assertFalse(index.isReady());
+
+        AdminUserListResponse response = adminService.searchUsers("zhang", 1, 10);
+        assertEquals(3, response.getUsers().size());
+    }
+
+    @Test
+    @Order(6)
+    void testDaoKeysetAndIdLookup() {
+        List<AdminUserDTO> afterTwo = userDAO.findAdminUsersAfter(2, 2);
+        assertEquals(List.of(3, 4), afterTwo.stream().map(AdminUserDTO::getId).toList());
+
+        List<AdminUserDTO> byIds = userDAO.findAdminUsersByIds(List.of(5, 1, 3, 99));
+        assertEquals(List.of(5, 1, 3), byIds.stream().map(AdminUserDTO::getId).toList(), "应按传入ID顺序返回");
+        assertTrue(userDAO.findAdminUsersByIds(List.of()).isEmpty());
+    }
+}